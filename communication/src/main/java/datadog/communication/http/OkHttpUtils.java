@@ -244,8 +244,11 @@ public final class OkHttpUtils {
     @Override
     public void writeTo(BufferedSink sink) throws IOException {
       for (ByteBuffer buffer : buffers) {
-        while (buffer.hasRemaining()) {
-          sink.write(buffer);
+        // written straight from the (possibly direct) buffer, through a view so the
+        // body can be written again if the request is retried
+        ByteBuffer view = buffer.duplicate();
+        while (view.hasRemaining()) {
+          sink.write(view);
         }
       }
     }
@@ -0,0 +1,6 @@
+package datadog.communication.monitor;
+
+public interface Gauge {
+
+  void set(long value);
+}
@@ -11,6 +11,8 @@ public interface Monitoring {
 
   Counter newCounter(String name);
 
+  Gauge newGauge(String name);
+
   class DisabledMonitoring implements Monitoring {
     private DisabledMonitoring() {}
 
@@ -33,5 +35,10 @@ public interface Monitoring {
     public Counter newCounter(String name) {
       return NoOpCounter.NO_OP;
     }
+
+    @Override
+    public Gauge newGauge(String name) {
+      return NoOpGauge.NO_OP;
+    }
   }
 }
@@ -0,0 +1,8 @@
+package datadog.communication.monitor;
+
+public final class NoOpGauge implements Gauge {
+
+  public static final Gauge NO_OP = new NoOpGauge();
+
+  public void set(long value) {}
+}
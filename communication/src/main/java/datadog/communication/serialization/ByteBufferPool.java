@@ -0,0 +1,96 @@
+package datadog.communication.serialization;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed number of pre-allocated buffers of the same size. Buffers are handed out by {@link
+ * #acquire()} and must be given back with {@link #release(ByteBuffer)} once their contents have
+ * been consumed, so that the total memory in use stays bounded. Only buffers acquired from the
+ * pool, and not yet released, are taken back.
+ */
+public final class ByteBufferPool {
+
+  private final ArrayDeque<ByteBuffer> available;
+  // guarded by this
+  private final Set<ByteBuffer> acquired;
+  private final int bufferCount;
+  private final int bufferSize;
+
+  public ByteBufferPool(int bufferCount, int bufferSize) {
+    this(bufferCount, bufferSize, false);
+  }
+
+  /** @param direct whether to allocate the buffers off heap */
+  public ByteBufferPool(int bufferCount, int bufferSize, boolean direct) {
+    this.available = new ArrayDeque<>(bufferCount);
+    this.acquired = Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>());
+    this.bufferCount = bufferCount;
+    this.bufferSize = bufferSize;
+    for (int i = 0; i < bufferCount; ++i) {
+      available.offer(
+          direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize));
+    }
+  }
+
+  public int bufferCount() {
+    return bufferCount;
+  }
+
+  public int bufferSize() {
+    return bufferSize;
+  }
+
+  public synchronized int available() {
+    return available.size();
+  }
+
+  /**
+   * Takes a buffer from the pool, waiting for one to be released if none are available.
+   *
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  public synchronized ByteBuffer acquire() throws InterruptedException {
+    while (available.isEmpty()) {
+      wait();
+    }
+    ByteBuffer buffer = available.poll();
+    acquired.add(buffer);
+    return buffer;
+  }
+
+  /**
+   * Returns a buffer to the pool. Buffers which were not acquired from this pool, or which were
+   * already released, are ignored.
+   */
+  public synchronized void release(ByteBuffer buffer) {
+    if (acquired.remove(buffer)) {
+      buffer.clear();
+      available.offer(buffer);
+      notifyAll();
+    }
+  }
+
+  /**
+   * Waits until at least {@code count} buffers are available.
+   *
+   * @return false if the timeout elapsed first
+   */
+  public synchronized boolean awaitAvailable(int count, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    long remaining = unit.toNanos(timeout);
+    long deadline = System.nanoTime() + remaining;
+    while (available.size() < count) {
+      if (remaining <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      remaining = deadline - System.nanoTime();
+    }
+    return true;
+  }
+}
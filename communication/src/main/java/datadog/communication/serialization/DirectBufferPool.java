@@ -0,0 +1,113 @@
+package datadog.communication.serialization;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recycles direct buffers, so that serialized data lives off heap and buffers aren't reallocated
+ * for every payload. Buffer sizes are rounded up to a power of two size class, and each size class
+ * keeps a bounded number of released buffers for reuse. Requests larger than the largest size class
+ * are served with unpooled heap buffers.
+ *
+ * <p>The number of bytes held in the pool and handed out by it can be read at any time, to be
+ * reported periodically.
+ */
+public final class DirectBufferPool {
+
+  private static final int MIN_SIZE_CLASS_SHIFT = 12;
+
+  private final ArrayDeque<ByteBuffer>[] sizeClasses;
+  private final int maxPooledPerSizeClass;
+  private final AtomicLong pooledBytes = new AtomicLong();
+  private final AtomicLong usedBytes = new AtomicLong();
+
+  /**
+   * @param maxBufferSize the largest buffer size which will be pooled
+   * @param maxPooledPerSizeClass how many released buffers of each size class to keep
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public DirectBufferPool(int maxBufferSize, int maxPooledPerSizeClass) {
+    int count = sizeClassOf(maxBufferSize) + 1;
+    this.sizeClasses = new ArrayDeque[count];
+    for (int i = 0; i < count; ++i) {
+      sizeClasses[i] = new ArrayDeque<>(maxPooledPerSizeClass);
+    }
+    this.maxPooledPerSizeClass = maxPooledPerSizeClass;
+  }
+
+  /** @return the capacity of the buffers which will be handed out for this capacity */
+  public int sizeClassCapacity(int minCapacity) {
+    int sizeClass = sizeClassOf(minCapacity);
+    return sizeClass < sizeClasses.length ? 1 << (sizeClass + MIN_SIZE_CLASS_SHIFT) : minCapacity;
+  }
+
+  /**
+   * Takes a cleared buffer of at least this capacity, which should be given back with {@link
+   * #release(ByteBuffer)} once its contents have been consumed.
+   */
+  public ByteBuffer acquire(int minCapacity) {
+    int sizeClass = sizeClassOf(minCapacity);
+    if (sizeClass >= sizeClasses.length) {
+      return ByteBuffer.allocate(minCapacity);
+    }
+    ArrayDeque<ByteBuffer> pooled = sizeClasses[sizeClass];
+    ByteBuffer buffer;
+    synchronized (pooled) {
+      buffer = pooled.poll();
+    }
+    int capacity = 1 << (sizeClass + MIN_SIZE_CLASS_SHIFT);
+    if (null == buffer) {
+      buffer = ByteBuffer.allocateDirect(capacity);
+    } else {
+      pooledBytes.addAndGet(-capacity);
+    }
+    usedBytes.addAndGet(capacity);
+    return buffer;
+  }
+
+  /**
+   * Returns a buffer taken from this pool, which must not be used afterwards. The unpooled heap
+   * buffers handed out for oversized requests are ignored.
+   */
+  public void release(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (!buffer.isDirect() || Integer.bitCount(capacity) != 1) {
+      return;
+    }
+    int sizeClass = sizeClassOf(capacity);
+    if (sizeClass >= sizeClasses.length || capacity < 1 << MIN_SIZE_CLASS_SHIFT) {
+      return;
+    }
+    usedBytes.addAndGet(-capacity);
+    ArrayDeque<ByteBuffer> pooled = sizeClasses[sizeClass];
+    boolean recycled = false;
+    synchronized (pooled) {
+      if (pooled.size() < maxPooledPerSizeClass) {
+        buffer.clear();
+        pooled.offer(buffer);
+        recycled = true;
+      }
+    }
+    if (recycled) {
+      pooledBytes.addAndGet(capacity);
+    }
+  }
+
+  /** @return the number of bytes in released buffers waiting to be reused */
+  public long pooledBytes() {
+    return pooledBytes.get();
+  }
+
+  /** @return the number of bytes in buffers which have been acquired and not released yet */
+  public long usedBytes() {
+    return usedBytes.get();
+  }
+
+  private static int sizeClassOf(int capacity) {
+    if (capacity <= 1 << MIN_SIZE_CLASS_SHIFT) {
+      return 0;
+    }
+    return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SIZE_CLASS_SHIFT;
+  }
+}
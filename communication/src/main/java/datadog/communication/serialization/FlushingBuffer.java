@@ -4,14 +4,37 @@ import java.nio.ByteBuffer;
 
 public final class FlushingBuffer implements StreamingBuffer {
 
-  private final ByteBuffer buffer;
+  private final ByteBufferPool pool;
   private final ByteBufferConsumer consumer;
 
+  private ByteBuffer buffer;
+
   private int messageCount;
   private int mark;
 
   public FlushingBuffer(int capacity, ByteBufferConsumer consumer) {
-    this.buffer = ByteBuffer.allocate(capacity);
+    this(ByteBuffer.allocate(capacity), consumer);
+  }
+
+  /**
+   * Writes into this buffer, for instance a direct buffer, which is reused once the consumer has
+   * returned.
+   */
+  public FlushingBuffer(ByteBuffer buffer, ByteBufferConsumer consumer) {
+    this.pool = null;
+    this.buffer = buffer;
+    this.consumer = consumer;
+  }
+
+  /**
+   * Writes into buffers taken from the pool. Each flushed buffer is passed to the consumer as is,
+   * and the consumer becomes responsible for releasing it back to the pool when done with it. If
+   * the writing thread is interrupted while waiting for a buffer, an {@link IllegalStateException}
+   * is thrown with the interrupt flag set, and the buffer can no longer be written to.
+   */
+  public FlushingBuffer(ByteBufferPool pool, ByteBufferConsumer consumer) {
+    this.pool = pool;
+    this.buffer = acquire(pool);
     this.consumer = consumer;
   }
 
@@ -38,8 +61,17 @@ public final class FlushingBuffer implements StreamingBuffer {
     }
     buffer.limit(mark);
     buffer.flip();
-    ByteBuffer toPublish = buffer.slice();
-    consumer.accept(messageCount, toPublish);
+    if (null == pool) {
+      ByteBuffer toPublish = buffer.slice();
+      consumer.accept(messageCount, toPublish);
+    } else {
+      ByteBuffer toPublish = buffer;
+      // the published buffer belongs to the consumer from now on
+      buffer = null;
+      consumer.accept(messageCount, toPublish);
+      // may block until the consumer has released a buffer
+      buffer = acquire(pool);
+    }
     reset();
     return true;
   }
@@ -94,6 +126,15 @@ public final class FlushingBuffer implements StreamingBuffer {
     this.buffer.put(buffer);
   }
 
+  private static ByteBuffer acquire(ByteBufferPool pool) {
+    try {
+      return pool.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a pooled buffer", e);
+    }
+  }
+
   @Override
   public void reset() {
     messageCount = 0;
@@ -9,14 +9,26 @@ import java.nio.ByteBuffer;
 public final class GrowableBuffer implements StreamingBuffer {
 
   private final int initialCapacity;
+  private final DirectBufferPool pool;
   private ByteBuffer buffer;
   private int messageCount;
 
   public GrowableBuffer(int initialCapacity) {
     this.initialCapacity = initialCapacity;
+    this.pool = null;
     this.buffer = ByteBuffer.allocate(initialCapacity);
   }
 
+  /**
+   * Takes its buffers from the pool, growing into the next size class when full, and hands the
+   * buffer back when {@link #release() released}.
+   */
+  public GrowableBuffer(int initialCapacity, DirectBufferPool pool) {
+    this.initialCapacity = initialCapacity;
+    this.pool = pool;
+    this.buffer = pool.acquire(initialCapacity);
+  }
+
   public ByteBuffer slice() {
     buffer.flip();
     return buffer.slice();
@@ -113,8 +125,25 @@ public final class GrowableBuffer implements StreamingBuffer {
     this.buffer.put(buffer);
   }
 
+  /** Gives the buffer back to the pool, after which this buffer must not be used. */
+  public void release() {
+    if (null != pool && null != buffer) {
+      pool.release(buffer);
+      buffer = null;
+    }
+  }
+
   private void checkCapacity(int required) {
     if (buffer.remaining() < required) {
+      if (null != pool) {
+        // size classes double, so growth is amortized
+        ByteBuffer newBuffer = pool.acquire(buffer.capacity() + required);
+        buffer.flip();
+        newBuffer.put(buffer);
+        pool.release(buffer);
+        buffer = newBuffer;
+        return;
+      }
       // round up to next multiple of required
       int newSize = (buffer.capacity() + required + initialCapacity - 1) & -initialCapacity;
       ByteBuffer newBuffer = ByteBuffer.allocate(newSize);
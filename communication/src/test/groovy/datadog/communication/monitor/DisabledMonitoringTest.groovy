@@ -16,4 +16,9 @@ class DisabledMonitoringTest {
   void 'newCounter returns noop'() {
     assert disabledMonitoring.newCounter('foo').is(NoOpCounter.NO_OP)
   }
+
+  @Test
+  void 'newGauge returns noop'() {
+    assert disabledMonitoring.newGauge('foo').is(NoOpGauge.NO_OP)
+  }
 }
@@ -1,7 +1,12 @@
 package datadog.communication.serialization;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Test;
 
 public class FlushingBufferTest {
@@ -10,4 +15,30 @@ public class FlushingBufferTest {
   public void testBufferCapacity() {
     assertEquals(5, new FlushingBuffer(5, (messageCount, buffer) -> {}).capacity());
   }
+
+  @Test
+  public void testPooledBufferIsHandedOverOnFlush() throws InterruptedException {
+    ByteBufferPool pool = new ByteBufferPool(2, 16);
+    List<ByteBuffer> published = new ArrayList<>();
+    FlushingBuffer flushingBuffer =
+        new FlushingBuffer(pool, (messageCount, buffer) -> published.add(buffer));
+    assertEquals(16, flushingBuffer.capacity());
+    assertEquals(1, pool.available());
+
+    flushingBuffer.putInt(42);
+    flushingBuffer.mark();
+    assertTrue(flushingBuffer.flush());
+
+    assertEquals(1, published.size());
+    ByteBuffer buffer = published.get(0);
+    assertEquals(4, buffer.remaining());
+    assertEquals(42, buffer.getInt(0));
+    // the flushing buffer moved on to the other pooled buffer
+    assertEquals(0, pool.available());
+
+    pool.release(buffer);
+    assertEquals(1, pool.available());
+    assertSame(buffer, pool.acquire());
+    assertEquals(16, buffer.remaining());
+  }
 }
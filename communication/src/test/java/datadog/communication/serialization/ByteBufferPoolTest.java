@@ -0,0 +1,112 @@
+package datadog.communication.serialization;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+public class ByteBufferPoolTest {
+
+  @Test
+  public void buffersArePreallocated() throws InterruptedException {
+    ByteBufferPool pool = new ByteBufferPool(3, 8);
+    assertEquals(3, pool.bufferCount());
+    assertEquals(8, pool.bufferSize());
+    assertEquals(3, pool.available());
+    ByteBuffer buffer = pool.acquire();
+    assertEquals(8, buffer.capacity());
+    assertEquals(2, pool.available());
+  }
+
+  @Test
+  public void releasedBuffersAreCleared() throws InterruptedException {
+    ByteBufferPool pool = new ByteBufferPool(1, 8);
+    ByteBuffer buffer = pool.acquire();
+    buffer.putLong(1L);
+    buffer.flip();
+    pool.release(buffer);
+    ByteBuffer reused = pool.acquire();
+    assertEquals(0, reused.position());
+    assertEquals(8, reused.limit());
+  }
+
+  @Test
+  public void foreignBuffersAreNotPooled() throws InterruptedException {
+    ByteBufferPool pool = new ByteBufferPool(1, 8);
+    ByteBuffer buffer = pool.acquire();
+    pool.release(ByteBuffer.allocate(8));
+    pool.release(ByteBuffer.allocate(16));
+    assertEquals(0, pool.available());
+    pool.release(buffer);
+    assertEquals(1, pool.available());
+    assertSame(buffer, pool.acquire());
+  }
+
+  @Test
+  public void buffersAreOnlyReleasedOnce() throws InterruptedException {
+    ByteBufferPool pool = new ByteBufferPool(2, 8);
+    ByteBuffer first = pool.acquire();
+    ByteBuffer second = pool.acquire();
+    pool.release(first);
+    pool.release(first);
+    assertEquals(1, pool.available());
+    // a buffer released twice must not be handed out twice
+    assertSame(first, pool.acquire());
+    assertEquals(0, pool.available());
+    pool.release(second);
+    assertEquals(1, pool.available());
+  }
+
+  @Test
+  public void acquireWaitsForRelease() throws InterruptedException {
+    ByteBufferPool pool = new ByteBufferPool(1, 8);
+    ByteBuffer first = pool.acquire();
+    CountDownLatch acquired = new CountDownLatch(1);
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                pool.acquire();
+                acquired.countDown();
+              } catch (InterruptedException ignored) {
+              }
+            });
+    thread.start();
+    assertFalse(acquired.await(50, MILLISECONDS));
+    pool.release(first);
+    assertTrue(acquired.await(5, SECONDS));
+    thread.join();
+  }
+
+  @Test
+  public void interruptedAcquireThrows() throws InterruptedException {
+    ByteBufferPool pool = new ByteBufferPool(1, 8);
+    ByteBuffer first = pool.acquire();
+    Thread.currentThread().interrupt();
+    try {
+      pool.acquire();
+      fail("acquire should have been interrupted");
+    } catch (InterruptedException expected) {
+    }
+    assertFalse(Thread.currentThread().isInterrupted());
+    pool.release(first);
+    assertEquals(1, pool.available());
+  }
+
+  @Test
+  public void awaitAvailableTimesOut() throws InterruptedException {
+    ByteBufferPool pool = new ByteBufferPool(2, 8);
+    assertTrue(pool.awaitAvailable(2, 10, MILLISECONDS));
+    ByteBuffer buffer = pool.acquire();
+    assertFalse(pool.awaitAvailable(2, 10, MILLISECONDS));
+    pool.release(buffer);
+    assertTrue(pool.awaitAvailable(2, 10, MILLISECONDS));
+  }
+}
@@ -0,0 +1,76 @@
+package datadog.communication.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class DirectBufferPoolTest {
+
+  @Test
+  public void buffersAreRoundedUpToSizeClasses() {
+    DirectBufferPool pool = new DirectBufferPool(1 << 16, 2);
+    assertEquals(4096, pool.sizeClassCapacity(1));
+    assertEquals(4096, pool.sizeClassCapacity(4096));
+    assertEquals(8192, pool.sizeClassCapacity(4097));
+    assertEquals(1 << 16, pool.sizeClassCapacity(1 << 16));
+    ByteBuffer buffer = pool.acquire(5000);
+    assertTrue(buffer.isDirect());
+    assertEquals(8192, buffer.capacity());
+    assertEquals(8192, pool.usedBytes());
+  }
+
+  @Test
+  public void releasedBuffersAreRecycled() {
+    DirectBufferPool pool = new DirectBufferPool(1 << 16, 2);
+    ByteBuffer buffer = pool.acquire(100);
+    buffer.putLong(1L);
+    pool.release(buffer);
+    assertEquals(0, pool.usedBytes());
+    assertEquals(4096, pool.pooledBytes());
+    ByteBuffer reused = pool.acquire(4000);
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(4096, reused.limit());
+    assertEquals(0, pool.pooledBytes());
+  }
+
+  @Test
+  public void onlyBoundedNumberOfBuffersArePooled() {
+    DirectBufferPool pool = new DirectBufferPool(1 << 16, 2);
+    ByteBuffer first = pool.acquire(100);
+    ByteBuffer second = pool.acquire(100);
+    ByteBuffer third = pool.acquire(100);
+    pool.release(first);
+    pool.release(second);
+    pool.release(third);
+    assertEquals(0, pool.usedBytes());
+    assertEquals(2 * 4096, pool.pooledBytes());
+  }
+
+  @Test
+  public void oversizedRequestsAreNotPooled() {
+    DirectBufferPool pool = new DirectBufferPool(1 << 16, 2);
+    assertEquals((1 << 16) + 1, pool.sizeClassCapacity((1 << 16) + 1));
+    ByteBuffer buffer = pool.acquire((1 << 16) + 1);
+    assertFalse(buffer.isDirect());
+    assertEquals((1 << 16) + 1, buffer.capacity());
+    assertEquals(0, pool.usedBytes());
+    pool.release(buffer);
+    assertEquals(0, pool.pooledBytes());
+  }
+
+  @Test
+  public void foreignBuffersAreNotPooled() {
+    DirectBufferPool pool = new DirectBufferPool(1 << 16, 2);
+    ByteBuffer heap = ByteBuffer.allocate(4096);
+    pool.release(heap);
+    pool.release(ByteBuffer.allocateDirect(5000));
+    assertEquals(0, pool.pooledBytes());
+    assertNotSame(heap, pool.acquire(4096));
+  }
+}
@@ -82,4 +82,24 @@ public class GrowableBufferTest {
     assertEquals(slice.get(), (byte) 64);
     assertEquals(slice.get(), (byte) -128);
   }
+
+  @Test
+  public void pooledBufferGrowsIntoNextSizeClass() {
+    DirectBufferPool pool = new DirectBufferPool(1 << 16, 2);
+    GrowableBuffer gb = new GrowableBuffer(4096, pool);
+    assertEquals(4096, gb.capacity());
+    for (int i = 0; i < 1025; ++i) {
+      gb.putInt(i);
+    }
+    assertEquals(8192, gb.capacity());
+    assertEquals(8192L, pool.usedBytes());
+    assertEquals(4096L, pool.pooledBytes());
+    ByteBuffer contentsAfterResize = gb.slice();
+    for (int i = 0; i < 1025; ++i) {
+      assertEquals(i, contentsAfterResize.getInt());
+    }
+    gb.release();
+    assertEquals(0L, pool.usedBytes());
+    assertEquals(4096L + 8192L, pool.pooledBytes());
+  }
 }
@@ -0,0 +1,110 @@
+package datadog.trace.bootstrap.instrumentation.decorator.http;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolves the resource names of paths carrying random IDs, which are never cached, with {@code
+ * patterns} route patterns mixing literal segments, {@code *}, {@code **} and wildcards inside
+ * segments. Compares matching each pattern in turn, as the normalizer did before the patterns were
+ * compiled to an {@link AntPatternTrie}, with the trie, and with the normalizer, which also looks
+ * the path up in its cache. A quarter of the paths match no pattern.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 3, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 3, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class AntPatternPathNormalizerBenchmark {
+
+  private static final int PATHS = 1 << 12;
+
+  @Param({"10", "500"})
+  int patterns;
+
+  private final AntPathMatcher matcher = new AntPathMatcher();
+  private Map<String, String> resourceNameMatchers;
+  private AntPatternTrie trie;
+  private AntPatternPathNormalizer normalizer;
+  private String[] paths;
+  private int index;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    resourceNameMatchers = new LinkedHashMap<>();
+    String[] paths = new String[patterns];
+    for (int i = 0; i < patterns; i++) {
+      String resource = "/api/v" + (i % 3) + "/resource" + i;
+      switch (i % 4) {
+        case 0:
+          resourceNameMatchers.put(resource + "/*", resource + "/?");
+          paths[i] = resource + "/%d";
+          break;
+        case 1:
+          resourceNameMatchers.put(resource + "/*/items/**", resource + "/?/items");
+          paths[i] = resource + "/%d/items/%d/details";
+          break;
+        case 2:
+          resourceNameMatchers.put(resource + "/**/*.json", resource + "/json");
+          paths[i] = resource + "/export/%d/%d.json";
+          break;
+        default:
+          resourceNameMatchers.put(
+              resource.replace("resource", "res?urce") + "/*/history", resource + "/?/history");
+          paths[i] = resource + "/%d/history";
+      }
+    }
+    trie = new AntPatternTrie(matcher, resourceNameMatchers);
+    normalizer = new AntPatternPathNormalizer(new LinkedHashMap<>(resourceNameMatchers));
+    this.paths = new String[PATHS];
+    for (int i = 0; i < PATHS; i++) {
+      long id = random.nextLong() & Long.MAX_VALUE;
+      String path = String.format(paths[random.nextInt(patterns)], id, id >>> 32);
+      // routes not matching any pattern
+      this.paths[i] = random.nextInt(4) == 0 ? path.replace("/api/", "/app/") : path;
+    }
+  }
+
+  @Benchmark
+  public String eachPattern() {
+    String path = nextPath();
+    for (Map.Entry<String, String> resourceNameMatcher : resourceNameMatchers.entrySet()) {
+      if (matcher.match(resourceNameMatcher.getKey(), path)) {
+        return resourceNameMatcher.getValue();
+      }
+    }
+    return null;
+  }
+
+  @Benchmark
+  public String trie() {
+    return trie.match(nextPath());
+  }
+
+  @Benchmark
+  public String normalizer() {
+    return normalizer.normalize(nextPath());
+  }
+
+  private String nextPath() {
+    return paths[index++ & (PATHS - 1)];
+  }
+}
@@ -191,7 +191,7 @@ final class AntPathMatcher {
    * @return <code>true</code> if the string matches against the pattern, or <code>false</code>
    *     otherwise.
    */
-  private boolean matchStrings(String pattern, String str) {
+  boolean matchStrings(String pattern, String str) {
     char[] patArr = pattern.toCharArray();
     char[] strArr = str.toCharArray();
     int patIdxStart = 0;
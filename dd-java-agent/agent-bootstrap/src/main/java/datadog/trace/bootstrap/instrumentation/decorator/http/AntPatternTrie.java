@@ -0,0 +1,200 @@
+package datadog.trace.bootstrap.instrumentation.decorator.http;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches a path against many Ant-style patterns at once, with the same semantics as {@link
+ * AntPathMatcher#match(String, String)} applied to each pattern in turn, the first pattern matching
+ * winning.
+ *
+ * <p>The patterns are split into segments and merged into a trie, where each node has an edge per
+ * literal segment, an edge for the {@code *} segment, edges for the other segments containing
+ * {@code *} or {@code ?}, and an edge for the {@code **} segment, which loops over any number of
+ * path segments. The path is matched in one pass over its segments, following all the edges
+ * matching each segment at once, so literal segments shared by many patterns are only compared
+ * once, and the patterns whose literal segments don't match are never visited. The nodes reached
+ * once the path is consumed tell which patterns matched, the one configured first wins.
+ */
+final class AntPatternTrie {
+  private static final int NO_MATCH = Integer.MAX_VALUE;
+  private static final String DOUBLE_WILDCARD = "**";
+  private static final String WILDCARD = "*";
+
+  private final AntPathMatcher matcher;
+  private final Node absoluteRoot = new Node(false);
+  private final Node relativeRoot = new Node(false);
+  private final String[] values;
+
+  /**
+   * @param matcher matches the segments containing {@code *} or {@code ?}
+   * @param patterns the values of the patterns, by pattern, in order of priority
+   */
+  AntPatternTrie(AntPathMatcher matcher, Map<String, String> patterns) {
+    this.matcher = matcher;
+    this.values = new String[patterns.size()];
+    int priority = 0;
+    for (Map.Entry<String, String> pattern : patterns.entrySet()) {
+      values[priority] = pattern.getValue();
+      add(pattern.getKey(), priority++);
+    }
+  }
+
+  /** @return the value of the first pattern matching the path, or {@code null} */
+  String match(String path) {
+    if (path == null) {
+      return null;
+    }
+    List<Node> current = new ArrayList<>();
+    List<Node> next = new ArrayList<>();
+    addReachable(current, path.startsWith("/") ? absoluteRoot : relativeRoot);
+    int length = path.length();
+    int start = 0;
+    while (start < length && !current.isEmpty()) {
+      int end = path.indexOf('/', start);
+      if (end < 0) {
+        end = length;
+      }
+      if (end > start) {
+        String segment = path.substring(start, end);
+        for (Node node : current) {
+          node.follow(segment, next, matcher);
+        }
+        List<Node> followed = next;
+        next = current;
+        next.clear();
+        current = followed;
+      }
+      start = end + 1;
+    }
+    boolean trailingSlash = path.endsWith("/");
+    int winner = NO_MATCH;
+    for (Node node : current) {
+      winner = Math.min(winner, node.matched(trailingSlash));
+    }
+    return winner == NO_MATCH ? null : values[winner];
+  }
+
+  private void add(String pattern, int priority) {
+    List<String> segments = new ArrayList<>();
+    int start = 0;
+    while (start < pattern.length()) {
+      int end = pattern.indexOf('/', start);
+      if (end < 0) {
+        end = pattern.length();
+      }
+      if (end > start) {
+        segments.add(pattern.substring(start, end));
+      }
+      start = end + 1;
+    }
+    boolean doubleWildcard = segments.contains(DOUBLE_WILDCARD);
+    Node node = pattern.startsWith("/") ? absoluteRoot : relativeRoot;
+    for (int i = 0; i < segments.size(); i++) {
+      String segment = segments.get(i);
+      if (!doubleWildcard && i == segments.size() - 1 && WILDCARD.equals(segment)) {
+        // AntPathMatcher also matches a trailing * with the empty segment after a trailing slash
+        node.emptySegmentMatch = Math.min(node.emptySegmentMatch, priority);
+      }
+      node = node.child(segment);
+    }
+    if (doubleWildcard) {
+      // the trailing slash of a path doesn't matter to a pattern with **
+      node.match = Math.min(node.match, priority);
+    } else if (pattern.endsWith("/")) {
+      node.trailingSlashMatch = Math.min(node.trailingSlashMatch, priority);
+    } else {
+      node.noTrailingSlashMatch = Math.min(node.noTrailingSlashMatch, priority);
+    }
+  }
+
+  /** Adds the node, and the nodes reached by matching ** with no segment. */
+  private static void addReachable(List<Node> nodes, Node node) {
+    while (node != null) {
+      for (Node added : nodes) {
+        if (added == node) {
+          return;
+        }
+      }
+      nodes.add(node);
+      node = node.doubleWildcard;
+    }
+  }
+
+  private static final class Node {
+    // the node of a ** segment also matches any number of segments
+    final boolean loops;
+    Map<String, Node> literals;
+    Node wildcard;
+    Map<String, Node> segmentPatterns;
+    Node doubleWildcard;
+
+    // the highest priority of the patterns matching the paths which end at this node
+    int match = NO_MATCH;
+    int trailingSlashMatch = NO_MATCH;
+    int noTrailingSlashMatch = NO_MATCH;
+    int emptySegmentMatch = NO_MATCH;
+
+    Node(boolean loops) {
+      this.loops = loops;
+    }
+
+    Node child(String segment) {
+      if (DOUBLE_WILDCARD.equals(segment)) {
+        if (doubleWildcard == null) {
+          doubleWildcard = new Node(true);
+        }
+        return doubleWildcard;
+      }
+      if (WILDCARD.equals(segment)) {
+        if (wildcard == null) {
+          wildcard = new Node(false);
+        }
+        return wildcard;
+      }
+      boolean isPattern = segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+      Map<String, Node> children;
+      if (isPattern) {
+        children = segmentPatterns == null ? (segmentPatterns = new HashMap<>()) : segmentPatterns;
+      } else {
+        children = literals == null ? (literals = new HashMap<>()) : literals;
+      }
+      Node child = children.get(segment);
+      if (child == null) {
+        child = new Node(false);
+        children.put(segment, child);
+      }
+      return child;
+    }
+
+    void follow(String segment, List<Node> next, AntPathMatcher matcher) {
+      if (loops) {
+        addReachable(next, this);
+      }
+      if (literals != null) {
+        Node child = literals.get(segment);
+        if (child != null) {
+          addReachable(next, child);
+        }
+      }
+      if (wildcard != null) {
+        addReachable(next, wildcard);
+      }
+      if (segmentPatterns != null) {
+        for (Map.Entry<String, Node> child : segmentPatterns.entrySet()) {
+          if (matcher.matchStrings(child.getKey(), segment)) {
+            addReachable(next, child.getValue());
+          }
+        }
+      }
+    }
+
+    int matched(boolean trailingSlash) {
+      return Math.min(
+          match,
+          trailingSlash ? Math.min(trailingSlashMatch, emptySegmentMatch) : noTrailingSlashMatch);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package datadog.trace.bootstrap.instrumentation.decorator.http
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class AntPatternTrieTest extends Specification {
+  @Shared
+  AntPathMatcher matcher = new AntPathMatcher()
+
+  @Shared
+  Map<String, String> patterns = [
+    "/api/v1/users/*"           : "users",
+    "/api/v1/users/*/orders/**" : "user orders",
+    "/api/v1/*/items/*"         : "items",
+    "/api/v?/legacy/*.do"       : "legacy",
+    "/api/**/health"            : "health",
+    "/static/**/*.js"           : "js",
+    "/static/**"                : "static",
+    "/files/*/"                 : "folder",
+    "relative/*"                : "relative",
+    "/**/**/end"                : "end",
+  ]
+
+  def "matches like each pattern in turn"() {
+    setup:
+    def trie = new AntPatternTrie(matcher, patterns)
+    def expected = patterns.find {
+      matcher.match(it.key, path)
+    }?.value
+
+    expect:
+    trie.match(path) == expected
+    trie.match(path) == result
+
+    where:
+    path                             | result
+    "/api/v1/users/42"               | "users"
+    "/api/v1/users/42/"              | null
+    "/api/v1/users/"                 | "users"
+    "/api/v1/users"                  | null
+    "/api/v1/users/42/orders"        | "user orders"
+    "/api/v1/users/42/orders/7/item" | "user orders"
+    "/api/v1/carts/items/3"          | "items"
+    "/api/v1/users/items/3"          | "items"
+    "/api/v2/legacy/index.do"        | "legacy"
+    "/api/v22/legacy/index.do"       | null
+    "/api/health"                    | "health"
+    "/api/v1/internal/health"        | "health"
+    "/static/app.js"                 | "js"
+    "/static/a/b/app.js"             | "js"
+    "/static/a/b/app.css"            | "static"
+    "/static"                        | "static"
+    "/files/42/"                     | "folder"
+    "/files/42"                      | null
+    "relative/path"                  | "relative"
+    "/relative/path"                 | null
+    "//api//v1//users//42"           | "users"
+    "/end"                           | "end"
+    "/a/b/c/end"                     | "end"
+    "/nothing/to/see"                | null
+    ""                               | null
+    null                             | null
+  }
+
+  def "first pattern matching wins"() {
+    setup:
+    def ordered = new LinkedHashMap<String, String>()
+    first.each {
+      ordered.put(it, it)
+    }
+    def trie = new AntPatternTrie(matcher, ordered)
+
+    expect:
+    trie.match(path) == first[0]
+
+    where:
+    first                              | path
+    ["/api/**", "/api/*/users/*"]      | "/api/v1/users/42"
+    ["/api/*/users/*", "/api/**"]      | "/api/v1/users/42"
+    ["/api/v1/users/?", "/api/*/*/*"]  | "/api/v1/users/4"
+    ["/api/*/*/*", "/api/v1/users/?"]  | "/api/v1/users/4"
+  }
+}
@@ -0,0 +1,166 @@
+package datadog.trace.bootstrap.debugger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A ring buffer owned by a thread, recording the values captured by the thread in the compact form
+ * written by {@link CaptureEncoder}, until the sink serializes them on its own thread.
+ *
+ * <p>Recording never waits for the sink: a thread capturing more than the size of its buffer before
+ * the sink serializes its captures overwrites the oldest ones, which the sink then drops. Captures
+ * are written and copied while holding the lock of the buffer, which is only contended when the
+ * sink copies a capture while the thread records another one.
+ */
+public final class CaptureBuffer {
+  private static final AtomicLong OVERFLOWS = new AtomicLong();
+  private static final ThreadLocal<CaptureBuffer> BUFFERS = new ThreadLocal<>();
+
+  private static volatile int capacity;
+
+  private final byte[] bytes;
+  private final int mask;
+  private final CaptureEncoder encoder = new CaptureEncoder(this);
+  // absolute positions, so a capture knows whether it has been overwritten
+  private long position;
+  private long start;
+  private boolean overflow;
+
+  private CaptureBuffer(int capacity) {
+    this.bytes = new byte[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Enables recording the captured values, with buffers of {@code sizeInKiB} rounded up to a power
+   * of two. 0 disables it: the values are serialized when they are captured.
+   */
+  public static void init(int sizeInKiB) {
+    if (sizeInKiB <= 0) {
+      capacity = 0;
+      return;
+    }
+    int size = (int) Math.min(sizeInKiB * 1024L, 1 << 30);
+    capacity = Integer.highestOneBit(size - 1) << 1;
+  }
+
+  public static boolean isEnabled() {
+    return capacity > 0;
+  }
+
+  /** @return the number of values too large for a buffer since the last call */
+  public static long drainOverflows() {
+    return OVERFLOWS.getAndSet(0);
+  }
+
+  static CaptureBuffer current() {
+    CaptureBuffer buffer = BUFFERS.get();
+    if (buffer == null || buffer.bytes.length != capacity) {
+      buffer = new CaptureBuffer(capacity);
+      BUFFERS.set(buffer);
+    }
+    return buffer;
+  }
+
+  CaptureEncoder encoder() {
+    return encoder;
+  }
+
+  void begin() {
+    start = position;
+    overflow = false;
+  }
+
+  /** @return the capture written since {@link #begin()}, or null if it didn't fit in the buffer */
+  Capture end() {
+    if (overflow) {
+      OVERFLOWS.incrementAndGet();
+      return null;
+    }
+    return new Capture(this, start, (int) (position - start));
+  }
+
+  void writeByte(int value) {
+    if (position - start >= bytes.length) {
+      // the position is not moved back: the older captures have been overwritten
+      overflow = true;
+      return;
+    }
+    bytes[(int) position & mask] = (byte) value;
+    position++;
+  }
+
+  void writeVarLong(long value) {
+    while ((value & ~0x7FL) != 0) {
+      writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    writeByte((int) value);
+  }
+
+  /** Writes a signed value, zigzag encoded so that small negative values stay short. */
+  void writeSignedVarLong(long value) {
+    writeVarLong((value << 1) ^ (value >> 63));
+  }
+
+  void writeFixedLong(long value) {
+    for (int shift = 0; shift < 64; shift += 8) {
+      writeByte((int) (value >>> shift));
+    }
+  }
+
+  void writeFixedInt(int value) {
+    for (int shift = 0; shift < 32; shift += 8) {
+      writeByte(value >>> shift);
+    }
+  }
+
+  /** Writes the length of the string, then its first {@code maxLength} chars. */
+  void writeString(String value, int maxLength) {
+    int length = Math.min(value.length(), maxLength);
+    writeVarLong(length);
+    for (int i = 0; i < length && !overflow; i++) {
+      writeVarLong(value.charAt(i));
+    }
+  }
+
+  void writeString(String value) {
+    writeString(value, Integer.MAX_VALUE);
+  }
+
+  private synchronized boolean copy(long from, int length, byte[] destination) {
+    if (position - from > bytes.length) {
+      return false;
+    }
+    int offset = (int) from & mask;
+    int first = Math.min(length, bytes.length - offset);
+    System.arraycopy(bytes, offset, destination, 0, first);
+    System.arraycopy(bytes, 0, destination, first, length - first);
+    return true;
+  }
+
+  /** The bytes recorded for a captured value. */
+  public static final class Capture {
+    private final CaptureBuffer buffer;
+    private final long start;
+    private final int length;
+
+    private Capture(CaptureBuffer buffer, long start, int length) {
+      this.buffer = buffer;
+      this.start = start;
+      this.length = length;
+    }
+
+    public int length() {
+      return length;
+    }
+
+    /**
+     * Copies the bytes of the capture at the beginning of {@code destination}.
+     *
+     * @return false if the thread which recorded the capture has overwritten it since
+     */
+    public boolean copyTo(byte[] destination) {
+      return buffer.copy(start, length, destination);
+    }
+  }
+}
@@ -0,0 +1,356 @@
+package datadog.trace.bootstrap.debugger;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Records a captured value into the {@link CaptureBuffer} of the current thread, walking it like
+ * the JSON serialization of the snapshots does, within the same {@link Limits}. The sink expands
+ * the recorded nodes into the same JSON, when it serializes the snapshot.
+ *
+ * <p>A node starts with one of the tags below, followed by its type, then by:
+ *
+ * <ul>
+ *   <li>{@link #NULL}, {@link #DEPTH}: nothing.
+ *   <li>{@link #INTEGRAL}, {@link #CHAR}: the value as a var long, signed for integral values.
+ *   <li>{@link #FLOAT}, {@link #DOUBLE}: the bits of the value.
+ *   <li>{@link #BOOLEAN}: 0 or 1.
+ *   <li>{@link #STRING}: the length of the string, then the string truncated to the max length.
+ *   <li>{@link #PRIMITIVE_ARRAY}: the {@link #ITEM_TYPES index} of the type of the items, the
+ *       length of the array, the number of items recorded, then the items, without tag nor type.
+ *   <li>{@link #ELEMENTS}, {@link #ENTRIES}: the elements or the keys and values of the entries,
+ *       then {@link #END}, the size, and 1 if all the elements were recorded.
+ *   <li>{@link #FIELDS}: a {@link #FIELD} tag and the name of each field followed by its value, a
+ *       {@link #FIELD_ERROR} tag with the name, the type and the error of the fields which couldn't
+ *       be read, a {@link #FIELD_COUNT} tag if there are more fields than the max field count, then
+ *       {@link #END}.
+ * </ul>
+ *
+ * Strings are written as their length followed by their chars as var longs, and types as strings.
+ */
+public final class CaptureEncoder
+    implements Fields.ProcessField, BiConsumer<Exception, Field>, Consumer<Field> {
+  public static final int NULL = 1;
+  public static final int DEPTH = 2;
+  public static final int INTEGRAL = 3;
+  public static final int CHAR = 4;
+  public static final int FLOAT = 5;
+  public static final int DOUBLE = 6;
+  public static final int BOOLEAN = 7;
+  public static final int STRING = 8;
+  public static final int PRIMITIVE_ARRAY = 9;
+  public static final int ELEMENTS = 10;
+  public static final int ENTRIES = 11;
+  public static final int FIELDS = 12;
+  public static final int FIELD = 13;
+  public static final int FIELD_ERROR = 14;
+  public static final int FIELD_COUNT = 15;
+  public static final int END = 16;
+
+  /**
+   * The types of the items of the primitive arrays: the integral items are written as signed var
+   * longs, the chars as var longs, the booleans as 0 or 1, and the floating point items as bits
+   */
+  public static final String[] ITEM_TYPES = {
+    "long", "int", "short", "byte", "char", "boolean", "float", "double"
+  };
+
+  public static final int LONG_ITEM = 0;
+  public static final int INT_ITEM = 1;
+  public static final int SHORT_ITEM = 2;
+  public static final int BYTE_ITEM = 3;
+  public static final int CHAR_ITEM = 4;
+  public static final int BOOLEAN_ITEM = 5;
+  public static final int FLOAT_ITEM = 6;
+  public static final int DOUBLE_ITEM = 7;
+
+  private final CaptureBuffer buffer;
+  private boolean encoding;
+  private boolean failed;
+  private int maxCollectionSize;
+  private int maxLength;
+  private int maxFieldCount;
+
+  CaptureEncoder(CaptureBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * @return the capture of the value, or null if it has to be serialized right away because it
+   *     doesn't fit in the buffer, the buffer is already recording a value of this thread, or it
+   *     can't be serialized
+   */
+  public static CaptureBuffer.Capture encode(Snapshot.CapturedValue value) {
+    CaptureBuffer buffer = CaptureBuffer.current();
+    synchronized (buffer) {
+      return buffer.encoder().encode(value.getValue(), value.getType(), value.getLimits());
+    }
+  }
+
+  private CaptureBuffer.Capture encode(Object value, String type, Limits limits) {
+    if (encoding) {
+      // walking the value ran a probe capturing on the same thread
+      return null;
+    }
+    encoding = true;
+    failed = false;
+    maxCollectionSize = limits.maxCollectionSize;
+    maxLength = limits.maxLength;
+    maxFieldCount = limits.maxFieldCount;
+    buffer.begin();
+    try {
+      encodeValue(value, type, limits.maxReferenceDepth);
+    } catch (RuntimeException e) {
+      failed = true;
+    } finally {
+      encoding = false;
+    }
+    CaptureBuffer.Capture capture = buffer.end();
+    return failed ? null : capture;
+  }
+
+  private void encodeValue(Object value, String type, int depth) {
+    if (value == null) {
+      writeTag(NULL, type);
+    } else if (isPrimitive(type)) {
+      encodePrimitive(value, type);
+    } else if (value.getClass().isArray() && depth > 0) {
+      if (value.getClass().getComponentType().isPrimitive()) {
+        encodePrimitiveArray(value, type);
+      } else {
+        encodeObjectArray((Object[]) value, type, depth);
+      }
+    } else if (value instanceof Collection && depth > 0) {
+      encodeCollection((Collection<?>) value, type, depth);
+    } else if (value instanceof Map && depth > 0) {
+      encodeMap((Map<?, ?>) value, type, depth);
+    } else if (depth > 0) {
+      writeTag(FIELDS, type);
+      if (!Fields.isPrimitiveClass(value)) {
+        CapturePlan.FieldAccessor[] fields = CapturePlan.of(value.getClass()).capturedFields();
+        Fields.processFields(value, fields, this, this, this, maxFieldCount, depth);
+      }
+      buffer.writeByte(END);
+    } else {
+      writeTag(DEPTH, type);
+    }
+  }
+
+  private void encodePrimitive(Object value, String type) {
+    if (value instanceof String) {
+      writeTag(STRING, type);
+      String string = (String) value;
+      buffer.writeVarLong(string.length());
+      buffer.writeString(string, maxLength);
+    } else if (value instanceof Long
+        || value instanceof Integer
+        || value instanceof Short
+        || value instanceof Byte) {
+      writeTag(INTEGRAL, type);
+      buffer.writeSignedVarLong(((Number) value).longValue());
+    } else if (value instanceof Double) {
+      writeTag(DOUBLE, type);
+      buffer.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+    } else if (value instanceof Float) {
+      writeTag(FLOAT, type);
+      buffer.writeFixedInt(Float.floatToRawIntBits((Float) value));
+    } else if (value instanceof Boolean) {
+      writeTag(BOOLEAN, type);
+      buffer.writeByte((Boolean) value ? 1 : 0);
+    } else if (value instanceof Character) {
+      writeTag(CHAR, type);
+      buffer.writeVarLong((Character) value);
+    } else {
+      throw new IllegalArgumentException("Cannot convert value: " + value);
+    }
+  }
+
+  private void encodePrimitiveArray(Object value, String type) {
+    writeTag(PRIMITIVE_ARRAY, type);
+    Class<?> componentType = value.getClass().getComponentType();
+    if (componentType == long.class) {
+      long[] array = (long[]) value;
+      int count = writeArrayHeader(LONG_ITEM, array.length);
+      for (int i = 0; i < count; i++) {
+        buffer.writeSignedVarLong(array[i]);
+      }
+    } else if (componentType == int.class) {
+      int[] array = (int[]) value;
+      int count = writeArrayHeader(INT_ITEM, array.length);
+      for (int i = 0; i < count; i++) {
+        buffer.writeSignedVarLong(array[i]);
+      }
+    } else if (componentType == short.class) {
+      short[] array = (short[]) value;
+      int count = writeArrayHeader(SHORT_ITEM, array.length);
+      for (int i = 0; i < count; i++) {
+        buffer.writeSignedVarLong(array[i]);
+      }
+    } else if (componentType == byte.class) {
+      byte[] array = (byte[]) value;
+      int count = writeArrayHeader(BYTE_ITEM, array.length);
+      for (int i = 0; i < count; i++) {
+        buffer.writeSignedVarLong(array[i]);
+      }
+    } else if (componentType == char.class) {
+      char[] array = (char[]) value;
+      int count = writeArrayHeader(CHAR_ITEM, array.length);
+      for (int i = 0; i < count; i++) {
+        buffer.writeVarLong(array[i]);
+      }
+    } else if (componentType == boolean.class) {
+      boolean[] array = (boolean[]) value;
+      int count = writeArrayHeader(BOOLEAN_ITEM, array.length);
+      for (int i = 0; i < count; i++) {
+        buffer.writeByte(array[i] ? 1 : 0);
+      }
+    } else if (componentType == float.class) {
+      float[] array = (float[]) value;
+      int count = writeArrayHeader(FLOAT_ITEM, array.length);
+      for (int i = 0; i < count; i++) {
+        buffer.writeFixedInt(Float.floatToRawIntBits(array[i]));
+      }
+    } else if (componentType == double.class) {
+      double[] array = (double[]) value;
+      int count = writeArrayHeader(DOUBLE_ITEM, array.length);
+      for (int i = 0; i < count; i++) {
+        buffer.writeFixedLong(Double.doubleToRawLongBits(array[i]));
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported primitive array: " + value.getClass());
+    }
+  }
+
+  private int writeArrayHeader(int itemType, int length) {
+    int count = Math.min(length, maxCollectionSize);
+    buffer.writeByte(itemType);
+    buffer.writeVarLong(length);
+    buffer.writeVarLong(count);
+    return count;
+  }
+
+  private void encodeObjectArray(Object[] array, String type, int depth) {
+    writeTag(ELEMENTS, type);
+    int count = Math.min(array.length, maxCollectionSize);
+    for (int i = 0; i < count; i++) {
+      Object element = array[i];
+      encodeValue(
+          element,
+          element != null ? element.getClass().getTypeName() : "java.lang.Object",
+          depth - 1);
+    }
+    writeEnd(array.length, count == array.length);
+  }
+
+  private void encodeCollection(Collection<?> collection, String type, int depth) {
+    writeTag(ELEMENTS, type);
+    // /!\ here we assume that Collection#Size is O(1) /!\
+    int size = collection.size();
+    int count = Math.min(size, maxCollectionSize);
+    Iterator<?> it = collection.iterator();
+    for (int i = 0; i < count && it.hasNext(); i++) {
+      Object element = it.next();
+      encodeValue(element, element.getClass().getTypeName(), depth - 1);
+    }
+    writeEnd(size, count == size);
+  }
+
+  private void encodeMap(Map<?, ?> map, String type, int depth) {
+    writeTag(ENTRIES, type);
+    Set<? extends Map.Entry<?, ?>> entries = map.entrySet();
+    int size = entries.size();
+    int count = Math.min(size, maxCollectionSize);
+    Iterator<? extends Map.Entry<?, ?>> it = entries.iterator();
+    for (int i = 0; i < count && it.hasNext(); i++) {
+      Map.Entry<?, ?> entry = it.next();
+      Object key = entry.getKey();
+      Object value = entry.getValue();
+      encodeValue(key, key.getClass().getTypeName(), depth - 1);
+      encodeValue(value, value.getClass().getTypeName(), depth - 1);
+    }
+    writeEnd(map.size(), count == size);
+  }
+
+  private void writeTag(int tag, String type) {
+    buffer.writeByte(tag);
+    buffer.writeString(type);
+  }
+
+  private void writeEnd(int size, boolean complete) {
+    buffer.writeByte(END);
+    buffer.writeVarLong(size);
+    buffer.writeByte(complete ? 1 : 0);
+  }
+
+  /** Records a field read by {@link Fields#processFields}. */
+  @Override
+  public void accept(Field field, Object value, int maxDepth) {
+    try {
+      buffer.writeByte(FIELD);
+      buffer.writeString(field.getName());
+      String typeName = field.getType().getTypeName();
+      if (!isPrimitive(typeName) && value != null) {
+        typeName = value.getClass().getTypeName();
+      }
+      encodeValue(
+          value instanceof Snapshot.CapturedValue
+              ? ((Snapshot.CapturedValue) value).getValue()
+              : value,
+          typeName,
+          maxDepth - 1);
+    } catch (RuntimeException e) {
+      // the field is partially recorded: the value is serialized right away instead
+      failed = true;
+      throw e;
+    }
+  }
+
+  /** Records a field which couldn't be read. */
+  @Override
+  public void accept(Exception e, Field field) {
+    if (failed) {
+      return;
+    }
+    buffer.writeByte(FIELD_ERROR);
+    buffer.writeString(field.getName());
+    buffer.writeString(field.getType().getTypeName());
+    buffer.writeString(e.toString());
+  }
+
+  /** Records that the max field count was reached. */
+  @Override
+  public void accept(Field field) {
+    buffer.writeByte(FIELD_COUNT);
+  }
+
+  // same as MoshiSnapshotHelper.isPrimitive, which isn't visible from the instrumented code
+  private static boolean isPrimitive(String type) {
+    switch (type) {
+      case "byte":
+      case "short":
+      case "char":
+      case "int":
+      case "long":
+      case "boolean":
+      case "float":
+      case "double":
+      case "java.lang.Byte":
+      case "java.lang.Short":
+      case "java.lang.Character":
+      case "java.lang.Integer":
+      case "java.lang.Long":
+      case "java.lang.Boolean":
+      case "java.lang.Float":
+      case "java.lang.Double":
+      case "String":
+      case "java.lang.String":
+        return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,165 @@
+package datadog.trace.bootstrap.debugger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How to read the fields of the instances of a class, resolved once per class rather than at every
+ * capture: the fields captured from the instances, in the order they are captured, and the fields
+ * looked up by name when resolving references, each with a {@link MethodHandle} reading it.
+ *
+ * <p>The plans are stored in a {@link ClassValue}, so a plan goes away with its class when the
+ * class is unloaded. The limits of a capture vary from probe to probe, so they are applied when
+ * walking the plan, which is a matter of stopping early.
+ */
+public final class CapturePlan {
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private static final ClassValue<CapturePlan> PLANS =
+      new ClassValue<CapturePlan>() {
+        @Override
+        protected CapturePlan computeValue(Class<?> type) {
+          return new CapturePlan(type);
+        }
+      };
+
+  private static final FieldAccessor NO_SUCH_FIELD = new FieldAccessor(null, null, null);
+
+  private final Class<?> type;
+  private volatile FieldAccessor[] capturedFields;
+  private final ConcurrentHashMap<String, FieldAccessor> fieldsByName = new ConcurrentHashMap<>();
+
+  private CapturePlan(Class<?> type) {
+    this.type = type;
+  }
+
+  public static CapturePlan of(Class<?> type) {
+    return PLANS.get(type);
+  }
+
+  /**
+   * @return the fields captured from the instances of the class, declared by the class first, then
+   *     by its superclasses, without the constants, nor the fields added by Jacoco
+   */
+  public FieldAccessor[] capturedFields() {
+    FieldAccessor[] fields = capturedFields;
+    if (fields == null) {
+      // resolving the fields twice when racing is harmless
+      capturedFields = fields = resolveCapturedFields(type);
+    }
+    return fields;
+  }
+
+  /**
+   * @return the field with this name, declared by the class or its closest superclass, or {@code
+   *     null} if there is none or it can't be read
+   */
+  public FieldAccessor field(String name) {
+    FieldAccessor field = fieldsByName.get(name);
+    if (field == null) {
+      field = resolveField(type, name);
+      fieldsByName.putIfAbsent(name, field);
+    }
+    return field == NO_SUCH_FIELD ? null : field;
+  }
+
+  private static FieldAccessor[] resolveCapturedFields(Class<?> type) {
+    List<FieldAccessor> fields = new ArrayList<>();
+    Class<?> currentClass = type;
+    do {
+      for (Field field : currentClass.getDeclaredFields()) {
+        if (isCaptured(field)) {
+          fields.add(FieldAccessor.create(field));
+        }
+      }
+    } while ((currentClass = currentClass.getSuperclass()) != null);
+    return fields.toArray(new FieldAccessor[0]);
+  }
+
+  private static boolean isCaptured(Field field) {
+    // Jacoco insert a transient field
+    if ("$jacocoData".equals(field.getName()) && Modifier.isTransient(field.getModifiers())) {
+      return false;
+    }
+    // skip constant fields
+    if (Modifier.isStatic(field.getModifiers()) && Modifier.isFinal(field.getModifiers())) {
+      return false;
+    }
+    return true;
+  }
+
+  private static FieldAccessor resolveField(Class<?> container, String name) {
+    while (container != null) {
+      try {
+        FieldAccessor field = FieldAccessor.create(container.getDeclaredField(name));
+        return field.error == null ? field : NO_SUCH_FIELD;
+      } catch (NoSuchFieldException ignored) {
+        container = container.getSuperclass();
+      } catch (Exception ignored) {
+        return NO_SUCH_FIELD;
+      }
+    }
+    return NO_SUCH_FIELD;
+  }
+
+  /** Reads a field, or tells why it can't. */
+  public static final class FieldAccessor {
+    private final Field field;
+    private final MethodHandle getter;
+    private final RuntimeException error;
+
+    private FieldAccessor(Field field, MethodHandle getter, RuntimeException error) {
+      this.field = field;
+      this.getter = getter;
+      this.error = error;
+    }
+
+    static FieldAccessor create(Field field) {
+      try {
+        field.setAccessible(true);
+        MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+        if (Modifier.isStatic(field.getModifiers())) {
+          getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        }
+        return new FieldAccessor(field, getter.asType(GETTER_TYPE), null);
+      } catch (IllegalAccessException e) {
+        return new FieldAccessor(field, null, new IllegalStateException(e));
+      } catch (RuntimeException e) {
+        // InaccessibleObjectException, when the module of the field isn't open
+        return new FieldAccessor(field, null, e);
+      }
+    }
+
+    public Field getField() {
+      return field;
+    }
+
+    /**
+     * Reads the field like {@link Field#get(Object)} does.
+     *
+     * @throws RuntimeException the exception which prevented making the field accessible, or an
+     *     {@link IllegalArgumentException} if the target isn't an instance of the class declaring
+     *     the field
+     */
+    public Object get(Object target) {
+      if (error != null) {
+        throw error;
+      }
+      try {
+        return (Object) getter.invokeExact(target);
+      } catch (ClassCastException e) {
+        throw new IllegalArgumentException(e);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+  }
+}
@@ -1,7 +1,6 @@
 package datadog.trace.bootstrap.debugger;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
@@ -11,18 +10,6 @@ import org.slf4j.LoggerFactory;
 public class FieldExtractor {
   private static final Logger LOG = LoggerFactory.getLogger(FieldExtractor.class);
 
-  private static boolean filterIn(Field field) {
-    // Jacoco insert a transient field
-    if ("$jacocoData".equals(field.getName()) && Modifier.isTransient(field.getModifiers())) {
-      return false;
-    }
-    // skip constant fields
-    if (Modifier.isStatic(field.getModifiers()) && Modifier.isFinal(field.getModifiers())) {
-      return false;
-    }
-    return true;
-  }
-
   public static void extract(
       Object obj,
       Limits limits,
@@ -35,13 +22,13 @@ public class FieldExtractor {
     if (Fields.isPrimitiveClass(obj)) {
       return;
     }
-    Field[] declaredFields = obj.getClass().getDeclaredFields();
-    if (declaredFields.length == 0) {
+    CapturePlan.FieldAccessor[] fields = CapturePlan.of(obj.getClass()).capturedFields();
+    if (fields.length == 0) {
       return;
     }
     Fields.processFields(
         obj,
-        FieldExtractor::filterIn,
+        fields,
         onField,
         exHandling,
         maxFieldCount,
@@ -3,7 +3,6 @@ package datadog.trace.bootstrap.debugger;
 import java.lang.reflect.Field;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 
 /** Helper class for processing fields of an instance */
 public class Fields {
@@ -11,36 +10,29 @@ public class Fields {
     void accept(Field field, Object value, int maxDepth);
   }
 
+  /** Processes the fields of an instance read by the accessors of its {@link CapturePlan}. */
   public static void processFields(
       Object o,
-      Predicate<Field> filteringIn,
+      CapturePlan.FieldAccessor[] fields,
       ProcessField processing,
       BiConsumer<Exception, Field> exHandling,
       Consumer<Field> onMaxFieldCount,
       int maxFieldCount,
       int maxDepth) {
-    Class<?> currentClass = o.getClass();
     int processedFieldCount = 0;
-    do {
-      Field[] fields = currentClass.getDeclaredFields();
-      for (Field field : fields) {
-        try {
-          if (!filteringIn.test(field)) {
-            continue;
-          }
-          field.setAccessible(true);
-          Object value = field.get(o);
-          processing.accept(field, value, maxDepth);
-          processedFieldCount++;
-          if (processedFieldCount >= maxFieldCount) {
-            onMaxFieldCount.accept(field);
-            return;
-          }
-        } catch (Exception e) {
-          exHandling.accept(e, field);
+    for (CapturePlan.FieldAccessor field : fields) {
+      try {
+        Object value = field.get(o);
+        processing.accept(field.getField(), value, maxDepth);
+        processedFieldCount++;
+        if (processedFieldCount >= maxFieldCount) {
+          onMaxFieldCount.accept(field.getField());
+          return;
         }
+      } catch (Exception e) {
+        exHandling.accept(e, field.getField());
       }
-    } while ((currentClass = currentClass.getSuperclass()) != null);
+    }
   }
 
   static boolean isPrimitiveClass(Object obj) {
@@ -14,7 +14,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +28,7 @@ public class Snapshot {
   private final transient int version;
   private final long timestamp;
   private transient long duration;
+  private transient long captureTime;
   private final List<CapturedStackFrame> stack = new ArrayList<>();
   private final Captures captures;
   private final ProbeDetails probe;
@@ -145,6 +145,13 @@ public class Snapshot {
     return duration;
   }
 
+  // time spent freezing the captured values on the application thread, in ns
+  // not using getCaptureTime naming to avoid serialization without using annotation and pulling
+  // Jackson dependency for this module
+  public long retrieveCaptureTime() {
+    return captureTime;
+  }
+
   public List<CapturedStackFrame> getStack() {
     return stack;
   }
@@ -271,7 +278,9 @@ public class Snapshot {
     }
     boolean ret = isCapturing();
     if (ret) {
+      long startTs = System.nanoTime();
       capture.freeze();
+      captureTime += System.nanoTime() - startTs;
     }
     return ret;
   }
@@ -577,7 +586,6 @@ public class Snapshot {
    * Stores different kind of data (arguments, locals, fields, exception) for a specific location
    */
   public static class CapturedContext implements ValueReferenceResolver {
-    private static final Pattern DOT_PATTERN = Pattern.compile("\\.");
     private final transient Map<String, Object> extensions = new HashMap<>();
 
     private Map<String, CapturedValue> arguments;
@@ -614,23 +622,25 @@ public class Snapshot {
 
     @Override
     public Object resolve(String path) {
+      return resolve(path, ValueReferences.splitPath(path));
+    }
+
+    @Override
+    public Object resolve(String path, String[] parts) {
       // 'path' is a string which starts with a prefixed head element and can contain
       // a number of period separated tail elements denoting access to fields (of fields)
-      String prefix = path.substring(0, 1);
-      String[] parts = DOT_PATTERN.split(path.substring(1));
-
       String head = parts[0];
       Object target = Values.UNDEFINED_OBJECT;
-      if (prefix.equals(ValueReferences.FIELD_PREFIX)) {
+      if (path.startsWith(ValueReferences.FIELD_PREFIX)) {
         target = tryRetrieveField(head);
         checkUndefined(path, target, head, "Cannot find field: ");
-      } else if (prefix.equals(ValueReferences.SYNTHETIC_PREFIX)) {
+      } else if (path.startsWith(ValueReferences.SYNTHETIC_PREFIX)) {
         target = tryRetrieveSynthetic(head);
         checkUndefined(path, target, head, "Cannot find synthetic var: ");
-      } else if (prefix.equals(ValueReferences.LOCALVAR_PREFIX)) {
+      } else if (path.startsWith(ValueReferences.LOCALVAR_PREFIX)) {
         target = tryRetrieveLocalVar(head);
         checkUndefined(path, target, head, "Cannot find local var: ");
-      } else if (prefix.equals(ValueReferences.ARGUMENT_PREFIX)) {
+      } else if (path.startsWith(ValueReferences.ARGUMENT_PREFIX)) {
         target = tryRetrieveArgument(head);
         checkUndefined(path, target, head, "Cannot find argument: ");
       }
@@ -830,7 +840,8 @@ public class Snapshot {
 
     /**
      * 'Freeze' the context. The contained arguments, locals and fields are converted from their
-     * Java instance representation into the corresponding string value.
+     * Java instance representation into the corresponding string value, or recorded into the {@link
+     * CaptureBuffer} of the thread to be serialized later.
      */
     public void freeze() {
       if (arguments != null) {
@@ -884,6 +895,7 @@ public class Snapshot {
     private final String type;
     private Object value;
     private String strValue;
+    private CaptureBuffer.Capture capture;
     private final Map<String, CapturedValue> fields;
     private final Limits limits;
     private final String notCapturedReason;
@@ -931,6 +943,11 @@ public class Snapshot {
       return strValue;
     }
 
+    /** @return the recorded value, to be serialized later, if it wasn't serialized when frozen */
+    public CaptureBuffer.Capture getCapture() {
+      return capture;
+    }
+
     public Map<String, CapturedValue> getFields() {
       return fields;
     }
@@ -1004,10 +1021,18 @@ public class Snapshot {
     }
 
     public void freeze() {
-      if (this.strValue != null) {
+      if (this.strValue != null || this.capture != null) {
         // already frozen
         return;
       }
+      if (CaptureBuffer.isEnabled()) {
+        this.capture = CaptureEncoder.encode(this);
+        if (this.capture != null) {
+          this.value = null;
+          return;
+        }
+        // not recorded, serialized right away
+      }
       this.strValue = DebuggerContext.serializeValue(this);
       if (this.strValue != null) {
         // if serialization has happened, release the value object
@@ -28,6 +28,16 @@ public interface ValueReferenceResolver {
 
   Object resolve(String path);
 
+  /**
+   * Resolves a reference path already split with {@link ValueReferences#splitPath(String)}, so a
+   * path resolved at every probe hit is only split once.
+   *
+   * @param parts the name and the fields of the path, without its prefix
+   */
+  default Object resolve(String path, String[] parts) {
+    return resolve(path);
+  }
+
   default ValueReferenceResolver withExtensions(Map<String, Object> extensions) {
     return this;
   }
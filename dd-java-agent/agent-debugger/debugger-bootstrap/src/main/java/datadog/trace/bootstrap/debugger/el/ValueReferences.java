@@ -1,11 +1,14 @@
 package datadog.trace.bootstrap.debugger.el;
 
+import java.util.regex.Pattern;
+
 /**
  * A helper class to create properly formatted reference paths.
  *
  * @see ValueReferenceResolver
  */
 public final class ValueReferences {
+  private static final Pattern PERIOD_PATTERN = Pattern.compile("\\.");
 
   public static String SYNTHETIC_PREFIX = "@";
   public static String LOCALVAR_PREFIX = "#";
@@ -35,6 +38,14 @@ public final class ValueReferences {
     return FIELD_PREFIX + name;
   }
 
+  /**
+   * @return the name and the fields of a reference path, without its prefix: {@code .a.b} is split
+   *     into {@code [a, b]}
+   */
+  public static String[] splitPath(String path) {
+    return PERIOD_PATTERN.split(path.substring(1));
+  }
+
   public static boolean isRefExpression(String expr) {
     return expr.startsWith(ValueReferences.SYNTHETIC_PREFIX)
         || expr.startsWith(ValueReferences.FIELD_PREFIX)
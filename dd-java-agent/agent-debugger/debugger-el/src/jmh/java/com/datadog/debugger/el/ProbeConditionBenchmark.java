@@ -0,0 +1,120 @@
+package com.datadog.debugger.el;
+
+import static com.datadog.debugger.el.DSL.and;
+import static com.datadog.debugger.el.DSL.eq;
+import static com.datadog.debugger.el.DSL.ge;
+import static com.datadog.debugger.el.DSL.gt;
+import static com.datadog.debugger.el.DSL.isEmpty;
+import static com.datadog.debugger.el.DSL.lt;
+import static com.datadog.debugger.el.DSL.or;
+import static com.datadog.debugger.el.DSL.ref;
+import static com.datadog.debugger.el.DSL.value;
+import static com.datadog.debugger.el.DSL.when;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.datadog.debugger.el.compiler.CompiledPredicate;
+import com.datadog.debugger.el.compiler.PredicateCompiler;
+import com.datadog.debugger.el.expressions.WhenExpression;
+import datadog.trace.bootstrap.debugger.Snapshot;
+import java.util.Arrays;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to test a probe condition against the captured context of a probe hit, when the
+ * condition is interpreted and when it is compiled by {@link PredicateCompiler}:
+ *
+ * <ul>
+ *   <li>{@code primitive} compares an {@code int} argument with a literal, and is false, like the
+ *       condition of a probe on a hot path which rarely captures.
+ *   <li>{@code fields} navigates the fields of an argument to compare a double, an int and a
+ *       string.
+ *   <li>{@code mixed} also tests a collection, which the compiled condition interprets.
+ * </ul>
+ *
+ * <p>Run with {@code ./gradlew :dd-java-agent:agent-debugger:debugger-el:jmh
+ * -PjmhIncludes=ProbeCondition}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class ProbeConditionBenchmark {
+
+  static class Customer {
+    private final String name = "John Doe";
+    private final int age = 42;
+  }
+
+  static class Order {
+    private final double amount = 99.99;
+    private final Customer customer = new Customer();
+    private final List<String> items = Arrays.asList("book", "pen");
+  }
+
+  @Param({"primitive", "fields", "mixed"})
+  String condition;
+
+  private WhenExpression interpreted;
+  private CompiledPredicate compiled;
+  private Snapshot.CapturedContext context;
+
+  @Setup
+  public void setup() {
+    switch (condition) {
+      case "primitive":
+        interpreted = when(gt(ref("^count"), value(100)));
+        break;
+      case "fields":
+        interpreted =
+            when(
+                and(
+                    ge(ref("^order.amount"), value(10)),
+                    lt(ref("^order.customer.age"), value(65)),
+                    eq(ref("^order.customer.name"), value("John Doe"))));
+        break;
+      case "mixed":
+        interpreted =
+            when(
+                or(
+                    gt(ref("^count"), value(100)),
+                    and(ge(ref("^order.amount"), value(10.5)), isEmpty(ref("^order.items")))));
+        break;
+      default:
+        throw new IllegalArgumentException(condition);
+    }
+    compiled = PredicateCompiler.compile(interpreted);
+    context =
+        new Snapshot.CapturedContext(
+            new Snapshot.CapturedValue[] {
+              Snapshot.CapturedValue.of("count", "int", 7),
+              Snapshot.CapturedValue.of("order", Order.class.getName(), new Order())
+            },
+            null,
+            null,
+            null,
+            null);
+  }
+
+  @Benchmark
+  public boolean interpreted() {
+    return interpreted.evaluate(context).test();
+  }
+
+  @Benchmark
+  public boolean compiled() {
+    return compiled.test(context);
+  }
+}
@@ -14,13 +14,8 @@ import com.datadog.debugger.el.expressions.PredicateExpression;
 import com.datadog.debugger.el.expressions.ValueExpression;
 import com.datadog.debugger.el.expressions.ValueRefExpression;
 import com.datadog.debugger.el.expressions.WhenExpression;
-import com.datadog.debugger.el.predicates.AndPredicate;
-import com.datadog.debugger.el.predicates.EqualsPredicate;
-import com.datadog.debugger.el.predicates.GreaterOrEqualPredicate;
-import com.datadog.debugger.el.predicates.GreaterThanPredicate;
-import com.datadog.debugger.el.predicates.LessOrEqualPredicate;
-import com.datadog.debugger.el.predicates.LessThanPredicate;
-import com.datadog.debugger.el.predicates.OrPredicate;
+import com.datadog.debugger.el.predicates.BinaryPredicate;
+import com.datadog.debugger.el.predicates.ValuePredicate;
 import com.datadog.debugger.el.values.BooleanValue;
 import com.datadog.debugger.el.values.ListValue;
 import com.datadog.debugger.el.values.MapValue;
@@ -52,7 +47,7 @@ public class DSL {
   }
 
   public static PredicateExpression and(PredicateExpression left, PredicateExpression right) {
-    return new BinaryExpression(left, right, AndPredicate::new);
+    return new BinaryExpression(left, right, BinaryPredicate.Kind.AND);
   }
 
   public static PredicateExpression or(PredicateExpression... expressions) {
@@ -67,27 +62,27 @@ public class DSL {
   }
 
   public static PredicateExpression or(PredicateExpression left, PredicateExpression right) {
-    return new BinaryExpression(left, right, OrPredicate::new);
+    return new BinaryExpression(left, right, BinaryPredicate.Kind.OR);
   }
 
   public static PredicateExpression gt(ValueExpression<?> left, ValueExpression<?> right) {
-    return new ComparisonExpression(left, right, GreaterThanPredicate::new);
+    return new ComparisonExpression(left, right, ValuePredicate.Kind.GT);
   }
 
   public static PredicateExpression ge(ValueExpression<?> left, ValueExpression<?> right) {
-    return new ComparisonExpression(left, right, GreaterOrEqualPredicate::new);
+    return new ComparisonExpression(left, right, ValuePredicate.Kind.GE);
   }
 
   public static PredicateExpression lt(ValueExpression<?> left, ValueExpression<?> right) {
-    return new ComparisonExpression(left, right, LessThanPredicate::new);
+    return new ComparisonExpression(left, right, ValuePredicate.Kind.LT);
   }
 
   public static PredicateExpression le(ValueExpression<?> left, ValueExpression<?> right) {
-    return new ComparisonExpression(left, right, LessOrEqualPredicate::new);
+    return new ComparisonExpression(left, right, ValuePredicate.Kind.LE);
   }
 
   public static PredicateExpression eq(ValueExpression<?> left, ValueExpression<?> right) {
-    return new ComparisonExpression(left, right, EqualsPredicate::new);
+    return new ComparisonExpression(left, right, ValuePredicate.Kind.EQ);
   }
 
   public static PredicateExpression not(PredicateExpression expression) {
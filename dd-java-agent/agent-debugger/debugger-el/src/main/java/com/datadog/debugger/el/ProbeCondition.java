@@ -2,6 +2,8 @@ package com.datadog.debugger.el;
 
 import static com.datadog.debugger.el.JsonToExpressionConverter.createPredicate;
 
+import com.datadog.debugger.el.compiler.CompiledPredicate;
+import com.datadog.debugger.el.compiler.PredicateCompiler;
 import com.datadog.debugger.el.expressions.ThenExpression;
 import com.datadog.debugger.el.expressions.WhenExpression;
 import com.squareup.moshi.JsonAdapter;
@@ -19,11 +21,14 @@ public final class ProbeCondition implements DebuggerScript {
   private final String dslExpression;
   private final WhenExpression when;
   private final ThenExpression then;
+  // null when the condition is interpreted
+  private final CompiledPredicate compiled;
 
   public ProbeCondition(WhenExpression when, String dslExpression) {
     this.when = when;
     this.dslExpression = dslExpression;
     this.then = new ThenExpression();
+    this.compiled = when != null ? PredicateCompiler.compile(when) : null;
   }
 
   public String getDslExpression() {
@@ -94,7 +99,9 @@ public final class ProbeCondition implements DebuggerScript {
     if (when == null) {
       return true;
     }
-    if (when.evaluate(valueRefResolver).test()) {
+    boolean test =
+        compiled != null ? compiled.test(valueRefResolver) : when.evaluate(valueRefResolver).test();
+    if (test) {
       then.evaluate(valueRefResolver);
       return true;
     }
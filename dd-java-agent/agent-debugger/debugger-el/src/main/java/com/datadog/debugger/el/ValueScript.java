@@ -13,6 +13,7 @@ import java.util.Objects;
 /** Implements expression language for capturing values for metric probes */
 public class ValueScript implements DebuggerScript {
   private final Object node;
+  private ValueExpression<? extends Value<?>> valueExpr;
   private Value<?> result;
 
   public ValueScript(Object node) {
@@ -24,7 +25,11 @@ public class ValueScript implements DebuggerScript {
     if (node == null) {
       return true;
     }
-    ValueExpression<? extends Value<?>> valueExpr = mapToValueExpression(node);
+    ValueExpression<? extends Value<?>> valueExpr = this.valueExpr;
+    if (valueExpr == null) {
+      // mapping the node twice when racing is harmless
+      this.valueExpr = valueExpr = mapToValueExpression(node);
+    }
     result = valueExpr.evaluate(valueRefResolver);
     return true;
   }
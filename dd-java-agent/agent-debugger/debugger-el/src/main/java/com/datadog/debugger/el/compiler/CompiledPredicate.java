@@ -0,0 +1,198 @@
+package com.datadog.debugger.el.compiler;
+
+import com.datadog.debugger.el.Value;
+import com.datadog.debugger.el.expressions.PredicateExpression;
+import datadog.trace.bootstrap.debugger.el.ValueReferenceResolver;
+import datadog.trace.bootstrap.debugger.el.Values;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A {@linkplain PredicateExpression} compiled into a class by {@link PredicateCompiler}, testing
+ * the expression without creating a {@linkplain Value} nor a {@linkplain
+ * com.datadog.debugger.el.Predicate} for each node.
+ *
+ * <p>The generated classes are defined by their own class loader, so they can only call the public
+ * members of this class: the static methods below are only meant to be called by them.
+ */
+public abstract class CompiledPredicate {
+  /** Returned by the comparisons when the expression has to be interpreted to compare the values */
+  public static final int INTERPRET = Integer.MIN_VALUE;
+
+  /**
+   * 2<sup>53</sup>, the doubles below it are integers or lie between two integers which are doubles
+   */
+  private static final double MAX_EXACT_INTEGER = 0x1p53;
+
+  /** The literals, the reference paths and the nodes interpreted by the generated class */
+  protected final Object[] constants;
+
+  protected CompiledPredicate(Object[] constants) {
+    this.constants = constants;
+  }
+
+  public abstract boolean test(ValueReferenceResolver valueRefResolver);
+
+  /** @return whether the resolved value would be an undefined {@linkplain Value} */
+  public static boolean isUndefined(Object value) {
+    if (value == Values.UNDEFINED_OBJECT) {
+      return true;
+    }
+    // checking the classes of the values compared most often is cheaper than checking an interface
+    if (value == null || value instanceof Number || value instanceof String) {
+      return false;
+    }
+    return value instanceof Value && ((Value<?>) value).isUndefined();
+  }
+
+  /**
+   * Compares two values like {@linkplain com.datadog.debugger.el.predicates.NumericPredicate} does,
+   * when both are null or {@code long}, {@code int}, {@code short}, {@code byte}, {@code double} or
+   * {@code float} numbers.
+   *
+   * @return the comparison of the values, or {@link #INTERPRET}
+   */
+  public static int compare(Object left, Object right) {
+    if (left instanceof Number && right instanceof Number) {
+      return compare((Number) left, (Number) right);
+    }
+    if (left instanceof Value || right instanceof Value) {
+      return INTERPRET;
+    }
+    boolean leftUnset = isNull(left);
+    boolean rightUnset = isNull(right);
+    if (leftUnset || rightUnset) {
+      if (leftUnset && rightUnset) {
+        return 0;
+      }
+      // the value which is set must be a number
+      Object set = leftUnset ? right : left;
+      if (!(set instanceof Number)) {
+        return INTERPRET;
+      }
+      return leftUnset ? -1 : 1;
+    }
+    return INTERPRET;
+  }
+
+  private static int compare(Number left, Number right) {
+    boolean leftIntegral = isIntegral(left);
+    boolean rightIntegral = isIntegral(right);
+    if (leftIntegral && rightIntegral) {
+      return Long.compare(left.longValue(), right.longValue());
+    }
+    boolean leftFloating = isFloating(left);
+    boolean rightFloating = isFloating(right);
+    if (!(leftIntegral || leftFloating) || !(rightIntegral || rightFloating)) {
+      return INTERPRET;
+    }
+    double leftDouble = left.doubleValue();
+    double rightDouble = right.doubleValue();
+    if ((leftFloating && isSpecial(leftDouble)) || (rightFloating && isSpecial(rightDouble))) {
+      return Double.compare(leftDouble, rightDouble);
+    }
+    if (leftFloating && rightFloating) {
+      // unlike Double.compare, 0.0 and -0.0 are equal as decimals
+      return leftDouble < rightDouble ? -1 : (leftDouble > rightDouble ? 1 : 0);
+    }
+    if (leftIntegral) {
+      return compare(left.longValue(), rightDouble);
+    }
+    int comparison = compare(right.longValue(), leftDouble);
+    return comparison == INTERPRET ? INTERPRET : -comparison;
+  }
+
+  /**
+   * Compares a long and a double as decimals. The shortest decimal representing a double, which the
+   * double is compared as, lies between the same integers as the double itself when the integers
+   * around it are doubles too.
+   */
+  private static int compare(long left, double right) {
+    if (Math.abs(right) >= MAX_EXACT_INTEGER) {
+      return INTERPRET;
+    }
+    long integral = (long) right;
+    if (left != integral) {
+      return Long.compare(left, integral);
+    }
+    double fraction = right - integral;
+    return fraction > 0 ? -1 : (fraction < 0 ? 1 : 0);
+  }
+
+  /**
+   * Tests the equality of two values like {@linkplain
+   * com.datadog.debugger.el.predicates.EqualsPredicate} does, when they are not collections.
+   *
+   * @return 1 if the values are equal, 0 if they are not, or {@link #INTERPRET}
+   */
+  public static int equal(Object left, Object right) {
+    if (left instanceof Number && right instanceof Number) {
+      Number leftNumber = (Number) left;
+      Number rightNumber = (Number) right;
+      boolean leftIntegral = isIntegral(leftNumber);
+      boolean rightIntegral = isIntegral(rightNumber);
+      if (leftIntegral && rightIntegral) {
+        return leftNumber.longValue() == rightNumber.longValue() ? 1 : 0;
+      }
+      boolean leftFloating = isFloating(leftNumber);
+      boolean rightFloating = isFloating(rightNumber);
+      if (leftFloating && rightFloating) {
+        return Double.doubleToLongBits(leftNumber.doubleValue())
+                == Double.doubleToLongBits(rightNumber.doubleValue())
+            ? 1
+            : 0;
+      }
+      if ((leftIntegral || leftFloating) && (rightIntegral || rightFloating)) {
+        // a long is never equal to a double
+        return 0;
+      }
+      return INTERPRET;
+    }
+    if (left instanceof Number || right instanceof Number) {
+      // the number is widened when interpreted, which matters to the equals of the other value
+      Object other = left instanceof Number ? right : left;
+      return isNull(other) || other instanceof String || other instanceof Boolean ? 0 : INTERPRET;
+    }
+    if (!isPlain(left) || !isPlain(right)) {
+      return INTERPRET;
+    }
+    if (isNull(left)) {
+      return isNull(right) ? 1 : 0;
+    }
+    return !isNull(right) && left.equals(right) ? 1 : 0;
+  }
+
+  /** Tests a node which isn't compiled. */
+  public static boolean interpret(Object expression, ValueReferenceResolver valueRefResolver) {
+    return ((PredicateExpression) expression).evaluate(valueRefResolver).test();
+  }
+
+  private static boolean isNull(Object value) {
+    return value == null || value == Values.NULL_OBJECT;
+  }
+
+  private static boolean isPlain(Object value) {
+    return value == null
+        || value instanceof String
+        || value instanceof Boolean
+        || !(value instanceof Value
+            || value instanceof Collection
+            || value instanceof Map
+            || value.getClass().isArray());
+  }
+
+  private static boolean isIntegral(Number number) {
+    return number instanceof Long
+        || number instanceof Integer
+        || number instanceof Short
+        || number instanceof Byte;
+  }
+
+  private static boolean isFloating(Number number) {
+    return number instanceof Double || number instanceof Float;
+  }
+
+  private static boolean isSpecial(double value) {
+    return Double.isNaN(value) || Double.isInfinite(value);
+  }
+}
@@ -0,0 +1,461 @@
+package com.datadog.debugger.el.compiler;
+
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.I2L;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFGE;
+import static org.objectweb.asm.Opcodes.IFGT;
+import static org.objectweb.asm.Opcodes.IFLE;
+import static org.objectweb.asm.Opcodes.IFLT;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IF_ICMPNE;
+import static org.objectweb.asm.Opcodes.INSTANCEOF;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.IXOR;
+import static org.objectweb.asm.Opcodes.LCMP;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.SIPUSH;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import com.datadog.debugger.el.Value;
+import com.datadog.debugger.el.expressions.BinaryExpression;
+import com.datadog.debugger.el.expressions.ComparisonExpression;
+import com.datadog.debugger.el.expressions.IsUndefinedExpression;
+import com.datadog.debugger.el.expressions.NotExpression;
+import com.datadog.debugger.el.expressions.PredicateExpression;
+import com.datadog.debugger.el.expressions.ValueExpression;
+import com.datadog.debugger.el.expressions.ValueRefExpression;
+import com.datadog.debugger.el.expressions.WhenExpression;
+import com.datadog.debugger.el.predicates.BinaryPredicate;
+import com.datadog.debugger.el.predicates.ValuePredicate;
+import com.datadog.debugger.el.values.BooleanValue;
+import com.datadog.debugger.el.values.NullValue;
+import com.datadog.debugger.el.values.NumericValue;
+import com.datadog.debugger.el.values.ObjectValue;
+import com.datadog.debugger.el.values.StringValue;
+import datadog.trace.bootstrap.debugger.el.ValueReferenceResolver;
+import datadog.trace.bootstrap.debugger.el.ValueReferences;
+import datadog.trace.bootstrap.debugger.el.Values;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles a {@linkplain PredicateExpression} into a class extending {@linkplain
+ * CompiledPredicate}, whose {@code test} method evaluates the whole tree on the stack:
+ *
+ * <ul>
+ *   <li>{@code and} and {@code or} jump over their right operand when the left one decides the
+ *       result, as the interpreter skips it, and {@code not} flips the boolean of its operand.
+ *   <li>comparisons of references and literals resolve the references with their path split once,
+ *       and compare the values without boxing nor {@code BigDecimal}: a reference compared with an
+ *       integral literal is unboxed and compared inline when it resolves to a {@code long} or an
+ *       {@code int}, the other numbers, the strings, the booleans and null are compared by the
+ *       helpers of {@linkplain CompiledPredicate}.
+ *   <li>{@code isUndefined} of a reference is tested inline.
+ * </ul>
+ *
+ * Any other node, and the comparisons of values the helpers can't compare exactly like the
+ * interpreter, are evaluated by the interpreter from the generated code.
+ */
+public final class PredicateCompiler {
+  private static final Logger log = LoggerFactory.getLogger(PredicateCompiler.class);
+
+  private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+  private static final String CLASS_NAME_PREFIX =
+      "com/datadog/debugger/el/compiler/GeneratedPredicate";
+
+  private static final String OBJECT = Type.getInternalName(Object.class);
+  private static final String COMPILED_PREDICATE = Type.getInternalName(CompiledPredicate.class);
+  private static final String RESOLVER = Type.getInternalName(ValueReferenceResolver.class);
+  private static final String CONSTANTS_DESC = Type.getDescriptor(Object[].class);
+  private static final String TEST_DESC =
+      Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(ValueReferenceResolver.class));
+  private static final String RESOLVE_DESC =
+      Type.getMethodDescriptor(
+          Type.getType(Object.class), Type.getType(String.class), Type.getType(String[].class));
+  private static final String INTERPRET_DESC =
+      Type.getMethodDescriptor(
+          Type.BOOLEAN_TYPE,
+          Type.getType(Object.class),
+          Type.getType(ValueReferenceResolver.class));
+  private static final String OBJECT_PREDICATE_DESC =
+      Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(Object.class));
+  private static final String COMPARISON_DESC =
+      Type.getMethodDescriptor(
+          Type.INT_TYPE, Type.getType(Object.class), Type.getType(Object.class));
+
+  private static final int THIS_VAR = 0;
+  private static final int RESOLVER_VAR = 1;
+
+  private final List<Object> constants = new ArrayList<>();
+  private int nextVar = RESOLVER_VAR + 1;
+  private int compiledNodes;
+
+  private PredicateCompiler() {}
+
+  /**
+   * @return the compiled expression, or {@code null} if the expression has to be interpreted
+   *     because none of its nodes can be compiled, or the compilation failed
+   */
+  public static CompiledPredicate compile(PredicateExpression expression) {
+    try {
+      return new PredicateCompiler().generate(expression);
+    } catch (RuntimeException | LinkageError e) {
+      log.debug("Failed to compile expression, it will be interpreted", e);
+      return null;
+    }
+  }
+
+  private CompiledPredicate generate(PredicateExpression expression) {
+    String className = CLASS_NAME_PREFIX + CLASS_COUNTER.incrementAndGet();
+    ClassWriter classWriter =
+        new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+          @Override
+          protected String getCommonSuperClass(String type1, String type2) {
+            // the generated code only merges objects, no need to load their classes
+            return OBJECT;
+          }
+        };
+    classWriter.visit(
+        V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, COMPILED_PREDICATE, null);
+
+    MethodVisitor constructor =
+        classWriter.visitMethod(
+            ACC_PUBLIC,
+            "<init>",
+            Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Object[].class)),
+            null,
+            null);
+    constructor.visitCode();
+    constructor.visitVarInsn(ALOAD, 0);
+    constructor.visitVarInsn(ALOAD, 1);
+    constructor.visitMethodInsn(
+        INVOKESPECIAL,
+        COMPILED_PREDICATE,
+        "<init>",
+        Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Object[].class)),
+        false);
+    constructor.visitInsn(RETURN);
+    constructor.visitMaxs(0, 0);
+    constructor.visitEnd();
+
+    MethodVisitor test = classWriter.visitMethod(ACC_PUBLIC, "test", TEST_DESC, null, null);
+    test.visitCode();
+    predicate(test, expression);
+    test.visitInsn(IRETURN);
+    test.visitMaxs(0, 0);
+    test.visitEnd();
+    classWriter.visitEnd();
+
+    if (compiledNodes == 0) {
+      return null;
+    }
+    Class<?> compiledClass =
+        new GeneratedClassLoader(CompiledPredicate.class.getClassLoader())
+            .define(className.replace('/', '.'), classWriter.toByteArray());
+    try {
+      return (CompiledPredicate)
+          compiledClass.getConstructor(Object[].class).newInstance((Object) constants.toArray());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Pushes the result of the predicate, 1 or 0. */
+  private void predicate(MethodVisitor mv, PredicateExpression expression) {
+    if (expression == PredicateExpression.TRUE) {
+      mv.visitInsn(ICONST_1);
+    } else if (expression == PredicateExpression.FALSE) {
+      mv.visitInsn(ICONST_0);
+    } else if (expression instanceof WhenExpression
+        && ((WhenExpression) expression).getExpression() != null) {
+      predicate(mv, ((WhenExpression) expression).getExpression());
+    } else if (expression instanceof NotExpression) {
+      compiledNodes++;
+      predicate(mv, ((NotExpression) expression).getPredicate());
+      mv.visitInsn(ICONST_1);
+      mv.visitInsn(IXOR);
+    } else if (expression instanceof BinaryExpression) {
+      binary(mv, (BinaryExpression) expression);
+    } else if (expression instanceof ComparisonExpression) {
+      comparison(mv, (ComparisonExpression) expression);
+    } else if (expression instanceof IsUndefinedExpression) {
+      isUndefined(mv, (IsUndefinedExpression) expression);
+    } else {
+      interpret(mv, expression);
+    }
+  }
+
+  private void binary(MethodVisitor mv, BinaryExpression expression) {
+    BinaryPredicate.Combiner combiner = expression.getCombiner();
+    if (combiner != BinaryPredicate.Kind.AND && combiner != BinaryPredicate.Kind.OR) {
+      interpret(mv, expression);
+      return;
+    }
+    compiledNodes++;
+    boolean isAnd = combiner == BinaryPredicate.Kind.AND;
+    Label decided = new Label();
+    Label end = new Label();
+    predicate(mv, expression.getLeft());
+    mv.visitJumpInsn(isAnd ? IFEQ : IFNE, decided);
+    predicate(mv, expression.getRight());
+    mv.visitJumpInsn(GOTO, end);
+    mv.visitLabel(decided);
+    mv.visitInsn(isAnd ? ICONST_0 : ICONST_1);
+    mv.visitLabel(end);
+  }
+
+  private void isUndefined(MethodVisitor mv, IsUndefinedExpression expression) {
+    ValueExpression<?> valueExpression = expression.getValueExpression();
+    if (valueExpression == null) {
+      mv.visitInsn(ICONST_0);
+      return;
+    }
+    if (!(valueExpression instanceof ValueRefExpression)) {
+      interpret(mv, expression);
+      return;
+    }
+    compiledNodes++;
+    resolve(mv, ((ValueRefExpression) valueExpression).getPath());
+    mv.visitMethodInsn(
+        INVOKESTATIC, COMPILED_PREDICATE, "isUndefined", OBJECT_PREDICATE_DESC, false);
+  }
+
+  private void comparison(MethodVisitor mv, ComparisonExpression expression) {
+    ValuePredicate.Kind comparison =
+        expression.getCombiner() instanceof ValuePredicate.Kind
+            ? (ValuePredicate.Kind) expression.getCombiner()
+            : null;
+    Operand left = operand(expression.getLeft());
+    Operand right = operand(expression.getRight());
+    if (comparison == null || left == null || right == null) {
+      interpret(mv, expression);
+      return;
+    }
+    compiledNodes++;
+    Label undefined = new Label();
+    Label compared = new Label();
+    Label end = new Label();
+    int leftVar = nextVar++;
+    int rightVar = nextVar++;
+    // the right operand is only resolved if the left one is defined, like when interpreted
+    load(mv, left, leftVar, undefined);
+    load(mv, right, rightVar, undefined);
+
+    if (comparison == ValuePredicate.Kind.EQ) {
+      mv.visitVarInsn(ALOAD, leftVar);
+      mv.visitVarInsn(ALOAD, rightVar);
+      mv.visitMethodInsn(INVOKESTATIC, COMPILED_PREDICATE, "equal", COMPARISON_DESC, false);
+      interpretIfNeeded(mv, expression, end, end);
+    } else {
+      if (left.isLiteralLong() && right.path != null) {
+        compareLong(mv, rightVar, (Long) left.value, false, compared);
+      } else if (right.isLiteralLong() && left.path != null) {
+        compareLong(mv, leftVar, (Long) right.value, true, compared);
+      }
+      mv.visitVarInsn(ALOAD, leftVar);
+      mv.visitVarInsn(ALOAD, rightVar);
+      mv.visitMethodInsn(INVOKESTATIC, COMPILED_PREDICATE, "compare", COMPARISON_DESC, false);
+      interpretIfNeeded(mv, expression, compared, end);
+
+      // stack: [comparison]
+      mv.visitLabel(compared);
+      Label isTrue = new Label();
+      mv.visitJumpInsn(jumpIfTrue(comparison), isTrue);
+      mv.visitInsn(ICONST_0);
+      mv.visitJumpInsn(GOTO, end);
+      mv.visitLabel(isTrue);
+      mv.visitInsn(ICONST_1);
+      mv.visitJumpInsn(GOTO, end);
+    }
+    mv.visitLabel(undefined);
+    mv.visitInsn(ICONST_0);
+    mv.visitLabel(end);
+  }
+
+  /**
+   * Compares the value of a reference with a literal as longs when the value is a {@code Long} or
+   * an {@code Integer}, jumping to {@code compared} with the comparison on the stack.
+   */
+  private static void compareLong(
+      MethodVisitor mv, int refVar, long literal, boolean refOnLeft, Label compared) {
+    for (Class<?> boxed : new Class<?>[] {Long.class, Integer.class}) {
+      String boxedName = Type.getInternalName(boxed);
+      Label next = new Label();
+      mv.visitVarInsn(ALOAD, refVar);
+      mv.visitTypeInsn(INSTANCEOF, boxedName);
+      mv.visitJumpInsn(IFEQ, next);
+      if (!refOnLeft) {
+        mv.visitLdcInsn(literal);
+      }
+      mv.visitVarInsn(ALOAD, refVar);
+      mv.visitTypeInsn(CHECKCAST, boxedName);
+      if (boxed == Long.class) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, boxedName, "longValue", "()J", false);
+      } else {
+        mv.visitMethodInsn(INVOKEVIRTUAL, boxedName, "intValue", "()I", false);
+        mv.visitInsn(I2L);
+      }
+      if (refOnLeft) {
+        mv.visitLdcInsn(literal);
+      }
+      mv.visitInsn(LCMP);
+      mv.visitJumpInsn(GOTO, compared);
+      mv.visitLabel(next);
+    }
+  }
+
+  /**
+   * Jumps to {@code helped} with the result of a helper on the stack, or, if the helper returned
+   * {@link CompiledPredicate#INTERPRET}, to {@code interpreted} with the result of the interpreted
+   * expression on the stack.
+   */
+  private void interpretIfNeeded(
+      MethodVisitor mv, PredicateExpression expression, Label helped, Label interpreted) {
+    mv.visitInsn(DUP);
+    mv.visitLdcInsn(CompiledPredicate.INTERPRET);
+    mv.visitJumpInsn(IF_ICMPNE, helped);
+    mv.visitInsn(POP);
+    interpret(mv, expression);
+    mv.visitJumpInsn(GOTO, interpreted);
+  }
+
+  private void interpret(MethodVisitor mv, PredicateExpression expression) {
+    constant(mv, expression);
+    mv.visitVarInsn(ALOAD, RESOLVER_VAR);
+    mv.visitMethodInsn(INVOKESTATIC, COMPILED_PREDICATE, "interpret", INTERPRET_DESC, false);
+  }
+
+  /**
+   * Stores the value of the operand in a local variable, jumping to {@code undefined} if the
+   * reference can't be resolved.
+   */
+  private void load(MethodVisitor mv, Operand operand, int var, Label undefined) {
+    if (operand.path == null) {
+      constant(mv, operand.value);
+      mv.visitVarInsn(ASTORE, var);
+      return;
+    }
+    resolve(mv, operand.path);
+    mv.visitVarInsn(ASTORE, var);
+    mv.visitVarInsn(ALOAD, var);
+    mv.visitMethodInsn(
+        INVOKESTATIC, COMPILED_PREDICATE, "isUndefined", OBJECT_PREDICATE_DESC, false);
+    mv.visitJumpInsn(IFNE, undefined);
+  }
+
+  private void resolve(MethodVisitor mv, String path) {
+    mv.visitVarInsn(ALOAD, RESOLVER_VAR);
+    mv.visitLdcInsn(path);
+    constant(mv, ValueReferences.splitPath(path));
+    mv.visitTypeInsn(CHECKCAST, Type.getInternalName(String[].class));
+    mv.visitMethodInsn(INVOKEINTERFACE, RESOLVER, "resolve", RESOLVE_DESC, true);
+  }
+
+  private void constant(MethodVisitor mv, Object value) {
+    int index = constants.size();
+    constants.add(value);
+    mv.visitVarInsn(ALOAD, THIS_VAR);
+    mv.visitFieldInsn(GETFIELD, COMPILED_PREDICATE, "constants", CONSTANTS_DESC);
+    if (index <= 5) {
+      mv.visitInsn(ICONST_0 + index);
+    } else if (index <= Byte.MAX_VALUE) {
+      mv.visitIntInsn(BIPUSH, index);
+    } else if (index <= Short.MAX_VALUE) {
+      mv.visitIntInsn(SIPUSH, index);
+    } else {
+      mv.visitLdcInsn(index);
+    }
+    mv.visitInsn(AALOAD);
+  }
+
+  /**
+   * @return the reference or the literal, or {@code null} if the value expression has to be
+   *     interpreted
+   */
+  private static Operand operand(ValueExpression<?> expression) {
+    if (expression instanceof ValueRefExpression) {
+      return new Operand(((ValueRefExpression) expression).getPath(), null);
+    }
+    if (expression == ValueExpression.NULL || expression instanceof NullValue) {
+      return new Operand(null, Values.NULL_OBJECT);
+    }
+    // these literals hold the values that resolved references would be converted to
+    if (expression instanceof NumericValue
+        || expression instanceof StringValue
+        || expression instanceof BooleanValue) {
+      Object value = ((Value<?>) expression).getValue();
+      return value == null ? null : new Operand(null, value);
+    }
+    if (expression instanceof ObjectValue
+        && ((ObjectValue) expression).getValue() == Values.NULL_OBJECT) {
+      return new Operand(null, Values.NULL_OBJECT);
+    }
+    return null;
+  }
+
+  /** @return the jump taken when the result of the comparison, pushed as an int, is true */
+  private static int jumpIfTrue(ValuePredicate.Kind comparison) {
+    switch (comparison) {
+      case LT:
+        return IFLT;
+      case LE:
+        return IFLE;
+      case GT:
+        return IFGT;
+      case GE:
+        return IFGE;
+      default:
+        return IFNE;
+    }
+  }
+
+  private static final class Operand {
+    final String path;
+    final Object value;
+
+    Operand(String path, Object value) {
+      this.path = path;
+      this.value = value;
+    }
+
+    boolean isLiteralLong() {
+      return path == null && value instanceof Long;
+    }
+  }
+
+  /** Defines a single generated class, so it can be unloaded with the probe it belongs to. */
+  private static final class GeneratedClassLoader extends ClassLoader {
+    GeneratedClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String name, byte[] bytes) {
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+}
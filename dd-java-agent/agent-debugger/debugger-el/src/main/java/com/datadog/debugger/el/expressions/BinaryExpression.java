@@ -22,6 +22,30 @@ public final class BinaryExpression implements PredicateExpression {
 
   @Override
   public Predicate evaluate(ValueReferenceResolver valueRefResolver) {
+    if (combiner == BinaryPredicate.Kind.AND || combiner == BinaryPredicate.Kind.OR) {
+      // the right operand is only evaluated when the left one doesn't decide the result
+      Predicate leftPredicate =
+          left.evaluate(valueRefResolver).test() ? Predicate.TRUE : Predicate.FALSE;
+      if (combiner == BinaryPredicate.Kind.AND && leftPredicate == Predicate.FALSE) {
+        return Predicate.FALSE;
+      }
+      if (combiner == BinaryPredicate.Kind.OR && leftPredicate == Predicate.TRUE) {
+        return Predicate.TRUE;
+      }
+      return combiner.get(leftPredicate, right.evaluate(valueRefResolver));
+    }
     return combiner.get(left.evaluate(valueRefResolver), right.evaluate(valueRefResolver));
   }
+
+  public PredicateExpression getLeft() {
+    return left;
+  }
+
+  public PredicateExpression getRight() {
+    return right;
+  }
+
+  public BinaryPredicate.Combiner getCombiner() {
+    return combiner;
+  }
 }
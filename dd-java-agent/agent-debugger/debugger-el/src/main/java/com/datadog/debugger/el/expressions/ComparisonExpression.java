@@ -33,4 +33,16 @@ public final class ComparisonExpression implements PredicateExpression {
     }
     return combiner.get(leftValue, rightValue);
   }
+
+  public ValueExpression<?> getLeft() {
+    return left;
+  }
+
+  public ValueExpression<?> getRight() {
+    return right;
+  }
+
+  public ValuePredicate.Combiner getCombiner() {
+    return combiner;
+  }
 }
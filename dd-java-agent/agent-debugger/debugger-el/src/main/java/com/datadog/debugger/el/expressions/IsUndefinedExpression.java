@@ -24,4 +24,8 @@ public final class IsUndefinedExpression implements PredicateExpression {
     Value<?> value = valueExpression.evaluate(valueRefResolver);
     return value.isUndefined() ? Predicate.TRUE : Predicate.FALSE;
   }
+
+  public ValueExpression<?> getValueExpression() {
+    return valueExpression;
+  }
 }
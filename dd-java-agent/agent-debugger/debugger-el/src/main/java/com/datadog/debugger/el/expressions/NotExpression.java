@@ -16,4 +16,8 @@ public final class NotExpression implements PredicateExpression {
   public Predicate evaluate(ValueReferenceResolver valueRefResolver) {
     return new NotPredicate(predicate.evaluate(valueRefResolver));
   }
+
+  public PredicateExpression getPredicate() {
+    return predicate;
+  }
 }
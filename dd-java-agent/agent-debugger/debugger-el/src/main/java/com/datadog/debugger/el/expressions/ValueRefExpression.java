@@ -10,10 +10,12 @@ import java.util.Objects;
 @SuppressWarnings("rawtypes")
 public final class ValueRefExpression implements ValueExpression {
   private final String path;
+  private final String[] parts;
 
   public ValueRefExpression(String path) {
     if (ValueReferences.isRefExpression(path)) {
       this.path = path;
+      this.parts = ValueReferences.splitPath(path);
     } else {
       throw new IllegalArgumentException(
           "The provided path '" + path + "' does not constitute a value reference");
@@ -22,7 +24,11 @@ public final class ValueRefExpression implements ValueExpression {
 
   @Override
   public Value<?> evaluate(ValueReferenceResolver valueRefResolver) {
-    return Value.of(valueRefResolver.resolve(path));
+    return Value.of(valueRefResolver.resolve(path, parts));
+  }
+
+  public String getPath() {
+    return path;
   }
 
   @Generated
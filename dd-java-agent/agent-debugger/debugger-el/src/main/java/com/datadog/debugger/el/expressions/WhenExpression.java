@@ -15,4 +15,8 @@ public final class WhenExpression implements PredicateExpression {
   public Predicate evaluate(ValueReferenceResolver valueRefResolver) {
     return expression.evaluate(valueRefResolver);
   }
+
+  public PredicateExpression getExpression() {
+    return expression;
+  }
 }
@@ -9,6 +9,23 @@ public abstract class BinaryPredicate implements Predicate {
     BinaryPredicate get(Predicate left, Predicate right);
   }
 
+  /** The logical operators, as combiners the expression compiler can tell apart */
+  public enum Kind implements Combiner {
+    AND(AndPredicate::new),
+    OR(OrPredicate::new);
+
+    private final Combiner combiner;
+
+    Kind(Combiner combiner) {
+      this.combiner = combiner;
+    }
+
+    @Override
+    public BinaryPredicate get(Predicate left, Predicate right) {
+      return combiner.get(left, right);
+    }
+  }
+
   protected final Predicate left;
   protected final Predicate right;
 
@@ -10,6 +10,26 @@ public abstract class ValuePredicate implements Predicate {
     ValuePredicate get(Value<?> left, Value<?> right);
   }
 
+  /** The comparisons, as combiners the expression compiler can tell apart */
+  public enum Kind implements Combiner {
+    EQ(EqualsPredicate::new),
+    LT(LessThanPredicate::new),
+    LE(LessOrEqualPredicate::new),
+    GT(GreaterThanPredicate::new),
+    GE(GreaterOrEqualPredicate::new);
+
+    private final Combiner combiner;
+
+    Kind(Combiner combiner) {
+      this.combiner = combiner;
+    }
+
+    @Override
+    public ValuePredicate get(Value<?> left, Value<?> right) {
+      return combiner.get(left, right);
+    }
+  }
+
   public interface Operator<T> {
     boolean apply(Value<?> left, Value<?> right);
   }
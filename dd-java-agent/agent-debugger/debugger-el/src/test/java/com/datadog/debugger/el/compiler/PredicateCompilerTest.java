@@ -0,0 +1,186 @@
+package com.datadog.debugger.el.compiler;
+
+import static com.datadog.debugger.el.DSL.and;
+import static com.datadog.debugger.el.DSL.eq;
+import static com.datadog.debugger.el.DSL.ge;
+import static com.datadog.debugger.el.DSL.gt;
+import static com.datadog.debugger.el.DSL.isEmpty;
+import static com.datadog.debugger.el.DSL.le;
+import static com.datadog.debugger.el.DSL.lt;
+import static com.datadog.debugger.el.DSL.not;
+import static com.datadog.debugger.el.DSL.or;
+import static com.datadog.debugger.el.DSL.ref;
+import static com.datadog.debugger.el.DSL.value;
+import static com.datadog.debugger.el.DSL.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.datadog.debugger.el.StaticValueRefResolver;
+import com.datadog.debugger.el.expressions.IsUndefinedExpression;
+import com.datadog.debugger.el.expressions.PredicateExpression;
+import datadog.trace.bootstrap.debugger.el.ValueReferenceResolver;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class PredicateCompilerTest {
+  // used in fieldNavigation
+  private final Holder holder = new Holder();
+
+  static Object[] values() {
+    return new Object[] {
+      0,
+      1,
+      2,
+      5L,
+      -3L,
+      (short) 1,
+      (byte) 2,
+      1.0,
+      2.5,
+      -2.5,
+      0x1p53,
+      Long.MAX_VALUE,
+      1.0f,
+      -0.0,
+      Double.NaN,
+      Double.POSITIVE_INFINITY,
+      new BigDecimal("1.0"),
+      "a",
+      "",
+      true,
+      null,
+      Arrays.asList(1, 2),
+      new Object()
+    };
+  }
+
+  @ParameterizedTest
+  @MethodSource("values")
+  void sameResultsAsInterpreted(Object value) {
+    PredicateExpression[] expressions = {
+      gt(ref("#x"), value(1)),
+      le(value(1), ref("#x")),
+      lt(ref("#x"), value(1.5)),
+      ge(ref("#x"), ref("#y")),
+      eq(ref("#x"), value(1)),
+      eq(ref("#x"), value("a")),
+      eq(ref("#x"), value(true)),
+      eq(ref("#x"), value((Object) null)),
+      eq(ref("#x"), ref("#y")),
+      not(eq(ref("#x"), value(2))),
+      or(lt(ref("#x"), value(0)), gt(ref("#x"), value(1))),
+      and(gt(ref("#y"), value(1)), isEmpty(ref("#x"))),
+      new IsUndefinedExpression(ref("#x")),
+      gt(ref("#missing"), value(1))
+    };
+    for (Object other : values()) {
+      Map<String, Object> values = new HashMap<>();
+      values.put("#x", value);
+      values.put("#y", other);
+      ValueReferenceResolver resolver = new StaticValueRefResolver(null, 0, null, values);
+      for (PredicateExpression expression : expressions) {
+        CompiledPredicate compiled = PredicateCompiler.compile(when(expression));
+        assertNotNull(compiled);
+        String interpretedResult = test(() -> expression.evaluate(resolver).test());
+        String compiledResult = test(() -> compiled.test(resolver));
+        assertEquals(interpretedResult, compiledResult, value + " and " + other);
+      }
+    }
+  }
+
+  @Test
+  void fieldNavigation() {
+    ValueReferenceResolver resolver = StaticValueRefResolver.self(this);
+    CompiledPredicate compiled =
+        PredicateCompiler.compile(
+            when(
+                and(
+                    gt(ref(".holder.count"), value(10)),
+                    eq(ref(".holder.name"), value("holder")),
+                    lt(ref(".holder.ratio"), value(0.5)))));
+    assertNotNull(compiled);
+    assertTrue(compiled.test(resolver));
+    holder.count = 5;
+    assertFalse(compiled.test(resolver));
+  }
+
+  @Test
+  void interpretedNodes() {
+    AtomicInteger interpreted = new AtomicInteger();
+    PredicateExpression counting =
+        ctx -> {
+          interpreted.incrementAndGet();
+          return () -> true;
+        };
+    CompiledPredicate compiled = PredicateCompiler.compile(when(and(counting, counting)));
+    assertNotNull(compiled);
+    ValueReferenceResolver resolver = new StaticValueRefResolver(null, 0, null, null);
+    assertTrue(compiled.test(resolver));
+    // the left operand doesn't decide the result, so both are evaluated
+    assertEquals(2, interpreted.get());
+  }
+
+  @Test
+  void shortCircuit() {
+    AtomicInteger evaluated = new AtomicInteger();
+    PredicateExpression counting =
+        ctx -> {
+          evaluated.incrementAndGet();
+          return () -> true;
+        };
+    PredicateExpression[] expressions = {
+      and(PredicateExpression.FALSE, counting),
+      and(gt(ref("#x"), value(1)), counting),
+      or(PredicateExpression.TRUE, counting),
+      or(lt(ref("#x"), value(1)), counting)
+    };
+    ValueReferenceResolver resolver =
+        new StaticValueRefResolver(null, 0, null, Collections.singletonMap("#x", 0));
+    for (PredicateExpression expression : expressions) {
+      CompiledPredicate compiled = PredicateCompiler.compile(when(expression));
+      assertNotNull(compiled);
+      assertEquals(expression.evaluate(resolver).test(), compiled.test(resolver));
+    }
+    // neither interpreted nor compiled
+    assertEquals(0, evaluated.get());
+  }
+
+  @Test
+  void nothingToCompile() {
+    assertNull(PredicateCompiler.compile(when(isEmpty(ref("#x")))));
+  }
+
+  @Test
+  void notANumber() {
+    CompiledPredicate compiled = PredicateCompiler.compile(when(gt(ref("#x"), value(1))));
+    ValueReferenceResolver resolver =
+        new StaticValueRefResolver(null, 0, null, Collections.singletonMap("#x", "a"));
+    assertThrows(IllegalArgumentException.class, () -> compiled.test(resolver));
+  }
+
+  private static String test(BooleanSupplier predicate) {
+    try {
+      return String.valueOf(predicate.getAsBoolean());
+    } catch (RuntimeException e) {
+      return e.getClass().getName();
+    }
+  }
+
+  static class Holder {
+    int count = 42;
+    String name = "holder";
+    double ratio = 0.25;
+  }
+}
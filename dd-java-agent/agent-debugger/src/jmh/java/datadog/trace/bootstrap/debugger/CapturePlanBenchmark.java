@@ -0,0 +1,116 @@
+package datadog.trace.bootstrap.debugger;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import datadog.trace.bootstrap.debugger.el.ReflectiveFieldValueResolver;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the time to capture the fields of an object graph, down to the default reference depth,
+ * with the plans cached per class, compared with resolving the fields and making them accessible at
+ * every capture, as before, and the time to resolve a field reference in an expression.
+ *
+ * <p>Run with {@code ./gradlew :dd-java-agent:agent-debugger:jmh -PjmhIncludes=CapturePlan}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class CapturePlanBenchmark {
+
+  static class Base {
+    private final String id = "base-id";
+    private long createdAt = 1_600_000_000_000L;
+  }
+
+  static class Address extends Base {
+    private String street = "1 Main Street";
+    private String city = "Paris";
+    private int zipCode = 75001;
+  }
+
+  static class Customer extends Base {
+    private static final String TYPE = "customer";
+    private String name = "John Doe";
+    private int age = 42;
+    private boolean active = true;
+    private Address address = new Address();
+    private Address billingAddress = new Address();
+  }
+
+  static class Order extends Base {
+    private Customer customer = new Customer();
+    private double amount = 99.99;
+    private String currency = "EUR";
+    private Object payload = new Customer();
+  }
+
+  private final Order order = new Order();
+
+  @Benchmark
+  public void captureWithPlan(Blackhole blackhole) {
+    captureWithPlan(order, Limits.DEFAULT, blackhole);
+  }
+
+  @Benchmark
+  public void captureWithReflection(Blackhole blackhole) throws IllegalAccessException {
+    captureWithReflection(order, Limits.DEFAULT.maxReferenceDepth, blackhole);
+  }
+
+  @Benchmark
+  public Object resolveFieldReference() {
+    return ReflectiveFieldValueResolver.resolve(order, Order.class, "customer");
+  }
+
+  private static void captureWithPlan(Object obj, Limits limits, Blackhole blackhole) {
+    FieldExtractor.extract(
+        obj,
+        limits,
+        (field, value, maxDepth) -> {
+          blackhole.consume(value);
+          if (maxDepth > 0 && value != null) {
+            captureWithPlan(value, Limits.decDepthLimits(maxDepth, limits), blackhole);
+          }
+        },
+        (ex, field) -> blackhole.consume(ex),
+        blackhole::consume);
+  }
+
+  private static void captureWithReflection(Object obj, int maxDepth, Blackhole blackhole)
+      throws IllegalAccessException {
+    if (obj == null || Fields.isPrimitiveClass(obj)) {
+      return;
+    }
+    int count = 0;
+    Class<?> currentClass = obj.getClass();
+    do {
+      for (Field field : currentClass.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers()) && Modifier.isFinal(field.getModifiers())) {
+          continue;
+        }
+        if (count++ >= Limits.DEFAULT.maxFieldCount) {
+          return;
+        }
+        field.setAccessible(true);
+        Object value = field.get(obj);
+        blackhole.consume(value);
+        if (maxDepth > 0 && value != null) {
+          captureWithReflection(value, maxDepth - 1, blackhole);
+        }
+      }
+    } while ((currentClass = currentClass.getSuperclass()) != null);
+  }
+}
@@ -10,6 +10,7 @@ import datadog.remoteconfig.ConfigurationPoller;
 import datadog.remoteconfig.Product;
 import datadog.remoteconfig.SizeCheckedInputStream;
 import datadog.trace.api.Config;
+import datadog.trace.bootstrap.debugger.CaptureBuffer;
 import datadog.trace.bootstrap.debugger.DebuggerContext;
 import datadog.trace.bootstrap.debugger.Snapshot;
 import java.io.ByteArrayOutputStream;
@@ -71,6 +72,7 @@ public class DebuggerAgent {
     DebuggerContext.init(sink, configurationUpdater, statsdMetricForwarder);
     DebuggerContext.initClassFilter(new DenyListHelper(null)); // default hard coded deny list
     DebuggerContext.initSnapshotSerializer(new JsonSnapshotSerializer());
+    CaptureBuffer.init(config.getDebuggerCaptureBufferSize());
     if (config.isDebuggerInstrumentTheWorld()) {
       setupInstrumentTheWorldTransformer(config, instrumentation, sink, statsdMetricForwarder);
     }
@@ -1,5 +1,6 @@
 package com.datadog.debugger.agent;
 
+import com.datadog.debugger.util.CaptureDecoder;
 import com.datadog.debugger.util.MoshiHelper;
 import com.datadog.debugger.util.MoshiSnapshotHelper;
 import com.squareup.moshi.Json;
@@ -94,9 +95,14 @@ public class JsonSnapshotSerializer implements DebuggerContext.SnapshotSerialize
   public static String getValue(Snapshot.CapturedValue capturedValue, String name) {
     if (capturedValue != null) {
       try {
-        Snapshot.CapturedValue deserializedValue =
-            VALUE_ADAPTER.fromJson(capturedValue.getStrValue());
+        String strValue =
+            capturedValue.getCapture() != null
+                ? CaptureDecoder.toJson(capturedValue.getCapture())
+                : capturedValue.getStrValue();
+        Snapshot.CapturedValue deserializedValue = VALUE_ADAPTER.fromJson(strValue);
         return String.valueOf(deserializedValue.getValue());
+      } catch (CaptureDecoder.OverwrittenCaptureException e) {
+        throw e;
       } catch (Exception e) {
         LOG.warn("Cannot deserialize " + name, e);
       }
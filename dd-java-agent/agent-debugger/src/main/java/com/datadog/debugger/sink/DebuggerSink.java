@@ -72,7 +72,7 @@ public class DebuggerSink implements DebuggerContext.Sink {
         batchUploader,
         debuggerMetrics,
         new ProbeStatusSink(config),
-        new SnapshotSink(config));
+        new SnapshotSink(config, debuggerMetrics));
   }
 
   public DebuggerSink(
@@ -1,7 +1,10 @@
 package com.datadog.debugger.sink;
 
+import com.datadog.debugger.util.CaptureDecoder;
+import com.datadog.debugger.util.DebuggerMetrics;
 import com.datadog.debugger.util.ExceptionHelper;
 import datadog.trace.api.Config;
+import datadog.trace.bootstrap.debugger.CaptureBuffer;
 import datadog.trace.bootstrap.debugger.DebuggerContext;
 import datadog.trace.bootstrap.debugger.Snapshot;
 import datadog.trace.util.TagsHelper;
@@ -16,14 +19,21 @@ import org.slf4j.LoggerFactory;
 public class SnapshotSink {
   private static final Logger LOGGER = LoggerFactory.getLogger(DebuggerSink.class);
   private static final int CAPACITY = 1000;
+  private static final String PREFIX = "debugger.sink.";
 
   private final BlockingQueue<Snapshot> snapshots = new ArrayBlockingQueue<>(CAPACITY);
   private final String serviceName;
   private final int batchSize;
+  private final DebuggerMetrics debuggerMetrics;
 
   public SnapshotSink(Config config) {
+    this(config, DebuggerMetrics.getInstance(config));
+  }
+
+  public SnapshotSink(Config config, DebuggerMetrics debuggerMetrics) {
     this.serviceName = TagsHelper.sanitize(config.getServiceName());
     this.batchSize = config.getDebuggerUploadBatchSize();
+    this.debuggerMetrics = debuggerMetrics;
   }
 
   public List<String> getSerializedSnapshots() {
@@ -32,13 +42,29 @@ public class SnapshotSink {
     List<String> serializedSnapshots = new ArrayList<>();
     for (Snapshot snapshot : snapshots) {
       try {
+        long startTs = System.nanoTime();
         String strSnapshot = serializeSnapshot(serviceName, snapshot);
+        // time spent on the application thread vs. here, in the background
+        debuggerMetrics.histogram(PREFIX + "serialization.time", System.nanoTime() - startTs);
+        if (snapshot.retrieveCaptureTime() > 0) {
+          debuggerMetrics.histogram(PREFIX + "capture.time", snapshot.retrieveCaptureTime());
+        }
         serializedSnapshots.add(strSnapshot);
         LOGGER.debug("Sending snapshot for probe: {}", snapshot.getProbe().getId());
+      } catch (CaptureDecoder.OverwrittenCaptureException e) {
+        debuggerMetrics.count(PREFIX + "dropped.captures", 1, "cause:overwritten");
+        LOGGER.debug(
+            "Dropping snapshot for probe {}: its captured values were overwritten",
+            snapshot.getProbe().getId());
       } catch (Exception e) {
         ExceptionHelper.logException(LOGGER, e, "Error during snapshot serialization:");
       }
     }
+    long overflows = CaptureBuffer.drainOverflows();
+    if (overflows > 0) {
+      // serialized on the application thread, because they didn't fit in its capture buffer
+      debuggerMetrics.count(PREFIX + "capture.overflows", overflows);
+    }
     return serializedSnapshots;
   }
 
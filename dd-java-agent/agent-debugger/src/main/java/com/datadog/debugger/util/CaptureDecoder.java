@@ -0,0 +1,278 @@
+package com.datadog.debugger.util;
+
+import static com.datadog.debugger.util.MoshiSnapshotHelper.COLLECTION_SIZE_REASON;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.DEPTH_REASON;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.ELEMENTS;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.ENTRIES;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.FIELDS;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.FIELD_COUNT_REASON;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.IS_NULL;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.NOT_CAPTURED_REASON;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.SIZE;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.TRUNCATED;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.TYPE;
+import static com.datadog.debugger.util.MoshiSnapshotHelper.VALUE;
+
+import com.squareup.moshi.JsonWriter;
+import datadog.trace.bootstrap.debugger.CaptureBuffer;
+import datadog.trace.bootstrap.debugger.CaptureEncoder;
+import java.io.IOException;
+import okio.Buffer;
+
+/**
+ * Expands a value recorded by {@link CaptureEncoder} into the JSON written by {@link
+ * MoshiSnapshotHelper.CapturedValueAdapter} for the value.
+ */
+public class CaptureDecoder {
+  private final byte[] bytes;
+  private int offset;
+
+  private CaptureDecoder(byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  /** @throws OverwrittenCaptureException if the capture was overwritten before being serialized */
+  public static void toJson(JsonWriter jsonWriter, CaptureBuffer.Capture capture)
+      throws IOException {
+    byte[] bytes = new byte[capture.length()];
+    if (!capture.copyTo(bytes)) {
+      throw new OverwrittenCaptureException();
+    }
+    new CaptureDecoder(bytes).readValue(jsonWriter);
+  }
+
+  /** @throws OverwrittenCaptureException if the capture was overwritten before being serialized */
+  public static String toJson(CaptureBuffer.Capture capture) throws IOException {
+    Buffer buffer = new Buffer();
+    toJson(JsonWriter.of(buffer), capture);
+    return buffer.readUtf8();
+  }
+
+  private void readValue(JsonWriter jsonWriter) throws IOException {
+    int tag = readByte();
+    jsonWriter.beginObject();
+    jsonWriter.name(TYPE);
+    jsonWriter.value(readString());
+    switch (tag) {
+      case CaptureEncoder.NULL:
+        jsonWriter.name(IS_NULL);
+        jsonWriter.value(true);
+        break;
+      case CaptureEncoder.DEPTH:
+        jsonWriter.name(NOT_CAPTURED_REASON);
+        jsonWriter.value(DEPTH_REASON);
+        break;
+      case CaptureEncoder.INTEGRAL:
+        jsonWriter.name(VALUE);
+        jsonWriter.value(String.valueOf(readSignedVarLong()));
+        break;
+      case CaptureEncoder.CHAR:
+        jsonWriter.name(VALUE);
+        jsonWriter.value(String.valueOf((char) readVarLong()));
+        break;
+      case CaptureEncoder.FLOAT:
+        jsonWriter.name(VALUE);
+        jsonWriter.value(String.valueOf(Float.intBitsToFloat(readFixedInt())));
+        break;
+      case CaptureEncoder.DOUBLE:
+        jsonWriter.name(VALUE);
+        jsonWriter.value(String.valueOf(Double.longBitsToDouble(readFixedLong())));
+        break;
+      case CaptureEncoder.BOOLEAN:
+        jsonWriter.name(VALUE);
+        jsonWriter.value(String.valueOf(readByte() != 0));
+        break;
+      case CaptureEncoder.STRING:
+        readStringValue(jsonWriter);
+        break;
+      case CaptureEncoder.PRIMITIVE_ARRAY:
+        readPrimitiveArray(jsonWriter);
+        break;
+      case CaptureEncoder.ELEMENTS:
+        jsonWriter.name(ELEMENTS);
+        jsonWriter.beginArray();
+        while (peekByte() != CaptureEncoder.END) {
+          readValue(jsonWriter);
+        }
+        readEnd(jsonWriter);
+        break;
+      case CaptureEncoder.ENTRIES:
+        jsonWriter.name(ENTRIES);
+        jsonWriter.beginArray();
+        while (peekByte() != CaptureEncoder.END) {
+          jsonWriter.beginArray();
+          readValue(jsonWriter);
+          readValue(jsonWriter);
+          jsonWriter.endArray();
+        }
+        readEnd(jsonWriter);
+        break;
+      case CaptureEncoder.FIELDS:
+        readFields(jsonWriter);
+        break;
+      default:
+        throw new IOException("Unknown capture tag: " + tag);
+    }
+    jsonWriter.endObject();
+  }
+
+  private void readStringValue(JsonWriter jsonWriter) throws IOException {
+    long originalLength = readVarLong();
+    String value = readString();
+    jsonWriter.name(VALUE);
+    jsonWriter.value(value);
+    if (value.length() < originalLength) {
+      jsonWriter.name(TRUNCATED);
+      jsonWriter.value(true);
+      jsonWriter.name(SIZE);
+      jsonWriter.value(String.valueOf(originalLength));
+    }
+  }
+
+  private void readPrimitiveArray(JsonWriter jsonWriter) throws IOException {
+    int itemType = readByte();
+    long length = readVarLong();
+    long count = readVarLong();
+    String itemTypeName = CaptureEncoder.ITEM_TYPES[itemType];
+    jsonWriter.name(ELEMENTS);
+    jsonWriter.beginArray();
+    for (long i = 0; i < count; i++) {
+      jsonWriter.beginObject();
+      jsonWriter.name(TYPE);
+      jsonWriter.value(itemTypeName);
+      jsonWriter.name(VALUE);
+      jsonWriter.value(readItem(itemType));
+      jsonWriter.endObject();
+    }
+    jsonWriter.endArray();
+    if (count != length) {
+      jsonWriter.name(NOT_CAPTURED_REASON);
+      jsonWriter.value(COLLECTION_SIZE_REASON);
+    }
+    jsonWriter.name(SIZE);
+    jsonWriter.value(String.valueOf(length));
+  }
+
+  private String readItem(int itemType) throws IOException {
+    switch (itemType) {
+      case CaptureEncoder.LONG_ITEM:
+      case CaptureEncoder.INT_ITEM:
+      case CaptureEncoder.SHORT_ITEM:
+      case CaptureEncoder.BYTE_ITEM:
+        return String.valueOf(readSignedVarLong());
+      case CaptureEncoder.CHAR_ITEM:
+        return String.valueOf((char) readVarLong());
+      case CaptureEncoder.BOOLEAN_ITEM:
+        return String.valueOf(readByte() != 0);
+      case CaptureEncoder.FLOAT_ITEM:
+        return String.valueOf(Float.intBitsToFloat(readFixedInt()));
+      case CaptureEncoder.DOUBLE_ITEM:
+        return String.valueOf(Double.longBitsToDouble(readFixedLong()));
+      default:
+        throw new IOException("Unknown array item type: " + itemType);
+    }
+  }
+
+  /** Reads the end of elements or entries, whose array is still open. */
+  private void readEnd(JsonWriter jsonWriter) throws IOException {
+    readByte(); // END
+    long size = readVarLong();
+    boolean complete = readByte() != 0;
+    jsonWriter.endArray();
+    if (!complete) {
+      jsonWriter.name(NOT_CAPTURED_REASON);
+      jsonWriter.value(COLLECTION_SIZE_REASON);
+    }
+    jsonWriter.name(SIZE);
+    jsonWriter.value(String.valueOf(size));
+  }
+
+  private void readFields(JsonWriter jsonWriter) throws IOException {
+    jsonWriter.name(FIELDS);
+    jsonWriter.beginObject();
+    while (true) {
+      int tag = readByte();
+      switch (tag) {
+        case CaptureEncoder.FIELD:
+          jsonWriter.name(readString());
+          readValue(jsonWriter);
+          break;
+        case CaptureEncoder.FIELD_ERROR:
+          jsonWriter.name(readString());
+          jsonWriter.beginObject();
+          jsonWriter.name(TYPE);
+          jsonWriter.value(readString());
+          jsonWriter.name(NOT_CAPTURED_REASON);
+          jsonWriter.value(readString());
+          jsonWriter.endObject();
+          break;
+        case CaptureEncoder.FIELD_COUNT:
+          jsonWriter.name(NOT_CAPTURED_REASON);
+          jsonWriter.value(FIELD_COUNT_REASON);
+          break;
+        case CaptureEncoder.END:
+          jsonWriter.endObject();
+          return;
+        default:
+          throw new IOException("Unknown capture field tag: " + tag);
+      }
+    }
+  }
+
+  private int peekByte() {
+    return bytes[offset] & 0xFF;
+  }
+
+  private int readByte() {
+    return bytes[offset++] & 0xFF;
+  }
+
+  private long readVarLong() {
+    long value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  private long readSignedVarLong() {
+    long value = readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private long readFixedLong() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 8) {
+      value |= (long) readByte() << shift;
+    }
+    return value;
+  }
+
+  private int readFixedInt() {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 8) {
+      value |= readByte() << shift;
+    }
+    return value;
+  }
+
+  private String readString() {
+    int length = (int) readVarLong();
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) readVarLong();
+    }
+    return new String(chars);
+  }
+
+  /** Thrown when the thread which recorded a capture overwrote it before it was serialized. */
+  public static class OverwrittenCaptureException extends RuntimeException {
+    public OverwrittenCaptureException() {
+      super("Captured value overwritten before being serialized", null, false, false);
+    }
+  }
+}
@@ -316,11 +316,16 @@ public class MoshiSnapshotHelper {
         }
         jsonWriter.name(entry.getKey());
         Snapshot.CapturedValue capturedValue = entry.getValue();
-        jsonWriter.value(
-            Okio.buffer(
-                Okio.source(
-                    new ByteArrayInputStream(
-                        capturedValue.getStrValue().getBytes(StandardCharsets.UTF_8)))));
+        if (capturedValue.getCapture() != null) {
+          // recorded by the application thread, serialized now
+          CaptureDecoder.toJson(jsonWriter, capturedValue.getCapture());
+        } else {
+          jsonWriter.value(
+              Okio.buffer(
+                  Okio.source(
+                      new ByteArrayInputStream(
+                          capturedValue.getStrValue().getBytes(StandardCharsets.UTF_8)))));
+        }
         count++;
       }
       return true;
@@ -0,0 +1,217 @@
+package com.datadog.debugger.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.datadog.debugger.agent.DenyListHelper;
+import com.datadog.debugger.agent.JsonSnapshotSerializer;
+import datadog.trace.bootstrap.debugger.CaptureBuffer;
+import datadog.trace.bootstrap.debugger.CaptureEncoder;
+import datadog.trace.bootstrap.debugger.DebuggerContext;
+import datadog.trace.bootstrap.debugger.Limits;
+import datadog.trace.bootstrap.debugger.Snapshot;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CaptureDecoderTest {
+
+  static class Primitives {
+    long l = Long.MIN_VALUE;
+    int i = -42;
+    short s = 1234;
+    byte b = -1;
+    char c = '\u00e9';
+    boolean z = true;
+    float f = Float.NaN;
+    double d = 3.14;
+  }
+
+  static class ArrayHolder {
+    int[] ints = {1, -2, 3};
+    char[] chars = "abc".toCharArray();
+    double[] doubles = new double[200];
+    boolean[] booleans = {true, false};
+    String[] strings = {"foo", null, "bar"};
+    Object[] empty = {};
+  }
+
+  static class Node {
+    String name;
+    Node next;
+    Object nothing;
+
+    Node(String name, Node next) {
+      this.name = name;
+      this.next = next;
+    }
+  }
+
+  static class CollectionHolder {
+    List<Object> list = new ArrayList<>(Arrays.asList(1, "two", 3.0));
+    HashSet<String> set = new HashSet<>(Arrays.asList("a"));
+    Map<String, Object> map = new LinkedHashMap<>();
+    Map<Integer, Node> nodes = new LinkedHashMap<>();
+
+    CollectionHolder() {
+      map.put("key", "value");
+      nodes.put(1, new Node("one", new Node("two", null)));
+    }
+  }
+
+  private final JsonSnapshotSerializer serializer = new JsonSnapshotSerializer();
+
+  @BeforeEach
+  public void setup() {
+    DebuggerContext.initClassFilter(new DenyListHelper(null));
+    DebuggerContext.initSnapshotSerializer(serializer);
+    CaptureBuffer.init(64);
+    CaptureBuffer.drainOverflows();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    CaptureBuffer.init(0);
+  }
+
+  @Test
+  public void primitives() throws IOException {
+    assertSameJson(Snapshot.CapturedValue.of("l", "long", Long.MAX_VALUE));
+    assertSameJson(Snapshot.CapturedValue.of("i", "int", -7));
+    assertSameJson(Snapshot.CapturedValue.of("c", "char", '\u2603'));
+    assertSameJson(Snapshot.CapturedValue.of("f", "float", 1.5f));
+    assertSameJson(Snapshot.CapturedValue.of("d", "double", Double.NEGATIVE_INFINITY));
+    assertSameJson(Snapshot.CapturedValue.of("z", "boolean", false));
+    assertSameJson(Snapshot.CapturedValue.of("s", String.class.getTypeName(), "foo\"\n\u0000"));
+    assertSameJson(Snapshot.CapturedValue.of("n", String.class.getTypeName(), null));
+    assertSameJson(
+        Snapshot.CapturedValue.of("p", Primitives.class.getTypeName(), new Primitives()));
+  }
+
+  @Test
+  public void truncatedString() throws IOException {
+    assertSameJson(
+        Snapshot.CapturedValue.of(
+            "s",
+            String.class.getTypeName(),
+            "0123456789",
+            Limits.DEFAULT_REFERENCE_DEPTH,
+            Limits.DEFAULT_COLLECTION_SIZE,
+            3,
+            Limits.DEFAULT_FIELD_COUNT));
+  }
+
+  @Test
+  public void arrays() throws IOException {
+    assertSameJson(
+        Snapshot.CapturedValue.of("a", ArrayHolder.class.getTypeName(), new ArrayHolder()));
+    assertSameJson(
+        Snapshot.CapturedValue.of(
+            "a",
+            ArrayHolder.class.getTypeName(),
+            new ArrayHolder(),
+            Limits.DEFAULT_REFERENCE_DEPTH,
+            1,
+            Limits.DEFAULT_LENGTH,
+            Limits.DEFAULT_FIELD_COUNT));
+  }
+
+  @Test
+  public void collections() throws IOException {
+    assertSameJson(
+        Snapshot.CapturedValue.of(
+            "c", CollectionHolder.class.getTypeName(), new CollectionHolder()));
+    assertSameJson(
+        Snapshot.CapturedValue.of(
+            "c",
+            CollectionHolder.class.getTypeName(),
+            new CollectionHolder(),
+            Limits.DEFAULT_REFERENCE_DEPTH,
+            2,
+            Limits.DEFAULT_LENGTH,
+            Limits.DEFAULT_FIELD_COUNT));
+  }
+
+  @Test
+  public void depthAndFieldCount() throws IOException {
+    Node nodes = new Node("a", new Node("b", new Node("c", new Node("d", null))));
+    for (int depth = 0; depth < 5; depth++) {
+      assertSameJson(
+          Snapshot.CapturedValue.of(
+              "n",
+              Node.class.getTypeName(),
+              nodes,
+              depth,
+              Limits.DEFAULT_COLLECTION_SIZE,
+              Limits.DEFAULT_LENGTH,
+              Limits.DEFAULT_FIELD_COUNT));
+    }
+    for (int fieldCount = 0; fieldCount < 4; fieldCount++) {
+      assertSameJson(
+          Snapshot.CapturedValue.of(
+              "n",
+              Node.class.getTypeName(),
+              nodes,
+              Limits.DEFAULT_REFERENCE_DEPTH,
+              Limits.DEFAULT_COLLECTION_SIZE,
+              Limits.DEFAULT_LENGTH,
+              fieldCount));
+    }
+  }
+
+  @Test
+  public void overwrittenCapture() throws IOException {
+    CaptureBuffer.init(1);
+    CaptureBuffer.Capture first = encode("first");
+    assertNotNull(first);
+    for (int i = 0; i < 100; i++) {
+      assertNotNull(encode("next " + i));
+    }
+    assertFalse(first.copyTo(new byte[first.length()]));
+    assertThrows(
+        CaptureDecoder.OverwrittenCaptureException.class, () -> CaptureDecoder.toJson(first));
+  }
+
+  @Test
+  public void tooLargeForBuffer() throws IOException {
+    CaptureBuffer.init(1);
+    char[] chars = new char[2048];
+    Arrays.fill(chars, 'x');
+    Snapshot.CapturedValue value =
+        Snapshot.CapturedValue.of(
+            "s",
+            String.class.getTypeName(),
+            new String(chars),
+            Limits.DEFAULT_REFERENCE_DEPTH,
+            Limits.DEFAULT_COLLECTION_SIZE,
+            chars.length,
+            Limits.DEFAULT_FIELD_COUNT);
+    assertNull(CaptureEncoder.encode(value));
+    assertEquals(1L, CaptureBuffer.drainOverflows());
+    // the next captures still fit
+    CaptureBuffer.Capture next = encode("next");
+    assertTrue(next.copyTo(new byte[next.length()]));
+  }
+
+  private CaptureBuffer.Capture encode(String str) {
+    return CaptureEncoder.encode(Snapshot.CapturedValue.of("s", String.class.getTypeName(), str));
+  }
+
+  private void assertSameJson(Snapshot.CapturedValue value) throws IOException {
+    String expected = serializer.serializeValue(value);
+    CaptureBuffer.Capture capture = CaptureEncoder.encode(value);
+    assertNotNull(capture);
+    assertEquals(expected, CaptureDecoder.toJson(capture));
+  }
+}
@@ -0,0 +1,66 @@
+package datadog.trace.bootstrap.debugger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class CapturePlanTest {
+
+  @Test
+  public void planPerClass() {
+    assertSame(CapturePlan.of(Child.class), CapturePlan.of(Child.class));
+    assertSame(
+        CapturePlan.of(Child.class).capturedFields(), CapturePlan.of(Child.class).capturedFields());
+  }
+
+  @Test
+  public void capturedFields() {
+    String[] names =
+        Arrays.stream(CapturePlan.of(Child.class).capturedFields())
+            .map(field -> field.getField().getName())
+            .toArray(String[]::new);
+    // constants are not captured, static fields are, the fields of the class come first
+    assertArrayEquals(new String[] {"childField", "counter", "parentField"}, names);
+    assertEquals(0, CapturePlan.of(Object.class).capturedFields().length);
+  }
+
+  @Test
+  public void readFields() {
+    Child child = new Child();
+    CapturePlan.FieldAccessor[] fields = CapturePlan.of(Child.class).capturedFields();
+    assertEquals("child", fields[0].get(child));
+    assertEquals(7, fields[1].get(child));
+    assertEquals(42L, fields[2].get(child));
+  }
+
+  @Test
+  public void fieldByName() {
+    CapturePlan plan = CapturePlan.of(Child.class);
+    assertEquals(42L, plan.field("parentField").get(new Child()));
+    assertEquals("constant", plan.field("CONSTANT").get(null));
+    assertSame(plan.field("childField"), plan.field("childField"));
+    assertNull(plan.field("missing"));
+    assertNull(plan.field("missing"));
+  }
+
+  @Test
+  public void wrongTarget() {
+    CapturePlan.FieldAccessor field = CapturePlan.of(Child.class).field("childField");
+    assertThrows(IllegalArgumentException.class, () -> field.get(new Parent()));
+  }
+
+  static class Parent {
+    private long parentField = 42;
+  }
+
+  static class Child extends Parent {
+    private static final String CONSTANT = "constant";
+    private String childField = "child";
+    private static int counter = 7;
+  }
+}
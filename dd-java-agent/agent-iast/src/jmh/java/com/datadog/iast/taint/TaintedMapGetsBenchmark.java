@@ -4,19 +4,24 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import com.datadog.iast.model.Range;
+import datadog.trace.test.util.CircularBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 
@@ -31,13 +36,16 @@ public class TaintedMapGetsBenchmark {
   private static final int INITIAL_OP_COUNT = DefaultTaintedMap.DEFAULT_FLAT_MODE_THRESHOLD;
   private static final int OP_COUNT = 1024;
 
+  @Param({"default", "striped"})
+  String implementation;
+
   private TaintedMap map;
   private List<Object> objectList;
   private List<Object> initialObjectList;
 
   @Setup(Level.Iteration)
   public void setup() {
-    map = new DefaultTaintedMap();
+    map = "striped".equals(implementation) ? new StripedTaintedMap() : new DefaultTaintedMap();
     initialObjectList = new ArrayList<>(INITIAL_OP_COUNT);
     objectList = new ArrayList<>(OP_COUNT);
     for (int i = 0; i < INITIAL_OP_COUNT; i++) {
@@ -67,4 +75,41 @@ public class TaintedMapGetsBenchmark {
       bh.consume(map.get(objectList.get(i)));
     }
   }
+
+  @Benchmark
+  @Threads(8)
+  @OperationsPerInvocation(OP_COUNT)
+  public void getsConcurrent(final Blackhole bh) {
+    for (int i = 0; i < OP_COUNT; i++) {
+      bh.consume(map.get(objectList.get(i)));
+    }
+  }
+
+  @Benchmark
+  @Group("getsWhilePutting")
+  @GroupThreads(6)
+  @OperationsPerInvocation(OP_COUNT)
+  public void getsWhilePuttingGets(final Blackhole bh) {
+    for (int i = 0; i < OP_COUNT; i++) {
+      bh.consume(map.get(objectList.get(i)));
+    }
+  }
+
+  @Benchmark
+  @Group("getsWhilePutting")
+  @GroupThreads(2)
+  @OperationsPerInvocation(OP_COUNT)
+  public void getsWhilePuttingPuts(final PutterState state) {
+    for (int i = 0; i < OP_COUNT; i++) {
+      final Object k = new Object();
+      state.objectBuffer.add(k);
+      map.put(new TaintedObject(k, new Range[0], map.getReferenceQueue()));
+    }
+  }
+
+  /** Keeps the keys put by each thread reachable while they are looked up. */
+  @State(Scope.Thread)
+  public static class PutterState {
+    final CircularBuffer<Object> objectBuffer = new CircularBuffer<>(OP_COUNT);
+  }
 }
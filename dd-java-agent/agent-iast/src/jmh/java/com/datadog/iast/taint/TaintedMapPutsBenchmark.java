@@ -15,9 +15,11 @@ import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Timeout;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
@@ -36,13 +38,16 @@ public class TaintedMapPutsBenchmark {
 
   private static final Range[] EMPTY_RANGES = new Range[0];
 
+  @Param({"default", "striped"})
+  String implementation;
+
   private TaintedMap map;
   private List<Object> initialObjectList;
   private CircularBuffer<Object> objectBuffer;
 
   @Setup(Level.Iteration)
   public void setup() {
-    map = new DefaultTaintedMap();
+    map = "striped".equals(implementation) ? new StripedTaintedMap() : new DefaultTaintedMap();
     objectBuffer = new CircularBuffer<>(OP_COUNT);
     initialObjectList = new ArrayList<>(INITIAL_OP_COUNT);
     for (int i = 0; i < INITIAL_OP_COUNT; i++) {
@@ -71,4 +76,21 @@ public class TaintedMapPutsBenchmark {
       map.put(new TaintedObject(k, EMPTY_RANGES, map.getReferenceQueue()));
     }
   }
+
+  @Benchmark
+  @Threads(8)
+  @OperationsPerInvocation(OP_COUNT)
+  public void putsConcurrent(final ThreadState state) {
+    for (int i = 0; i < OP_COUNT; i++) {
+      final Object k = new Object();
+      state.objectBuffer.add(k);
+      map.put(new TaintedObject(k, EMPTY_RANGES, map.getReferenceQueue()));
+    }
+  }
+
+  /** Keeps the last keys put by each thread reachable. */
+  @State(Scope.Thread)
+  public static class ThreadState {
+    final CircularBuffer<Object> objectBuffer = new CircularBuffer<>(OP_COUNT);
+  }
 }
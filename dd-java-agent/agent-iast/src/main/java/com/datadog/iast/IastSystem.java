@@ -39,6 +39,7 @@ public class IastSystem {
     log.debug("IAST is starting");
 
     TaintedObjects.setDebug(config.isIastTaintTrackingDebugEnabled());
+    TaintedObjects.setStripedMap(config.isIastStripedTaintedMapEnabled());
     final Reporter reporter = new Reporter(config);
     if (overheadController == null) {
       overheadController = new OverheadController(config, AgentTaskScheduler.INSTANCE);
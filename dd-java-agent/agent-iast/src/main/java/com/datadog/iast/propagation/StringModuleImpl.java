@@ -11,8 +11,6 @@ import com.datadog.iast.taint.Ranges;
 import com.datadog.iast.taint.TaintedObject;
 import com.datadog.iast.taint.TaintedObjects;
 import datadog.trace.api.iast.propagation.StringModule;
-import java.util.HashMap;
-import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -43,8 +41,7 @@ public class StringModuleImpl extends IastModuleBase implements StringModule {
     if (taintedRight == null) {
       ranges = taintedLeft.getRanges();
     } else if (taintedLeft == null) {
-      ranges = new Range[taintedRight.getRanges().length];
-      Ranges.copyShift(taintedRight.getRanges(), ranges, 0, left.length());
+      ranges = Ranges.shift(taintedRight.getRanges(), left.length());
     } else {
       ranges = mergeRanges(left.length(), taintedLeft.getRanges(), taintedRight.getRanges());
     }
@@ -87,10 +84,8 @@ public class StringModuleImpl extends IastModuleBase implements StringModule {
     final TaintedObject builderTainted = taintedObjects.get(builder);
     final int shift = builder.length() - param.length();
     if (builderTainted == null) {
-      final Range[] paramRanges = paramTainted.getRanges();
-      final Range[] ranges = new Range[paramRanges.length];
-      Ranges.copyShift(paramRanges, ranges, 0, shift);
-      taintedObjects.taint(builder, ranges);
+      // appending to an empty builder shares the ranges of the parameter
+      taintedObjects.taint(builder, Ranges.shift(paramTainted.getRanges(), shift));
     } else {
       final Range[] builderRanges = builderTainted.getRanges();
       final Range[] paramRanges = paramTainted.getRanges();
@@ -133,36 +128,47 @@ public class StringModuleImpl extends IastModuleBase implements StringModule {
     }
 
     final TaintedObjects taintedObjects = ctx.getTaintedObjects();
-    final Map<Integer, Range[]> sourceRanges = new HashMap<>();
-    int rangeCount = 0;
+    Range[][] sourceRanges = null;
+    int rangeCount = 0, taintedArgs = 0;
     for (int i = 0; i < args.length; i++) {
       final TaintedObject to = getTainted(taintedObjects, args[i]);
       if (to != null) {
         final Range[] ranges = to.getRanges();
-        sourceRanges.put(i, ranges);
+        if (sourceRanges == null) {
+          sourceRanges = new Range[args.length][];
+        }
+        sourceRanges[i] = ranges;
         rangeCount += ranges.length;
+        taintedArgs++;
       }
     }
-    if (rangeCount == 0) {
+    if (sourceRanges == null || rangeCount == 0) {
       return;
     }
 
-    final Range[] targetRanges = new Range[rangeCount];
+    final Range[] targetRanges = taintedArgs == 1 ? null : new Range[rangeCount];
     int offset = 0, rangeIndex = 0;
     for (int item : recipeOffsets) {
       if (item < 0) {
         offset += (-item);
       } else {
         final String argument = args[item];
-        final Range[] ranges = sourceRanges.get(item);
+        final Range[] ranges = sourceRanges[item];
         if (ranges != null) {
+          if (targetRanges == null) {
+            // the ranges of a single tainted argument are only copied if they must be shifted
+            taintedObjects.taint(result, Ranges.shift(ranges, offset));
+            return;
+          }
           Ranges.copyShift(ranges, targetRanges, rangeIndex, offset);
           rangeIndex += ranges.length;
         }
         offset += getToStringLength(argument);
       }
     }
-    taintedObjects.taint(result, targetRanges);
+    if (targetRanges != null) {
+      taintedObjects.taint(result, targetRanges);
+    }
   }
 
   private static int getToStringLength(@Nullable final String s) {
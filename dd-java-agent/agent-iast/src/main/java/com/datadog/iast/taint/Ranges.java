@@ -52,16 +52,35 @@ public final class Ranges {
     }
   }
 
+  /**
+   * Shifts the ranges by the given offset. The ranges are returned as they are when there is
+   * nothing to shift, so no array is allocated.
+   */
+  public static Range[] shift(@Nonnull final Range[] ranges, final int shift) {
+    if (shift == 0 || ranges.length == 0) {
+      return ranges;
+    }
+    final Range[] shifted = new Range[ranges.length];
+    copyShift(ranges, shifted, 0, shift);
+    return shifted;
+  }
+
+  /**
+   * Merges the ranges of two consecutive values. When the ranges of one of the values are empty,
+   * the ranges of the other value are returned without copying them if possible.
+   */
   public static Range[] mergeRanges(
       final int offset, @Nonnull final Range[] rangesLeft, @Nonnull final Range[] rangesRight) {
-    final int nRanges = rangesLeft.length + rangesRight.length;
-    final Range[] ranges = new Range[nRanges];
-    if (rangesLeft.length > 0) {
-      System.arraycopy(rangesLeft, 0, ranges, 0, rangesLeft.length);
+    if (rangesRight.length == 0) {
+      return rangesLeft;
     }
-    if (rangesRight.length > 0) {
-      Ranges.copyShift(rangesRight, ranges, rangesLeft.length, offset);
+    if (rangesLeft.length == 0) {
+      return shift(rangesRight, offset);
     }
+    final int nRanges = rangesLeft.length + rangesRight.length;
+    final Range[] ranges = new Range[nRanges];
+    System.arraycopy(rangesLeft, 0, ranges, 0, rangesLeft.length);
+    Ranges.copyShift(rangesRight, ranges, rangesLeft.length, offset);
     return ranges;
   }
 
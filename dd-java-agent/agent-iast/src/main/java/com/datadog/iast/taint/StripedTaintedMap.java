@@ -0,0 +1,340 @@
+package com.datadog.iast.taint;
+
+import static com.datadog.iast.taint.DefaultTaintedMap.POSITIVE_MASK;
+
+import com.datadog.iast.model.Range;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * {@link TaintedMap} for high concurrency scenarios. Unlike {@link DefaultTaintedMap}, it does not
+ * lose puts under concurrency and it never switches to flat mode.
+ *
+ * <p>The map is split in a fixed number of <i>stripes</i>, selected by the identity hash code of
+ * the key. Each stripe is an open addressing table which is resized as it grows. Puts and removals
+ * lock the stripe, while gets do not lock at all: the table of a stripe is only ever replaced by a
+ * new table, never rehashed in place, and removed entries are replaced by a tombstone instead of
+ * being shifted, so a get probing a table concurrently with a put always finds the keys that were
+ * already there.
+ *
+ * <p>Garbage collected entries are removed incrementally: every {@link #PURGE_COUNT} puts, at most
+ * {@link #MAX_PURGED_REFERENCES} references are polled from the reference queue, and puts reuse the
+ * slots of collected entries they probe. Tombstones and collected entries are dropped whenever a
+ * stripe is rehashed.
+ *
+ * <p>The number of entries of each stripe is bounded, so the memory held by a map is bounded. Once
+ * a stripe is full, puts of new keys are ignored until collected entries are removed.
+ */
+public final class StripedTaintedMap implements TaintedMap {
+
+  /** Default number of stripes. It MUST be a power of 2. */
+  static final int DEFAULT_STRIPES = 1 << 4;
+  /** Default maximum number of entries in the map. */
+  public static final int DEFAULT_MAX_SIZE = 1 << 16;
+  /** Periodicity of purges, as number of put operations. It MUST be a power of two. */
+  static final int PURGE_COUNT = DefaultTaintedMap.PURGE_COUNT;
+  /** Bitmask for fast modulo with PURGE_COUNT. */
+  static final int PURGE_MASK = PURGE_COUNT - 1;
+  /** Maximum number of references polled from the reference queue by a single purge. */
+  static final int MAX_PURGED_REFERENCES = 1 << 8;
+
+  private static final int INITIAL_STRIPE_CAPACITY = 1 << 4;
+
+  /** Marks the slots of removed entries, which gets must probe past. */
+  private static final TaintedObject TOMBSTONE =
+      new TaintedObject(new Object(), new Range[0], null);
+
+  static {
+    TOMBSTONE.clear();
+  }
+
+  private final Stripe[] stripes;
+  /** Bitmask for fast modulo with the number of stripes. */
+  private final int stripeMask;
+  /** Flag to ensure we do not run multiple purges concurrently. */
+  private final AtomicBoolean isPurging = new AtomicBoolean(false);
+  /** Reference queue for garbage-collected entries. */
+  private volatile ReferenceQueue<Object> referenceQueue;
+
+  /** Default constructor. Uses {@link #DEFAULT_STRIPES} and {@link #DEFAULT_MAX_SIZE}. */
+  public StripedTaintedMap() {
+    this(DEFAULT_STRIPES, DEFAULT_MAX_SIZE, new ReferenceQueue<>());
+  }
+
+  /**
+   * Create a new hash map with the given number of stripes and maximum size.
+   *
+   * @param stripes Number of stripes. It must be a power of 2.
+   * @param maxSize Maximum number of entries, shared evenly between the stripes.
+   * @param queue Reference queue. Only for tests.
+   */
+  StripedTaintedMap(final int stripes, final int maxSize, final ReferenceQueue<Object> queue) {
+    this.stripes = new Stripe[stripes];
+    final int maxStripeSize = Math.max(1, maxSize / stripes);
+    for (int i = 0; i < stripes; i++) {
+      this.stripes[i] = new Stripe(maxStripeSize);
+    }
+    this.stripeMask = stripes - 1;
+    this.referenceQueue = queue;
+  }
+
+  /**
+   * Returns the {@link TaintedObject} for the given input object. This method never locks.
+   *
+   * @param key Key object.
+   * @return The {@link TaintedObject} if it exists, {@code null} otherwise.
+   */
+  @Override
+  @Nullable
+  public TaintedObject get(final @Nonnull Object key) {
+    final int hash = System.identityHashCode(key) & POSITIVE_MASK;
+    final AtomicReferenceArray<TaintedObject> table = stripe(hash).table;
+    final int mask = table.length() - 1;
+    int index = hash & mask;
+    TaintedObject entry;
+    while ((entry = table.get(index)) != null) {
+      if (key == entry.get()) {
+        return entry;
+      }
+      index = (index + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Put a new {@link TaintedObject} in the hash table, replacing any entry with the same key. The
+   * put is ignored if the stripe of the key is full.
+   *
+   * @param entry Tainted object.
+   */
+  @Override
+  public void put(final @Nonnull TaintedObject entry) {
+    final Object key = entry.get();
+    if (key == null) {
+      return;
+    }
+    stripe(entry.positiveHashCode).put(entry, key);
+    if ((entry.positiveHashCode & PURGE_MASK) == 0) {
+      purge();
+    }
+  }
+
+  /**
+   * Remove at most {@link #MAX_PURGED_REFERENCES} entries that have been garbage collected. Only
+   * one concurrent call to this method is allowed, further concurrent calls will be ignored.
+   */
+  void purge() {
+    if (!isPurging.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      final ReferenceQueue<Object> queue = referenceQueue;
+      Reference<?> ref;
+      for (int i = 0; i < MAX_PURGED_REFERENCES && (ref = queue.poll()) != null; i++) {
+        if (ref instanceof TaintedObject) {
+          final TaintedObject entry = (TaintedObject) ref;
+          stripe(entry.positiveHashCode).remove(entry);
+        }
+      }
+    } finally {
+      isPurging.set(false);
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (final Stripe stripe : stripes) {
+      stripe.clear();
+    }
+    referenceQueue = new ReferenceQueue<>();
+  }
+
+  @Override
+  public ReferenceQueue<Object> getReferenceQueue() {
+    return referenceQueue;
+  }
+
+  @Override
+  public Iterator<TaintedObject> iterator() {
+    return new Iterator<TaintedObject>() {
+      int stripeIndex = 0;
+      AtomicReferenceArray<TaintedObject> table = stripes[0].table;
+      int index = 0;
+      TaintedObject next;
+
+      @Override
+      public boolean hasNext() {
+        while (next == null) {
+          if (index == table.length()) {
+            if (++stripeIndex == stripes.length) {
+              return false;
+            }
+            table = stripes[stripeIndex].table;
+            index = 0;
+          }
+          final TaintedObject entry = table.get(index++);
+          if (entry != null && entry != TOMBSTONE) {
+            next = entry;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public TaintedObject next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final TaintedObject entry = next;
+        next = null;
+        return entry;
+      }
+    };
+  }
+
+  /** Testing only. */
+  int size() {
+    int size = 0;
+    for (final Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size;
+      }
+    }
+    return size;
+  }
+
+  private Stripe stripe(final int hash) {
+    // the slot index uses the low bits of the hash, so the stripe index uses the high bits of the
+    // spread hash
+    return stripes[((hash * 0x9E3779B9) >>> 16) & stripeMask];
+  }
+
+  /** An open addressing table, which is replaced by a new table when rehashed. */
+  private static final class Stripe {
+    private final int maxSize;
+    volatile AtomicReferenceArray<TaintedObject> table;
+    /** Number of live entries, including the entries which have been collected but not removed. */
+    private int size;
+    /** Number of slots holding a tombstone. */
+    private int tombstones;
+
+    Stripe(final int maxSize) {
+      this.maxSize = maxSize;
+      this.table = new AtomicReferenceArray<>(INITIAL_STRIPE_CAPACITY);
+    }
+
+    synchronized void put(final TaintedObject entry, final Object key) {
+      AtomicReferenceArray<TaintedObject> table = this.table;
+      int mask = table.length() - 1;
+      int index = entry.positiveHashCode & mask;
+      int reusable = -1;
+      TaintedObject current;
+      while ((current = table.get(index)) != null) {
+        final Object currentKey = current.get();
+        if (currentKey == key) {
+          table.set(index, entry);
+          return;
+        }
+        if (reusable < 0) {
+          if (current == TOMBSTONE) {
+            reusable = index;
+          } else if (currentKey == null) {
+            // the key was collected, so the entry can't be looked up any more
+            table.set(index, TOMBSTONE);
+            reusable = index;
+            size--;
+            tombstones++;
+          }
+        }
+        index = (index + 1) & mask;
+      }
+      if (size >= maxSize) {
+        // collected entries are removed when their references are polled from the queue
+        return;
+      }
+      if (reusable >= 0) {
+        table.set(reusable, entry);
+        size++;
+        tombstones--;
+        return;
+      }
+      if ((size + tombstones + 1) << 2 > table.length() * 3) {
+        rehash();
+        table = this.table;
+        mask = table.length() - 1;
+        index = entry.positiveHashCode & mask;
+        while (table.get(index) != null) {
+          index = (index + 1) & mask;
+        }
+      }
+      table.set(index, entry);
+      size++;
+    }
+
+    /**
+     * Copies the live entries to a new table, larger than the current table if they take more than
+     * half of it. Collected entries are dropped.
+     */
+    private void rehash() {
+      final AtomicReferenceArray<TaintedObject> oldTable = table;
+      int live = 0;
+      for (int i = 0; i < oldTable.length(); i++) {
+        final TaintedObject entry = oldTable.get(i);
+        if (entry != null && entry != TOMBSTONE && entry.get() != null) {
+          live++;
+        }
+      }
+      int capacity = oldTable.length();
+      while ((live + 1) << 1 > capacity) {
+        capacity <<= 1;
+      }
+      final AtomicReferenceArray<TaintedObject> newTable = new AtomicReferenceArray<>(capacity);
+      final int mask = capacity - 1;
+      // entries collected since they were counted are dropped too
+      live = 0;
+      for (int i = 0; i < oldTable.length(); i++) {
+        final TaintedObject entry = oldTable.get(i);
+        if (entry != null && entry != TOMBSTONE && entry.get() != null) {
+          int index = entry.positiveHashCode & mask;
+          while (newTable.get(index) != null) {
+            index = (index + 1) & mask;
+          }
+          newTable.lazySet(index, entry);
+          live++;
+        }
+      }
+      size = live;
+      tombstones = 0;
+      table = newTable;
+    }
+
+    synchronized void remove(final TaintedObject entry) {
+      final AtomicReferenceArray<TaintedObject> table = this.table;
+      final int mask = table.length() - 1;
+      int index = entry.positiveHashCode & mask;
+      TaintedObject current;
+      while ((current = table.get(index)) != null) {
+        if (current == entry) {
+          table.set(index, TOMBSTONE);
+          size--;
+          tombstones++;
+          return;
+        }
+        index = (index + 1) & mask;
+      }
+      // the entry was replaced, its slot reused or dropped by a rehash
+    }
+
+    synchronized void clear() {
+      table = new AtomicReferenceArray<>(INITIAL_STRIPE_CAPACITY);
+      size = 0;
+      tombstones = 0;
+    }
+  }
+}
@@ -15,11 +15,13 @@ public class TaintedObjects {
 
   static boolean DEBUG = false;
 
+  static boolean STRIPED_MAP = false;
+
   private final TaintedMap map;
   private final UUID id;
 
   public TaintedObjects() {
-    this(new DefaultTaintedMap());
+    this(STRIPED_MAP ? new StripedTaintedMap() : new DefaultTaintedMap());
   }
 
   public static void setDebug(final boolean newDebugState) {
@@ -27,6 +29,11 @@ public class TaintedObjects {
     DEBUG = newDebugState;
   }
 
+  public static void setStripedMap(final boolean newStripedMapState) {
+    LOGGER.debug("setStripedMap: newStripedMapState={}", newStripedMapState);
+    STRIPED_MAP = newStripedMapState;
+  }
+
   public TaintedObjects(final @Nonnull TaintedMap map) {
     this.map = map;
     if (DEBUG) {
@@ -61,6 +61,55 @@ class RangesTest extends DDSpecification {
     1      | 2      | -1    | [[1, 1]] | [null, [0, 1]]
   }
 
+  def 'shift'() {
+    given:
+    def src = rangesFromSpec(srcSpec)
+
+    when:
+    def result = Ranges.shift(src, shift)
+
+    then:
+    result == rangesFromSpec(expSpec)
+    result.is(src) == same
+
+    where:
+    shift | srcSpec          | expSpec          | same
+    0     | []               | []               | true
+    1     | []               | []               | true
+    0     | [[1, 1]]         | [[1, 1]]         | true
+    1     | [[1, 1]]         | [[2, 1]]         | false
+    -1    | [[1, 1], [3, 2]] | [[0, 1], [2, 2]] | false
+  }
+
+  def 'mergeRanges'() {
+    given:
+    def left = rangesFromSpec(leftSpec)
+    def right = rangesFromSpec(rightSpec)
+
+    when:
+    def result = Ranges.mergeRanges(offset, left, right)
+
+    then:
+    result == rangesFromSpec(expSpec)
+
+    where:
+    offset | leftSpec | rightSpec | expSpec
+    0      | []       | []        | []
+    2      | [[0, 1]] | []        | [[0, 1]]
+    2      | []       | [[0, 1]]  | [[2, 1]]
+    0      | []       | [[0, 1]]  | [[0, 1]]
+    2      | [[0, 1]] | [[0, 1]]  | [[0, 1], [2, 1]]
+  }
+
+  def 'mergeRanges shares the ranges of the only tainted value'() {
+    given:
+    def ranges = rangesFromSpec([[0, 1]])
+
+    expect:
+    Ranges.mergeRanges(2, ranges, Ranges.EMPTY).is(ranges)
+    Ranges.mergeRanges(0, Ranges.EMPTY, ranges).is(ranges)
+  }
+
   void 'test range provider'(final Object values, final List<TaintedObject> tainted, final int size, final int rangeCount) {
     setup:
     final to = Mock(TaintedObjects)
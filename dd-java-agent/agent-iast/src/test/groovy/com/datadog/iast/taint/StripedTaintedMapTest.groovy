@@ -0,0 +1,207 @@
+package com.datadog.iast.taint
+
+import com.datadog.iast.model.Range
+import datadog.trace.test.util.DDSpecification
+
+import java.lang.ref.ReferenceQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+class StripedTaintedMapTest extends DDSpecification {
+
+  def 'simple workflow'() {
+    given:
+    def map = new StripedTaintedMap()
+    final o = new Object()
+    final to = new TaintedObject(o, [] as Range[], map.getReferenceQueue())
+
+    expect:
+    map.size() == 0
+    map.toList().size() == 0
+
+    when:
+    map.put(to)
+
+    then:
+    map.size() == 1
+    map.toList() == [to]
+    map.get(o) == to
+
+    when:
+    map.clear()
+
+    then:
+    map.size() == 0
+    map.toList().size() == 0
+    map.get(o) == null
+  }
+
+  def 'last put of a key replaces the previous one'() {
+    given:
+    def map = new StripedTaintedMap()
+    final o = new Object()
+    final first = new TaintedObject(o, [] as Range[], map.getReferenceQueue())
+    final second = new TaintedObject(o, [] as Range[], map.getReferenceQueue())
+
+    when:
+    map.put(first)
+    map.put(second)
+
+    then:
+    map.size() == 1
+    map.get(o) == second
+  }
+
+  def 'map grows without losing entries'() {
+    given:
+    def map = new StripedTaintedMap(stripes, 1 << 16, new ReferenceQueue<>())
+    def objects = (1..count).collect { new Object() }
+
+    when:
+    objects.each { o ->
+      map.put(new TaintedObject(o, [] as Range[], map.getReferenceQueue()))
+    }
+
+    then:
+    map.size() == count
+    map.toList().size() == count
+    objects.every { o -> map.get(o).get() == o }
+
+    where:
+    stripes | count
+    1       | 1000
+    16      | 1000
+    16      | 20000
+  }
+
+  def 'puts of new keys are ignored once the map is full'() {
+    given:
+    def map = new StripedTaintedMap(1, 64, new ReferenceQueue<>())
+    def objects = (1..65).collect { new Object() }
+
+    when:
+    objects.each { o ->
+      map.put(new TaintedObject(o, [] as Range[], map.getReferenceQueue()))
+    }
+
+    then:
+    map.size() == 64
+    objects[0..63].every { o -> map.get(o) != null }
+    map.get(objects[64]) == null
+
+    when: 'an entry is garbage collected'
+    def collected = map.get(objects[0])
+    collected.clear()
+    collected.enqueue()
+    map.purge()
+    map.put(new TaintedObject(objects[64], [] as Range[], map.getReferenceQueue()))
+
+    then:
+    map.size() == 64
+    map.get(objects[64]) != null
+  }
+
+  def 'garbage-collected entries are purged'() {
+    given:
+    def map = new StripedTaintedMap(4, 1 << 16, new ReferenceQueue<>())
+    def objects = (1..100).collect { new Object() }
+    def entries = objects.collect { o -> new TaintedObject(o, [] as Range[], map.getReferenceQueue()) }
+    entries.each { map.put(it) }
+
+    when:
+    entries[0..49].each {
+      it.clear()
+      it.enqueue()
+    }
+    map.purge()
+
+    then:
+    map.size() == 50
+    map.toList().size() == 50
+    objects[50..99].every { o -> map.get(o).get() == o }
+
+    when: 'an extraneous reference is enqueued'
+    new TaintedObject(new Object(), [] as Range[], map.getReferenceQueue()).enqueue()
+    map.purge()
+
+    then:
+    noExceptionThrown()
+    map.size() == 50
+  }
+
+  def 'purges are incremental'() {
+    given:
+    def map = new StripedTaintedMap(4, 1 << 16, new ReferenceQueue<>())
+    int count = StripedTaintedMap.MAX_PURGED_REFERENCES * 2
+    def objects = (1..count).collect { new Object() }
+    def entries = objects.collect { o -> new TaintedObject(o, [] as Range[], map.getReferenceQueue()) }
+    entries.each { map.put(it) }
+
+    when:
+    entries.each {
+      it.clear()
+      it.enqueue()
+    }
+    map.purge()
+
+    then:
+    map.size() == count - StripedTaintedMap.MAX_PURGED_REFERENCES
+
+    when:
+    map.purge()
+
+    then:
+    map.size() == 0
+  }
+
+  def 'collected entries are replaced by puts'() {
+    given:
+    def map = new StripedTaintedMap(1, 1 << 16, new ReferenceQueue<>())
+    def objects = (1..10).collect { new Object() }
+    def entries = objects.collect { o -> new TaintedObject(o, [] as Range[], map.getReferenceQueue()) }
+    entries.each { map.put(it) }
+
+    when: 'entries are collected without being enqueued'
+    entries.each { it.clear() }
+    objects.each { o ->
+      map.put(new TaintedObject(o, [] as Range[], map.getReferenceQueue()))
+    }
+
+    then:
+    map.toList().findAll { it.get() != null }.size() == 10
+    objects.every { o -> map.get(o).get() == o }
+  }
+
+  def 'multi-threaded puts and gets'() {
+    given:
+    def map = new StripedTaintedMap()
+    int nThreads = 16
+    int nObjectsPerThread = 1000
+    def executorService = Executors.newFixedThreadPool(nThreads)
+    def latch = new CountDownLatch(nThreads)
+    def objects = (1..nThreads).collect { (1..nObjectsPerThread).collect { new Object() } }
+
+    when: 'puts and gets from different threads'
+    def futures = (0..nThreads - 1).collect { thread ->
+      executorService.submit({
+        ->
+        latch.countDown()
+        latch.await()
+        objects[thread].each { o ->
+          map.put(new TaintedObject(o, [] as Range[], map.getReferenceQueue()))
+          assert map.get(o).get() == o
+        }
+      } as Runnable)
+    }
+    futures.collect({
+      it.get()
+    })
+
+    then:
+    map.size() == nThreads * nObjectsPerThread
+    objects.every { bucket -> bucket.every { o -> map.get(o).get() == o } }
+
+    cleanup:
+    executorService?.shutdown()
+  }
+}
@@ -0,0 +1,109 @@
+package com.datadog.profiling.uploader;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.datadog.profiling.controller.RecordingInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import okio.BufferedSink;
+import okio.Okio;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compresses a recorded JFR file the way it is compressed when uploaded, with each {@link
+ * CompressionType}. The score is the wall time of an upload, the CPU time and the compressed size
+ * of an upload are reported as secondary results.
+ *
+ * <p>Pass recordings of the application to compare the compression types with {@code -p
+ * recording=/path/to/a.jfr,/path/to/b.jfr}, and gzip compression levels with {@code -p
+ * level=1,6,9}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1)
+public class CompressionBenchmark {
+
+  @Param({"src/test/resources/test-recording.jfr"})
+  String recording;
+
+  @Param({"OFF", "LZ4", "GZIP", "ZSTD"})
+  CompressionType compressionType;
+
+  @Param({"0"})
+  int level;
+
+  private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+  private byte[] data;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    data = Files.readAllBytes(Paths.get(recording));
+  }
+
+  @Benchmark
+  public long upload(Uploads uploads) throws IOException {
+    CompressingRequestBody body =
+        new CompressingRequestBody(
+            compressionType, level, () -> new RecordingInputStream(new ByteArrayInputStream(data)));
+    long start = threadMXBean.getCurrentThreadCpuTime();
+    try (BufferedSink sink = Okio.buffer(Okio.sink(new NullOutputStream()))) {
+      body.writeTo(sink);
+    }
+    uploads.cpuNanos += threadMXBean.getCurrentThreadCpuTime() - start;
+    uploads.compressedBytes += body.getWrittenBytes();
+    uploads.uploads++;
+    return body.getWrittenBytes();
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Uploads {
+    long uploads;
+    long cpuNanos;
+    long compressedBytes;
+
+    public double cpuMillisPerUpload() {
+      return uploads == 0 ? 0 : cpuNanos / 1_000_000.0 / uploads;
+    }
+
+    public double compressedBytesPerUpload() {
+      return uploads == 0 ? 0 : (double) compressedBytes / uploads;
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      uploads = 0;
+      cpuNanos = 0;
+      compressedBytes = 0;
+    }
+  }
+
+  private static final class NullOutputStream extends OutputStream {
+    @Override
+    public void write(int b) {}
+
+    @Override
+    public void write(byte[] b, int off, int len) {}
+  }
+}
@@ -1,10 +1,13 @@
 package com.datadog.profiling.uploader;
 
 import com.datadog.profiling.controller.RecordingInputStream;
+import io.airlift.compress.zstd.ZstdOutputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -14,12 +17,16 @@ import okhttp3.RequestBody;
 import okio.BufferedSink;
 import okio.Okio;
 import okio.Source;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A specialized {@linkplain RequestBody} subclass performing on-the fly compression of the uploaded
  * data.
  */
 final class CompressingRequestBody extends RequestBody {
+  private static final Logger log = LoggerFactory.getLogger(CompressingRequestBody.class);
+
   static final class MissingInputException extends IOException {
     public MissingInputException(String message) {
       super(message);
@@ -70,6 +77,11 @@ final class CompressingRequestBody extends RequestBody {
   private static final int[] LZ4_MAGIC = new int[] {0x04, 0x22, 0x4D, 0x18};
   private static final int ZIP_MAGIC[] = new int[] {80, 75, 3, 4};
   private static final int GZ_MAGIC[] = new int[] {31, 139};
+  // https://github.com/facebook/zstd/blob/dev/doc/zstd_compression_format.md#zstandard-frames
+  private static final int[] ZSTD_MAGIC = new int[] {0x28, 0xB5, 0x2F, 0xFD};
+
+  /** The compression level selecting the default level of the compression type */
+  static final int DEFAULT_COMPRESSION_LEVEL = 0;
 
   private final InputStreamSupplier inputStreamSupplier;
   private final OutputStreamMappingFunction outputStreamMapper;
@@ -87,7 +99,22 @@ final class CompressingRequestBody extends RequestBody {
    */
   CompressingRequestBody(
       @Nonnull CompressionType compressionType, @Nonnull InputStreamSupplier inputStreamSupplier) {
-    this(compressionType, inputStreamSupplier, r -> r <= 1, r -> 10);
+    this(compressionType, DEFAULT_COMPRESSION_LEVEL, inputStreamSupplier);
+  }
+
+  /**
+   * Create a new instance configured with 1 retry and constant 10ms backoff delay.
+   *
+   * @param compressionType {@linkplain CompressionType} value
+   * @param compressionLevel compression level, or {@linkplain #DEFAULT_COMPRESSION_LEVEL}; only
+   *     used by {@linkplain CompressionType#GZIP}
+   * @param inputStreamSupplier supplier of the data input stream
+   */
+  CompressingRequestBody(
+      @Nonnull CompressionType compressionType,
+      int compressionLevel,
+      @Nonnull InputStreamSupplier inputStreamSupplier) {
+    this(compressionType, compressionLevel, inputStreamSupplier, r -> r <= 1, r -> 10);
   }
 
   /**
@@ -117,8 +144,28 @@ final class CompressingRequestBody extends RequestBody {
       @Nonnull InputStreamSupplier inputStreamSupplier,
       @Nonnull RetryPolicy retryPolicy,
       @Nonnull RetryBackoff retryBackoff) {
+    this(
+        compressionType, DEFAULT_COMPRESSION_LEVEL, inputStreamSupplier, retryPolicy, retryBackoff);
+  }
+
+  /**
+   * Create a new instance.
+   *
+   * @param compressionType {@linkplain CompressionType} value
+   * @param compressionLevel compression level, or {@linkplain #DEFAULT_COMPRESSION_LEVEL}; only
+   *     used by {@linkplain CompressionType#GZIP}
+   * @param inputStreamSupplier supplier of the data input stream
+   * @param retryPolicy {@linkplain RetryPolicy} instance
+   * @param retryBackoff {@linkplain RetryBackoff} instance
+   */
+  CompressingRequestBody(
+      @Nonnull CompressionType compressionType,
+      int compressionLevel,
+      @Nonnull InputStreamSupplier inputStreamSupplier,
+      @Nonnull RetryPolicy retryPolicy,
+      @Nonnull RetryBackoff retryBackoff) {
     this.inputStreamSupplier = inputStreamSupplier;
-    this.outputStreamMapper = getOutputStreamMapper(compressionType);
+    this.outputStreamMapper = getOutputStreamMapper(compressionType, compressionLevel);
     this.retryPolicy = retryPolicy;
     this.retryBackoff = retryBackoff;
   }
@@ -253,7 +300,7 @@ final class CompressingRequestBody extends RequestBody {
    */
   static boolean isCompressed(@Nonnull final InputStream is) throws IOException {
     checkMarkSupported(is);
-    return isGzip(is) || isLz4(is) || isZip(is);
+    return isGzip(is) || isLz4(is) || isZstd(is) || isZip(is);
   }
 
   /**
@@ -307,21 +354,56 @@ final class CompressingRequestBody extends RequestBody {
     }
   }
 
+  /**
+   * Check whether the stream represents zstd data
+   *
+   * @param is input stream; must support {@linkplain InputStream#mark(int)}
+   * @return {@literal true} if the stream represents zstd data
+   * @throws IOException
+   */
+  static boolean isZstd(@Nonnull final InputStream is) throws IOException {
+    checkMarkSupported(is);
+    is.mark(ZSTD_MAGIC.length);
+    try {
+      return hasMagic(is, ZSTD_MAGIC);
+    } finally {
+      is.reset();
+    }
+  }
+
   private static void checkMarkSupported(@Nonnull final InputStream is) throws IOException {
     if (!is.markSupported()) {
       throw new IOException("Can not check headers on streams not supporting mark() method");
     }
   }
 
+  /**
+   * @return whether the compression level is set but ignored, because only {@linkplain
+   *     CompressionType#GZIP} has levels: the zstd encoder has a single one
+   */
+  static boolean ignoresCompressionLevel(
+      @Nonnull CompressionType compressionType, int compressionLevel) {
+    return compressionLevel > DEFAULT_COMPRESSION_LEVEL && compressionType != CompressionType.GZIP;
+  }
+
   private static OutputStreamMappingFunction getOutputStreamMapper(
-      @Nonnull CompressionType compressionType) {
-    // currently only gzip and off are supported
-    // this needs to be updated once more compression types are added
+      @Nonnull CompressionType compressionType, int compressionLevel) {
     switch (compressionType) {
       case GZIP:
         {
+          if (compressionLevel > DEFAULT_COMPRESSION_LEVEL) {
+            return out -> toGzipStream(out, compressionLevel);
+          }
           return GZIPOutputStream::new;
         }
+      case ZSTD:
+        {
+          if (ZstdSupport.AVAILABLE) {
+            return ZstdOutputStream::new;
+          }
+          // the zstd encoder is not supported on this platform, fall back to LZ4
+          return CompressingRequestBody::toLz4Stream;
+        }
       case OFF:
         {
           return out -> out;
@@ -343,6 +425,32 @@ final class CompressingRequestBody extends RequestBody {
         LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
   }
 
+  private static OutputStream toGzipStream(@Nonnull OutputStream os, int level) throws IOException {
+    return new GZIPOutputStream(os) {
+      {
+        def.setLevel(Math.min(level, Deflater.BEST_COMPRESSION));
+      }
+    };
+  }
+
+  /**
+   * Checks the pure-Java zstd encoder once the zstd compression is selected; it relies on {@code
+   * sun.misc.Unsafe} and a little-endian platform.
+   */
+  private static final class ZstdSupport {
+    static final boolean AVAILABLE = check();
+
+    private static boolean check() {
+      try (OutputStream out = new ZstdOutputStream(new ByteArrayOutputStream())) {
+        out.write(0);
+        return true;
+      } catch (Throwable t) {
+        log.warn("The zstd compression is not supported on this platform, using LZ4 instead", t);
+        return false;
+      }
+    }
+  }
+
   private static boolean hasMagic(InputStream is, int[] magic) throws IOException {
     for (int element : magic) {
       int b = is.read();
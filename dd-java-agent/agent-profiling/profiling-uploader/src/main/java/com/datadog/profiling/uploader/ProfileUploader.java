@@ -109,6 +109,7 @@ public final class ProfileUploader {
   private final HttpUrl url;
   private final int terminationTimeout;
   private final CompressionType compressionType;
+  private final int compressionLevel;
   private final String tags;
 
   private final Duration uploadTimeout;
@@ -179,6 +180,12 @@ public final class ProfileUploader {
             uploadTimeout.toMillis());
 
     compressionType = CompressionType.of(config.getProfilingUploadCompression());
+    compressionLevel = config.getProfilingUploadCompressionLevel();
+    if (CompressingRequestBody.ignoresCompressionLevel(compressionType, compressionLevel)) {
+      log.warn(
+          "Ignoring the profile upload compression level {}, only gzip has compression levels",
+          compressionLevel);
+    }
   }
 
   /**
@@ -401,7 +408,7 @@ public final class ProfileUploader {
   private Call makeRequest(@Nonnull final RecordingType type, @Nonnull final RecordingData data) {
 
     final CompressingRequestBody body =
-        new CompressingRequestBody(compressionType, data::getStream);
+        new CompressingRequestBody(compressionType, compressionLevel, data::getStream);
     final RequestBody requestBody = makeRequestBody(data, body);
 
     final Map<String, String> headers = new HashMap<>();
@@ -6,6 +6,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.datadog.profiling.controller.RecordingInputStream;
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.airlift.compress.zstd.ZstdOutputStream;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -25,6 +27,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.internal.verification.VerificationModeFactory;
 import org.mockito.stubbing.Answer;
 
@@ -186,9 +189,49 @@ class CompressingRequestBodyTest {
           assertEquals(compressed.length, instance.getWrittenBytes());
           break;
         }
+      case ZSTD:
+        {
+          assertTrue(CompressingRequestBody.isZstd(compressedStream));
+          byte[] uncompressed = IOUtils.toByteArray(new ZstdInputStream(compressedStream));
+          assertArrayEquals(recordingData, uncompressed);
+          assertEquals(recordingData.length, instance.getReadBytes());
+          assertEquals(compressed.length, instance.getWrittenBytes());
+          break;
+        }
     }
   }
 
+  @ParameterizedTest
+  @ValueSource(ints = {1, 9, 100})
+  void writeToWithCompressionLevel(int level) throws IOException {
+    CompressingRequestBody gzip =
+        new CompressingRequestBody(
+            CompressionType.GZIP, level, CompressingRequestBodyTest::testRecordingStream);
+    byte[] compressed = instanceWriteAsBytes(gzip);
+    assertArrayEquals(
+        recordingData,
+        IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+
+    // the zstd encoder has a single level, which the compression level doesn't change
+    CompressingRequestBody zstd =
+        new CompressingRequestBody(
+            CompressionType.ZSTD, level, CompressingRequestBodyTest::testRecordingStream);
+    compressed = instanceWriteAsBytes(zstd);
+    assertArrayEquals(
+        recordingData,
+        IOUtils.toByteArray(new ZstdInputStream(new ByteArrayInputStream(compressed))));
+  }
+
+  @Test
+  void compressionLevelIgnoredByZstd() {
+    assertTrue(CompressingRequestBody.ignoresCompressionLevel(CompressionType.ZSTD, 9));
+    assertTrue(CompressingRequestBody.ignoresCompressionLevel(CompressionType.LZ4, 9));
+    assertFalse(CompressingRequestBody.ignoresCompressionLevel(CompressionType.GZIP, 9));
+    assertFalse(
+        CompressingRequestBody.ignoresCompressionLevel(
+            CompressionType.ZSTD, CompressingRequestBody.DEFAULT_COMPRESSION_LEVEL));
+  }
+
   @ParameterizedTest
   @EnumSource(CompressionType.class)
   void writeToRecompression(CompressionType targetType) throws IOException {
@@ -210,6 +253,11 @@ class CompressingRequestBodyTest {
             compressedStream = new GZIPOutputStream(baos);
             break;
           }
+        case ZSTD:
+          {
+            compressedStream = new ZstdOutputStream(baos);
+            break;
+          }
       }
       assertNotNull(compressedStream);
 
@@ -0,0 +1,207 @@
+package datadog.appsec.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.datadog.appsec.report.AppSecEventSerializer;
+import com.datadog.appsec.report.AppSecEventWrapper;
+import com.datadog.appsec.report.raw.events.AppSecEvent100;
+import com.datadog.appsec.report.raw.events.Parameter;
+import com.datadog.appsec.report.raw.events.Rule;
+import com.datadog.appsec.report.raw.events.RuleMatch;
+import com.datadog.appsec.report.raw.events.Tags;
+import datadog.communication.monitor.Monitoring;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulates a burst of 10k attack requests per second, over four request threads, each request
+ * attaching the AppSec events of a few rule matches to its trace. The traces are handed over to a
+ * single thread standing for the trace serializer, which encodes the events unless the event
+ * serializer already did.
+ *
+ * <p>The score is the time the request threads spend completing a request, the pauses pacing the
+ * requests aren't measured. The traces dropped because the simulated trace serializer fell behind,
+ * the events encoded in the background and the events which didn't fit in the event serializer
+ * queue are reported as secondary results.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(MICROSECONDS)
+@Threads(4)
+@Fork(value = 1)
+public class AppSecEventSerializerBenchmark {
+
+  static {
+    BenchmarkUtil.disableLogging();
+  }
+
+  private static final int REQUESTS_PER_SECOND = 10_000;
+  private static final long PAUSE_NANOS = SECONDS.toNanos(4) / REQUESTS_PER_SECOND;
+  private static final int TRACE_QUEUE_CAPACITY = 1024;
+
+  @Param({"false", "true"})
+  boolean async;
+
+  private AppSecEventSerializer eventSerializer;
+  private BlockingQueue<AppSecEventWrapper> traces;
+  private Thread traceSerializer;
+  private List<AppSecEvent100> events;
+  private long claimedEncodedEvents;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    events = new ArrayList<>();
+    for (int i = 0; i < 3; ++i) {
+      events.add(event(i));
+    }
+    if (async) {
+      eventSerializer =
+          new AppSecEventSerializer(
+              AppSecEventSerializer.DEFAULT_QUEUE_CAPACITY,
+              Monitoring.DISABLED.newCounter("not_queued"));
+      eventSerializer.start();
+    }
+    traces = new ArrayBlockingQueue<>(TRACE_QUEUE_CAPACITY);
+    traceSerializer =
+        new Thread(
+            () -> {
+              try {
+                while (!Thread.currentThread().isInterrupted()) {
+                  traces.take().toString();
+                }
+              } catch (InterruptedException e) {
+                // done
+              }
+            });
+    traceSerializer.setDaemon(true);
+    traceSerializer.start();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws InterruptedException {
+    traceSerializer.interrupt();
+    traceSerializer.join();
+    if (eventSerializer != null) {
+      eventSerializer.close();
+    }
+  }
+
+  @Benchmark
+  public AppSecEventWrapper requestEnd(Pacing pacing, Counters counters) {
+    AppSecEventWrapper wrapper = new AppSecEventWrapper(new ArrayList<>(events));
+    if (eventSerializer != null && !eventSerializer.submit(wrapper)) {
+      counters.notQueuedEvents++;
+    }
+    if (!traces.offer(wrapper)) {
+      counters.droppedTraces++;
+    }
+    return wrapper;
+  }
+
+  /** @return the events encoded in the background since the last call, to only count them once */
+  synchronized long claimEncodedEvents() {
+    if (eventSerializer == null) {
+      return 0;
+    }
+    long encodedEvents = eventSerializer.getEncodedCount();
+    long claimed = encodedEvents - claimedEncodedEvents;
+    claimedEncodedEvents = encodedEvents;
+    return claimed;
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Counters {
+    long droppedTraces;
+    long notQueuedEvents;
+    long encodedEvents;
+
+    public long droppedTraces() {
+      return droppedTraces;
+    }
+
+    public long notQueuedEvents() {
+      return notQueuedEvents;
+    }
+
+    public long encodedEvents() {
+      return encodedEvents;
+    }
+
+    @Setup(Level.Iteration)
+    public void reset(AppSecEventSerializerBenchmark benchmark) {
+      benchmark.claimEncodedEvents();
+      droppedTraces = 0;
+      notQueuedEvents = 0;
+      encodedEvents = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void claim(AppSecEventSerializerBenchmark benchmark) {
+      // the events are encoded by the background thread, so the first request thread to finish
+      // the iteration claims them and the others claim what was encoded since
+      encodedEvents = benchmark.claimEncodedEvents();
+    }
+  }
+
+  /** Paces the requests of a thread, outside of the measured time. */
+  @State(Scope.Thread)
+  public static class Pacing {
+    @Setup(Level.Invocation)
+    public void pause() {
+      LockSupport.parkNanos(PAUSE_NANOS);
+    }
+  }
+
+  private static AppSecEvent100 event(int i) {
+    List<RuleMatch> ruleMatches = new ArrayList<>();
+    for (int j = 0; j < 2; ++j) {
+      ruleMatches.add(
+          new RuleMatch.RuleMatchBuilder()
+              .withOperator("match_regex")
+              .withOperatorValue("(?i)<script[^>]*>[\\s\\S]*?")
+              .withParameters(
+                  Collections.singletonList(
+                      new Parameter.ParameterBuilder()
+                          .withAddress("server.request.query")
+                          .withKeyPath(Arrays.asList("q", j))
+                          .withValue("<script>alert(document.cookie)</script>")
+                          .withHighlight(Collections.singletonList("<script>"))
+                          .build()))
+              .build());
+    }
+    return new AppSecEvent100.AppSecEvent100Builder()
+        .withRule(
+            new Rule.RuleBuilder()
+                .withId("crs-941-11" + i)
+                .withName("XSS Filter - Category " + i)
+                .withTags(
+                    new Tags.TagsBuilder().withType("xss").withCategory("attack_attempt").build())
+                .build())
+        .withRuleMatches(ruleMatches)
+        .build();
+  }
+}
@@ -5,15 +5,19 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 
 import com.datadog.appsec.config.AppSecConfig;
 import com.datadog.appsec.config.AppSecConfigDeserializer;
+import com.datadog.appsec.event.data.Address;
+import com.datadog.appsec.event.data.DataBundle;
 import com.datadog.appsec.event.data.KnownAddresses;
+import com.datadog.appsec.event.data.MapDataBundle;
+import com.datadog.appsec.powerwaf.WAFResultCache;
 import io.sqreen.powerwaf.Additive;
 import io.sqreen.powerwaf.Powerwaf;
 import io.sqreen.powerwaf.PowerwafContext;
 import io.sqreen.powerwaf.PowerwafMetrics;
-import io.sqreen.powerwaf.exception.AbstractPowerwafException;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -31,6 +35,12 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 
+/**
+ * Measures WAF runs with and without metrics. {@code noMatch} runs the WAF over the inputs of a
+ * health check, which match nothing, and {@code cacheHit} looks the same inputs up in a {@link
+ * WAFResultCache}, which is what a run costs when its result is cached. Run with {@code -prof gc}
+ * to compare the allocations too.
+ */
 @State(Scope.Benchmark)
 @Warmup(iterations = 4, time = 3, timeUnit = SECONDS)
 @Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
@@ -47,6 +57,15 @@ public class PowerwafBenchmark {
   PowerwafContext ctx;
   Map<String, Object> wafData = new HashMap<>();
   Powerwaf.Limits limits = new Powerwaf.Limits(50, 500, 1000, 5000000, 5000000);
+  Collection<Address<?>> noMatchAddresses =
+      Arrays.asList(
+          KnownAddresses.REQUEST_METHOD,
+          KnownAddresses.REQUEST_URI_RAW,
+          KnownAddresses.REQUEST_COOKIES,
+          KnownAddresses.RESPONSE_HEADERS_NO_COOKIES);
+  Map<String, Object> noMatchWafData = new HashMap<>();
+  DataBundle noMatchBundle;
+  WAFResultCache cache;
 
   @Benchmark
   public void withMetrics() throws Exception {
@@ -69,8 +88,23 @@ public class PowerwafBenchmark {
     }
   }
 
+  @Benchmark
+  public Powerwaf.ResultWithData noMatch() throws Exception {
+    Additive add = ctx.openAdditive();
+    try {
+      return add.run(noMatchWafData, limits, null);
+    } finally {
+      add.close();
+    }
+  }
+
+  @Benchmark
+  public Powerwaf.ResultWithData cacheHit() {
+    return cache.get(cache.digest(noMatchAddresses, noMatchBundle));
+  }
+
   @Setup(Level.Trial)
-  public void setUp() throws AbstractPowerwafException, IOException {
+  public void setUp() throws Exception {
     InputStream stream = getClass().getClassLoader().getResourceAsStream("test_multi_config.json");
     Map<String, AppSecConfig> cfg =
         Collections.singletonMap("waf", AppSecConfigDeserializer.INSTANCE.deserialize(stream));
@@ -108,6 +142,25 @@ public class PowerwafBenchmark {
             "=%7B%22color_mode%22%3A%22light%22%2C%22light_theme%22%3A%7B%22name%22%3A%22light%22%2C%22color_mode%22%3A%22light%22%7D%2C%22dark_theme%22%3A%7B%22name%22%3A%22dark%22%2C%22color_mode%22%3A%22dark%22%7D%7D"));
     cookies.put("tz", Collections.singletonList("Europe/Lisbon"));
     wafData.put(KnownAddresses.REQUEST_COOKIES.getKey(), cookies);
+
+    MapDataBundle.Builder builder = new MapDataBundle.Builder(MapDataBundle.Builder.CAPACITY_3_4);
+    builder.add(KnownAddresses.REQUEST_METHOD, "GET");
+    builder.add(KnownAddresses.REQUEST_URI_RAW, "/health");
+    builder.add(
+        KnownAddresses.REQUEST_COOKIES,
+        Collections.singletonMap("tz", Collections.singletonList("Europe/Lisbon")));
+    builder.add(KnownAddresses.RESPONSE_HEADERS_NO_COOKIES, headers);
+    noMatchBundle = builder.build();
+    for (Map.Entry<Address<?>, Object> entry : noMatchBundle) {
+      noMatchWafData.put(entry.getKey().getKey(), entry.getValue());
+    }
+
+    cache = new WAFResultCache(WAFResultCache.DEFAULT_CAPACITY, 20, 256);
+    Powerwaf.ResultWithData result = noMatch();
+    cache.put(cache.digest(noMatchAddresses, noMatchBundle), cache.generation(), result);
+    if (cacheHit() == null) {
+      throw new IllegalStateException("The result of the WAF run was not cached");
+    }
   }
 
   @TearDown(Level.Trial)
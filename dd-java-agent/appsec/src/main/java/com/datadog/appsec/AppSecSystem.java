@@ -6,6 +6,7 @@ import com.datadog.appsec.event.EventDispatcher;
 import com.datadog.appsec.event.ReplaceableEventProducerService;
 import com.datadog.appsec.gateway.GatewayBridge;
 import com.datadog.appsec.gateway.RateLimiter;
+import com.datadog.appsec.report.AppSecEventSerializer;
 import com.datadog.appsec.util.AbortStartupException;
 import com.datadog.appsec.util.StandardizedLogging;
 import datadog.communication.ddagent.SharedCommunicationObjects;
@@ -35,6 +36,7 @@ public class AppSecSystem {
   private static final Map<AppSecModule, String> STARTED_MODULES_INFO = new HashMap<>();
   private static AppSecConfigServiceImpl APP_SEC_CONFIG_SERVICE;
   private static ReplaceableEventProducerService REPLACEABLE_EVENT_PRODUCER; // testing
+  private static AppSecEventSerializer EVENT_SERIALIZER;
 
   public static void start(SubscriptionService gw, SharedCommunicationObjects sco) {
     try {
@@ -71,12 +73,14 @@ public class AppSecSystem {
     sco.createRemaining(config);
 
     RateLimiter rateLimiter = getRateLimiter(config, sco.monitoring);
+    EVENT_SERIALIZER = getEventSerializer(config, sco.monitoring);
     GatewayBridge gatewayBridge =
         new GatewayBridge(
             gw,
             REPLACEABLE_EVENT_PRODUCER,
             rateLimiter,
-            APP_SEC_CONFIG_SERVICE.getTraceSegmentPostProcessors());
+            APP_SEC_CONFIG_SERVICE.getTraceSegmentPostProcessors(),
+            EVENT_SERIALIZER);
 
     loadModules(eventDispatcher);
     gatewayBridge.init();
@@ -103,6 +107,18 @@ public class AppSecSystem {
     return rateLimiter;
   }
 
+  private static AppSecEventSerializer getEventSerializer(Config config, Monitoring monitoring) {
+    if (!config.isAppSecAsyncEventSerializationEnabled()) {
+      return null;
+    }
+    AppSecEventSerializer eventSerializer =
+        new AppSecEventSerializer(
+            AppSecEventSerializer.DEFAULT_QUEUE_CAPACITY,
+            monitoring.newCounter("_dd.java.appsec.event_serializer.not_queued"));
+    eventSerializer.start();
+    return eventSerializer;
+  }
+
   public static boolean isActive() {
     return ActiveSubsystems.APPSEC_ACTIVE;
   }
@@ -117,6 +133,10 @@ public class AppSecSystem {
     }
 
     APP_SEC_CONFIG_SERVICE.close();
+    if (EVENT_SERIALIZER != null) {
+      EVENT_SERIALIZER.close();
+      EVENT_SERIALIZER = null;
+    }
   }
 
   private static void loadModules(EventDispatcher eventDispatcher) {
@@ -75,6 +75,10 @@ public class AppSecRequestContext implements DataBundle, Closeable {
   private Additive additive;
   // set after additive is set
   private volatile PowerwafMetrics wafMetrics;
+  // data the WAF was not run with because an identical run matched nothing; guarded by this
+  private DataBundle deferredWafData;
+  private int wafCacheLookups;
+  private int wafCacheHits;
 
   // to be called by the Event Dispatcher
   public void addAll(DataBundle newData) {
@@ -119,6 +123,44 @@ public class AppSecRequestContext implements DataBundle, Closeable {
     return curAdditive;
   }
 
+  /** @return whether the WAF has neither been run nor skipped yet for this request */
+  public boolean isFirstWafRun() {
+    synchronized (this) {
+      return additive == null && deferredWafData == null;
+    }
+  }
+
+  /** Keeps data the WAF was not run with, so it is run with the next data of the request. */
+  public void deferWafData(DataBundle data) {
+    synchronized (this) {
+      deferredWafData = data;
+    }
+  }
+
+  /** @return the data the WAF was not run with, if any, which is no longer kept */
+  public DataBundle takeDeferredWafData() {
+    synchronized (this) {
+      DataBundle data = deferredWafData;
+      deferredWafData = null;
+      return data;
+    }
+  }
+
+  public void recordWafCacheLookup(boolean hit) {
+    wafCacheLookups++;
+    if (hit) {
+      wafCacheHits++;
+    }
+  }
+
+  public int getWafCacheLookups() {
+    return wafCacheLookups;
+  }
+
+  public int getWafCacheHits() {
+    return wafCacheHits;
+  }
+
   public void closeAdditive() {
     synchronized (this) {
       if (additive != null) {
@@ -13,6 +13,7 @@ import com.datadog.appsec.event.data.KnownAddresses;
 import com.datadog.appsec.event.data.MapDataBundle;
 import com.datadog.appsec.event.data.ObjectIntrospection;
 import com.datadog.appsec.event.data.SingletonDataBundle;
+import com.datadog.appsec.report.AppSecEventSerializer;
 import com.datadog.appsec.report.AppSecEventWrapper;
 import com.datadog.appsec.report.raw.events.AppSecEvent100;
 import datadog.trace.api.DDTags;
@@ -61,6 +62,7 @@ public class GatewayBridge {
   private final EventProducerService producerService;
   private final RateLimiter rateLimiter;
   private final List<TraceSegmentPostProcessor> traceSegmentPostProcessors;
+  private final AppSecEventSerializer eventSerializer;
 
   // subscriber cache
   private volatile EventProducerService.DataSubscriberInfo initialReqDataSubInfo;
@@ -75,10 +77,24 @@ public class GatewayBridge {
       EventProducerService producerService,
       RateLimiter rateLimiter,
       List<TraceSegmentPostProcessor> traceSegmentPostProcessors) {
+    this(subscriptionService, producerService, rateLimiter, traceSegmentPostProcessors, null);
+  }
+
+  /**
+   * @param eventSerializer encodes the events off the request thread, or null to leave them to be
+   *     encoded when the trace is serialized
+   */
+  public GatewayBridge(
+      SubscriptionService subscriptionService,
+      EventProducerService producerService,
+      RateLimiter rateLimiter,
+      List<TraceSegmentPostProcessor> traceSegmentPostProcessors,
+      AppSecEventSerializer eventSerializer) {
     this.subscriptionService = subscriptionService;
     this.producerService = producerService;
     this.rateLimiter = rateLimiter;
     this.traceSegmentPostProcessors = traceSegmentPostProcessors;
+    this.eventSerializer = eventSerializer;
   }
 
   public void init() {
@@ -146,6 +162,9 @@ public class GatewayBridge {
               // Report AppSec events via "_dd.appsec.json" tag
               AppSecEventWrapper wrapper = new AppSecEventWrapper(collectedEvents);
               traceSeg.setDataTop("appsec", wrapper);
+              if (eventSerializer != null) {
+                eventSerializer.submit(wrapper);
+              }
 
               // Report collected request and response headers based on allow list
               if (requestHeaders != null) {
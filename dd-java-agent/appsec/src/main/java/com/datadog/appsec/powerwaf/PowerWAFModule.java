@@ -99,16 +99,19 @@ public class PowerWAFModule implements AppSecModule {
     final PowerwafContext ctx;
     final Map<String, RuleInfo> rulesInfoMap;
     final Map<String /* id */, ActionInfo> actionInfoMap;
+    final WAFResultCache resultCache; // null if disabled
 
     private CtxAndAddresses(
         Collection<Address<?>> addressesOfInterest,
         PowerwafContext ctx,
         Map<String, RuleInfo> rulesInfoMap,
-        Map<String, ActionInfo> actionInfoMap) {
+        Map<String, ActionInfo> actionInfoMap,
+        WAFResultCache resultCache) {
       this.addressesOfInterest = addressesOfInterest;
       this.ctx = ctx;
       this.rulesInfoMap = rulesInfoMap;
       this.actionInfoMap = actionInfoMap;
+      this.resultCache = resultCache;
     }
   }
 
@@ -137,6 +140,7 @@ public class PowerWAFModule implements AppSecModule {
 
   private final boolean wafMetricsEnabled =
       Config.get().isAppSecWafMetrics(); // could be static if not for tests
+  private final boolean wafResultCacheEnabled = Config.get().isAppSecWafResultCacheEnabled();
   private final AtomicReference<CtxAndAddresses> ctxAndAddresses = new AtomicReference<>();
   private AtomicReference<List<Map<String, Object>>> wafData =
       new AtomicReference<>(Collections.emptyList());
@@ -178,7 +182,7 @@ public class PowerWAFModule implements AppSecModule {
     }
 
     appSecConfigService.addTraceSegmentPostProcessor(initReporter);
-    if (wafMetricsEnabled) {
+    if (wafMetricsEnabled || wafResultCacheEnabled) {
       appSecConfigService.addTraceSegmentPostProcessor(statsReporter);
     }
   }
@@ -195,6 +199,9 @@ public class PowerWAFModule implements AppSecModule {
     CtxAndAddresses curCtxAndAddr = this.ctxAndAddresses.get();
     if (curCtxAndAddr != null) {
       curCtxAndAddr.ctx.updateRuleData(data);
+      if (curCtxAndAddr.resultCache != null) {
+        curCtxAndAddr.resultCache.invalidate();
+      }
     }
   }
 
@@ -207,6 +214,9 @@ public class PowerWAFModule implements AppSecModule {
       Map<String, Boolean> toggleSpec =
           new FilledInRuleTogglingMap(data, curCtxAndAddr.rulesInfoMap.keySet());
       curCtxAndAddr.ctx.toggleRules(toggleSpec);
+      if (curCtxAndAddr.resultCache != null) {
+        curCtxAndAddr.resultCache.invalidate();
+      }
     }
   }
 
@@ -261,8 +271,12 @@ public class PowerWAFModule implements AppSecModule {
         newPwafCtx.toggleRules(new FilledInRuleTogglingMap(rulesOverride, rulesInfoMap.keySet()));
       }
 
+      WAFResultCache resultCache =
+          wafResultCacheEnabled
+              ? new WAFResultCache(WAFResultCache.DEFAULT_CAPACITY, MAX_DEPTH, MAX_ELEMENTS)
+              : null;
       newContextAndAddresses =
-          new CtxAndAddresses(addresses, newPwafCtx, rulesInfoMap, actionInfoMap);
+          new CtxAndAddresses(addresses, newPwafCtx, rulesInfoMap, actionInfoMap, resultCache);
       if (initReport != null) {
         this.statsReporter.rulesVersion = initReport.fileVersion;
       }
@@ -453,6 +467,17 @@ public class PowerWAFModule implements AppSecModule {
         boolean isTransient)
         throws AbstractPowerwafException {
 
+      WAFResultCache resultCache = ctxAndAddr.resultCache;
+      if (resultCache != null && !isTransient) {
+        if (reqCtx.isFirstWafRun()) {
+          return runPowerwafAdditiveCached(resultCache, reqCtx, newData, ctxAndAddr);
+        }
+        DataBundle deferredData = reqCtx.takeDeferredWafData();
+        if (deferredData != null) {
+          newData = DataBundle.unionOf(deferredData, newData);
+        }
+      }
+
       Additive additive = reqCtx.getOrCreateAdditive(ctxAndAddr.ctx, wafMetricsEnabled);
       PowerwafMetrics metrics = reqCtx.getWafMetrics();
 
@@ -464,6 +489,36 @@ public class PowerWAFModule implements AppSecModule {
       }
     }
 
+    /**
+     * Runs the WAF with the first data of a request, unless an identical run matched nothing
+     * before. Skipped data is kept in the request context and handed to the WAF with the next data
+     * of the request, so rules matching on several addresses still see all of them.
+     */
+    private Powerwaf.ResultWithData runPowerwafAdditiveCached(
+        WAFResultCache resultCache,
+        AppSecRequestContext reqCtx,
+        DataBundle newData,
+        CtxAndAddresses ctxAndAddr)
+        throws AbstractPowerwafException {
+      WAFResultCache.Digest digest = resultCache.digest(ctxAndAddr.addressesOfInterest, newData);
+      if (digest != null) {
+        Powerwaf.ResultWithData cachedResult = resultCache.get(digest);
+        reqCtx.recordWafCacheLookup(cachedResult != null);
+        if (cachedResult != null) {
+          reqCtx.deferWafData(newData);
+          return cachedResult;
+        }
+      }
+      int generation = resultCache.generation();
+      Additive additive = reqCtx.getOrCreateAdditive(ctxAndAddr.ctx, wafMetricsEnabled);
+      Powerwaf.ResultWithData resultWithData =
+          runPowerwafAdditive(additive, reqCtx.getWafMetrics(), newData, ctxAndAddr);
+      if (digest != null) {
+        resultCache.put(digest, generation, resultWithData);
+      }
+      return resultWithData;
+    }
+
     private Powerwaf.ResultWithData runPowerwafAdditive(
         Additive additive, PowerwafMetrics metrics, DataBundle newData, CtxAndAddresses ctxAndAddr)
         throws AbstractPowerwafException {
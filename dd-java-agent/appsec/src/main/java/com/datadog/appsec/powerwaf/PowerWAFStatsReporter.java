@@ -11,6 +11,8 @@ public class PowerWAFStatsReporter implements TraceSegmentPostProcessor {
   private static final String TOTAL_DURATION_US_TAG = "_dd.appsec.waf.duration_ext";
   private static final String TOTAL_DDWAF_RUN_DURATION_US_TAG = "_dd.appsec.waf.duration";
   private static final String RULE_FILE_VERSION = "_dd.appsec.event_rules.version";
+  private static final String CACHE_LOOKUPS_TAG = "_dd.appsec.waf.cache.lookups";
+  private static final String CACHE_HITS_TAG = "_dd.appsec.waf.cache.hits";
 
   // XXX: if config is updated, this may not match the actual version run during this request
   // However, as of this point, we don't update rules at runtime.
@@ -29,5 +31,12 @@ public class PowerWAFStatsReporter implements TraceSegmentPostProcessor {
         segment.setTagTop(RULE_FILE_VERSION, rulesVersion);
       }
     }
+
+    // the hit rate of the WAF result cache, when it is enabled
+    int cacheLookups = ctx.getWafCacheLookups();
+    if (cacheLookups > 0) {
+      segment.setTagTop(CACHE_LOOKUPS_TAG, cacheLookups);
+      segment.setTagTop(CACHE_HITS_TAG, ctx.getWafCacheHits());
+    }
   }
 }
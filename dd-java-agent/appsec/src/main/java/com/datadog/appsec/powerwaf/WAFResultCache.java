@@ -0,0 +1,222 @@
+package com.datadog.appsec.powerwaf;
+
+import com.datadog.appsec.event.data.Address;
+import com.datadog.appsec.event.data.DataBundle;
+import io.sqreen.powerwaf.Powerwaf;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded cache of the WAF runs which matched nothing, keyed by a digest of the values of the
+ * addresses the WAF was run with, so identical inputs, like the ones of health checks, aren't run
+ * through the WAF again.
+ *
+ * <p>A cache belongs to the WAF context of a rule set, so it is discarded with the rule set. The
+ * results are also discarded when the rule data or the rule toggling changes, by moving to a new
+ * generation: results are only returned for the current generation, and results of runs which
+ * started before a generation change are not cached.
+ *
+ * <p>The digest is made of two 64-bit hashes seeded at random when the cache is created, so inputs
+ * with the same digest as a cached input can't be crafted to skip the WAF. Values which aren't
+ * strings, numbers, booleans, maps or collections, or which are nested or numerous beyond the WAF
+ * limits, are not digested, and their runs are not cached.
+ */
+public final class WAFResultCache {
+
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private static final long M1 = 0x9E3779B97F4A7C15L;
+  private static final long M2 = 0xC2B2AE3D27D4EB4FL;
+
+  private static final int MAP_TAG = 1;
+  private static final int COLLECTION_TAG = 2;
+  private static final int STRING_TAG = 3;
+  private static final int NUMBER_TAG = 4;
+  private static final int BOOLEAN_TAG = 5;
+  private static final int NULL_TAG = 6;
+
+  private final AtomicReferenceArray<Entry> entries;
+  private final int mask;
+  private final int maxDepth;
+  private final int maxElements;
+  private final long seed1;
+  private final long seed2;
+  private final AtomicInteger generation = new AtomicInteger();
+
+  public WAFResultCache(int capacity, int maxDepth, int maxElements) {
+    this.entries = new AtomicReferenceArray<>(Integer.highestOneBit(capacity - 1) << 1);
+    this.mask = entries.length() - 1;
+    this.maxDepth = maxDepth;
+    this.maxElements = maxElements;
+    SecureRandom random = new SecureRandom();
+    this.seed1 = random.nextLong();
+    this.seed2 = random.nextLong();
+  }
+
+  /** @return the digest of the addresses of interest in the bundle, or null if not digestible */
+  public Digest digest(Collection<Address<?>> addressesOfInterest, DataBundle bundle) {
+    Digester digester = new Digester(seed1, seed2, maxElements);
+    // the addresses of interest are iterated, rather than the bundle, so the digest doesn't depend
+    // on the order of the addresses in the bundle
+    for (Address<?> address : addressesOfInterest) {
+      if (!bundle.hasAddress(address)) {
+        continue;
+      }
+      digester.add(address.getKey());
+      if (!digester.add(bundle.get(address), maxDepth)) {
+        return null;
+      }
+    }
+    return new Digest(digester.h1, digester.h2);
+  }
+
+  /** @return the current generation, which must be passed when caching the result of a run */
+  public int generation() {
+    return generation.get();
+  }
+
+  /** Discards the cached results, because the rule data or the rule toggling changed. */
+  void invalidate() {
+    generation.incrementAndGet();
+  }
+
+  /** @return the result of a previous run with the same digest which matched nothing, or null */
+  public Powerwaf.ResultWithData get(Digest digest) {
+    Entry entry = entries.get(index(digest));
+    if (entry != null
+        && entry.generation == generation.get()
+        && entry.h1 == digest.h1
+        && entry.h2 == digest.h2) {
+      return entry.result;
+    }
+    return null;
+  }
+
+  /**
+   * Caches the result of a run which matched nothing, unless the generation changed since the run
+   * started.
+   */
+  public void put(Digest digest, int generation, Powerwaf.ResultWithData result) {
+    if (result.result != Powerwaf.Result.OK || generation != this.generation.get()) {
+      return;
+    }
+    entries.set(index(digest), new Entry(digest.h1, digest.h2, generation, result));
+  }
+
+  private int index(Digest digest) {
+    return (int) (digest.h1 ^ (digest.h1 >>> 32)) & mask;
+  }
+
+  public static final class Digest {
+    final long h1;
+    final long h2;
+
+    Digest(long h1, long h2) {
+      this.h1 = h1;
+      this.h2 = h2;
+    }
+  }
+
+  private static final class Entry {
+    final long h1;
+    final long h2;
+    final int generation;
+    final Powerwaf.ResultWithData result;
+
+    Entry(long h1, long h2, int generation, Powerwaf.ResultWithData result) {
+      this.h1 = h1;
+      this.h2 = h2;
+      this.generation = generation;
+      this.result = result;
+    }
+  }
+
+  private static final class Digester {
+    long h1;
+    long h2;
+    int remainingElements;
+
+    Digester(long seed1, long seed2, int maxElements) {
+      this.h1 = seed1;
+      this.h2 = seed2;
+      this.remainingElements = maxElements;
+    }
+
+    boolean add(Object value, int remainingDepth) {
+      if (value == null) {
+        mix(NULL_TAG);
+        return true;
+      }
+      if (value instanceof CharSequence) {
+        mix(STRING_TAG);
+        add((CharSequence) value);
+        return true;
+      }
+      if (value instanceof Number) {
+        mix(NUMBER_TAG);
+        add(value.toString());
+        return true;
+      }
+      if (value instanceof Boolean) {
+        mix(BOOLEAN_TAG);
+        mix((Boolean) value ? 1 : 0);
+        return true;
+      }
+      if (remainingDepth == 0) {
+        return false;
+      }
+      if (value instanceof Map) {
+        Map<?, ?> map = (Map<?, ?>) value;
+        remainingElements -= map.size();
+        if (remainingElements < 0) {
+          return false;
+        }
+        mix(MAP_TAG);
+        mix(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          Object key = entry.getKey();
+          if (!(key instanceof CharSequence)) {
+            return false;
+          }
+          add((CharSequence) key);
+          if (!add(entry.getValue(), remainingDepth - 1)) {
+            return false;
+          }
+        }
+        return true;
+      }
+      if (value instanceof Collection) {
+        Collection<?> collection = (Collection<?>) value;
+        remainingElements -= collection.size();
+        if (remainingElements < 0) {
+          return false;
+        }
+        mix(COLLECTION_TAG);
+        mix(collection.size());
+        for (Object element : collection) {
+          if (!add(element, remainingDepth - 1)) {
+            return false;
+          }
+        }
+        return true;
+      }
+      return false;
+    }
+
+    void add(CharSequence s) {
+      int length = s.length();
+      mix(length);
+      for (int i = 0; i < length; ++i) {
+        mix(s.charAt(i));
+      }
+    }
+
+    private void mix(long value) {
+      h1 = Long.rotateLeft(h1 ^ value, 31) * M1;
+      h2 = Long.rotateLeft(h2 + value, 27) * M2;
+    }
+  }
+}
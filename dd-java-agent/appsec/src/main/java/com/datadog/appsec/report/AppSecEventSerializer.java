@@ -0,0 +1,109 @@
+package com.datadog.appsec.report;
+
+import static datadog.trace.util.AgentThreadFactory.AgentThread.APPSEC_EVENT_SERIALIZER;
+import static datadog.trace.util.AgentThreadFactory.newAgentThread;
+
+import datadog.communication.monitor.Counter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes the JSON of the AppSec events of a request on a background thread, once they are attached
+ * to the trace segment, so neither the request thread nor the thread serializing the traces has to.
+ *
+ * <p>The queue of the events to encode is bounded. When it is full, the events are left as they
+ * are, and they are encoded when the trace is serialized, as if this serializer wasn't there. So
+ * are the events the background thread hasn't reached yet when their trace is serialized: the
+ * events are always encoded before the trace is written, by whichever thread gets to them first.
+ */
+public class AppSecEventSerializer implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(AppSecEventSerializer.class);
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+  private final BlockingQueue<AppSecEventWrapper> queue;
+  private final Counter notQueuedCounter;
+  private final LongAdder queueFull = new LongAdder();
+  private final LongAdder encoded = new LongAdder();
+  private final Thread thread;
+  private volatile boolean closed;
+
+  /**
+   * @param notQueuedCounter counts the events which weren't queued, with the cause {@code
+   *     queue_full} or {@code closed}
+   */
+  public AppSecEventSerializer(int queueCapacity, Counter notQueuedCounter) {
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.notQueuedCounter = notQueuedCounter;
+    this.thread = newAgentThread(APPSEC_EVENT_SERIALIZER, new SerializingTask());
+  }
+
+  public void start() {
+    thread.start();
+  }
+
+  /**
+   * Schedules the encoding of the events. Never blocks: if the queue is full, or this serializer is
+   * closed, the events are encoded when their trace is serialized.
+   *
+   * @return whether the events were queued
+   */
+  public boolean submit(AppSecEventWrapper wrapper) {
+    if (closed) {
+      notQueuedCounter.incrementErrorCount("closed", 1);
+      return false;
+    }
+    if (!queue.offer(wrapper)) {
+      queueFull.increment();
+      notQueuedCounter.incrementErrorCount("queue_full", 1);
+      return false;
+    }
+    return true;
+  }
+
+  /** @return the number of events which were encoded by the background thread */
+  public long getEncodedCount() {
+    return encoded.sum();
+  }
+
+  /** @return the number of events which weren't queued, because the queue was full */
+  public long getQueueFullCount() {
+    return queueFull.sum();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    thread.interrupt();
+  }
+
+  private final class SerializingTask implements Runnable {
+    @Override
+    public void run() {
+      while (!closed) {
+        AppSecEventWrapper wrapper;
+        try {
+          wrapper = queue.take();
+        } catch (InterruptedException e) {
+          continue;
+        }
+        if (wrapper.isEncoded()) {
+          // the trace was already serialized
+          continue;
+        }
+        try {
+          wrapper.encode();
+          encoded.increment();
+        } catch (RuntimeException e) {
+          // the events will be encoded again, and fail again, when the trace is serialized
+          log.debug("Failed to encode AppSec events", e);
+        }
+      }
+      queue.clear();
+    }
+  }
+}
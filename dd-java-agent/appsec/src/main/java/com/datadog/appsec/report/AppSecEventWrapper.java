@@ -12,7 +12,8 @@ public class AppSecEventWrapper {
       new Moshi.Builder().build().adapter(AppSecEventWrapper.class);
 
   private Collection<AppSecEvent100> triggers;
-  private String json;
+  // transient so it is never part of the JSON, even when encoded concurrently
+  private transient volatile String json;
 
   public AppSecEventWrapper(Collection<AppSecEvent100> events) {
     this.triggers = events;
@@ -35,11 +36,26 @@ public class AppSecEventWrapper {
     return triggers.hashCode();
   }
 
+  /**
+   * @return whether the JSON of the events was already encoded, by {@link #toString()} or by an
+   *     {@link AppSecEventSerializer}
+   */
+  public boolean isEncoded() {
+    return json != null;
+  }
+
   @Override
   public String toString() {
+    String json = this.json;
     if (json == null) {
-      json = ADAPTER.toJson(this);
+      json = encode();
     }
     return json;
   }
+
+  String encode() {
+    String json = ADAPTER.toJson(this);
+    this.json = json;
+    return json;
+  }
 }
@@ -38,4 +38,20 @@ class PowerWAFStatsReporterSpecification extends DDSpecification {
     1 * ctx.getWafMetrics() >> null
     0 * segment._(*_)
   }
+
+  void 'reporter reports the hits of the result cache'() {
+    setup:
+    TraceSegment segment = Mock()
+
+    when:
+    reporter.processTraceSegment(segment, ctx, [])
+
+    then:
+    1 * ctx.getWafMetrics() >> null
+    1 * ctx.getWafCacheLookups() >> 3
+    1 * ctx.getWafCacheHits() >> 2
+    1 * segment.setTagTop('_dd.appsec.waf.cache.lookups', 3)
+    1 * segment.setTagTop('_dd.appsec.waf.cache.hits', 2)
+    0 * segment._(*_)
+  }
 }
@@ -0,0 +1,135 @@
+package com.datadog.appsec.powerwaf
+
+import com.datadog.appsec.event.data.Address
+import com.datadog.appsec.event.data.DataBundle
+import com.datadog.appsec.event.data.KnownAddresses
+import com.datadog.appsec.event.data.MapDataBundle
+import datadog.trace.test.util.DDSpecification
+import io.sqreen.powerwaf.Powerwaf
+
+class WAFResultCacheTest extends DDSpecification {
+
+  static final Powerwaf.ResultWithData OK = new Powerwaf.ResultWithData(Powerwaf.Result.OK, null)
+  static final Powerwaf.ResultWithData MATCH = new Powerwaf.ResultWithData(Powerwaf.Result.MATCH, '[]')
+
+  Collection<Address<?>> addresses = [KnownAddresses.REQUEST_URI_RAW, KnownAddresses.RESPONSE_HEADERS_NO_COOKIES]
+  WAFResultCache cache = new WAFResultCache(WAFResultCache.DEFAULT_CAPACITY, 10, 100)
+
+  void 'results of runs which matched nothing are cached'() {
+    setup:
+    def digest = cache.digest(addresses, bundle('/health', [host: ['localhost']]))
+
+    expect:
+    cache.get(digest) == null
+
+    when:
+    cache.put(digest, cache.generation(), OK)
+
+    then:
+    cache.get(cache.digest(addresses, bundle('/health', [host: ['localhost']]))).is(OK)
+    cache.get(cache.digest(addresses, bundle('/health', [host: ['localhost:8080']]))) == null
+    cache.get(cache.digest(addresses, bundle('/health?x', [host: ['localhost']]))) == null
+    cache.hits == 1
+    cache.misses == 3
+  }
+
+  void 'results of runs which matched are not cached'() {
+    setup:
+    def digest = cache.digest(addresses, bundle('/login', [:]))
+
+    when:
+    cache.put(digest, cache.generation(), MATCH)
+
+    then:
+    cache.get(digest) == null
+  }
+
+  void 'addresses the WAF is not interested in are not digested'() {
+    setup:
+    def digest = cache.digest(addresses, bundle('/health', [:]))
+    cache.put(digest, cache.generation(), OK)
+    def otherBundle = MapDataBundle.of(
+      KnownAddresses.REQUEST_URI_RAW, '/health',
+      KnownAddresses.RESPONSE_HEADERS_NO_COOKIES, [:],
+      KnownAddresses.REQUEST_METHOD, 'GET')
+
+    expect:
+    cache.get(cache.digest(addresses, otherBundle)).is(OK)
+  }
+
+  void 'invalidation discards the cached results'() {
+    setup:
+    def digest = cache.digest(addresses, bundle('/health', [:]))
+    int generation = cache.generation()
+    cache.put(digest, generation, OK)
+
+    when:
+    cache.invalidate()
+
+    then:
+    cache.get(digest) == null
+
+    when: 'the result of a run started before the invalidation is cached'
+    cache.put(digest, generation, OK)
+
+    then:
+    cache.get(digest) == null
+
+    when:
+    cache.put(digest, cache.generation(), OK)
+
+    then:
+    cache.get(digest).is(OK)
+  }
+
+  void 'values which can not be digested are not cached'() {
+    expect:
+    cache.digest([KnownAddresses.REQUEST_BODY_OBJECT], MapDataBundle.of(KnownAddresses.REQUEST_BODY_OBJECT, value)) == null
+
+    where:
+    value << [
+      new Object(),
+      [a: [b: [c: [d: [e: [f: [g: [h: [i: [j: [k: 'l']]]]]]]]]]],
+      (1..101).collect { it },
+      [(1): 'non-string key'],
+    ]
+  }
+
+  void 'digests depend on the structure of the values'() {
+    expect:
+    digestOf(a) != digestOf(b)
+
+    where:
+    a             | b
+    ['ab']        | ['a', 'b']
+    [a: 'b']      | ['a', 'b']
+    '1'           | 1
+    'true'        | true
+    [[]]          | [[:]]
+    null          | 'null'
+  }
+
+  void 'digests are seeded per cache'() {
+    setup:
+    def otherCache = new WAFResultCache(WAFResultCache.DEFAULT_CAPACITY, 10, 100)
+    def bundle = bundle('/health', [:])
+
+    expect:
+    digestOf(cache, bundle) != digestOf(otherCache, bundle)
+  }
+
+  private List<Long> digestOf(Object value) {
+    digestOf(cache, MapDataBundle.of(KnownAddresses.REQUEST_BODY_OBJECT, value))
+  }
+
+  private List<Long> digestOf(WAFResultCache cache, DataBundle bundle) {
+    def digest = cache.digest([KnownAddresses.REQUEST_BODY_OBJECT, KnownAddresses.REQUEST_URI_RAW, KnownAddresses.RESPONSE_HEADERS_NO_COOKIES], bundle)
+    [digest.h1, digest.h2]
+  }
+
+  private static DataBundle bundle(String uri, Map<String, List<String>> headers) {
+    MapDataBundle.of(
+      KnownAddresses.REQUEST_URI_RAW, uri,
+      KnownAddresses.RESPONSE_HEADERS_NO_COOKIES, headers)
+  }
+}
@@ -0,0 +1,71 @@
+package com.datadog.appsec.report
+
+import datadog.communication.monitor.Counter
+import datadog.trace.test.util.DDSpecification
+import spock.util.concurrent.PollingConditions
+
+class AppSecEventSerializerSpecification extends DDSpecification {
+
+  Counter notQueuedCounter = Mock()
+
+  void 'events are encoded in the background'() {
+    setup:
+    def serializer = new AppSecEventSerializer(16, notQueuedCounter)
+    def wrapper = new AppSecEventWrapper([])
+    serializer.start()
+
+    when:
+    boolean queued = serializer.submit(wrapper)
+
+    then:
+    queued
+    new PollingConditions(timeout: 5).eventually {
+      assert wrapper.encoded
+      assert serializer.encodedCount == 1
+    }
+    wrapper.toString() == '{"triggers":[]}'
+    0 * notQueuedCounter._
+
+    cleanup:
+    serializer.close()
+  }
+
+  void 'events are left to be encoded with the trace when the queue is full'() {
+    setup:
+    def serializer = new AppSecEventSerializer(1, notQueuedCounter)
+    def first = new AppSecEventWrapper([])
+    def second = new AppSecEventWrapper([])
+
+    when:
+    boolean firstQueued = serializer.submit(first)
+    boolean secondQueued = serializer.submit(second)
+
+    then:
+    firstQueued
+    !secondQueued
+    1 * notQueuedCounter.incrementErrorCount('queue_full', 1)
+    0 * notQueuedCounter._
+    serializer.queueFullCount == 1
+    !second.encoded
+    second.toString() == '{"triggers":[]}'
+
+    cleanup:
+    serializer.close()
+  }
+
+  void 'events are not queued once closed'() {
+    setup:
+    def serializer = new AppSecEventSerializer(16, notQueuedCounter)
+    serializer.start()
+    serializer.close()
+
+    when:
+    boolean queued = serializer.submit(new AppSecEventWrapper([]))
+
+    then:
+    !queued
+    1 * notQueuedCounter.incrementErrorCount('closed', 1)
+    0 * notQueuedCounter._
+    serializer.queueFullCount == 0
+  }
+}
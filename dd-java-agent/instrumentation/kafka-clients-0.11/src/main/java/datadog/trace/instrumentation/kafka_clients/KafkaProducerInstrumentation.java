@@ -49,6 +49,7 @@ public final class KafkaProducerInstrumentation extends Instrumenter.Tracing
     return new String[] {
       packageName + ".KafkaDecorator",
       packageName + ".TextMapInjectAdapter",
+      packageName + ".TextMapInjectAdapter$1",
       packageName + ".KafkaProducerCallback"
     };
   }
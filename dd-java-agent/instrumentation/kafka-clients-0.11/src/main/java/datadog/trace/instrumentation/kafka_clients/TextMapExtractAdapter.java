@@ -5,6 +5,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import datadog.trace.api.Config;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
+import datadog.trace.bootstrap.instrumentation.api.PathwayContext;
 import java.nio.ByteBuffer;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
@@ -28,21 +29,34 @@ public class TextMapExtractAdapter
 
   @Override
   public void forEachKey(Headers carrier, AgentPropagation.KeyClassifier classifier) {
+    // classifiers which also accept bytes can parse the ids without decoding the headers
+    AgentPropagation.BinaryKeyClassifier binaryClassifier =
+        classifier instanceof AgentPropagation.BinaryKeyClassifier
+            ? (AgentPropagation.BinaryKeyClassifier) classifier
+            : null;
     for (Header header : carrier) {
       String key = header.key();
       byte[] value = header.value();
-      if (null != value) {
-        String string =
-            base64 != null
-                ? new String(base64.decode(header.value()), UTF_8)
-                : new String(header.value(), UTF_8);
-        if (!classifier.accept(key, string)) {
+      if (null != value && !isBinaryHeader(key)) {
+        if (base64 != null) {
+          value = base64.decode(value);
+        }
+        boolean accepted =
+            binaryClassifier != null
+                ? binaryClassifier.accept(key, value)
+                : classifier.accept(key, new String(value, UTF_8));
+        if (!accepted) {
           return;
         }
       }
     }
   }
 
+  /** The produced time and the pathway context are binary, and never extracted as text. */
+  private static boolean isBinaryHeader(String key) {
+    return KAFKA_PRODUCED_KEY.equals(key) || PathwayContext.PROPAGATION_KEY.equals(key);
+  }
+
   @Override
   public void forEachKey(Headers carrier, AgentPropagation.BinaryKeyClassifier classifier) {
     for (Header header : carrier) {
@@ -2,9 +2,12 @@ package datadog.trace.instrumentation.kafka_clients;
 
 import static datadog.trace.instrumentation.kafka_clients.KafkaDecorator.KAFKA_PRODUCED_KEY;
 
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
 import org.apache.kafka.common.header.Headers;
 
 public class TextMapInjectAdapter
@@ -12,9 +15,27 @@ public class TextMapInjectAdapter
 
   public static final TextMapInjectAdapter SETTER = new TextMapInjectAdapter();
 
+  // the sampling priority, origin and tags are mostly the same from one record to the next, so
+  // their bytes are cached, unlike the ids which are longer and different for every record
+  private static final int MAX_CACHED_LENGTH = 16;
+
+  private static final Function<String, byte[]> ENCODER =
+      new Function<String, byte[]>() {
+        @Override
+        public byte[] apply(String value) {
+          return encode(value);
+        }
+      };
+
+  private final DDCache<String, byte[]> encodedValues = DDCaches.newFixedSizeCache(32);
+
   @Override
   public void set(final Headers headers, final String key, final String value) {
-    headers.remove(key).add(key, value.getBytes(StandardCharsets.UTF_8));
+    byte[] bytes =
+        value.length() <= MAX_CACHED_LENGTH
+            ? encodedValues.computeIfAbsent(value, ENCODER)
+            : encode(value);
+    headers.remove(key).add(key, bytes);
   }
 
   @Override
@@ -27,4 +48,18 @@ public class TextMapInjectAdapter
     buf.putLong(System.currentTimeMillis());
     headers.add(KAFKA_PRODUCED_KEY, buf.array());
   }
+
+  /** Encodes propagated values, which are ASCII, without going through a charset encoder. */
+  static byte[] encode(String value) {
+    int length = value.length();
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x80) {
+        return value.getBytes(StandardCharsets.UTF_8);
+      }
+      bytes[i] = (byte) c;
+    }
+    return bytes;
+  }
 }
@@ -37,6 +37,12 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
   private final KafkaDecorator decorator;
   private final String group;
 
+  // records are iterated partition by partition, so the checkpoint tags of the last partition are
+  // reused until the next one
+  private String checkpointTopic;
+  private int checkpointPartition;
+  private LinkedHashMap<String, String> checkpointTags;
+
   public TracingIterator(
       final Iterator<ConsumerRecord<?, ?>> delegateIterator,
       final CharSequence operationName,
@@ -89,13 +95,7 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
               propagate().extractBinaryPathwayContext(val.headers(), GETTER);
           span.mergePathwayContext(pathwayContext);
 
-          LinkedHashMap<String, String> sortedTags = new LinkedHashMap<>();
-          sortedTags.put(DIRECTION_TAG, DIRECTION_IN);
-          sortedTags.put(GROUP_TAG, group);
-          sortedTags.put(PARTITION_TAG, String.valueOf(val.partition()));
-          sortedTags.put(TOPIC_TAG, val.topic());
-          sortedTags.put(TYPE_TAG, "kafka");
-          AgentTracer.get().setDataStreamCheckpoint(span, sortedTags);
+          AgentTracer.get().setDataStreamCheckpoint(span, checkpointTags(val));
         } else {
           span = startSpan(operationName, null);
         }
@@ -114,6 +114,23 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
     }
   }
 
+  private LinkedHashMap<String, String> checkpointTags(ConsumerRecord<?, ?> record) {
+    if (null == checkpointTags
+        || checkpointPartition != record.partition()
+        || !record.topic().equals(checkpointTopic)) {
+      LinkedHashMap<String, String> sortedTags = new LinkedHashMap<>();
+      sortedTags.put(DIRECTION_TAG, DIRECTION_IN);
+      sortedTags.put(GROUP_TAG, group);
+      sortedTags.put(PARTITION_TAG, String.valueOf(record.partition()));
+      sortedTags.put(TOPIC_TAG, record.topic());
+      sortedTags.put(TYPE_TAG, "kafka");
+      checkpointTopic = record.topic();
+      checkpointPartition = record.partition();
+      checkpointTags = sortedTags;
+    }
+    return checkpointTags;
+  }
+
   @Override
   public void remove() {
     delegateIterator.remove();
@@ -53,12 +53,18 @@ public final class ConfigDefaults {
   static final boolean DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE_TYPE_SUFFIX = false;
   static final int DEFAULT_SCOPE_DEPTH_LIMIT = 100;
   static final int DEFAULT_SCOPE_ITERATION_KEEP_ALIVE = 30; // in seconds
+  static final boolean DEFAULT_SCOPE_RECYCLING_ENABLED = false;
   static final int DEFAULT_PARTIAL_FLUSH_MIN_SPANS = 1000;
+  static final int DEFAULT_TRACE_PENDING_BUFFER_SIZE = 4096;
   static final boolean DEFAULT_PROPAGATION_EXTRACT_LOG_HEADER_NAMES_ENABLED = false;
   static final String DEFAULT_PROPAGATION_STYLE_EXTRACT = PropagationStyle.DATADOG.name();
   static final String DEFAULT_PROPAGATION_STYLE_INJECT = PropagationStyle.DATADOG.name();
   static final boolean DEFAULT_JMX_FETCH_ENABLED = true;
   static final boolean DEFAULT_TRACE_AGENT_V05_ENABLED = false;
+  static final int DEFAULT_TRACE_WRITER_MAX_IN_FLIGHT_PAYLOADS = 0;
+  static final int DEFAULT_TRACE_WRITER_SERIALIZER_SHARDS = 1;
+  static final boolean DEFAULT_TRACE_ASYNC_COMPLETION_ENABLED = false;
+  static final boolean DEFAULT_TRACE_WRITER_DIRECT_BUFFERS_ENABLED = false;
 
   static final boolean DEFAULT_CLIENT_IP_ENABLED = false;
 
@@ -79,6 +85,8 @@ public final class ConfigDefaults {
   static final boolean DEFAULT_APPSEC_REPORTING_INBAND = false;
   static final int DEFAULT_APPSEC_TRACE_RATE_LIMIT = 100;
   static final boolean DEFAULT_APPSEC_WAF_METRICS = true;
+  static final boolean DEFAULT_APPSEC_WAF_RESULT_CACHE_ENABLED = false;
+  static final boolean DEFAULT_APPSEC_ASYNC_EVENT_SERIALIZATION_ENABLED = false;
 
   static final boolean DEFAULT_IAST_ENABLED = false;
   static final boolean DEFAULT_IAST_TAINT_TRACKING_DEBUG_ENABLED = false;
@@ -91,6 +99,7 @@ public final class ConfigDefaults {
       "^(?:PBEWITH(?:HMACSHA(?:2(?:24ANDAES_(?:128|256)|56ANDAES_(?:128|256))|384ANDAES_(?:128|256)|512ANDAES_(?:128|256)|1ANDAES_(?:128|256))|SHA1AND(?:RC(?:2_(?:128|40)|4_(?:128|40))|DESEDE)|MD5AND(?:TRIPLEDES|DES))|DES(?:EDE(?:WRAP)?)?|BLOWFISH|ARCFOUR|RC2).*$";
 
   static final boolean DEFAULT_IAST_DEDUPLICATION_ENABLED = true;
+  static final boolean DEFAULT_IAST_STRIPED_TAINTED_MAP_ENABLED = false;
 
   static final boolean DEFAULT_CIVISIBILITY_ENABLED = false;
   static final boolean DEFAULT_CIVISIBILITY_AGENTLESS_ENABLED = false;
@@ -115,6 +124,7 @@ public final class ConfigDefaults {
   static final int DEFAULT_DEBUGGER_MAX_PAYLOAD_SIZE = 1024; // KiB
   static final boolean DEFAULT_DEBUGGER_VERIFY_BYTECODE = false;
   static final boolean DEFAULT_DEBUGGER_INSTRUMENT_THE_WORLD = false;
+  static final int DEFAULT_DEBUGGER_CAPTURE_BUFFER_SIZE = 0; // KiB, 0 = serialized when captured
 
   static final boolean DEFAULT_TRACE_REPORT_HOSTNAME = false;
   static final String DEFAULT_TRACE_ANNOTATIONS = null;
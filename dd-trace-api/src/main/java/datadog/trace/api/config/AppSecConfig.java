@@ -10,6 +10,9 @@ public final class AppSecConfig {
   public static final String APPSEC_IP_ADDR_HEADER = "appsec.ipheader";
   public static final String APPSEC_TRACE_RATE_LIMIT = "appsec.trace.rate.limit";
   public static final String APPSEC_WAF_METRICS = "appsec.waf.metrics";
+  public static final String APPSEC_WAF_RESULT_CACHE_ENABLED = "appsec.waf.result.cache.enabled";
+  public static final String APPSEC_ASYNC_EVENT_SERIALIZATION_ENABLED =
+      "appsec.async.event.serialization.enabled";
   public static final String APPSEC_OBFUSCATION_PARAMETER_KEY_REGEXP =
       "appsec.obfuscation.parameter_key_regexp";
   public static final String APPSEC_OBFUSCATION_PARAMETER_VALUE_REGEXP =
@@ -21,6 +21,12 @@ public final class DebuggerConfig {
   public static final String DEBUGGER_INSTRUMENT_THE_WORLD =
       "dynamic.instrumentation.instrument.the.world";
   public static final String DEBUGGER_EXCLUDE_FILE = "dynamic.instrumentation.exclude.file";
+  /**
+   * The size in KiB of the buffer of each thread recording the captured values, which are then
+   * serialized by the sink. 0 serializes the values on the capturing thread.
+   */
+  public static final String DEBUGGER_CAPTURE_BUFFER_SIZE =
+      "dynamic.instrumentation.capture.buffer.size";
 
   private DebuggerConfig() {}
 }
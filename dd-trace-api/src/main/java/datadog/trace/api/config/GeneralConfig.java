@@ -44,6 +44,8 @@ public final class GeneralConfig {
   public static final String TRACER_METRICS_ENABLED = "trace.tracer.metrics.enabled";
   public static final String TRACER_METRICS_BUFFERING_ENABLED =
       "trace.tracer.metrics.buffering.enabled";
+  public static final String TRACER_METRICS_PRE_AGGREGATION_ENABLED =
+      "trace.tracer.metrics.pre.aggregation.enabled";
   public static final String TRACER_METRICS_MAX_AGGREGATES = "trace.tracer.metrics.max.aggregates";
   public static final String TRACER_METRICS_MAX_PENDING = "trace.tracer.metrics.max.pending";
   public static final String TRACER_METRICS_IGNORED_RESOURCES =
@@ -53,6 +55,8 @@ public final class GeneralConfig {
   public static final String INTERNAL_EXIT_ON_FAILURE = "trace.internal.exit.on.failure";
 
   public static final String DATA_STREAMS_ENABLED = "data.streams.enabled";
+  public static final String DATA_STREAMS_SHARDED_AGGREGATION_ENABLED =
+      "data.streams.sharded.aggregation.enabled";
 
   public static final String TELEMETRY_ENABLED = "instrumentation.telemetry.enabled";
   public static final String TELEMETRY_HEARTBEAT_INTERVAL = "telemetry.heartbeat.interval";
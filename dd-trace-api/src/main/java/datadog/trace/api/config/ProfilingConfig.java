@@ -35,6 +35,10 @@ public final class ProfilingConfig {
   public static final int PROFILING_UPLOAD_TIMEOUT_DEFAULT = 30;
   public static final String PROFILING_UPLOAD_COMPRESSION = "profiling.upload.compression";
   public static final String PROFILING_UPLOAD_COMPRESSION_DEFAULT = "on";
+  public static final String PROFILING_UPLOAD_COMPRESSION_LEVEL =
+      "profiling.upload.compression.level";
+  // 0 is the default level of the selected compression
+  public static final int PROFILING_UPLOAD_COMPRESSION_LEVEL_DEFAULT = 0;
   public static final String PROFILING_PROXY_HOST = "profiling.proxy.host";
   public static final String PROFILING_PROXY_PORT = "profiling.proxy.port";
   public static final int PROFILING_PROXY_PORT_DEFAULT = 8080;
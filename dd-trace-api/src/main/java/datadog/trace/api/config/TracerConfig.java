@@ -64,8 +64,14 @@ public final class TracerConfig {
   public static final String SCOPE_INHERIT_ASYNC_PROPAGATION =
       "trace.scope.inherit.async.propagation";
   public static final String SCOPE_ITERATION_KEEP_ALIVE = "trace.scope.iteration.keep.alive";
+  /** Whether closed scopes are reused by later activations on the same thread. */
+  public static final String SCOPE_RECYCLING_ENABLED = "trace.scope.recycling.enabled";
+
   public static final String PARTIAL_FLUSH_MIN_SPANS = "trace.partial.flush.min.spans";
   public static final String TRACE_STRICT_WRITES_ENABLED = "trace.strict.writes.enabled";
+  /** The maximum number of incomplete traces buffered while waiting for their late spans. */
+  public static final String TRACE_PENDING_BUFFER_SIZE = "trace.pending.buffer.size";
+
   public static final String PROPAGATION_EXTRACT_LOG_HEADER_NAMES_ENABLED =
       "propagation.extract.log_header_names.enabled";
   public static final String PROPAGATION_STYLE_EXTRACT = "propagation.style.extract";
@@ -73,6 +79,29 @@ public final class TracerConfig {
 
   public static final String ENABLE_TRACE_AGENT_V05 = "trace.agent.v0.5.enabled";
 
+  /**
+   * Maximum number of serialized trace payloads waiting to be sent to the agent while the next one
+   * is serialized. When 0 (the default) payloads are sent synchronously by the serializing thread.
+   */
+  public static final String TRACE_WRITER_MAX_IN_FLIGHT_PAYLOADS =
+      "trace.writer.max.in.flight.payloads";
+
+  /**
+   * Number of threads serializing traces, each with its own queues. Payloads are always sent
+   * asynchronously when there is more than one.
+   */
+  public static final String TRACE_WRITER_SERIALIZER_SHARDS = "trace.writer.serializer.shards";
+
+  /**
+   * Whether the thread finishing a trace queues it once intercepted and sampled, leaving the
+   * profiling context and the handoff to the writer to a tracer thread.
+   */
+  public static final String TRACE_ASYNC_COMPLETION_ENABLED = "trace.async.completion.enabled";
+
+  /** Whether to serialize traces into pooled off-heap buffers. */
+  public static final String TRACE_WRITER_DIRECT_BUFFERS_ENABLED =
+      "trace.writer.direct.buffers.enabled";
+
   public static final String CLIENT_IP_ENABLED = "trace.client-ip.enabled";
 
   public static final String SECURE_RANDOM = "trace.secure-random";
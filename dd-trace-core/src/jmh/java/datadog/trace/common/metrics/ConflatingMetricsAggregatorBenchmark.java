@@ -0,0 +1,200 @@
+package datadog.trace.common.metrics;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.ddagent.DDAgentFeaturesDiscovery;
+import datadog.communication.monitor.Monitoring;
+import datadog.trace.api.DDSpanId;
+import datadog.trace.api.DDTraceId;
+import datadog.trace.api.sampling.PrioritySampling;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer.NoopPathwayContext;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import datadog.trace.core.DDSpanContext;
+import datadog.trace.core.DDSpanHelper;
+import datadog.trace.core.PendingTrace;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.jctools.maps.NonBlockingHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares finding the metric key for a span by building a {@link MetricKey} and interning it, as
+ * publishing used to, with probing {@link MetricKeys} with the span's fields. Run with {@code -prof
+ * gc} to see allocations per span: {@code publish} and {@code lookupCanonicalKey} should not
+ * allocate once all keys have been seen. With {@code preAggregation}, {@code publish} should hand
+ * hardly any batches over to the aggregator thread.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(value = 1)
+public class ConflatingMetricsAggregatorBenchmark {
+
+  private static final int SPANS = 64;
+
+  @Param({"false", "true"})
+  boolean preAggregation;
+
+  private ConflatingMetricsAggregator aggregator;
+  private MetricKeys canonicalKeys;
+  private NonBlockingHashMap<MetricKey, MetricKey> internedKeys;
+  private List<DDSpan> trace;
+
+  @Setup(Level.Trial)
+  public void init() {
+    aggregator =
+        new ConflatingMetricsAggregator(
+            Collections.<String>emptySet(),
+            new MetricsEnabled(),
+            new NullSink(),
+            new NullWriter(),
+            1000,
+            2048,
+            1,
+            SECONDS,
+            preAggregation);
+    aggregator.start();
+    CoreTracer tracer = CoreTracer.builder().strictTraceWrites(true).build();
+    PendingTrace pendingTrace = tracer.createTrace(DDTraceId.ONE);
+    trace = new ArrayList<>(SPANS);
+    for (int i = 0; i < SPANS; ++i) {
+      DDSpanContext context =
+          new DDSpanContext(
+              DDTraceId.ONE,
+              i + 1,
+              i == 0 ? DDSpanId.ZERO : 1,
+              null,
+              "service",
+              "operation",
+              "resource-" + (i % 8),
+              PrioritySampling.SAMPLER_KEEP,
+              null,
+              Collections.<String, String>emptyMap(),
+              false,
+              "type",
+              0,
+              pendingTrace,
+              null,
+              null,
+              NoopPathwayContext.INSTANCE,
+              false,
+              null);
+      DDSpan span = DDSpanHelper.create(System.currentTimeMillis() * 1000, context);
+      span.setMeasured(true);
+      trace.add(span);
+    }
+    canonicalKeys = new MetricKeys();
+    internedKeys = new NonBlockingHashMap<>();
+    for (DDSpan span : trace) {
+      MetricKey key = newKey(span);
+      canonicalKeys.putIfAbsent(key);
+      internedKeys.putIfAbsent(key, key);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    aggregator.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SPANS)
+  public boolean publish() {
+    return aggregator.publish(trace);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SPANS)
+  public void internNewKey(Blackhole blackhole) {
+    for (DDSpan span : trace) {
+      MetricKey key = newKey(span);
+      blackhole.consume(internedKeys.putIfAbsent(key, key));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SPANS)
+  public void lookupCanonicalKey(Blackhole blackhole) {
+    for (DDSpan span : trace) {
+      blackhole.consume(
+          canonicalKeys.get(
+              span.getResourceName(),
+              span.getServiceName(),
+              span.getOperationName(),
+              span.getType(),
+              span.getHttpStatusCode(),
+              false));
+    }
+  }
+
+  private static MetricKey newKey(DDSpan span) {
+    return new MetricKey(
+        span.getResourceName(),
+        span.getServiceName(),
+        span.getOperationName(),
+        span.getType(),
+        span.getHttpStatusCode(),
+        false);
+  }
+
+  private static final class MetricsEnabled extends DDAgentFeaturesDiscovery {
+    MetricsEnabled() {
+      super(null, Monitoring.DISABLED, null, false, true);
+    }
+
+    @Override
+    public void discover() {}
+
+    @Override
+    public boolean supportsMetrics() {
+      return true;
+    }
+
+    @Override
+    public String getMetricsEndpoint() {
+      return V6_METRICS_ENDPOINT;
+    }
+  }
+
+  private static final class NullSink implements Sink {
+    @Override
+    public void register(EventListener listener) {}
+
+    @Override
+    public void accept(int messageCount, ByteBuffer buffer) {}
+  }
+
+  private static final class NullWriter implements MetricWriter {
+    @Override
+    public void startBucket(int metricCount, long start, long duration) {}
+
+    @Override
+    public void add(MetricKey key, AggregateMetric aggregate) {}
+
+    @Override
+    public void finishBucket() {}
+
+    @Override
+    public void reset() {}
+  }
+}
@@ -0,0 +1,111 @@
+package datadog.trace.common.sampling;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Finds the sampling rule matching spans with {@code rules} exact service and operation rules
+ * followed by a default rule, by testing the rules in order ({@code linear}) and with the {@link
+ * SamplingRuleMatcher}, with and without regular expression rules in the rule set. The spans match
+ * rules spread over the rule set, and some only match the default rule.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class SamplingRuleMatcherBenchmark {
+
+  private static final int SPANS = 64;
+
+  @Param({"1", "10", "50", "100"})
+  int rules;
+
+  @Param({"false", "true"})
+  boolean withPatterns;
+
+  private CoreTracer tracer;
+  private List<SamplingRule> samplingRules;
+  private SamplingRuleMatcher matcher;
+  private DDSpan[] spans;
+
+  @Setup(Level.Trial)
+  public void init() {
+    tracer = CoreTracer.builder().strictTraceWrites(true).build();
+    samplingRules = new ArrayList<>();
+    for (int i = 0; i < rules; ++i) {
+      RateSampler sampler = new DeterministicSampler.TraceSampler(0.5);
+      if (withPatterns && (i % 10) == 5) {
+        samplingRules.add(
+            new SamplingRule.OperationSamplingRule("operation-" + i + "\\..*", sampler));
+      } else if ((i & 1) == 0) {
+        samplingRules.add(
+            new SamplingRule.TraceSamplingRule("service-" + i, "operation-" + i, sampler));
+      } else {
+        samplingRules.add(new SamplingRule.TraceSamplingRule("service-" + i, null, sampler));
+      }
+    }
+    samplingRules.add(
+        new SamplingRule.AlwaysMatchesSamplingRule(new DeterministicSampler.TraceSampler(1)));
+    matcher = new SamplingRuleMatcher(samplingRules);
+    spans = new DDSpan[SPANS];
+    for (int i = 0; i < SPANS; ++i) {
+      // every fourth span matches no rule but the default rule
+      int rule = (i & 3) == 3 ? rules + i : (i * 7) % rules;
+      spans[i] =
+          (DDSpan)
+              tracer
+                  .buildSpan("operation-" + rule)
+                  .withServiceName("service-" + rule)
+                  .ignoreActiveSpan()
+                  .start();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    tracer.close();
+  }
+
+  @Benchmark
+  public int linear() {
+    int matched = 0;
+    for (DDSpan span : spans) {
+      for (SamplingRule rule : samplingRules) {
+        if (rule.matches(span)) {
+          matched += rule.hashCode();
+          break;
+        }
+      }
+    }
+    return matched;
+  }
+
+  @Benchmark
+  public int compiled() {
+    int matched = 0;
+    for (DDSpan span : spans) {
+      matched += matcher.match(span).hashCode();
+    }
+    return matched;
+  }
+}
@@ -0,0 +1,196 @@
+package datadog.trace.common.writer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.monitor.Monitoring;
+import datadog.communication.serialization.DirectBufferPool;
+import datadog.trace.api.DDSpanId;
+import datadog.trace.api.DDTraceId;
+import datadog.trace.api.StatsDClient;
+import datadog.trace.api.sampling.PrioritySampling;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer.NoopPathwayContext;
+import datadog.trace.common.writer.ddagent.TraceMapperV0_4;
+import datadog.trace.common.writer.ddagent.TraceMapperV0_5;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import datadog.trace.core.DDSpanContext;
+import datadog.trace.core.DDSpanHelper;
+import datadog.trace.core.PendingTrace;
+import datadog.trace.core.monitor.HealthMetrics;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serializes and sends about 1MB of traces per operation, so running with {@code -prof gc} reports
+ * the heap allocated per MB of payload as {@code gc.alloc.rate.norm}. With {@code directBuffers}
+ * the payloads, and the v0.5 dictionaries, should be serialized into recycled off-heap buffers.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1)
+public class BufferAllocationBenchmark {
+
+  private static final int MB = 1 << 20;
+
+  @Param({"false", "true"})
+  boolean directBuffers;
+
+  @Param({"v04", "v05"})
+  String mapperName;
+
+  @Param({"0", "2"})
+  int maxInFlightPayloads;
+
+  private PayloadDispatcher dispatcher;
+  private CountingApi api;
+  private List<DDSpan> trace;
+  private int tracesPerMb;
+
+  @Setup(Level.Trial)
+  public void init() {
+    final DirectBufferPool bufferPool = directBuffers ? new DirectBufferPool(4 << 20, 4) : null;
+    final RemoteMapper mapper =
+        "v05".equals(mapperName)
+            ? new TraceMapperV0_5(256 << 10, 256 << 10, bufferPool)
+            : new TraceMapperV0_4(256 << 10);
+    RemoteMapperDiscovery discovery =
+        new RemoteMapperDiscovery() {
+          @Override
+          public void discover() {}
+
+          @Override
+          public RemoteMapper getMapper() {
+            return mapper;
+          }
+        };
+    api = new CountingApi();
+    dispatcher =
+        new PayloadDispatcher(
+            discovery,
+            api,
+            new HealthMetrics(StatsDClient.NO_OP),
+            Monitoring.DISABLED,
+            maxInFlightPayloads,
+            1,
+            directBuffers);
+    dispatcher.start();
+
+    CoreTracer tracer = CoreTracer.builder().strictTraceWrites(true).build();
+    PendingTrace pendingTrace = tracer.createTrace(DDTraceId.ONE);
+    trace = new ArrayList<>();
+    for (int i = 0; i < 10; ++i) {
+      DDSpanContext context =
+          new DDSpanContext(
+              DDTraceId.ONE,
+              i + 1,
+              i == 0 ? DDSpanId.ZERO : 1,
+              null,
+              "service",
+              "operation",
+              "resource-" + i,
+              PrioritySampling.SAMPLER_KEEP,
+              null,
+              Collections.<String, String>emptyMap(),
+              false,
+              "type",
+              0,
+              pendingTrace,
+              null,
+              null,
+              NoopPathwayContext.INSTANCE,
+              false,
+              null);
+      context.setTag("http.url", "https://www.example.com/some/path/" + i);
+      trace.add(DDSpanHelper.create(System.currentTimeMillis() * 1000, context));
+    }
+
+    // work out how many traces make up a MB of payload
+    for (int i = 0; i < 1000; ++i) {
+      dispatcher.addTrace(trace);
+    }
+    dispatcher.flush();
+    dispatcher.awaitInFlightPayloads();
+    tracesPerMb = (int) Math.max(1, 1000L * MB / api.bytesSent.get());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    dispatcher.flush();
+    dispatcher.awaitInFlightPayloads();
+    dispatcher.close();
+  }
+
+  @Benchmark
+  public void serializeMegabyte() {
+    for (int i = 0; i < tracesPerMb; ++i) {
+      dispatcher.addTrace(trace);
+    }
+  }
+
+  static final class CountingApi extends RemoteApi {
+    private static final Logger log = LoggerFactory.getLogger(CountingApi.class);
+
+    final AtomicLong bytesSent = new AtomicLong();
+
+    private final WritableByteChannel sink =
+        new WritableByteChannel() {
+          @Override
+          public int write(ByteBuffer src) {
+            int written = src.remaining();
+            src.position(src.limit());
+            return written;
+          }
+
+          @Override
+          public boolean isOpen() {
+            return true;
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    @Override
+    protected Response sendSerializedTraces(Payload payload) {
+      bytesSent.addAndGet(payload.sizeInBytes());
+      try {
+        payload.writeTo(sink);
+      } catch (IOException e) {
+        return Response.failed(e);
+      }
+      return Response.success(200);
+    }
+
+    @Override
+    protected void addResponseListener(RemoteResponseListener listener) {}
+
+    @Override
+    protected Logger getLogger() {
+      return log;
+    }
+  }
+}
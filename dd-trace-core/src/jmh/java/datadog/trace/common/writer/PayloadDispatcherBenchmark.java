@@ -0,0 +1,164 @@
+package datadog.trace.common.writer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.monitor.Monitoring;
+import datadog.trace.api.DDSpanId;
+import datadog.trace.api.DDTraceId;
+import datadog.trace.api.StatsDClient;
+import datadog.trace.api.sampling.PrioritySampling;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer.NoopPathwayContext;
+import datadog.trace.common.writer.ddagent.TraceMapperV0_4;
+import datadog.trace.common.writer.ddagent.TraceMapperV0_5;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import datadog.trace.core.DDSpanContext;
+import datadog.trace.core.DDSpanHelper;
+import datadog.trace.core.PendingTrace;
+import datadog.trace.core.monitor.HealthMetrics;
+import de.thetaphi.forbiddenapis.SuppressForbidden;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures how many traces the serializing thread gets through when every payload takes {@code
+ * agentLatencyMillis} to be sent. With {@code maxInFlightPayloads} at 0 payloads are sent
+ * synchronously, so serialization throughput drops as agent latency rises; with payloads in flight
+ * it should stay flat until the sender can't keep up with the serializer.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1)
+@SuppressForbidden
+public class PayloadDispatcherBenchmark {
+
+  @Param({"v04", "v05"})
+  String mapperName;
+
+  @Param({"0", "1", "10"})
+  int agentLatencyMillis;
+
+  @Param({"0", "2", "4"})
+  int maxInFlightPayloads;
+
+  private PayloadDispatcher dispatcher;
+  private List<DDSpan> trace;
+
+  @Setup(Level.Trial)
+  public void init() {
+    // small payloads so a flush, and so a send, happens every few hundred traces
+    final RemoteMapper mapper =
+        "v05".equals(mapperName)
+            ? new TraceMapperV0_5(64 << 10, 64 << 10)
+            : new TraceMapperV0_4(64 << 10);
+    RemoteMapperDiscovery discovery =
+        new RemoteMapperDiscovery() {
+          @Override
+          public void discover() {}
+
+          @Override
+          public RemoteMapper getMapper() {
+            return mapper;
+          }
+        };
+    dispatcher =
+        new PayloadDispatcher(
+            discovery,
+            new SlowApi(agentLatencyMillis),
+            new HealthMetrics(StatsDClient.NO_OP),
+            Monitoring.DISABLED,
+            maxInFlightPayloads);
+    dispatcher.start();
+
+    CoreTracer tracer = CoreTracer.builder().strictTraceWrites(true).build();
+    PendingTrace pendingTrace = tracer.createTrace(DDTraceId.ONE);
+    trace = new ArrayList<>();
+    for (int i = 0; i < 10; ++i) {
+      DDSpanContext context =
+          new DDSpanContext(
+              DDTraceId.ONE,
+              i + 1,
+              i == 0 ? DDSpanId.ZERO : 1,
+              null,
+              "service",
+              "operation",
+              "resource-" + i,
+              PrioritySampling.SAMPLER_KEEP,
+              null,
+              Collections.<String, String>emptyMap(),
+              false,
+              "type",
+              0,
+              pendingTrace,
+              null,
+              null,
+              NoopPathwayContext.INSTANCE,
+              false,
+              null);
+      context.setTag("http.url", "https://www.example.com/some/path/" + i);
+      trace.add(DDSpanHelper.create(System.currentTimeMillis() * 1000, context));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    dispatcher.flush();
+    dispatcher.awaitInFlightPayloads();
+    dispatcher.close();
+  }
+
+  @Benchmark
+  public void serializeTrace() {
+    dispatcher.addTrace(trace);
+  }
+
+  static final class SlowApi extends RemoteApi {
+    private static final Logger log = LoggerFactory.getLogger(SlowApi.class);
+
+    private final long latencyMillis;
+
+    SlowApi(long latencyMillis) {
+      this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    protected Response sendSerializedTraces(Payload payload) {
+      if (latencyMillis > 0) {
+        try {
+          Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return Response.success(200);
+    }
+
+    @Override
+    protected void addResponseListener(RemoteResponseListener listener) {}
+
+    @Override
+    protected Logger getLogger() {
+      return log;
+    }
+  }
+}
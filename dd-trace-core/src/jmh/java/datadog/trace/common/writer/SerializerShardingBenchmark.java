@@ -0,0 +1,152 @@
+package datadog.trace.common.writer;
+
+import static datadog.trace.common.writer.ddagent.Prioritization.FAST_LANE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.monitor.Monitoring;
+import datadog.trace.api.DDSpanId;
+import datadog.trace.api.DDTraceId;
+import datadog.trace.api.StatsDClient;
+import datadog.trace.api.sampling.PrioritySampling;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer.NoopPathwayContext;
+import datadog.trace.common.writer.ddagent.TraceMapperV0_4;
+import datadog.trace.common.writer.ddagent.TraceMapperV0_5;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import datadog.trace.core.DDSpanContext;
+import datadog.trace.core.DDSpanHelper;
+import datadog.trace.core.PendingTrace;
+import datadog.trace.core.monitor.HealthMetrics;
+import de.thetaphi.forbiddenapis.SuppressForbidden;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many traces per second the worker serializes with {@code shards} serializer threads.
+ * Each operation publishes a batch of traces with distinct trace ids and waits for them to be
+ * flushed and sent, so the score is the serialization throughput of the worker as a whole.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Fork(value = 1)
+@SuppressForbidden
+public class SerializerShardingBenchmark {
+
+  private static final int TRACES = 1024;
+
+  @Param({"v04", "v05"})
+  String mapperName;
+
+  @Param({"1", "2", "4", "8"})
+  int shards;
+
+  private PayloadDispatcher dispatcher;
+  private TraceProcessingWorker worker;
+  private List<List<DDSpan>> traces;
+
+  @Setup(Level.Trial)
+  public void init() {
+    HealthMetrics healthMetrics = new HealthMetrics(StatsDClient.NO_OP);
+    dispatcher =
+        new PayloadDispatcher(
+            discovery(),
+            new PayloadDispatcherBenchmark.SlowApi(0),
+            healthMetrics,
+            Monitoring.DISABLED,
+            shards > 1 ? shards : 0,
+            shards);
+    List<PayloadDispatcher> dispatchers = new ArrayList<>(shards);
+    dispatchers.add(dispatcher);
+    for (int i = 1; i < shards; ++i) {
+      dispatchers.add(dispatcher.newShard(discovery()));
+    }
+    dispatcher.start();
+    worker =
+        new TraceProcessingWorker(
+            2 * TRACES, healthMetrics, dispatchers, () -> false, FAST_LANE, 1, SECONDS, null);
+    worker.start();
+
+    CoreTracer tracer = CoreTracer.builder().strictTraceWrites(true).build();
+    traces = new ArrayList<>(TRACES);
+    for (int t = 0; t < TRACES; ++t) {
+      DDTraceId traceId = DDTraceId.from(t + 1);
+      PendingTrace pendingTrace = tracer.createTrace(traceId);
+      List<DDSpan> trace = new ArrayList<>();
+      for (int i = 0; i < 10; ++i) {
+        DDSpanContext context =
+            new DDSpanContext(
+                traceId,
+                i + 1,
+                i == 0 ? DDSpanId.ZERO : 1,
+                null,
+                "service",
+                "operation",
+                "resource-" + i,
+                PrioritySampling.SAMPLER_KEEP,
+                null,
+                Collections.<String, String>emptyMap(),
+                false,
+                "type",
+                0,
+                pendingTrace,
+                null,
+                null,
+                NoopPathwayContext.INSTANCE,
+                false,
+                null);
+        context.setTag("http.url", "https://www.example.com/some/path/" + i);
+        trace.add(DDSpanHelper.create(System.currentTimeMillis() * 1000, context));
+      }
+      traces.add(trace);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    worker.close();
+    dispatcher.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TRACES)
+  public boolean serializeTraces() {
+    for (List<DDSpan> trace : traces) {
+      worker.publish(trace.get(0), PrioritySampling.SAMPLER_KEEP, trace);
+    }
+    return worker.flush(10, SECONDS);
+  }
+
+  private RemoteMapperDiscovery discovery() {
+    final RemoteMapper mapper =
+        "v05".equals(mapperName)
+            ? new TraceMapperV0_5(64 << 10, 64 << 10)
+            : new TraceMapperV0_4(64 << 10);
+    return new RemoteMapperDiscovery() {
+      @Override
+      public void discover() {}
+
+      @Override
+      public RemoteMapper getMapper() {
+        return mapper;
+      }
+    };
+  }
+}
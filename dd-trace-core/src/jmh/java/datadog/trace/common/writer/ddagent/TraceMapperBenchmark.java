@@ -33,6 +33,7 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
@@ -50,6 +51,8 @@ import org.openjdk.jmh.infra.Blackhole;
 @SuppressForbidden
 public class TraceMapperBenchmark {
 
+  private static final int TRACES_PER_PAYLOAD = 100;
+
   @Param({"v04", "v04:x-dth", "v05", "v05:x-dth"})
   String mapperName;
 
@@ -131,6 +134,20 @@ public class TraceMapperBenchmark {
     mapper.map(trace, writable);
   }
 
+  /**
+   * Maps the same trace into a series of payloads, so the strings recur across payloads as they do
+   * for a service with a stable set of names and tags.
+   */
+  @Benchmark
+  @OperationsPerInvocation(TRACES_PER_PAYLOAD)
+  public void mapPayload(Blackhole blackhole) {
+    for (int i = 0; i < TRACES_PER_PAYLOAD; ++i) {
+      mapper.map(trace, writable);
+    }
+    blackhole.consume(mapper.newPayload());
+    mapper.reset();
+  }
+
   public static final class BlackholeBuffer implements StreamingBuffer {
     private final Blackhole blackhole;
 
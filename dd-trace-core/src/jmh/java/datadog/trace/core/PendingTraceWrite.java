@@ -20,7 +20,7 @@ public class PendingTraceWrite {
   CoreTracer tracer;
   PendingTrace trace;
 
-  @Param({"10", "100"})
+  @Param({"10", "100", "1000", "10000"})
   int depthPerThread;
 
   @Param({"0", "5", "10"})
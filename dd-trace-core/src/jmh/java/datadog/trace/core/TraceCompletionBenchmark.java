@@ -0,0 +1,171 @@
+package datadog.trace.core;
+
+import static datadog.trace.api.config.TracerConfig.TRACE_ASYNC_COMPLETION_ENABLED;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.common.writer.Writer;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the time an application thread spends finishing the root span of a trace of {@code
+ * spans} spans, which completes and writes the trace on that thread, or only completes it and
+ * queues it to be written when {@code async} is true. A writer consuming {@code writerTokens} CPU
+ * tokens per trace stands for the work of handing the trace over, the sampler runs as configured by
+ * default. The traces written and dropped are reported as secondary results.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(MICROSECONDS)
+@Threads(4)
+@Fork(value = 1)
+public class TraceCompletionBenchmark {
+
+  @Param({"false", "true"})
+  boolean async;
+
+  @Param({"10"})
+  int spans;
+
+  @Param({"1000"})
+  int writerTokens;
+
+  CoreTracer tracer;
+  private CountingWriter writer;
+  private long claimedWrittenTraces;
+  private long claimedDroppedTraces;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Properties properties = new Properties();
+    properties.setProperty(TRACE_ASYNC_COMPLETION_ENABLED, String.valueOf(async));
+    writer = new CountingWriter(writerTokens);
+    tracer = CoreTracer.builder().withProperties(properties).writer(writer).build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    tracer.flush();
+    tracer.close();
+  }
+
+  @Benchmark
+  public AgentSpan finishRootSpan(Trace trace, Completions completions) {
+    trace.root.finish();
+    return trace.root;
+  }
+
+  /** @return the traces written since the last call, so that they are only counted once */
+  synchronized long claimWrittenTraces() {
+    long writtenTraces = writer.traces.sum();
+    long claimed = writtenTraces - claimedWrittenTraces;
+    claimedWrittenTraces = writtenTraces;
+    return claimed;
+  }
+
+  /** @return the traces dropped since the last call, so that they are only counted once */
+  synchronized long claimDroppedTraces() {
+    long droppedTraces = writer.drops.sum();
+    long claimed = droppedTraces - claimedDroppedTraces;
+    claimedDroppedTraces = droppedTraces;
+    return claimed;
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Completions {
+    long writtenTraces;
+    long droppedTraces;
+
+    public long writtenTraces() {
+      return writtenTraces;
+    }
+
+    public long droppedTraces() {
+      return droppedTraces;
+    }
+
+    @Setup(Level.Iteration)
+    public void reset(TraceCompletionBenchmark benchmark) {
+      benchmark.claimWrittenTraces();
+      benchmark.claimDroppedTraces();
+      writtenTraces = 0;
+      droppedTraces = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void claim(TraceCompletionBenchmark benchmark) {
+      // the traces may be written by the tracer thread, so the first thread to finish the
+      // iteration claims them and the others claim what was written since
+      writtenTraces = benchmark.claimWrittenTraces();
+      droppedTraces = benchmark.claimDroppedTraces();
+    }
+  }
+
+  /** Starts a trace and finishes all its spans but the root span, outside of the measured time. */
+  @State(Scope.Thread)
+  public static class Trace {
+    AgentSpan root;
+
+    @Setup(Level.Invocation)
+    public void start(TraceCompletionBenchmark benchmark) {
+      root = benchmark.tracer.buildSpan("root").start();
+      for (int i = 1; i < benchmark.spans; ++i) {
+        benchmark.tracer.buildSpan("child").asChildOf(root.context()).start().finish();
+      }
+    }
+  }
+
+  private static final class CountingWriter implements Writer {
+    final LongAdder traces = new LongAdder();
+    final LongAdder drops = new LongAdder();
+    private final int tokens;
+
+    CountingWriter(int tokens) {
+      this.tokens = tokens;
+    }
+
+    @Override
+    public void write(List<DDSpan> trace) {
+      Blackhole.consumeCPU(tokens);
+      traces.increment();
+    }
+
+    @Override
+    public void start() {}
+
+    @Override
+    public boolean flush() {
+      return true;
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void incrementDropCounts(int spanCount) {
+      drops.increment();
+    }
+  }
+}
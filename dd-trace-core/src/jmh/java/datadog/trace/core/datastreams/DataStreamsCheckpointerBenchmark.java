@@ -0,0 +1,161 @@
+package datadog.trace.core.datastreams;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.ddagent.DDAgentFeaturesDiscovery;
+import datadog.communication.monitor.Monitoring;
+import datadog.trace.api.WellKnownTags;
+import datadog.trace.api.time.SystemTimeSource;
+import datadog.trace.bootstrap.instrumentation.api.StatsPoint;
+import datadog.trace.common.metrics.EventListener;
+import datadog.trace.common.metrics.Sink;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the checkpoints per second eight threads can report, when the points are handed over to
+ * the data streams thread and when they are aggregated on the reporting threads. The number of
+ * points dropped is reported as the {@code droppedPoints} secondary result: when the points are
+ * handed over, the points which don't fit in the inbox are dropped.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Threads(8)
+@Fork(value = 1)
+public class DataStreamsCheckpointerBenchmark {
+
+  private static final int POINTS = 1024;
+
+  @Param({"false", "true"})
+  boolean shardedAggregation;
+
+  @Param({"1", "100"})
+  int pathways;
+
+  private DefaultDataStreamsCheckpointer checkpointer;
+  private StatsPoint[] points;
+  private long claimedDroppedPoints;
+
+  @Setup(Level.Trial)
+  public void init() {
+    checkpointer =
+        new DefaultDataStreamsCheckpointer(
+            new NullSink(),
+            new DataStreamsEnabled(),
+            SystemTimeSource.INSTANCE,
+            new WellKnownTags("runtimeid", "hostname", "env", "service", "version", "java"),
+            new NullPayloadWriter(),
+            DefaultDataStreamsCheckpointer.DEFAULT_BUCKET_DURATION_NANOS,
+            shardedAggregation);
+    checkpointer.start();
+    points = new StatsPoint[POINTS];
+    long now = SystemTimeSource.INSTANCE.getCurrentTimeNanos();
+    for (int i = 0; i < POINTS; ++i) {
+      int pathway = i % pathways;
+      points[i] =
+          new StatsPoint(
+              Arrays.asList("type:kafka", "group:group", "topic:topic-" + pathway),
+              pathway + 1,
+              0,
+              now,
+              1_000_000,
+              500_000);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    checkpointer.close();
+  }
+
+  @Benchmark
+  public void checkpoint(DroppedPoints droppedPoints) {
+    checkpointer.accept(points[ThreadLocalRandom.current().nextInt(POINTS)]);
+  }
+
+  /** @return the points dropped since the last call, so that they are only counted once */
+  synchronized long claimDroppedPoints() {
+    long droppedPoints = checkpointer.getDroppedPoints();
+    long claimed = droppedPoints - claimedDroppedPoints;
+    claimedDroppedPoints = droppedPoints;
+    return claimed;
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class DroppedPoints {
+    long droppedPoints;
+
+    public long droppedPoints() {
+      return droppedPoints;
+    }
+
+    @Setup(Level.Iteration)
+    public void reset(DataStreamsCheckpointerBenchmark benchmark) {
+      benchmark.claimDroppedPoints();
+      droppedPoints = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void claim(DataStreamsCheckpointerBenchmark benchmark) {
+      // the points are dropped by the checkpointer as a whole, so the first thread to finish the
+      // iteration claims them and the others claim what was dropped since
+      droppedPoints = benchmark.claimDroppedPoints();
+    }
+  }
+
+  private static final class DataStreamsEnabled extends DDAgentFeaturesDiscovery {
+    DataStreamsEnabled() {
+      super(null, Monitoring.DISABLED, null, false, false);
+    }
+
+    @Override
+    public void discover() {}
+
+    @Override
+    public void discoverIfOutdated() {}
+
+    @Override
+    public boolean supportsDataStreams() {
+      return true;
+    }
+
+    @Override
+    public String getDataStreamsEndpoint() {
+      return V01_DATASTREAMS_ENDPOINT;
+    }
+  }
+
+  private static final class NullSink implements Sink {
+    @Override
+    public void register(EventListener listener) {}
+
+    @Override
+    public void accept(int messageCount, ByteBuffer buffer) {}
+  }
+
+  private static final class NullPayloadWriter implements DatastreamsPayloadWriter {
+    @Override
+    public void writePayload(Collection<StatsBucket> data) {}
+  }
+}
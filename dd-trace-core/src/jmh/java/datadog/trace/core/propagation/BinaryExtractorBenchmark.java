@@ -0,0 +1,110 @@
+package datadog.trace.core.propagation;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.Config;
+import datadog.trace.api.DDTraceId;
+import datadog.trace.api.Pair;
+import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
+import datadog.trace.bootstrap.instrumentation.api.TagContext;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Extracts the Datadog context from the binary headers of a typical Kafka record, decoding every
+ * header to a string ({@code text}) or letting the extractor parse the ids from the bytes ({@code
+ * binary}). {@code iterateHeaders} visits the headers without extracting anything, as when tracing
+ * is disabled. Run with {@code -prof gc} to see the bytes allocated per record.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Fork(value = 1)
+public class BinaryExtractorBenchmark {
+  @Param({"text", "binary"})
+  String headerValues;
+
+  List<Pair<String, byte[]>> headers;
+  HttpCodec.Extractor extractor;
+  AgentPropagation.ContextVisitor<List<Pair<String, byte[]>>> visitor;
+  DDTraceId traceId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    headers = new ArrayList<>();
+    headers.add(header(DatadogHttpCodec.TRACE_ID_KEY, "5915472315823645337"));
+    headers.add(header(DatadogHttpCodec.SPAN_ID_KEY, "2871569021457329104"));
+    headers.add(header(DatadogHttpCodec.SAMPLING_PRIORITY_KEY, "1"));
+    headers.add(header(DatadogHttpCodec.DATADOG_TAGS_KEY, "_dd.p.dm=-1"));
+    // headers of the application, which aren't relevant to the extractor
+    headers.add(header("content-type", "application/json"));
+    headers.add(header("correlation-id", "f058ebd6-02f7-4d3f-942e-904344e8cde5"));
+    headers.add(header("source", "orders-service"));
+
+    extractor =
+        HttpCodec.createExtractor(
+            Config.get(), Collections.<String, String>emptyMap(), Collections.emptyMap());
+    visitor = new ListContextVisitor("binary".equals(headerValues));
+    traceId = DDTraceId.from("5915472315823645337");
+  }
+
+  @Benchmark
+  public void extractContext(Blackhole blackhole) {
+    TagContext context = extractor.extract(headers, visitor);
+    blackhole.consume(context);
+    assert ((ExtractedContext) context).getTraceId().equals(traceId);
+  }
+
+  @Benchmark
+  public void iterateHeaders(Blackhole blackhole) {
+    for (Pair<String, byte[]> header : headers) {
+      blackhole.consume(header.getRight());
+    }
+  }
+
+  private static Pair<String, byte[]> header(String key, String value) {
+    return Pair.of(key, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static final class ListContextVisitor
+      implements AgentPropagation.ContextVisitor<List<Pair<String, byte[]>>> {
+    private final boolean binary;
+
+    ListContextVisitor(boolean binary) {
+      this.binary = binary;
+    }
+
+    @Override
+    public void forEachKey(
+        List<Pair<String, byte[]>> carrier, AgentPropagation.KeyClassifier classifier) {
+      for (Pair<String, byte[]> header : carrier) {
+        boolean accepted =
+            binary && classifier instanceof AgentPropagation.BinaryKeyClassifier
+                ? ((AgentPropagation.BinaryKeyClassifier) classifier)
+                    .accept(header.getLeft(), header.getRight())
+                : classifier.accept(
+                    header.getLeft(), new String(header.getRight(), StandardCharsets.UTF_8));
+        if (!accepted) {
+          return;
+        }
+      }
+    }
+  }
+}
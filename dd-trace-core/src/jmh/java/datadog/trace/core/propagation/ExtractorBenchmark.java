@@ -28,6 +28,11 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 
+/**
+ * Extracts contexts from 30 typical request headers, some of them mapped to span tags or baggage.
+ * Run with {@code -prof gc} to see the bytes allocated per extracted request, and subtract those of
+ * {@code resetList}, which only creates fresh header strings.
+ */
 @State(Scope.Benchmark)
 @Warmup(iterations = 3, time = 120, timeUnit = SECONDS)
 @Measurement(iterations = 3, time = 120, timeUnit = SECONDS)
@@ -57,6 +62,29 @@ public class ExtractorBenchmark {
     headers.add(Pair.of("some-header-2", "ignored"));
     headers.add(Pair.of("x-data-header-1", "ignored")); // starts like datadog headers
     headers.add(Pair.of("x-bware-header-1", "ignored")); // starts like b3 headers
+    // typical request headers, which aren't relevant to the extractors
+    headers.add(Pair.of("host", "example.com"));
+    headers.add(Pair.of("accept", "text/html,application/xhtml+xml,application/xml;q=0.9"));
+    headers.add(Pair.of("accept-encoding", "gzip, deflate, br"));
+    headers.add(Pair.of("accept-language", "en-US,en;q=0.9"));
+    headers.add(Pair.of("cache-control", "no-cache"));
+    headers.add(Pair.of("connection", "keep-alive"));
+    headers.add(Pair.of("content-length", "348"));
+    headers.add(Pair.of("content-type", "application/json"));
+    headers.add(Pair.of("cookie", "session=8f14e45fceea167a5a36dedd4bea2543"));
+    headers.add(Pair.of("origin", "https://example.com"));
+    headers.add(Pair.of("pragma", "no-cache"));
+    headers.add(Pair.of("referer", "https://example.com/index.html"));
+    headers.add(Pair.of("sec-fetch-dest", "empty"));
+    headers.add(Pair.of("sec-fetch-mode", "cors"));
+    headers.add(Pair.of("sec-fetch-site", "same-origin"));
+    headers.add(Pair.of("upgrade-insecure-requests", "1"));
+    headers.add(Pair.of("user-agent", "Mozilla/5.0 (X11; Linux x86_64) Gecko/20100101"));
+    headers.add(Pair.of("x-forwarded-for", "203.0.113.195"));
+    headers.add(Pair.of("x-forwarded-proto", "https"));
+    headers.add(Pair.of("x-request-id", "f058ebd6-02f7-4d3f-942e-904344e8cde5"));
+    headers.add(Pair.of("x-tenant", "tenant-1")); // mapped to a tag
+    headers.add(Pair.of("x-session-id", "1234")); // mapped to baggage
 
     String[] propagationsAndFeatures = extractPropagationStyles.split(",");
     StringBuilder propagations = new StringBuilder();
@@ -85,7 +113,10 @@ public class ExtractorBenchmark {
 
     System.setProperty("dd.propagation.style.extract", propagations.toString());
     extractor =
-        HttpCodec.createExtractor(Config.get(), Collections.emptyMap(), Collections.emptyMap());
+        HttpCodec.createExtractor(
+            Config.get(),
+            Collections.singletonMap("x-tenant", "tenant"),
+            Collections.singletonMap("x-session-id", "session.id"));
 
     if (extractPropagationStyles.startsWith("datadog")) {
       traceId = DDTraceId.from("12345");
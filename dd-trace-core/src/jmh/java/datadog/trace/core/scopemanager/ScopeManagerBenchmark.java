@@ -0,0 +1,101 @@
+package datadog.trace.core.scopemanager;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.StatsDClient;
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.ProfilingContextIntegration;
+import datadog.trace.bootstrap.instrumentation.api.ScopeSource;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.monitor.HealthMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Activates and closes scopes the way instrumentation does. Run with {@code -prof gc} to see the
+ * bytes allocated per operation: {@code nestedActivations} activates {@code depth} nested scopes
+ * and closes them, and {@code executorHandoff} captures a continuation, and activates it along with
+ * a child scope, as happens when a task is handed to an executor.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class ScopeManagerBenchmark {
+
+  @Param({"1", "5", "20"})
+  int depth;
+
+  @Param({"false", "true"})
+  boolean recycleScopes;
+
+  private CoreTracer tracer;
+  private ContinuableScopeManager scopeManager;
+  private AgentSpan[] spans;
+  private AgentScope[] scopes;
+
+  @Setup(Level.Trial)
+  public void init() {
+    tracer = CoreTracer.builder().strictTraceWrites(true).build();
+    scopeManager =
+        new ContinuableScopeManager(
+            0,
+            StatsDClient.NO_OP,
+            false,
+            true,
+            recycleScopes,
+            ProfilingContextIntegration.NoOp.INSTANCE,
+            new HealthMetrics(StatsDClient.NO_OP));
+    spans = new AgentSpan[depth];
+    scopes = new AgentScope[depth];
+    for (int i = 0; i < depth; ++i) {
+      spans[i] = tracer.buildSpan("operation-" + i).start();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    tracer.close();
+  }
+
+  @Benchmark
+  public void nestedActivations() {
+    for (int i = 0; i < depth; ++i) {
+      scopes[i] = scopeManager.activate(spans[i], ScopeSource.INSTRUMENTATION);
+    }
+    for (int i = depth - 1; i >= 0; --i) {
+      scopes[i].close();
+    }
+  }
+
+  @Benchmark
+  public void executorHandoff() {
+    AgentScope scope = scopeManager.activate(spans[0], ScopeSource.INSTRUMENTATION, true);
+    AgentScope.Continuation continuation = scope.capture();
+    scope.close();
+    // the task runs with the continuation activated, and starts its own work
+    AgentScope continued = continuation.activate();
+    for (int i = 1; i < depth; ++i) {
+      scopes[i] = scopeManager.activate(spans[i], ScopeSource.INSTRUMENTATION);
+    }
+    for (int i = depth - 1; i > 0; --i) {
+      scopes[i].close();
+    }
+    continued.close();
+  }
+}
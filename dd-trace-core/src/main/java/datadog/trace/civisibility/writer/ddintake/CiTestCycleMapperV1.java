@@ -132,6 +132,9 @@ public class CiTestCycleMapperV1 implements RemoteMapper {
   @Override
   public void reset() {}
 
+  @Override
+  public void release() {}
+
   @Override
   public String endpoint() {
     return "citestcycle/v1";
@@ -43,6 +43,21 @@ public final class AggregateMetric {
     return this;
   }
 
+  /** Records counts pre-aggregated elsewhere, along with {@link #recordLatencies}. */
+  public AggregateMetric recordHits(
+      int hitCount, int errorCount, int topLevelCount, long totalDuration) {
+    this.hitCount += hitCount;
+    this.errorCount += errorCount;
+    this.topLevelCount += topLevelCount;
+    this.duration += totalDuration;
+    return this;
+  }
+
+  public AggregateMetric recordLatencies(boolean error, double latency, int count) {
+    (error ? errorLatencies : okLatencies).accept(latency, count);
+    return this;
+  }
+
   public int getErrorCount() {
     return errorCount;
   }
@@ -7,8 +7,8 @@ import datadog.trace.core.util.LRUCache;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Queue;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import org.jctools.maps.NonBlockingHashMap;
 import org.jctools.queues.MessagePassingQueue;
 import org.jctools.queues.MpscCompoundQueue;
@@ -25,7 +25,9 @@ final class Aggregator implements Runnable {
   private final MpscCompoundQueue<InboxItem> inbox;
   private final LRUCache<MetricKey, AggregateMetric> aggregates;
   private final NonBlockingHashMap<MetricKey, Batch> pending;
-  private final Set<MetricKey> commonKeys;
+  private final MetricKeys commonKeys;
+  private final ThreadLocalAggregates localAggregates;
+  private final Function<MetricKey, AggregateMetric> aggregateForKey = this::aggregateForKey;
   private final MetricWriter writer;
   // the reporting interval controls how much history will be buffered
   // when the agent is unresponsive (only 10 pending requests will be
@@ -41,7 +43,7 @@ final class Aggregator implements Runnable {
       Queue<Batch> batchPool,
       MpscCompoundQueue<InboxItem> inbox,
       NonBlockingHashMap<MetricKey, Batch> pending,
-      final Set<MetricKey> commonKeys,
+      final MetricKeys commonKeys,
       int maxAggregates,
       long reportingInterval,
       TimeUnit reportingIntervalTimeUnit) {
@@ -51,6 +53,7 @@ final class Aggregator implements Runnable {
         inbox,
         pending,
         commonKeys,
+        null,
         maxAggregates,
         reportingInterval,
         reportingIntervalTimeUnit,
@@ -62,7 +65,31 @@ final class Aggregator implements Runnable {
       Queue<Batch> batchPool,
       MpscCompoundQueue<InboxItem> inbox,
       NonBlockingHashMap<MetricKey, Batch> pending,
-      final Set<MetricKey> commonKeys,
+      final MetricKeys commonKeys,
+      ThreadLocalAggregates localAggregates,
+      int maxAggregates,
+      long reportingInterval,
+      TimeUnit reportingIntervalTimeUnit) {
+    this(
+        writer,
+        batchPool,
+        inbox,
+        pending,
+        commonKeys,
+        localAggregates,
+        maxAggregates,
+        reportingInterval,
+        reportingIntervalTimeUnit,
+        DEFAULT_SLEEP_MILLIS);
+  }
+
+  Aggregator(
+      MetricWriter writer,
+      Queue<Batch> batchPool,
+      MpscCompoundQueue<InboxItem> inbox,
+      NonBlockingHashMap<MetricKey, Batch> pending,
+      final MetricKeys commonKeys,
+      ThreadLocalAggregates localAggregates,
       int maxAggregates,
       long reportingInterval,
       TimeUnit reportingIntervalTimeUnit,
@@ -71,6 +98,7 @@ final class Aggregator implements Runnable {
     this.batchPool = batchPool;
     this.inbox = inbox;
     this.commonKeys = commonKeys;
+    this.localAggregates = localAggregates;
     this.aggregates =
         new LRUCache<>(
             new CommonKeyCleaner(commonKeys), maxAggregates * 4 / 3, 0.75f, maxAggregates);
@@ -81,6 +109,9 @@ final class Aggregator implements Runnable {
 
   public void clearAggregates() {
     this.aggregates.clear();
+    if (null != localAggregates) {
+      localAggregates.clear();
+    }
   }
 
   @Override
@@ -125,7 +156,7 @@ final class Aggregator implements Runnable {
         MetricKey key = batch.getKey();
         // important that it is still *this* batch pending, must not remove otherwise
         pending.remove(key, batch);
-        AggregateMetric aggregate = aggregates.computeIfAbsent(key, k -> new AggregateMetric());
+        AggregateMetric aggregate = aggregateForKey(key);
         batch.contributeTo(aggregate);
         dirty = true;
         // return the batch for reuse
@@ -134,7 +165,14 @@ final class Aggregator implements Runnable {
     }
   }
 
+  private AggregateMetric aggregateForKey(MetricKey key) {
+    return aggregates.computeIfAbsent(key, k -> new AggregateMetric());
+  }
+
   private void report(long when, SignalItem signal) {
+    if (null != localAggregates && localAggregates.mergeInto(aggregateForKey)) {
+      dirty = true;
+    }
     boolean skipped = true;
     if (dirty) {
       try {
@@ -180,9 +218,9 @@ final class Aggregator implements Runnable {
   private static final class CommonKeyCleaner
       implements LRUCache.ExpiryListener<MetricKey, AggregateMetric> {
 
-    private final Set<MetricKey> commonKeys;
+    private final MetricKeys commonKeys;
 
-    private CommonKeyCleaner(Set<MetricKey> commonKeys) {
+    private CommonKeyCleaner(MetricKeys commonKeys) {
       this.commonKeys = commonKeys;
     }
 
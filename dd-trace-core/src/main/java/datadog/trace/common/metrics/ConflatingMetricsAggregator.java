@@ -52,7 +52,8 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
   private final Set<String> ignoredResources;
   private final Queue<Batch> batchPool;
   private final NonBlockingHashMap<MetricKey, Batch> pending;
-  private final NonBlockingHashMap<MetricKey, MetricKey> keys;
+  private final MetricKeys keys;
+  private final ThreadLocalAggregates localAggregates;
   private final Thread thread;
   private final MpscCompoundQueue<InboxItem> inbox;
   private final Sink sink;
@@ -77,7 +78,8 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
             false,
             DEFAULT_HEADERS),
         config.getTracerMetricsMaxAggregates(),
-        config.getTracerMetricsMaxPending());
+        config.getTracerMetricsMaxPending(),
+        config.isTracerMetricsPreAggregationEnabled());
   }
 
   ConflatingMetricsAggregator(
@@ -87,7 +89,27 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
       Sink sink,
       int maxAggregates,
       int queueSize) {
-    this(wellKnownTags, ignoredResources, features, sink, maxAggregates, queueSize, 10, SECONDS);
+    this(wellKnownTags, ignoredResources, features, sink, maxAggregates, queueSize, false);
+  }
+
+  ConflatingMetricsAggregator(
+      WellKnownTags wellKnownTags,
+      Set<String> ignoredResources,
+      DDAgentFeaturesDiscovery features,
+      Sink sink,
+      int maxAggregates,
+      int queueSize,
+      boolean preAggregation) {
+    this(
+        ignoredResources,
+        features,
+        sink,
+        new SerializingMetricWriter(wellKnownTags, sink),
+        maxAggregates,
+        queueSize,
+        10,
+        SECONDS,
+        preAggregation);
   }
 
   ConflatingMetricsAggregator(
@@ -119,11 +141,39 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
       int queueSize,
       long reportingInterval,
       TimeUnit timeUnit) {
+    this(
+        ignoredResources,
+        features,
+        sink,
+        metricWriter,
+        maxAggregates,
+        queueSize,
+        reportingInterval,
+        timeUnit,
+        false);
+  }
+
+  /**
+   * @param preAggregation whether spans should be aggregated on the publishing threads first, so
+   *     that they only need to be handed over to the aggregator thread when the thread's aggregates
+   *     are full
+   */
+  ConflatingMetricsAggregator(
+      Set<String> ignoredResources,
+      DDAgentFeaturesDiscovery features,
+      Sink sink,
+      MetricWriter metricWriter,
+      int maxAggregates,
+      int queueSize,
+      long reportingInterval,
+      TimeUnit timeUnit,
+      boolean preAggregation) {
     this.ignoredResources = ignoredResources;
     this.inbox = new MpscCompoundQueue<>(queueSize);
     this.batchPool = new SpmcArrayQueue<>(maxAggregates);
     this.pending = new NonBlockingHashMap<>(maxAggregates * 4 / 3);
-    this.keys = new NonBlockingHashMap<>();
+    this.keys = new MetricKeys(maxAggregates);
+    this.localAggregates = preAggregation ? new ThreadLocalAggregates() : null;
     this.features = features;
     this.sink = sink;
     this.aggregator =
@@ -132,7 +182,8 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
             batchPool,
             inbox,
             pending,
-            keys.keySet(),
+            keys,
+            localAggregates,
             maxAggregates,
             reportingInterval,
             timeUnit);
@@ -234,22 +285,36 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
   }
 
   private boolean publish(CoreSpan<?> span, boolean isTopLevel) {
-    MetricKey newKey =
-        new MetricKey(
-            span.getResourceName(),
-            SERVICE_NAMES.computeIfAbsent(span.getServiceName(), UTF8_ENCODE),
-            span.getOperationName(),
-            span.getType(),
-            span.getHttpStatusCode(),
-            isSynthetic(span));
+    CharSequence resource = span.getResourceName();
+    String service = span.getServiceName();
+    CharSequence operationName = span.getOperationName();
+    CharSequence type = span.getType();
+    int httpStatusCode = span.getHttpStatusCode();
+    boolean synthetics = isSynthetic(span);
     boolean isNewKey = false;
-    MetricKey key = keys.putIfAbsent(newKey, newKey);
+    // probe with the span's own fields so nothing is allocated unless the key is new
+    MetricKey key = keys.get(resource, service, operationName, type, httpStatusCode, synthetics);
     if (null == key) {
-      key = newKey;
-      isNewKey = true;
+      MetricKey newKey =
+          new MetricKey(
+              resource,
+              SERVICE_NAMES.computeIfAbsent(service, UTF8_ENCODE),
+              operationName,
+              type,
+              httpStatusCode,
+              synthetics);
+      key = keys.putIfAbsent(newKey);
+      if (null == key) {
+        key = newKey;
+        isNewKey = true;
+      }
     }
     long tag = (span.getError() > 0 ? ERROR_TAG : 0L) | (isTopLevel ? TOP_LEVEL_TAG : 0L);
     long durationNanos = span.getDurationNano();
+    if (null != localAggregates && localAggregates.record(key, tag, durationNanos)) {
+      // merged by the aggregator when it next reports
+      return isNewKey || span.getError() > 0;
+    }
     Batch batch = pending.get(key);
     if (null != batch) {
       // there is a pending batch, try to win the race to add to it
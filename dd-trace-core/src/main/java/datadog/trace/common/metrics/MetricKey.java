@@ -27,15 +27,31 @@ public final class MetricKey {
     this.type = null == type ? EMPTY : UTF8BytesString.create(type);
     this.httpStatusCode = httpStatusCode;
     this.synthetics = synthetics;
+    this.hash =
+        hash(
+            this.resource.hashCode(),
+            this.service.hashCode(),
+            this.operationName.hashCode(),
+            this.type.hashCode(),
+            httpStatusCode,
+            synthetics);
+  }
+
+  static int hash(
+      int resourceHash,
+      int serviceHash,
+      int operationNameHash,
+      int typeHash,
+      int httpStatusCode,
+      boolean synthetics) {
     // unrolled polynomial hashcode which avoids allocating varargs
     // the constants are 31^5, 31^4, 31^3, 31^2, 31^1, 31^0
-    this.hash =
-        28629151 * this.resource.hashCode()
-            + 923521 * this.service.hashCode()
-            + 29791 * this.operationName.hashCode()
-            + 961 * this.type.hashCode()
-            + 31 * httpStatusCode
-            + (this.synthetics ? 1 : 0);
+    return 28629151 * resourceHash
+        + 923521 * serviceHash
+        + 29791 * operationNameHash
+        + 961 * typeHash
+        + 31 * httpStatusCode
+        + (synthetics ? 1 : 0);
   }
 
   public UTF8BytesString getResource() {
@@ -0,0 +1,168 @@
+package datadog.trace.common.metrics;
+
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Open-addressing table of canonical {@link MetricKey}s, which can be probed with the key's fields
+ * as they are found on a span, without building a {@link MetricKey} first. Lookups are lock-free
+ * and don't allocate; insertions and removals are rare (new keys, expired aggregates) so are
+ * serialized and rebuild the table when it gets too full.
+ */
+final class MetricKeys {
+
+  private static final MetricKey REMOVED =
+      new MetricKey(null, null, null, null, Integer.MIN_VALUE, false);
+
+  private static final int MIN_CAPACITY = 64;
+
+  private volatile AtomicReferenceArray<MetricKey> table;
+  // guarded by this
+  private int size;
+  // guarded by this, number of non-null slots including removed keys
+  private int used;
+
+  MetricKeys() {
+    this(MIN_CAPACITY);
+  }
+
+  MetricKeys(int expectedKeys) {
+    this.table = new AtomicReferenceArray<>(capacityFor(expectedKeys));
+  }
+
+  /** @return the canonical key with these fields, or null if there isn't one */
+  MetricKey get(
+      CharSequence resource,
+      CharSequence service,
+      CharSequence operationName,
+      CharSequence type,
+      int httpStatusCode,
+      boolean synthetics) {
+    int hash =
+        MetricKey.hash(
+            hash(resource),
+            hash(service),
+            hash(operationName),
+            hash(type),
+            httpStatusCode,
+            synthetics);
+    AtomicReferenceArray<MetricKey> table = this.table;
+    int mask = table.length() - 1;
+    for (int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, ++probes) {
+      MetricKey key = table.get(i);
+      if (null == key) {
+        return null;
+      }
+      if (key.hashCode() == hash
+          && key != REMOVED
+          && key.getHttpStatusCode() == httpStatusCode
+          && key.isSynthetics() == synthetics
+          && matches(key.getResource(), resource)
+          && matches(key.getService(), service)
+          && matches(key.getOperationName(), operationName)
+          && matches(key.getType(), type)) {
+        return key;
+      }
+    }
+    return null;
+  }
+
+  /** @return the existing canonical key equal to this one, or null if this key was added */
+  synchronized MetricKey putIfAbsent(MetricKey newKey) {
+    AtomicReferenceArray<MetricKey> table = this.table;
+    int mask = table.length() - 1;
+    int i = newKey.hashCode() & mask;
+    for (MetricKey key = table.get(i); null != key; key = table.get(i = (i + 1) & mask)) {
+      if (key != REMOVED && key.equals(newKey)) {
+        return key;
+      }
+    }
+    if ((used + 1) * 4 > table.length() * 3) {
+      rebuild();
+      table = this.table;
+      mask = table.length() - 1;
+      i = newKey.hashCode() & mask;
+      while (null != table.get(i)) {
+        i = (i + 1) & mask;
+      }
+    }
+    table.set(i, newKey);
+    ++size;
+    ++used;
+    return null;
+  }
+
+  /** Removes this canonical key, if present. */
+  synchronized void remove(MetricKey oldKey) {
+    AtomicReferenceArray<MetricKey> table = this.table;
+    int mask = table.length() - 1;
+    int i = oldKey.hashCode() & mask;
+    for (MetricKey key = table.get(i); null != key; key = table.get(i = (i + 1) & mask)) {
+      if (key != REMOVED && key.equals(oldKey)) {
+        // leave a marker so probes for keys further along don't stop here
+        table.set(i, REMOVED);
+        --size;
+        return;
+      }
+    }
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  private void rebuild() {
+    AtomicReferenceArray<MetricKey> old = this.table;
+    // sized for the live keys only, which drops the removed markers
+    AtomicReferenceArray<MetricKey> table =
+        new AtomicReferenceArray<>(capacityFor(Math.max(size + 1, MIN_CAPACITY)));
+    int mask = table.length() - 1;
+    for (int j = 0; j < old.length(); ++j) {
+      MetricKey key = old.get(j);
+      if (null != key && key != REMOVED) {
+        int i = key.hashCode() & mask;
+        while (null != table.get(i)) {
+          i = (i + 1) & mask;
+        }
+        table.set(i, key);
+      }
+    }
+    this.used = size;
+    // lookups racing with the rebuild may miss and fall back to putIfAbsent
+    this.table = table;
+  }
+
+  private static int capacityFor(int keys) {
+    // keep the load factor under 3/4, with room to spare before the next rebuild
+    int capacity = MIN_CAPACITY;
+    while (capacity < keys * 2) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /** Hashes the content the same way as the {@link UTF8BytesString} a key would hold. */
+  private static int hash(CharSequence value) {
+    if (null == value) {
+      return 0;
+    }
+    if (value instanceof String || value instanceof UTF8BytesString) {
+      return value.hashCode();
+    }
+    int hash = 0;
+    for (int i = 0; i < value.length(); ++i) {
+      hash = 31 * hash + value.charAt(i);
+    }
+    return hash;
+  }
+
+  private static boolean matches(UTF8BytesString keyValue, CharSequence value) {
+    if (null == value) {
+      return keyValue.length() == 0;
+    }
+    if (value instanceof UTF8BytesString) {
+      return keyValue.equals(value);
+    }
+    return keyValue.toString().contentEquals(value);
+  }
+}
@@ -0,0 +1,246 @@
+package datadog.trace.common.metrics;
+
+import static datadog.trace.common.metrics.AggregateMetric.ERROR_TAG;
+import static datadog.trace.common.metrics.AggregateMetric.TOP_LEVEL_TAG;
+
+import datadog.trace.core.histogram.Histograms;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * Pre-aggregates span metrics on the application threads which publish them, so that most spans
+ * never need to be handed over to the aggregator thread. Each thread accumulates counts and binned
+ * durations for a small, fixed number of keys, which the aggregator thread merges into its
+ * aggregates when it reports.
+ *
+ * <p>Recording never blocks: when the thread's aggregates are full, or being merged, the span is
+ * rejected and should be published to the aggregator as a {@link Batch} instead.
+ */
+final class ThreadLocalAggregates {
+
+  private final Queue<Layer> layers = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<Layer> layer =
+      new ThreadLocal<Layer>() {
+        @Override
+        protected Layer initialValue() {
+          Layer layer = new Layer(Thread.currentThread());
+          layers.offer(layer);
+          return layer;
+        }
+      };
+
+  /** @return false if the span could not be recorded by the calling thread */
+  boolean record(MetricKey key, long tag, long durationNanos) {
+    return layer.get().record(key, tag, durationNanos);
+  }
+
+  /**
+   * Merges everything recorded so far into the aggregates, and forgets the threads which have died.
+   * Must only be called from the aggregator thread.
+   *
+   * @return true if anything was merged
+   */
+  boolean mergeInto(Function<MetricKey, AggregateMetric> aggregates) {
+    boolean merged = false;
+    Iterator<Layer> it = layers.iterator();
+    while (it.hasNext()) {
+      Layer layer = it.next();
+      merged |= layer.drain(aggregates);
+      if (!layer.isOwnerAlive()) {
+        it.remove();
+      }
+    }
+    return merged;
+  }
+
+  /** Discards everything recorded so far. */
+  void clear() {
+    for (Layer layer : layers) {
+      layer.drain(null);
+    }
+  }
+
+  static final class Layer {
+
+    private static final int IDLE = 0;
+    private static final int RECORDING = 1;
+    private static final int DRAINING = 2;
+
+    private static final AtomicIntegerFieldUpdater<Layer> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(Layer.class, "state");
+
+    static final int MAX_KEYS = 16;
+    private static final int KEY_SLOTS = 2 * MAX_KEYS;
+
+    private final WeakReference<Thread> owner;
+    private volatile int state = IDLE;
+
+    // only accessed by the owner while RECORDING or by the aggregator while DRAINING
+    private final MetricKey[] keys = new MetricKey[KEY_SLOTS];
+    private final int[] hitCounts = new int[KEY_SLOTS];
+    private final int[] errorCounts = new int[KEY_SLOTS];
+    private final int[] topLevelCounts = new int[KEY_SLOTS];
+    private final long[] durations = new long[KEY_SLOTS];
+    private final CompactHistogram[] okLatencies = new CompactHistogram[KEY_SLOTS];
+    private final CompactHistogram[] errorLatencies = new CompactHistogram[KEY_SLOTS];
+    private int keyCount;
+
+    Layer(Thread owner) {
+      this.owner = new WeakReference<>(owner);
+    }
+
+    boolean record(MetricKey key, long tag, long durationNanos) {
+      if (!STATE.compareAndSet(this, IDLE, RECORDING)) {
+        return false;
+      }
+      try {
+        int slot = slotOf(key);
+        if (slot < 0) {
+          return false;
+        }
+        boolean error = (tag & ERROR_TAG) == ERROR_TAG;
+        CompactHistogram latencies = error ? errorLatencies[slot] : okLatencies[slot];
+        if (null == latencies) {
+          latencies = new CompactHistogram();
+          if (error) {
+            errorLatencies[slot] = latencies;
+          } else {
+            okLatencies[slot] = latencies;
+          }
+        }
+        if (!latencies.add(Histograms.bin(durationNanos))) {
+          return false;
+        }
+        ++hitCounts[slot];
+        if (error) {
+          ++errorCounts[slot];
+        }
+        if ((tag & TOP_LEVEL_TAG) == TOP_LEVEL_TAG) {
+          ++topLevelCounts[slot];
+        }
+        durations[slot] += durationNanos;
+        return true;
+      } finally {
+        STATE.lazySet(this, IDLE);
+      }
+    }
+
+    private int slotOf(MetricKey key) {
+      int mask = KEY_SLOTS - 1;
+      for (int i = key.hashCode() & mask; ; i = (i + 1) & mask) {
+        MetricKey existing = keys[i];
+        if (null == existing) {
+          if (keyCount == MAX_KEYS) {
+            return -1;
+          }
+          keys[i] = key;
+          ++keyCount;
+          return i;
+        }
+        if (existing == key || existing.equals(key)) {
+          return i;
+        }
+      }
+    }
+
+    /** Merges into the aggregates, unless they are null, and resets. */
+    boolean drain(Function<MetricKey, AggregateMetric> aggregates) {
+      // the owner only holds the layer for the duration of a single record
+      while (!STATE.compareAndSet(this, IDLE, DRAINING)) {
+        Thread.yield();
+      }
+      try {
+        boolean merged = false;
+        for (int i = 0; i < KEY_SLOTS && keyCount > 0; ++i) {
+          MetricKey key = keys[i];
+          if (null != key) {
+            if (null != aggregates && hitCounts[i] > 0) {
+              AggregateMetric aggregate = aggregates.apply(key);
+              aggregate.recordHits(hitCounts[i], errorCounts[i], topLevelCounts[i], durations[i]);
+              if (null != okLatencies[i]) {
+                okLatencies[i].mergeInto(aggregate, false);
+              }
+              if (null != errorLatencies[i]) {
+                errorLatencies[i].mergeInto(aggregate, true);
+              }
+              merged = true;
+            }
+            keys[i] = null;
+            hitCounts[i] = 0;
+            errorCounts[i] = 0;
+            topLevelCounts[i] = 0;
+            durations[i] = 0;
+            if (null != okLatencies[i]) {
+              okLatencies[i].clear();
+            }
+            if (null != errorLatencies[i]) {
+              errorLatencies[i].clear();
+            }
+            --keyCount;
+          }
+        }
+        return merged;
+      } finally {
+        STATE.lazySet(this, IDLE);
+      }
+    }
+
+    boolean isOwnerAlive() {
+      Thread thread = owner.get();
+      return null != thread && thread.isAlive();
+    }
+  }
+
+  /**
+   * Counts per histogram bin for a bounded number of distinct bins, which are merged into the
+   * aggregate's histograms exactly as if each duration had been recorded individually.
+   */
+  static final class CompactHistogram {
+
+    static final int MAX_BINS = 48;
+    private static final int BIN_SLOTS = 64;
+
+    private final int[] bins = new int[BIN_SLOTS];
+    private final int[] counts = new int[BIN_SLOTS];
+    private int binCount;
+
+    boolean add(int bin) {
+      int mask = BIN_SLOTS - 1;
+      for (int i = (bin * 0x9E3779B9) >>> 26; ; i = (i + 1) & mask) {
+        if (counts[i] == 0) {
+          if (binCount == MAX_BINS) {
+            return false;
+          }
+          bins[i] = bin;
+          counts[i] = 1;
+          ++binCount;
+          return true;
+        }
+        if (bins[i] == bin) {
+          ++counts[i];
+          return true;
+        }
+      }
+    }
+
+    void mergeInto(AggregateMetric aggregate, boolean error) {
+      for (int i = 0; i < BIN_SLOTS && binCount > 0; ++i) {
+        if (counts[i] > 0) {
+          aggregate.recordLatencies(error, Histograms.binValue(bins[i]), counts[i]);
+        }
+      }
+    }
+
+    void clear() {
+      if (binCount > 0) {
+        Arrays.fill(counts, 0);
+        binCount = 0;
+      }
+    }
+  }
+}
@@ -84,6 +84,14 @@ public abstract class SamplingRule {
       this.operationName = exactOperationName;
     }
 
+    String getServiceName() {
+      return serviceName;
+    }
+
+    String getOperationName() {
+      return operationName;
+    }
+
     @Override
     public <T extends CoreSpan<T>> boolean matches(T span) {
       return (serviceName == null || serviceName.equals(span.getServiceName()))
@@ -0,0 +1,185 @@
+package datadog.trace.common.sampling;
+
+import datadog.trace.common.sampling.SamplingRule.AlwaysMatchesSamplingRule;
+import datadog.trace.common.sampling.SamplingRule.OperationSamplingRule;
+import datadog.trace.common.sampling.SamplingRule.ServiceSamplingRule;
+import datadog.trace.common.sampling.SamplingRule.TraceSamplingRule;
+import datadog.trace.core.CoreSpan;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the first {@link SamplingRule} matching a span, without testing every rule in order.
+ *
+ * <p>Rules matching exact service and operation names are indexed in hash maps by the names, so the
+ * first of them matching a span is found with a few lookups, and only the rules which can't be
+ * indexed (regular expressions, or unknown rules) are tested, and only if they come before the
+ * first matching indexed rule. When every rule only depends on the span's service and operation
+ * names, the matched rule is also cached by the pair of names, so the rules are only evaluated once
+ * for each (service, operation) pair, as long as the pair stays in the cache.
+ *
+ * <p>The rule returned is always the rule the rules would match when tested in order.
+ */
+final class SamplingRuleMatcher {
+
+  static final int DEFAULT_CACHE_SIZE = 256;
+
+  private static final int NO_MATCH = Integer.MAX_VALUE;
+  private static final int MAX_PROBES = 3;
+
+  private final SamplingRule[] rules;
+  private final Map<String, Map<String, Integer>> byServiceAndOperation = new HashMap<>();
+  private final Map<String, Integer> byService = new HashMap<>();
+  private final Map<String, Integer> byOperation = new HashMap<>();
+  private int firstMatchingAll = NO_MATCH;
+  /** indexes of the rules which must be tested against the span, in rule order */
+  private final int[] testedRules;
+
+  // racy, but each entry is immutable so a lookup sees either a complete entry or nothing
+  private final Entry[] cache;
+  private final int mask;
+
+  SamplingRuleMatcher(List<SamplingRule> rules) {
+    this(rules, DEFAULT_CACHE_SIZE);
+  }
+
+  SamplingRuleMatcher(List<SamplingRule> rules, int cacheSize) {
+    this.rules = rules.toArray(new SamplingRule[0]);
+    int[] tested = new int[this.rules.length];
+    int testedCount = 0;
+    boolean cacheable = true;
+    for (int i = 0; i < this.rules.length; ++i) {
+      SamplingRule rule = this.rules[i];
+      if (rule instanceof TraceSamplingRule) {
+        index(i, (TraceSamplingRule) rule);
+      } else if (rule instanceof AlwaysMatchesSamplingRule) {
+        firstMatchingAll = Math.min(firstMatchingAll, i);
+      } else {
+        tested[testedCount++] = i;
+        // other rules may look at more than the span's service and operation names
+        cacheable &=
+            rule.getClass() == ServiceSamplingRule.class
+                || rule.getClass() == OperationSamplingRule.class;
+      }
+    }
+    this.testedRules = new int[testedCount];
+    System.arraycopy(tested, 0, testedRules, 0, testedCount);
+    if (cacheable && cacheSize > 0) {
+      int size = Integer.highestOneBit(Math.max(cacheSize - 1, 1)) << 1;
+      this.cache = new Entry[size];
+      this.mask = size - 1;
+    } else {
+      this.cache = null;
+      this.mask = 0;
+    }
+  }
+
+  /** @return the first rule matching the span, or {@code null} if no rule matches */
+  <T extends CoreSpan<T>> SamplingRule match(T span) {
+    int index;
+    if (null == cache) {
+      index = findFirstMatch(span, span.getServiceName(), span.getOperationName());
+    } else {
+      index = lookup(span);
+    }
+    return index == NO_MATCH ? null : rules[index];
+  }
+
+  private <T extends CoreSpan<T>> int lookup(T span) {
+    String service = span.getServiceName();
+    CharSequence operationName = span.getOperationName();
+    String operation = null == operationName ? null : operationName.toString();
+    int hash = hash(service, operation);
+    for (int i = 0; i < MAX_PROBES; ++i) {
+      Entry entry = cache[(hash + i) & mask];
+      if (null == entry) {
+        break;
+      }
+      if (entry.hash == hash && entry.matches(service, operation)) {
+        return entry.ruleIndex;
+      }
+    }
+    int index = findFirstMatch(span, service, operation);
+    // replace whatever was in the key's first slot, so recently seen pairs stay cached
+    cache[hash & mask] = new Entry(hash, service, operation, index);
+    return index;
+  }
+
+  private <T extends CoreSpan<T>> int findFirstMatch(
+      T span, String service, CharSequence operation) {
+    String operationName = null == operation ? null : operation.toString();
+    int first = firstMatchingAll;
+    if (null != service) {
+      first = min(first, byService.get(service));
+      if (null != operationName) {
+        Map<String, Integer> byOperationForService = byServiceAndOperation.get(service);
+        if (null != byOperationForService) {
+          first = min(first, byOperationForService.get(operationName));
+        }
+      }
+    }
+    if (null != operationName) {
+      first = min(first, byOperation.get(operationName));
+    }
+    // only the rules before the first indexed match can take precedence over it
+    for (int index : testedRules) {
+      if (index > first) {
+        break;
+      }
+      if (rules[index].matches(span)) {
+        return index;
+      }
+    }
+    return first;
+  }
+
+  private void index(int i, TraceSamplingRule rule) {
+    String service = rule.getServiceName();
+    String operation = rule.getOperationName();
+    if (null == service && null == operation) {
+      firstMatchingAll = Math.min(firstMatchingAll, i);
+    } else if (null == operation) {
+      byService.putIfAbsent(service, i);
+    } else if (null == service) {
+      byOperation.putIfAbsent(operation, i);
+    } else {
+      Map<String, Integer> byOperationForService = byServiceAndOperation.get(service);
+      if (null == byOperationForService) {
+        byOperationForService = new HashMap<>();
+        byServiceAndOperation.put(service, byOperationForService);
+      }
+      byOperationForService.putIfAbsent(operation, i);
+    }
+  }
+
+  private static int min(int index, Integer candidate) {
+    return null == candidate ? index : Math.min(index, candidate);
+  }
+
+  private static int hash(String service, String operation) {
+    int hash =
+        31 * (null == service ? 0 : service.hashCode())
+            + (null == operation ? 0 : operation.hashCode());
+    return hash ^ (hash >>> 16);
+  }
+
+  private static final class Entry {
+    final int hash;
+    final String service;
+    final String operation;
+    final int ruleIndex;
+
+    Entry(int hash, String service, String operation, int ruleIndex) {
+      this.hash = hash;
+      this.service = service;
+      this.operation = operation;
+      this.ruleIndex = ruleIndex;
+    }
+
+    boolean matches(String service, String operation) {
+      return (null == this.service ? null == service : this.service.equals(service))
+          && (null == this.operation ? null == operation : this.operation.equals(operation));
+    }
+  }
+}
@@ -8,6 +8,7 @@ import static datadog.trace.common.writer.ddagent.Prioritization.FAST_LANE;
 
 import datadog.communication.ddagent.DDAgentFeaturesDiscovery;
 import datadog.communication.monitor.Monitoring;
+import datadog.communication.serialization.DirectBufferPool;
 import datadog.trace.api.Config;
 import datadog.trace.api.StatsDClient;
 import datadog.trace.common.sampling.SingleSpanSampler;
@@ -15,6 +16,8 @@ import datadog.trace.common.writer.ddagent.DDAgentApi;
 import datadog.trace.common.writer.ddagent.DDAgentMapperDiscovery;
 import datadog.trace.common.writer.ddagent.Prioritization;
 import datadog.trace.core.monitor.HealthMetrics;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
@@ -26,6 +29,8 @@ public class DDAgentWriter extends RemoteWriter {
   }
 
   private static final int BUFFER_SIZE = 1024;
+  private static final int MAX_POOLED_BUFFER_SIZE = 4 << 20;
+  private static final int MAX_POOLED_BUFFERS = 4;
 
   public static class DDAgentWriterBuilder {
 
@@ -41,6 +46,9 @@ public class DDAgentWriter extends RemoteWriter {
     boolean traceAgentV05Enabled = Config.get().isTraceAgentV05Enabled();
     boolean metricsReportingEnabled = Config.get().isTracerMetricsEnabled();
     boolean alwaysFlush = false;
+    int maxInFlightPayloads = 0;
+    int serializerShards = 1;
+    boolean directBuffers = false;
 
     private DDAgentApi agentApi;
     private Prioritization prioritization;
@@ -122,6 +130,21 @@ public class DDAgentWriter extends RemoteWriter {
       return this;
     }
 
+    public DDAgentWriterBuilder maxInFlightPayloads(int maxInFlightPayloads) {
+      this.maxInFlightPayloads = maxInFlightPayloads;
+      return this;
+    }
+
+    public DDAgentWriterBuilder serializerShards(int serializerShards) {
+      this.serializerShards = serializerShards;
+      return this;
+    }
+
+    public DDAgentWriterBuilder directBuffers(boolean directBuffers) {
+      this.directBuffers = directBuffers;
+      return this;
+    }
+
     public DDAgentWriterBuilder spanSamplingRules(SingleSpanSampler singleSpanSampler) {
       this.singleSpanSampler = singleSpanSampler;
       return this;
@@ -143,14 +166,35 @@ public class DDAgentWriter extends RemoteWriter {
             new DDAgentApi(client, agentUrl, featureDiscovery, monitoring, metricsReportingEnabled);
       }
 
-      final DDAgentMapperDiscovery mapperDiscovery = new DDAgentMapperDiscovery(featureDiscovery);
+      final int shards = Math.max(1, serializerShards);
+      final DirectBufferPool bufferPool =
+          directBuffers ? new DirectBufferPool(MAX_POOLED_BUFFER_SIZE, MAX_POOLED_BUFFERS) : null;
+      if (null != bufferPool) {
+        healthMetrics.onCreateDirectBufferPool(bufferPool);
+      }
+      final DDAgentMapperDiscovery mapperDiscovery =
+          new DDAgentMapperDiscovery(featureDiscovery, bufferPool);
       final PayloadDispatcher dispatcher =
-          new PayloadDispatcher(mapperDiscovery, agentApi, healthMetrics, monitoring);
+          new PayloadDispatcher(
+              mapperDiscovery,
+              agentApi,
+              healthMetrics,
+              monitoring,
+              // shards can only share the agent connection by sending asynchronously
+              shards > 1 ? Math.max(shards, maxInFlightPayloads) : maxInFlightPayloads,
+              shards,
+              directBuffers);
+      final List<PayloadDispatcher> dispatchers = new ArrayList<>(shards);
+      dispatchers.add(dispatcher);
+      for (int i = 1; i < shards; ++i) {
+        dispatchers.add(
+            dispatcher.newShard(new DDAgentMapperDiscovery(featureDiscovery, bufferPool)));
+      }
       final TraceProcessingWorker traceProcessingWorker =
           new TraceProcessingWorker(
               traceBufferSize,
               healthMetrics,
-              dispatcher,
+              dispatchers,
               featureDiscovery,
               null == prioritization ? FAST_LANE : prioritization,
               flushFrequencySeconds,
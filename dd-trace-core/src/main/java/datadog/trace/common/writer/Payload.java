@@ -39,6 +39,17 @@ public abstract class Payload {
     return this;
   }
 
+  /**
+   * Copies any state this payload still shares with the mapper which created it, so that the
+   * payload can be sent after the mapper has been reset. The body is never copied.
+   */
+  public Payload detach() {
+    return this;
+  }
+
+  /** Releases any pooled buffers this payload holds on to, once it has been sent. */
+  public void release() {}
+
   public int traceCount() {
     return traceCount;
   }
@@ -1,47 +1,182 @@
 package datadog.trace.common.writer;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import datadog.communication.monitor.Monitoring;
 import datadog.communication.monitor.Recording;
 import datadog.communication.serialization.ByteBufferConsumer;
+import datadog.communication.serialization.ByteBufferPool;
 import datadog.communication.serialization.FlushingBuffer;
 import datadog.communication.serialization.WritableFormatter;
 import datadog.communication.serialization.msgpack.MsgPackWriter;
 import datadog.trace.core.CoreSpan;
 import datadog.trace.core.monitor.HealthMetrics;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import org.jctools.counters.CountersFactory;
 import org.jctools.counters.FixedSizeStripedLongCounter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class PayloadDispatcher implements ByteBufferConsumer {
 
-  private static final Logger log = LoggerFactory.getLogger(PayloadDispatcher.class);
+  private static final long IN_FLIGHT_PAYLOADS_TIMEOUT_SECONDS = 10;
+  private static final long FREE_BUFFER_TIMEOUT_MILLIS = SECONDS.toMillis(10);
 
-  private final RemoteApi api;
   private final RemoteMapperDiscovery mapperDiscovery;
   private final HealthMetrics healthMetrics;
   private final Monitoring monitoring;
+  private final PayloadSender sender;
+  private final FixedSizeStripedLongCounter droppedSpanCount;
+  private final FixedSizeStripedLongCounter droppedTraceCount;
+  private final List<PayloadDispatcher> shards = new ArrayList<>();
+  private final long freeBufferTimeoutMillis;
 
+  private ByteBufferPool bufferPool;
   private Recording batchTimer;
   private RemoteMapper mapper;
   private WritableFormatter packer;
 
-  private final FixedSizeStripedLongCounter droppedSpanCount =
-      CountersFactory.createFixedSizeStripedCounter(8);
-  private final FixedSizeStripedLongCounter droppedTraceCount =
-      CountersFactory.createFixedSizeStripedCounter(8);
-
   public PayloadDispatcher(
       RemoteMapperDiscovery mapperDiscovery,
       RemoteApi api,
       HealthMetrics healthMetrics,
       Monitoring monitoring) {
+    this(mapperDiscovery, api, healthMetrics, monitoring, 0);
+  }
+
+  /**
+   * @param maxInFlightPayloads when positive, serialized payloads are sent to the API on a
+   *     dedicated thread so serialization can carry on with the next payload, with at most this
+   *     many payloads waiting to be sent at any time. Otherwise payloads are sent synchronously on
+   *     the serializing thread.
+   */
+  public PayloadDispatcher(
+      RemoteMapperDiscovery mapperDiscovery,
+      RemoteApi api,
+      HealthMetrics healthMetrics,
+      Monitoring monitoring,
+      int maxInFlightPayloads) {
+    this(mapperDiscovery, api, healthMetrics, monitoring, maxInFlightPayloads, 1);
+  }
+
+  /**
+   * @param serializers the number of dispatchers, this one and those created by {@link
+   *     #newShard(RemoteMapperDiscovery)}, which will serialize traces concurrently. Payloads must
+   *     be sent asynchronously when there is more than one.
+   */
+  public PayloadDispatcher(
+      RemoteMapperDiscovery mapperDiscovery,
+      RemoteApi api,
+      HealthMetrics healthMetrics,
+      Monitoring monitoring,
+      int maxInFlightPayloads,
+      int serializers) {
+    this(mapperDiscovery, api, healthMetrics, monitoring, maxInFlightPayloads, serializers, false);
+  }
+
+  /** @param directBuffers whether to serialize payloads into direct buffers */
+  public PayloadDispatcher(
+      RemoteMapperDiscovery mapperDiscovery,
+      RemoteApi api,
+      HealthMetrics healthMetrics,
+      Monitoring monitoring,
+      int maxInFlightPayloads,
+      int serializers,
+      boolean directBuffers) {
+    this(
+        mapperDiscovery,
+        api,
+        healthMetrics,
+        monitoring,
+        maxInFlightPayloads,
+        serializers,
+        directBuffers,
+        FREE_BUFFER_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param freeBufferTimeoutMillis how long to wait for a payload in flight to be sent, when all
+   *     the pooled buffers are in use, before dropping the payload just serialized instead
+   */
+  PayloadDispatcher(
+      RemoteMapperDiscovery mapperDiscovery,
+      RemoteApi api,
+      HealthMetrics healthMetrics,
+      Monitoring monitoring,
+      int maxInFlightPayloads,
+      int serializers,
+      boolean directBuffers,
+      long freeBufferTimeoutMillis) {
+    this(
+        mapperDiscovery,
+        healthMetrics,
+        monitoring,
+        new PayloadSender(
+            api, healthMetrics, Math.max(0, maxInFlightPayloads), serializers, directBuffers),
+        CountersFactory.createFixedSizeStripedCounter(8),
+        CountersFactory.createFixedSizeStripedCounter(8),
+        freeBufferTimeoutMillis);
+    if (serializers > 1 && !sender.isAsynchronous()) {
+      throw new IllegalArgumentException(
+          "Payloads must be sent asynchronously with " + serializers + " serializers");
+    }
+  }
+
+  private PayloadDispatcher(
+      RemoteMapperDiscovery mapperDiscovery,
+      HealthMetrics healthMetrics,
+      Monitoring monitoring,
+      PayloadSender sender,
+      FixedSizeStripedLongCounter droppedSpanCount,
+      FixedSizeStripedLongCounter droppedTraceCount,
+      long freeBufferTimeoutMillis) {
     this.mapperDiscovery = mapperDiscovery;
-    this.api = api;
     this.healthMetrics = healthMetrics;
     this.monitoring = monitoring;
+    this.sender = sender;
+    this.droppedSpanCount = droppedSpanCount;
+    this.droppedTraceCount = droppedTraceCount;
+    this.freeBufferTimeoutMillis = freeBufferTimeoutMillis;
+  }
+
+  /**
+   * Creates a dispatcher which serializes traces with its own mapper and buffer, so it can be used
+   * concurrently with this one, but shares this dispatcher's payload sending and dropped trace
+   * accounting. Payloads from all shards are sent one at a time, in the order they are completed.
+   */
+  PayloadDispatcher newShard(RemoteMapperDiscovery mapperDiscovery) {
+    PayloadDispatcher shard =
+        new PayloadDispatcher(
+            mapperDiscovery,
+            healthMetrics,
+            monitoring,
+            sender,
+            droppedSpanCount,
+            droppedTraceCount,
+            freeBufferTimeoutMillis);
+    shards.add(shard);
+    return shard;
+  }
+
+  void start() {
+    sender.start();
+  }
+
+  /** Must be called once the serializing threads have stopped, along with those of the shards. */
+  void close() {
+    sender.close();
+    releaseMapper();
+    for (PayloadDispatcher shard : shards) {
+      shard.releaseMapper();
+    }
+  }
+
+  private void releaseMapper() {
+    if (null != mapper) {
+      mapper.release();
+      mapper = null;
+    }
   }
 
   void flush() {
@@ -50,6 +185,18 @@ public class PayloadDispatcher implements ByteBufferConsumer {
     }
   }
 
+  /**
+   * Waits until all payloads handed to the sending thread have been sent. Payloads are always sent
+   * by the time {@link #flush()} returns when sending synchronously.
+   */
+  void awaitInFlightPayloads() {
+    try {
+      sender.awaitInFlightPayloads(IN_FLIGHT_PAYLOADS_TIMEOUT_SECONDS, SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   public void onDroppedTrace(int spanCount) {
     droppedSpanCount.inc(spanCount);
     droppedTraceCount.inc();
@@ -76,7 +223,17 @@ public class PayloadDispatcher implements ByteBufferConsumer {
       if (null != mapper && null == packer) {
         this.batchTimer =
             monitoring.newTimer("tracer.trace.buffer.fill.time", "endpoint:" + mapper.endpoint());
-        this.packer = new MsgPackWriter(new FlushingBuffer(mapper.messageBufferSize(), this));
+        if (sender.isAsynchronous()) {
+          this.bufferPool = sender.bufferPool(mapper.messageBufferSize());
+          this.packer = new MsgPackWriter(new FlushingBuffer(bufferPool, this));
+        } else {
+          this.packer =
+              new MsgPackWriter(
+                  sender.isDirect()
+                      ? new FlushingBuffer(
+                          ByteBuffer.allocateDirect(mapper.messageBufferSize()), this)
+                      : new FlushingBuffer(mapper.messageBufferSize(), this));
+        }
         batchTimer.start();
       }
     }
@@ -99,20 +256,41 @@ public class PayloadDispatcher implements ByteBufferConsumer {
       Payload payload = newPayload(messageCount, buffer);
       final int sizeInBytes = payload.sizeInBytes();
       healthMetrics.onSerialize(sizeInBytes);
-      RemoteApi.Response response = api.sendSerializedTraces(payload);
-      mapper.reset();
-      if (response.success()) {
-        if (log.isDebugEnabled()) {
-          log.debug("Successfully sent {} traces to the API", messageCount);
+      if (sender.isAsynchronous()) {
+        // the mapper is reset before the payload is sent, so can't share any state with it
+        payload.detach();
+        mapper.reset();
+        if (awaitFreeBuffer()) {
+          sender.send(payload, buffer);
+        } else {
+          // the packer takes this payload's buffer back from the pool instead
+          sender.drop(payload, buffer);
         }
-        healthMetrics.onSend(messageCount, sizeInBytes, response);
       } else {
-        if (log.isDebugEnabled()) {
-          log.debug(
-              "Failed to send {} traces of size {} bytes to the API", messageCount, sizeInBytes);
-        }
-        healthMetrics.onFailedSend(messageCount, sizeInBytes, response);
+        sender.send(payload, buffer);
+        mapper.reset();
       }
     }
   }
+
+  /**
+   * The packer takes the next buffer from the pool as soon as the payload is handed over, so wait
+   * here for a payload in flight to be sent when none are left, to measure the stall.
+   *
+   * @return false if no buffer was freed in time, or the thread was interrupted
+   */
+  private boolean awaitFreeBuffer() {
+    if (bufferPool.available() > 0) {
+      return true;
+    }
+    long start = System.nanoTime();
+    boolean available = false;
+    try {
+      available = bufferPool.awaitAvailable(1, freeBufferTimeoutMillis, MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    healthMetrics.onSendBackpressure(System.nanoTime() - start);
+    return available;
+  }
 }
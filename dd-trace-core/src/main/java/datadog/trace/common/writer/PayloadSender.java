@@ -0,0 +1,242 @@
+package datadog.trace.common.writer;
+
+import static datadog.trace.util.AgentThreadFactory.AgentThread.TRACE_PAYLOAD_SENDER;
+import static datadog.trace.util.AgentThreadFactory.THREAD_JOIN_TIMOUT_MS;
+import static datadog.trace.util.AgentThreadFactory.newAgentThread;
+
+import datadog.communication.serialization.ByteBufferPool;
+import datadog.trace.core.monitor.HealthMetrics;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.jctools.queues.MpscBlockingConsumerArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends serialized payloads to the API. Without any payloads in flight, payloads are sent
+ * synchronously by the serializing thread. Otherwise, payloads are serialized into buffers taken
+ * from a shared pool and handed over to a dedicated thread, which sends them one at a time in the
+ * order they were handed over and releases their buffers back to the pool once sent. There is one
+ * pool per buffer size, because the mappers of different endpoints need buffers of different sizes.
+ */
+final class PayloadSender implements Runnable {
+
+  private static final Logger log = LoggerFactory.getLogger(PayloadSender.class);
+
+  private final RemoteApi api;
+  private final HealthMetrics healthMetrics;
+  private final int bufferCount;
+  private final boolean directBuffers;
+  private final MpscBlockingConsumerArrayQueue<InFlightPayload> queue;
+  private final Thread thread;
+  private volatile boolean closed;
+
+  // guarded by this
+  private final Map<Integer, ByteBufferPool> bufferPools = new HashMap<>();
+  private int inFlightPayloads;
+
+  /**
+   * @param maxInFlightPayloads the number of payloads which can wait to be sent, or 0 to send
+   *     payloads synchronously
+   * @param serializers the number of threads serializing payloads, each of which holds on to a
+   *     buffer to serialize into
+   * @param directBuffers whether to allocate pooled buffers off heap
+   */
+  PayloadSender(
+      RemoteApi api,
+      HealthMetrics healthMetrics,
+      int maxInFlightPayloads,
+      int serializers,
+      boolean directBuffers) {
+    this.api = api;
+    this.healthMetrics = healthMetrics;
+    this.directBuffers = directBuffers;
+    if (maxInFlightPayloads > 0) {
+      this.bufferCount = maxInFlightPayloads + serializers;
+      // can only overflow when several pools are in use, because a payload needs a pooled buffer
+      this.queue = new MpscBlockingConsumerArrayQueue<>(Math.max(2, bufferCount));
+      this.thread = newAgentThread(TRACE_PAYLOAD_SENDER, this);
+    } else {
+      this.bufferCount = 0;
+      this.queue = null;
+      this.thread = null;
+    }
+  }
+
+  boolean isAsynchronous() {
+    return null != thread;
+  }
+
+  boolean isDirect() {
+    return directBuffers;
+  }
+
+  /**
+   * The pool payloads of the given size must be serialized into when sending asynchronously, which
+   * is shared by all the serializers using the same buffer size.
+   */
+  synchronized ByteBufferPool bufferPool(int bufferSize) {
+    ByteBufferPool bufferPool = bufferPools.get(bufferSize);
+    if (null == bufferPool) {
+      bufferPool = new ByteBufferPool(bufferCount, bufferSize, directBuffers);
+      bufferPools.put(bufferSize, bufferPool);
+    }
+    return bufferPool;
+  }
+
+  void start() {
+    if (null != thread) {
+      thread.start();
+    }
+  }
+
+  /**
+   * Stops the sending thread. Payloads which were handed over but not sent by the time it stops are
+   * dropped, and their buffers released.
+   */
+  void close() {
+    if (null != thread) {
+      closed = true;
+      thread.interrupt();
+      try {
+        thread.join(THREAD_JOIN_TIMOUT_MS);
+      } catch (InterruptedException ignored) {
+      }
+      if (!thread.isAlive()) {
+        // safe to consume from the queue now the sending thread is gone
+        dropQueued();
+      }
+    }
+  }
+
+  /**
+   * Sends the payload, or hands it over to the sending thread along with the pooled buffer its body
+   * was serialized into.
+   */
+  void send(Payload payload, ByteBuffer buffer) {
+    if (null == thread) {
+      send(payload);
+    } else {
+      synchronized (this) {
+        ++inFlightPayloads;
+      }
+      InFlightPayload inFlight = new InFlightPayload(payload, buffer);
+      if (!queue.offer(inFlight)) {
+        // only when payloads from several buffer pools are in flight at once
+        sendAndRelease(inFlight);
+      }
+    }
+  }
+
+  /**
+   * Drops the payload instead of sending it, releasing the pooled buffer its body was serialized
+   * into.
+   */
+  void drop(Payload payload, ByteBuffer buffer) {
+    final int messageCount = payload.traceCount();
+    try {
+      payload.release();
+    } finally {
+      bufferPool(buffer.capacity()).release(buffer);
+    }
+    healthMetrics.onDropPayload(messageCount);
+  }
+
+  /**
+   * Waits until all payloads handed over to the sending thread have been sent.
+   *
+   * @return false if the timeout elapsed first
+   */
+  synchronized boolean awaitInFlightPayloads(long timeout, TimeUnit timeUnit)
+      throws InterruptedException {
+    long remaining = timeUnit.toNanos(timeout);
+    long deadline = System.nanoTime() + remaining;
+    while (inFlightPayloads > 0) {
+      if (remaining <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      remaining = deadline - System.nanoTime();
+    }
+    return true;
+  }
+
+  @Override
+  public void run() {
+    Thread thread = Thread.currentThread();
+    try {
+      // sending may swallow the interrupt, so the closed flag is checked too
+      while (!closed && !thread.isInterrupted()) {
+        sendAndRelease(queue.take());
+      }
+    } catch (InterruptedException e) {
+      thread.interrupt();
+    }
+    dropQueued();
+    log.debug("Datadog trace payload sender exited. Sending traces stopped");
+  }
+
+  private void sendAndRelease(InFlightPayload inFlight) {
+    try {
+      send(inFlight.payload);
+    } catch (Throwable e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Error while sending traces", e);
+      }
+    } finally {
+      bufferPool(inFlight.buffer.capacity()).release(inFlight.buffer);
+      onPayloadDone();
+    }
+  }
+
+  private void dropQueued() {
+    InFlightPayload inFlight;
+    while (null != (inFlight = queue.poll())) {
+      try {
+        drop(inFlight.payload, inFlight.buffer);
+      } finally {
+        onPayloadDone();
+      }
+    }
+  }
+
+  private synchronized void onPayloadDone() {
+    --inFlightPayloads;
+    notifyAll();
+  }
+
+  private void send(Payload payload) {
+    final int messageCount = payload.traceCount();
+    final int sizeInBytes = payload.sizeInBytes();
+    RemoteApi.Response response;
+    try {
+      response = api.sendSerializedTraces(payload);
+    } finally {
+      payload.release();
+    }
+    if (response.success()) {
+      if (log.isDebugEnabled()) {
+        log.debug("Successfully sent {} traces to the API", messageCount);
+      }
+      healthMetrics.onSend(messageCount, sizeInBytes, response);
+    } else {
+      if (log.isDebugEnabled()) {
+        log.debug(
+            "Failed to send {} traces of size {} bytes to the API", messageCount, sizeInBytes);
+      }
+      healthMetrics.onFailedSend(messageCount, sizeInBytes, response);
+    }
+  }
+
+  private static final class InFlightPayload {
+    final Payload payload;
+    final ByteBuffer buffer;
+
+    InFlightPayload(Payload payload, ByteBuffer buffer) {
+      this.payload = payload;
+      this.buffer = buffer;
+    }
+  }
+}
@@ -38,6 +38,9 @@ public interface RemoteMapper extends Mapper<List<? extends CoreSpan<?>>> {
 
   void reset();
 
+  /** Gives back the resources held by the mapper, after which it must not be used. */
+  void release();
+
   String endpoint();
 
   class NoopRemoteMapper implements RemoteMapper {
@@ -58,6 +61,9 @@ public interface RemoteMapper extends Mapper<List<? extends CoreSpan<?>>> {
     @Override
     public void reset() {}
 
+    @Override
+    public void release() {}
+
     @Override
     public String endpoint() {
       return null;
@@ -135,6 +135,7 @@ public abstract class RemoteWriter implements Writer {
   @Override
   public void start() {
     if (!closed) {
+      dispatcher.start();
       traceProcessingWorker.start();
       healthMetrics.start();
       healthMetrics.onStart((int) getCapacity());
@@ -146,6 +147,7 @@ public abstract class RemoteWriter implements Writer {
     final boolean flushed = flush();
     closed = true;
     traceProcessingWorker.close();
+    dispatcher.close();
     healthMetrics.close();
     healthMetrics.onShutdown(flushed);
   }
@@ -6,6 +6,7 @@ import static datadog.trace.util.AgentThreadFactory.newAgentThread;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import datadog.communication.ddagent.DroppingPolicy;
+import datadog.trace.api.DDTraceId;
 import datadog.trace.common.sampling.SingleSpanSampler;
 import datadog.trace.common.writer.ddagent.FlushEvent;
 import datadog.trace.common.writer.ddagent.Prioritization;
@@ -13,7 +14,12 @@ import datadog.trace.common.writer.ddagent.PrioritizationStrategy;
 import datadog.trace.core.CoreSpan;
 import datadog.trace.core.DDSpan;
 import datadog.trace.core.monitor.HealthMetrics;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -35,9 +41,9 @@ public class TraceProcessingWorker implements AutoCloseable {
 
   private final PrioritizationStrategy prioritizationStrategy;
   private final MpscBlockingConsumerArrayQueue<Object> primaryQueue;
-  private final MpscBlockingConsumerArrayQueue<Object> secondaryQueue;
-  private final TraceSerializingHandler serializingHandler;
-  private final Thread serializerThread;
+  private final List<MpscBlockingConsumerArrayQueue<Object>> primaryQueues;
+  private final List<MpscBlockingConsumerArrayQueue<Object>> secondaryQueues;
+  private final Thread[] serializerThreads;
   private final int capacity;
 
   private final SpanSamplingWorker spanSamplingWorker;
@@ -51,41 +57,82 @@ public class TraceProcessingWorker implements AutoCloseable {
       final long flushInterval,
       final TimeUnit timeUnit,
       final SingleSpanSampler singleSpanSampler) {
+    this(
+        capacity,
+        healthMetrics,
+        Collections.singletonList(dispatcher),
+        droppingPolicy,
+        prioritization,
+        flushInterval,
+        timeUnit,
+        singleSpanSampler);
+  }
+
+  /**
+   * Serializes traces on one thread per dispatcher. Each serializer shard has its own queues, and
+   * traces are routed to a shard by their trace id.
+   *
+   * @param dispatchers one dispatcher per shard, see {@link
+   *     PayloadDispatcher#newShard(RemoteMapperDiscovery)}
+   */
+  public TraceProcessingWorker(
+      final int capacity,
+      final HealthMetrics healthMetrics,
+      final List<PayloadDispatcher> dispatchers,
+      final DroppingPolicy droppingPolicy,
+      final Prioritization prioritization,
+      final long flushInterval,
+      final TimeUnit timeUnit,
+      final SingleSpanSampler singleSpanSampler) {
+    final int shards = dispatchers.size();
+    final int shardCapacity = (capacity + shards - 1) / shards;
     this.capacity = capacity;
-    this.primaryQueue = createQueue(capacity);
-    this.secondaryQueue = createQueue(capacity);
+    this.primaryQueues = new ArrayList<>(shards);
+    this.secondaryQueues = new ArrayList<>(shards);
+    this.serializerThreads = new Thread[shards];
+    for (int i = 0; i < shards; ++i) {
+      MpscBlockingConsumerArrayQueue<Object> primary = createQueue(shardCapacity);
+      MpscBlockingConsumerArrayQueue<Object> secondary = createQueue(shardCapacity);
+      primaryQueues.add(primary);
+      secondaryQueues.add(secondary);
+      serializerThreads[i] =
+          newAgentThread(
+              TRACE_PROCESSOR,
+              new TraceSerializingHandler(
+                  primary, secondary, healthMetrics, dispatchers.get(i), flushInterval, timeUnit));
+    }
+    this.primaryQueue = primaryQueues.get(0);
+    Queue<Object> primary = shards == 1 ? primaryQueue : new ShardingQueue(primaryQueues);
+    Queue<Object> secondary =
+        shards == 1 ? secondaryQueues.get(0) : new ShardingQueue(secondaryQueues);
     this.spanSamplingWorker =
         SpanSamplingWorker.build(
-            capacity,
-            primaryQueue,
-            secondaryQueue,
-            singleSpanSampler,
-            healthMetrics,
-            droppingPolicy);
+            capacity, primary, secondary, singleSpanSampler, healthMetrics, droppingPolicy);
     Queue<Object> droppedTracesQueue =
         spanSamplingWorker == null ? null : spanSamplingWorker.getSpanSamplingQueue();
     this.prioritizationStrategy =
-        prioritization.create(primaryQueue, secondaryQueue, droppedTracesQueue, droppingPolicy);
-    this.serializingHandler =
-        new TraceSerializingHandler(
-            primaryQueue, secondaryQueue, healthMetrics, dispatcher, flushInterval, timeUnit);
-    this.serializerThread = newAgentThread(TRACE_PROCESSOR, serializingHandler);
+        prioritization.create(primary, secondary, droppedTracesQueue, droppingPolicy);
   }
 
   public void start() {
-    this.serializerThread.start();
+    for (Thread serializerThread : serializerThreads) {
+      serializerThread.start();
+    }
     if (spanSamplingWorker != null) {
       spanSamplingWorker.start();
     }
   }
 
   public boolean flush(long timeout, TimeUnit timeUnit) {
-    CountDownLatch latch = new CountDownLatch(1);
+    // every shard flushes its own payload, and syncs once it has been sent
+    CountDownLatch latch = new CountDownLatch(serializerThreads.length);
     FlushEvent flush = new FlushEvent(latch);
-    boolean offered;
-    do {
-      offered = primaryQueue.offer(flush);
-    } while (!offered && serializerThread.isAlive());
+    for (int i = 0; i < serializerThreads.length; ++i) {
+      boolean offered;
+      do {
+        offered = primaryQueues.get(i).offer(flush);
+      } while (!offered && serializerThreads[i].isAlive());
+    }
     try {
       return latch.await(timeout, timeUnit);
     } catch (InterruptedException e) {
@@ -99,10 +146,14 @@ public class TraceProcessingWorker implements AutoCloseable {
     if (spanSamplingWorker != null) {
       spanSamplingWorker.close();
     }
-    serializerThread.interrupt();
-    try {
-      serializerThread.join(THREAD_JOIN_TIMOUT_MS);
-    } catch (InterruptedException ignored) {
+    for (Thread serializerThread : serializerThreads) {
+      serializerThread.interrupt();
+    }
+    for (Thread serializerThread : serializerThreads) {
+      try {
+        serializerThread.join(THREAD_JOIN_TIMOUT_MS);
+      } catch (InterruptedException ignored) {
+      }
     }
   }
 
@@ -117,13 +168,152 @@ public class TraceProcessingWorker implements AutoCloseable {
 
   public long getRemainingCapacity() {
     // only advertise primary capacity (partly to keep test which aims to saturate the queue happy)
-    return primaryQueue.remainingCapacity();
+    long remainingCapacity = 0;
+    for (MpscBlockingConsumerArrayQueue<Object> queue : primaryQueues) {
+      remainingCapacity += queue.remainingCapacity();
+    }
+    return remainingCapacity;
   }
 
   private static MpscBlockingConsumerArrayQueue<Object> createQueue(int capacity) {
     return new MpscBlockingConsumerArrayQueue<>(capacity);
   }
 
+  /**
+   * View over the serializer shards' queues, which routes each trace to a shard by its trace id so
+   * that all the chunks of a trace are serialized by the same shard. Anything else is routed to the
+   * first shard. Every other operation is delegated to the shards in turn, with the same
+   * restrictions as the shards themselves, e.g. elements may only be polled by their consumer.
+   */
+  private static final class ShardingQueue extends AbstractQueue<Object> {
+
+    private final List<MpscBlockingConsumerArrayQueue<Object>> shards;
+
+    private ShardingQueue(List<MpscBlockingConsumerArrayQueue<Object>> shards) {
+      this.shards = shards;
+    }
+
+    @Override
+    public boolean offer(Object event) {
+      return shards.get(shardOf(event)).offer(event);
+    }
+
+    private int shardOf(Object event) {
+      if (event instanceof List && !((List<?>) event).isEmpty()) {
+        Object span = ((List<?>) event).get(0);
+        if (span instanceof CoreSpan) {
+          DDTraceId traceId = ((CoreSpan<?>) span).getTraceId();
+          if (null != traceId) {
+            return (int) ((traceId.toLong() & Long.MAX_VALUE) % shards.size());
+          }
+        }
+      }
+      return 0;
+    }
+
+    @Override
+    public int size() {
+      int size = 0;
+      for (MpscBlockingConsumerArrayQueue<Object> shard : shards) {
+        size += shard.size();
+      }
+      return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      for (MpscBlockingConsumerArrayQueue<Object> shard : shards) {
+        if (!shard.isEmpty()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public Object poll() {
+      for (MpscBlockingConsumerArrayQueue<Object> shard : shards) {
+        Object event = shard.poll();
+        if (null != event) {
+          return event;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public Object peek() {
+      for (MpscBlockingConsumerArrayQueue<Object> shard : shards) {
+        Object event = shard.peek();
+        if (null != event) {
+          return event;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public void clear() {
+      for (MpscBlockingConsumerArrayQueue<Object> shard : shards) {
+        shard.clear();
+      }
+    }
+
+    @Override
+    public boolean contains(Object event) {
+      for (MpscBlockingConsumerArrayQueue<Object> shard : shards) {
+        if (shard.contains(event)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public boolean remove(Object event) {
+      for (MpscBlockingConsumerArrayQueue<Object> shard : shards) {
+        if (shard.remove(event)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+      return new Iterator<Object>() {
+        private int next;
+        private Iterator<Object> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+          while (!current.hasNext() && next < shards.size()) {
+            current = shards.get(next++).iterator();
+          }
+          return current.hasNext();
+        }
+
+        @Override
+        public Object next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return current.next();
+        }
+
+        @Override
+        public void remove() {
+          current.remove();
+        }
+      };
+    }
+
+    @Override
+    public String toString() {
+      return shards.toString();
+    }
+  }
+
   public static class TraceSerializingHandler
       implements Runnable, MessagePassingQueue.Consumer<Object> {
 
@@ -167,6 +357,7 @@ public class TraceProcessingWorker implements AutoCloseable {
           payloadDispatcher.addTrace(trace);
         } else if (event instanceof FlushEvent) {
           payloadDispatcher.flush();
+          payloadDispatcher.awaitInFlightPayloads();
           ((FlushEvent) event).sync();
         }
       } catch (final Throwable e) {
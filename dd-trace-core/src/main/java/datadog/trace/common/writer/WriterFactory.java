@@ -164,6 +164,9 @@ public class WriterFactory {
               .healthMetrics(new HealthMetrics(statsDClient))
               .monitoring(commObjects.monitoring)
               .alwaysFlush(alwaysFlush)
+              .maxInFlightPayloads(config.getWriterMaxInFlightPayloads())
+              .serializerShards(config.getWriterSerializerShards())
+              .directBuffers(config.isWriterDirectBuffersEnabled())
               .spanSamplingRules(singleSpanSampler)
               .build();
     }
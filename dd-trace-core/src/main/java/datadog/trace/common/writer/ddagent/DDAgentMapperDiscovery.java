@@ -1,6 +1,7 @@
 package datadog.trace.common.writer.ddagent;
 
 import datadog.communication.ddagent.DDAgentFeaturesDiscovery;
+import datadog.communication.serialization.DirectBufferPool;
 import datadog.trace.common.writer.RemoteMapper;
 import datadog.trace.common.writer.RemoteMapperDiscovery;
 
@@ -12,13 +13,25 @@ import datadog.trace.common.writer.RemoteMapperDiscovery;
 public class DDAgentMapperDiscovery implements RemoteMapperDiscovery {
 
   private final DDAgentFeaturesDiscovery featuresDiscovery;
+  private final DirectBufferPool bufferPool;
   private TraceMapper traceMapper;
 
   public DDAgentMapperDiscovery(final DDAgentFeaturesDiscovery featuresDiscovery) {
+    this(featuresDiscovery, null);
+  }
+
+  /** @param bufferPool if not null, mappers keep their own buffers in this pool */
+  public DDAgentMapperDiscovery(
+      final DDAgentFeaturesDiscovery featuresDiscovery, final DirectBufferPool bufferPool) {
     this.featuresDiscovery = featuresDiscovery;
+    this.bufferPool = bufferPool;
   }
 
   private void reset() {
+    if (null != traceMapper) {
+      // the endpoint changed, e.g. the agent was downgraded from v0.5 to v0.4
+      traceMapper.release();
+    }
     this.traceMapper = null;
   }
 
@@ -30,7 +43,10 @@ public class DDAgentMapperDiscovery implements RemoteMapperDiscovery {
     }
     String tracesUrl = featuresDiscovery.getTraceEndpoint();
     if (DDAgentFeaturesDiscovery.V5_ENDPOINT.equalsIgnoreCase(tracesUrl)) {
-      this.traceMapper = new TraceMapperV0_5();
+      this.traceMapper =
+          null == bufferPool
+              ? new TraceMapperV0_5()
+              : new TraceMapperV0_5(2 << 20, 2 << 20, bufferPool);
     } else if (null != tracesUrl) {
       this.traceMapper = new TraceMapperV0_4();
     }
@@ -0,0 +1,214 @@
+package datadog.trace.common.writer.ddagent;
+
+import datadog.communication.serialization.GrowableBuffer;
+import datadog.communication.serialization.Mapper;
+import datadog.communication.serialization.WritableFormatter;
+import datadog.communication.serialization.msgpack.MsgPackWriter;
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns the codes of the strings in a v0.5 payload's dictionary, and writes each string into the
+ * dictionary the first time it is seen in the payload.
+ *
+ * <p>The codes are only valid for a single payload, but the msgpack encoding of a string isn't, so
+ * strings which recur across payloads are kept pre-encoded and are copied into the dictionary
+ * rather than encoded again. A string is only cached once it has been seen in an earlier payload.
+ * Cached strings are looked up in an open addressing table, recording the payload each code was
+ * assigned in, so that codes don't need to be boxed or cleared between payloads. The cache is
+ * bounded in entries and bytes: once full, the strings which weren't used in the last payload are
+ * evicted, and strings which don't fit are encoded into every payload as they used to be.
+ */
+final class DictionaryEncoding {
+
+  /** Strings which encode to more than this are unlikely to recur, so aren't cached. */
+  static final int MAX_CACHED_LENGTH = 256;
+
+  private final GrowableBuffer dictionary;
+  private final WritableFormatter dictionaryWriter;
+  private final Mapper<Object> dictionaryMapper;
+  private final GrowableBuffer scratch = new GrowableBuffer(MAX_CACHED_LENGTH);
+  private final WritableFormatter scratchWriter = new MsgPackWriter(scratch);
+  private final Map<Object, Integer> uncached = new HashMap<>();
+
+  private final int maxCachedEntries;
+  private final int maxCachedBytes;
+  private Object[] keys;
+  private byte[][] encoded;
+  private int[] codes;
+  private int[] payloads;
+  private Object[] spareKeys;
+  private byte[][] spareEncoded;
+  private int[] spareCodes;
+  private int[] sparePayloads;
+  private final long[] seen;
+  private int cachedEntries;
+  private int cachedBytes;
+  private int payload = 1;
+
+  DictionaryEncoding(
+      GrowableBuffer dictionary,
+      WritableFormatter dictionaryWriter,
+      Mapper<Object> dictionaryMapper,
+      int maxCachedEntries,
+      int maxCachedBytes) {
+    this.dictionary = dictionary;
+    this.dictionaryWriter = dictionaryWriter;
+    this.dictionaryMapper = dictionaryMapper;
+    this.maxCachedEntries = maxCachedEntries;
+    this.maxCachedBytes = maxCachedBytes;
+    int capacity = Integer.highestOneBit(Math.max(maxCachedEntries, 1)) << 2;
+    this.keys = new Object[capacity];
+    this.encoded = new byte[capacity][];
+    this.codes = new int[capacity];
+    this.payloads = new int[capacity];
+    // the table is rebuilt into these when evicting
+    this.spareKeys = new Object[capacity];
+    this.spareEncoded = new byte[capacity][];
+    this.spareCodes = new int[capacity];
+    this.sparePayloads = new int[capacity];
+    this.seen = new long[Math.max(capacity >>> 4, 64)];
+  }
+
+  /** @return the code of the value in the current payload's dictionary */
+  int encode(Object value) {
+    boolean cacheable = value instanceof String || value instanceof UTF8BytesString;
+    int slot = -1;
+    if (cacheable) {
+      slot = slotOf(value);
+      if (slot >= 0) {
+        if (payloads[slot] != payload) {
+          dictionary.put(encoded[slot]);
+          codes[slot] = append();
+          payloads[slot] = payload;
+        }
+        return codes[slot];
+      }
+    }
+    Integer code = uncached.get(value);
+    if (null != code) {
+      return code;
+    }
+    if (cacheable
+        && cachedEntries < maxCachedEntries
+        && ((CharSequence) value).length() <= MAX_CACHED_LENGTH
+        && seenBefore(value)) {
+      return cache(value, -slot - 1);
+    }
+    dictionaryWriter.format(value, dictionaryMapper);
+    code = dictionary.messageCount() - 1;
+    uncached.put(value, code);
+    return code;
+  }
+
+  /** Forgets the codes assigned in the current payload. */
+  void reset() {
+    uncached.clear();
+    if (cachedEntries >= maxCachedEntries || cachedBytes >= maxCachedBytes) {
+      evictUnused();
+    }
+    if (++payload == 0) {
+      Arrays.fill(payloads, 0);
+      payload = 1;
+    }
+  }
+
+  int cachedEntries() {
+    return cachedEntries;
+  }
+
+  int cachedBytes() {
+    return cachedBytes;
+  }
+
+  private int cache(Object value, int slot) {
+    scratchWriter.format(value, dictionaryMapper);
+    ByteBuffer buffer = scratch.slice();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    scratch.reset();
+    dictionary.put(bytes);
+    int code = append();
+    if (bytes.length <= MAX_CACHED_LENGTH && cachedBytes + bytes.length <= maxCachedBytes) {
+      keys[slot] = value;
+      encoded[slot] = bytes;
+      codes[slot] = code;
+      payloads[slot] = payload;
+      ++cachedEntries;
+      cachedBytes += bytes.length;
+    } else {
+      uncached.put(value, code);
+    }
+    return code;
+  }
+
+  /**
+   * Only strings seen in an earlier payload are cached, so that strings which never recur don't
+   * take up the cache.
+   */
+  private boolean seenBefore(Object value) {
+    int hash = value.hashCode() * 0x9E3779B9;
+    int index = (hash >>> 6) & (seen.length - 1);
+    long bit = 1L << hash;
+    boolean seenBefore = (seen[index] & bit) != 0;
+    seen[index] |= bit;
+    return seenBefore;
+  }
+
+  private int append() {
+    dictionary.mark();
+    return dictionary.messageCount() - 1;
+  }
+
+  /** @return the slot of the value, or {@code -(slot to insert at) - 1} if it isn't cached */
+  private int slotOf(Object value) {
+    int mask = keys.length - 1;
+    int hash = value.hashCode();
+    for (int i = (hash ^ (hash >>> 16)) & mask; ; i = (i + 1) & mask) {
+      Object key = keys[i];
+      if (null == key) {
+        return -i - 1;
+      }
+      // like the per-payload map, strings and UTF8BytesStrings with the same contents don't match
+      if (key == value || key.equals(value)) {
+        return i;
+      }
+    }
+  }
+
+  private void evictUnused() {
+    Object[] oldKeys = keys;
+    byte[][] oldEncoded = encoded;
+    int[] oldCodes = codes;
+    int[] oldPayloads = payloads;
+    keys = spareKeys;
+    encoded = spareEncoded;
+    codes = spareCodes;
+    payloads = sparePayloads;
+    cachedEntries = 0;
+    cachedBytes = 0;
+    for (int i = 0; i < oldKeys.length; ++i) {
+      if (null != oldKeys[i] && oldPayloads[i] == payload) {
+        int slot = -slotOf(oldKeys[i]) - 1;
+        keys[slot] = oldKeys[i];
+        encoded[slot] = oldEncoded[i];
+        codes[slot] = oldCodes[i];
+        payloads[slot] = oldPayloads[i];
+        ++cachedEntries;
+        cachedBytes += oldEncoded[i].length;
+      }
+    }
+    // the evicted strings need to recur before they are cached again
+    Arrays.fill(seen, 0L);
+    Arrays.fill(oldKeys, null);
+    Arrays.fill(oldEncoded, null);
+    Arrays.fill(oldPayloads, 0);
+    spareKeys = oldKeys;
+    spareEncoded = oldEncoded;
+    spareCodes = oldCodes;
+    sparePayloads = oldPayloads;
+  }
+}
@@ -8,6 +8,7 @@ import datadog.trace.common.writer.Payload;
 import datadog.trace.core.CoreSpan;
 import datadog.trace.core.Metadata;
 import datadog.trace.core.MetadataConsumer;
+import datadog.trace.core.TagMap;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
@@ -28,7 +29,7 @@ public final class TraceMapperV0_4 implements TraceMapper {
     this(5 << 20);
   }
 
-  private static final class MetaWriter extends MetadataConsumer {
+  private static final class MetaWriter extends MetadataConsumer implements TagMap.Visitor {
 
     private Writable writable;
     private boolean writeSamplingPriority;
@@ -56,12 +57,9 @@ public final class TraceMapperV0_4 implements TraceMapper {
               + (metadata.measured() ? 1 : 0)
               + (metadata.topLevel() ? 1 : 0)
               + 1;
-      for (Map.Entry<String, Object> tag : metadata.getTags().entrySet()) {
-        if (tag.getValue() instanceof Number) {
-          ++metricsSize;
-          --metaSize;
-        }
-      }
+      TagMap tags = metadata.getTags();
+      metricsSize += tags.numberCount();
+      metaSize -= tags.numberCount();
       writable.writeUTF8(METRICS);
       writable.startMap(metricsSize);
       if (writeSamplingPriority && metadata.hasSamplingPriority()) {
@@ -78,12 +76,7 @@ public final class TraceMapperV0_4 implements TraceMapper {
       }
       writable.writeUTF8(THREAD_ID);
       writable.writeLong(metadata.getThreadId());
-      for (Map.Entry<String, Object> entry : metadata.getTags().entrySet()) {
-        if (entry.getValue() instanceof Number) {
-          writable.writeString(entry.getKey(), null);
-          writable.writeObject(entry.getValue(), null);
-        }
-      }
+      tags.visitNumbers(this);
 
       writable.writeUTF8(META);
       writable.startMap(metaSize);
@@ -104,13 +97,42 @@ public final class TraceMapperV0_4 implements TraceMapper {
         writable.writeUTF8(ORIGIN_KEY);
         writable.writeString(metadata.getOrigin(), null);
       }
-      for (Map.Entry<String, Object> entry : metadata.getTags().entrySet()) {
-        if (!(entry.getValue() instanceof Number)) {
-          writable.writeString(entry.getKey(), null);
-          writable.writeObjectString(entry.getValue(), null);
-        }
+      tags.visitNonNumbers(this);
+    }
+
+    @Override
+    public void visitObject(String key, Object value) {
+      writable.writeString(key, null);
+      if (value instanceof Number) {
+        writable.writeObject(value, null);
+      } else {
+        writable.writeObjectString(value, null);
       }
     }
+
+    @Override
+    public void visitInt(String key, int value) {
+      writable.writeString(key, null);
+      writable.writeInt(value);
+    }
+
+    @Override
+    public void visitLong(String key, long value) {
+      writable.writeString(key, null);
+      writable.writeLong(value);
+    }
+
+    @Override
+    public void visitFloat(String key, float value) {
+      writable.writeString(key, null);
+      writable.writeFloat(value);
+    }
+
+    @Override
+    public void visitDouble(String key, double value) {
+      writable.writeString(key, null);
+      writable.writeDouble(value);
+    }
   }
 
   private final MetaWriter metaWriter = new MetaWriter();
@@ -172,6 +194,9 @@ public final class TraceMapperV0_4 implements TraceMapper {
   @Override
   public void reset() {}
 
+  @Override
+  public void release() {}
+
   @Override
   public String endpoint() {
     return "v0.4";
@@ -2,10 +2,10 @@ package datadog.trace.common.writer.ddagent;
 
 import static datadog.communication.http.OkHttpUtils.msgpackRequestBodyOf;
 
+import datadog.communication.serialization.DirectBufferPool;
 import datadog.communication.serialization.GrowableBuffer;
 import datadog.communication.serialization.Mapper;
 import datadog.communication.serialization.Writable;
-import datadog.communication.serialization.WritableFormatter;
 import datadog.communication.serialization.msgpack.MsgPackWriter;
 import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
@@ -13,21 +13,23 @@ import datadog.trace.common.writer.Payload;
 import datadog.trace.core.CoreSpan;
 import datadog.trace.core.Metadata;
 import datadog.trace.core.MetadataConsumer;
+import datadog.trace.core.TagMap;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import okhttp3.RequestBody;
 
 public final class TraceMapperV0_5 implements TraceMapper {
 
-  private final WritableFormatter dictionaryWriter;
-  private final DictionaryMapper dictionaryMapper = new DictionaryMapper();
-  private final Map<Object, Integer> encoding = new HashMap<>();
+  private static final int MAX_CACHED_STRINGS = 2048;
+  private static final int MAX_CACHED_STRING_BYTES = 128 << 10;
+
+  private final DictionaryEncoding encoding;
   private final GrowableBuffer dictionary;
+  private final DirectBufferPool bufferPool;
 
   private final MetaWriter metaWriter = new MetaWriter();
   private final int size;
@@ -37,10 +39,28 @@ public final class TraceMapperV0_5 implements TraceMapper {
   }
 
   public TraceMapperV0_5(int dictionarySize, int bufferSize) {
+    this(dictionarySize, bufferSize, null);
+  }
+
+  /**
+   * @param bufferPool if not null, the dictionary and the copies of it taken by payloads sent
+   *     asynchronously are kept in direct buffers from this pool
+   */
+  public TraceMapperV0_5(int dictionarySize, int bufferSize, DirectBufferPool bufferPool) {
     // growable buffer is implicitly bounded by the fixed size buffer
     // the messages themselves are written into
-    this.dictionary = new GrowableBuffer(bufferSize);
-    this.dictionaryWriter = new MsgPackWriter(dictionary);
+    this.dictionary =
+        null == bufferPool
+            ? new GrowableBuffer(bufferSize)
+            : new GrowableBuffer(bufferSize, bufferPool);
+    this.bufferPool = bufferPool;
+    this.encoding =
+        new DictionaryEncoding(
+            dictionary,
+            new MsgPackWriter(dictionary),
+            new DictionaryMapper(),
+            MAX_CACHED_STRINGS,
+            MAX_CACHED_STRING_BYTES);
     this.size = bufferSize;
     reset();
   }
@@ -84,23 +104,14 @@ public final class TraceMapperV0_5 implements TraceMapper {
   }
 
   private void writeDictionaryEncoded(final Writable writable, final Object value) {
-    final Object target = null == value ? "" : value;
-    final Integer encoded = encoding.get(target);
-    if (null == encoded) {
-      dictionaryWriter.format(target, dictionaryMapper);
-      final int dictionaryCode = dictionary.messageCount() - 1;
-      encoding.put(target, dictionaryCode);
-      // this call can fail, but the dictionary has been written to now
-      // so should make sure dictionary state is consistent first
-      writable.writeInt(dictionaryCode);
-    } else {
-      writable.writeInt(encoded);
-    }
+    // this call can fail, but the dictionary has been written to
+    // by then, so its state is consistent
+    writable.writeInt(encoding.encode(null == value ? "" : value));
   }
 
   @Override
   public Payload newPayload() {
-    return new PayloadV0_5(dictionary.slice(), dictionary.messageCount());
+    return new PayloadV0_5(dictionary.slice(), dictionary.messageCount(), bufferPool);
   }
 
   @Override
@@ -111,7 +122,13 @@ public final class TraceMapperV0_5 implements TraceMapper {
   @Override
   public void reset() {
     dictionary.reset();
-    encoding.clear();
+    encoding.reset();
+  }
+
+  /** Gives the dictionary back to the buffer pool, if it was taken from one. */
+  @Override
+  public void release() {
+    dictionary.release();
   }
 
   @Override
@@ -133,12 +150,39 @@ public final class TraceMapperV0_5 implements TraceMapper {
 
   private static class PayloadV0_5 extends Payload {
 
-    private final ByteBuffer dictionary;
+    private ByteBuffer dictionary;
     private final int stringCount;
+    private final DirectBufferPool bufferPool;
+    private boolean pooledDictionary;
 
-    private PayloadV0_5(ByteBuffer dictionary, int stringCount) {
+    private PayloadV0_5(ByteBuffer dictionary, int stringCount, DirectBufferPool bufferPool) {
       this.dictionary = dictionary;
       this.stringCount = stringCount;
+      this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public Payload detach() {
+      // the dictionary is a view of the mapper's buffer which is overwritten after a reset
+      ByteBuffer copy;
+      if (null == bufferPool) {
+        copy = ByteBuffer.allocate(dictionary.remaining());
+      } else {
+        copy = bufferPool.acquire(dictionary.remaining());
+        pooledDictionary = true;
+      }
+      copy.put(dictionary.duplicate());
+      copy.flip();
+      this.dictionary = copy;
+      return this;
+    }
+
+    @Override
+    public void release() {
+      if (pooledDictionary) {
+        pooledDictionary = false;
+        bufferPool.release(dictionary);
+      }
     }
 
     @Override
@@ -175,7 +219,7 @@ public final class TraceMapperV0_5 implements TraceMapper {
     }
   }
 
-  private final class MetaWriter extends MetadataConsumer {
+  private final class MetaWriter extends MetadataConsumer implements TagMap.Visitor {
 
     private Writable writable;
     private boolean writeSamplingPriority;
@@ -203,12 +247,9 @@ public final class TraceMapperV0_5 implements TraceMapper {
               + (metadata.measured() ? 1 : 0)
               + (metadata.topLevel() ? 1 : 0)
               + 1;
-      for (Map.Entry<String, Object> tag : metadata.getTags().entrySet()) {
-        if (tag.getValue() instanceof Number) {
-          ++metricsSize;
-          --metaSize;
-        }
-      }
+      TagMap tags = metadata.getTags();
+      metricsSize += tags.numberCount();
+      metaSize -= tags.numberCount();
       writable.startMap(metaSize);
       // we don't need to deduplicate any overlap between tags and baggage here
       // since they will be accumulated into maps in the same order downstream,
@@ -227,12 +268,7 @@ public final class TraceMapperV0_5 implements TraceMapper {
         writeDictionaryEncoded(writable, ORIGIN_KEY);
         writeDictionaryEncoded(writable, metadata.getOrigin());
       }
-      for (Map.Entry<String, Object> entry : metadata.getTags().entrySet()) {
-        if (!(entry.getValue() instanceof Number)) {
-          writeDictionaryEncoded(writable, entry.getKey());
-          writeDictionaryEncoded(writable, entry.getValue());
-        }
-      }
+      tags.visitNonNumbers(this);
       writable.startMap(metricsSize);
       if (writeSamplingPriority && metadata.hasSamplingPriority()) {
         writeDictionaryEncoded(writable, SAMPLING_PRIORITY_KEY);
@@ -248,12 +284,41 @@ public final class TraceMapperV0_5 implements TraceMapper {
       }
       writeDictionaryEncoded(writable, THREAD_ID);
       writable.writeLong(metadata.getThreadId());
-      for (Map.Entry<String, Object> entry : metadata.getTags().entrySet()) {
-        if (entry.getValue() instanceof Number) {
-          writeDictionaryEncoded(writable, entry.getKey());
-          writable.writeObject(entry.getValue(), null);
-        }
+      tags.visitNumbers(this);
+    }
+
+    @Override
+    public void visitObject(String key, Object value) {
+      writeDictionaryEncoded(writable, key);
+      if (value instanceof Number) {
+        writable.writeObject(value, null);
+      } else {
+        writeDictionaryEncoded(writable, value);
       }
     }
+
+    @Override
+    public void visitInt(String key, int value) {
+      writeDictionaryEncoded(writable, key);
+      writable.writeInt(value);
+    }
+
+    @Override
+    public void visitLong(String key, long value) {
+      writeDictionaryEncoded(writable, key);
+      writable.writeLong(value);
+    }
+
+    @Override
+    public void visitFloat(String key, float value) {
+      writeDictionaryEncoded(writable, key);
+      writable.writeFloat(value);
+    }
+
+    @Override
+    public void visitDouble(String key, double value) {
+      writeDictionaryEncoded(writable, key);
+      writable.writeDouble(value);
+    }
   }
 }
@@ -123,6 +123,8 @@ public class CoreTracer implements AgentTracer.TracerAPI {
   private volatile long counterDrift;
 
   private final PendingTraceBuffer pendingTraceBuffer;
+  /** Completes the written traces on a tracer thread, when enabled. */
+  private final TraceCompletionWorker traceCompletionWorker;
 
   /** Default service name if none provided on the trace or span */
   final String serviceName;
@@ -498,6 +500,7 @@ public class CoreTracer implements AgentTracer.TracerAPI {
               this.statsDClient,
               config.isScopeStrictMode(),
               config.isScopeInheritAsyncPropagation(),
+              config.isScopeRecyclingEnabled(),
               profilingContextIntegration,
               this.healthMetrics);
       this.scopeManager = csm;
@@ -527,7 +530,8 @@ public class CoreTracer implements AgentTracer.TracerAPI {
     this.pendingTraceBuffer =
         strictTraceWrites
             ? PendingTraceBuffer.discarding()
-            : PendingTraceBuffer.delaying(this.timeSource);
+            : PendingTraceBuffer.delaying(
+                this.timeSource, config.getPendingTraceBufferSize(), healthMetrics);
     pendingTraceFactory =
         new PendingTrace.Factory(
             this,
@@ -538,6 +542,15 @@ public class CoreTracer implements AgentTracer.TracerAPI {
             healthMetrics);
     pendingTraceBuffer.start();
 
+    if (config.isTraceAsyncCompletionEnabled()) {
+      traceCompletionWorker =
+          new TraceCompletionWorker(
+              TraceCompletionWorker.DEFAULT_CAPACITY, this::writeCompletedTrace, healthMetrics);
+      traceCompletionWorker.start();
+    } else {
+      traceCompletionWorker = null;
+    }
+
     this.writer.start();
 
     metricsAggregator = createMetricsAggregator(config, sharedCommunicationObjects);
@@ -549,7 +562,8 @@ public class CoreTracer implements AgentTracer.TracerAPI {
 
     if (dataStreamsCheckpointer == null) {
       this.dataStreamsCheckpointer =
-          createDataStreamsCheckpointer(config, sharedCommunicationObjects, this.timeSource);
+          createDataStreamsCheckpointer(
+              config, sharedCommunicationObjects, this.timeSource, healthMetrics);
     } else {
       this.dataStreamsCheckpointer = dataStreamsCheckpointer;
     }
@@ -840,8 +854,8 @@ public class CoreTracer implements AgentTracer.TracerAPI {
   private final RatelimitedLogger rlLog = new RatelimitedLogger(log, 1, MINUTES);
 
   /**
-   * We use the sampler to know if the trace has to be reported/written. The sampler is called on
-   * the first span (root span) of the trace. If the trace is marked as a sample, we report it.
+   * Completes the trace, then writes it, or queues it to be written on a tracer thread when async
+   * completion is enabled, see {@link #completeTrace(List)}.
    *
    * @param trace a list of the spans related to the same trace
    */
@@ -849,6 +863,21 @@ public class CoreTracer implements AgentTracer.TracerAPI {
     if (trace.isEmpty()) {
       return;
     }
+    List<DDSpan> writtenTrace = completeTrace(trace);
+    if (null != writtenTrace
+        && (null == traceCompletionWorker || !traceCompletionWorker.offer(writtenTrace))) {
+      writeCompletedTrace(writtenTrace);
+    }
+  }
+
+  /**
+   * We use the sampler to know if the trace has to be reported/written. The sampler is called on
+   * the first span (root span) of the trace. If the trace is marked as a sample, we report it.
+   *
+   * @param trace a list of the spans related to the same trace
+   * @return the trace to write, or {@code null} if it was dropped
+   */
+  private List<DDSpan> completeTrace(final List<DDSpan> trace) {
     List<DDSpan> writtenTrace = trace;
     if (!interceptors.isEmpty()) {
       Collection<? extends MutableSpan> interceptedTrace = new ArrayList<>(trace);
@@ -869,51 +898,54 @@ public class CoreTracer implements AgentTracer.TracerAPI {
       }
     }
 
-    if (!writtenTrace.isEmpty()) {
-      boolean forceKeep = metricsAggregator.publish(writtenTrace);
-
-      DDSpan rootSpan = writtenTrace.get(0).getLocalRootSpan();
-      setSamplingPriorityIfNecessary(rootSpan);
-
-      DDSpan spanToSample = rootSpan == null ? writtenTrace.get(0) : rootSpan;
-      spanToSample.forceKeep(forceKeep);
-      boolean published = forceKeep || sampler.sample(spanToSample);
-      if (published) {
-        if (TracingContextTrackerFactory.isTrackingAvailable()) {
-          for (DDSpan span : writtenTrace) {
-            int stored = span.storeContextToTag();
-            if (stored > -1) {
-              log.trace(
-                  "Sending statsd metric 'tracing.context.size'={} (client={})",
-                  stored,
-                  statsDClient);
-              statsDClient.histogram("tracing.context.size", stored);
-            }
-          }
+    if (writtenTrace.isEmpty()) {
+      return null;
+    }
+    boolean forceKeep = metricsAggregator.publish(writtenTrace);
+
+    DDSpan rootSpan = writtenTrace.get(0).getLocalRootSpan();
+    setSamplingPriorityIfNecessary(rootSpan);
+
+    DDSpan spanToSample = rootSpan == null ? writtenTrace.get(0) : rootSpan;
+    spanToSample.forceKeep(forceKeep);
+    boolean published = forceKeep || sampler.sample(spanToSample);
+    if (!published) {
+      // with span streaming this won't work - it needs to be changed
+      // to track an effective sampling rate instead, however, tests
+      // checking that a hard reference on a continuation prevents
+      // reporting fail without this, so will need to be fixed first.
+      writer.incrementDropCounts(writtenTrace.size());
+    }
+    if (null != rootSpan) {
+      onRootSpanFinished(rootSpan, published);
+
+      // request context is propagated to contexts in child spans
+      // Assume here that if present it will be so starting in the top span
+      RequestContext requestContext = rootSpan.getRequestContext();
+      if (requestContext != null) {
+        try {
+          requestContext.close();
+        } catch (IOException e) {
+          log.warn("Error closing request context data", e);
         }
-        writer.write(writtenTrace);
-      } else {
-        // with span streaming this won't work - it needs to be changed
-        // to track an effective sampling rate instead, however, tests
-        // checking that a hard reference on a continuation prevents
-        // reporting fail without this, so will need to be fixed first.
-        writer.incrementDropCounts(writtenTrace.size());
       }
-      if (null != rootSpan) {
-        onRootSpanFinished(rootSpan, published);
+    }
+    return published ? writtenTrace : null;
+  }
 
-        // request context is propagated to contexts in child spans
-        // Assume here that if present it will be so starting in the top span
-        RequestContext requestContext = rootSpan.getRequestContext();
-        if (requestContext != null) {
-          try {
-            requestContext.close();
-          } catch (IOException e) {
-            log.warn("Error closing request context data", e);
-          }
+  /** Stores the profiling context of the spans, and hands the sampled trace over to the writer. */
+  void writeCompletedTrace(final List<DDSpan> trace) {
+    if (TracingContextTrackerFactory.isTrackingAvailable()) {
+      for (DDSpan span : trace) {
+        int stored = span.storeContextToTag();
+        if (stored > -1) {
+          log.trace(
+              "Sending statsd metric 'tracing.context.size'={} (client={})", stored, statsDClient);
+          statsDClient.histogram("tracing.context.size", stored);
         }
       }
     }
+    writer.write(trace);
   }
 
   @SuppressWarnings("unchecked")
@@ -989,6 +1021,9 @@ public class CoreTracer implements AgentTracer.TracerAPI {
   @Override
   public void close() {
     pendingTraceBuffer.close();
+    if (traceCompletionWorker != null) {
+      traceCompletionWorker.close();
+    }
     writer.close();
     statsDClient.close();
     metricsAggregator.close();
@@ -1016,6 +1051,9 @@ public class CoreTracer implements AgentTracer.TracerAPI {
   @Override
   public void flush() {
     pendingTraceBuffer.flush();
+    if (traceCompletionWorker != null) {
+      traceCompletionWorker.flush(1, SECONDS);
+    }
     writer.flush();
   }
 
@@ -1077,9 +1115,13 @@ public class CoreTracer implements AgentTracer.TracerAPI {
 
   @SuppressForbidden
   private static DataStreamsCheckpointer createDataStreamsCheckpointer(
-      Config config, SharedCommunicationObjects sharedCommunicationObjects, TimeSource timeSource) {
+      Config config,
+      SharedCommunicationObjects sharedCommunicationObjects,
+      TimeSource timeSource,
+      HealthMetrics healthMetrics) {
     if (config.isDataStreamsEnabled()) {
-      return new DefaultDataStreamsCheckpointer(config, sharedCommunicationObjects, timeSource);
+      return new DefaultDataStreamsCheckpointer(
+          config, sharedCommunicationObjects, timeSource, healthMetrics);
     } else {
       log.debug("Data streams monitoring not enabled.");
       return new StubDataStreamsCheckpointer();
@@ -82,13 +82,13 @@ public class DDSpanContext implements AgentSpan.Context, RequestContext, TraceSe
   /**
    * Tags are associated to the current span, they will not propagate to the children span.
    *
-   * <p>The underlying assumption for using a normal Map with synchronized access instead of a
+   * <p>The underlying assumption for using a TagMap with synchronized access instead of a
    * ConcurrentHashMap is that even though the tags can be accessed and modified from multiple
    * threads, they will rarely, if ever, be read and modified concurrently by multiple threads but
    * rather read and accessed in a serial fashion on thread after thread. The synchronization can
    * then be wrapped around bulk operations to minimize the costly atomic operations.
    */
-  private final Map<String, Object> unsafeTags;
+  private final TagMap unsafeTags;
 
   /** The service name is required, otherwise the span are dropped by the agent */
   private volatile String serviceName;
@@ -169,10 +169,8 @@ public class DDSpanContext implements AgentSpan.Context, RequestContext, TraceSe
     assert pathwayContext != null;
     this.pathwayContext = pathwayContext;
 
-    // The +1 is the magic number from the tags below that we set at the end,
-    // and "* 4 / 3" is to make sure that we don't resize immediately
-    final int capacity = Math.max((tagsSize <= 0 ? 3 : (tagsSize + 1)) * 4 / 3, 8);
-    this.unsafeTags = new HashMap<>(capacity);
+    // The +1 is the magic number from the tags below that we set at the end
+    this.unsafeTags = new TagMap(tagsSize <= 0 ? 3 : (tagsSize + 1));
 
     setServiceName(serviceName);
     this.operationName = operationName;
@@ -503,6 +501,30 @@ public class DDSpanContext implements AgentSpan.Context, RequestContext, TraceSe
     }
   }
 
+  public void setMetric(final CharSequence key, final int value) {
+    synchronized (unsafeTags) {
+      unsafeTags.set(key.toString(), value);
+    }
+  }
+
+  public void setMetric(final CharSequence key, final long value) {
+    synchronized (unsafeTags) {
+      unsafeTags.set(key.toString(), value);
+    }
+  }
+
+  public void setMetric(final CharSequence key, final float value) {
+    synchronized (unsafeTags) {
+      unsafeTags.set(key.toString(), value);
+    }
+  }
+
+  public void setMetric(final CharSequence key, final double value) {
+    synchronized (unsafeTags) {
+      unsafeTags.set(key.toString(), value);
+    }
+  }
+
   /**
    * Add a tag to the span. Tags are not propagated to the children
    *
@@ -537,7 +559,7 @@ public class DDSpanContext implements AgentSpan.Context, RequestContext, TraceSe
   }
 
   void unsafeSetTag(final String tag, final Object value) {
-    unsafeTags.put(tag, value);
+    unsafeTags.set(tag, value);
   }
 
   Object getTag(final String key) {
@@ -569,14 +591,15 @@ public class DDSpanContext implements AgentSpan.Context, RequestContext, TraceSe
 
   public Map<String, Object> getTags() {
     synchronized (unsafeTags) {
-      Map<String, Object> tags = new HashMap<>(unsafeTags);
-      tags.put(DDTags.THREAD_ID, threadId);
-      tags.put(DDTags.THREAD_NAME, threadName.toString());
+      // a copy, not a view: the tags can change under the lock while the caller reads them
+      TagMap tags = unsafeTags.copy();
+      tags.set(DDTags.THREAD_ID, threadId);
+      tags.set(DDTags.THREAD_NAME, threadName.toString());
       if (samplingPriority != PrioritySampling.UNSET) {
-        tags.put(SAMPLE_RATE_KEY, samplingPriority);
+        tags.set(SAMPLE_RATE_KEY, samplingPriority);
       }
       if (httpStatusCode != 0) {
-        tags.put(Tags.HTTP_STATUS, (int) httpStatusCode);
+        tags.set(Tags.HTTP_STATUS, (int) httpStatusCode);
       }
       return Collections.unmodifiableMap(tags);
     }
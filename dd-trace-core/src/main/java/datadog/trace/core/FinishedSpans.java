@@ -0,0 +1,235 @@
+package datadog.trace.core;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * The finished spans of a trace, waiting to be written, in chunks of spans which are appended to
+ * without locking and handed over to the writer whole.
+ *
+ * <p>Spans are appended by claiming a slot in the current chunk with an atomic increment of its
+ * tail. When a chunk is full, a chunk twice its size, up to {@link #MAX_CHUNK_SIZE}, replaces it
+ * and links back to it. {@link #drain()} detaches the whole chain of chunks by swapping the current
+ * chunk out, and closes it so late appenders move on to a new chunk. The detached chunks are
+ * exposed as a list without copying the spans out of them.
+ *
+ * <p>Appending is thread-safe, but draining must only be done by one thread at a time. Like the
+ * deque it replaces, iterating is weakly consistent and visits the most recently finished spans
+ * first, which is also the order of the drained list.
+ */
+final class FinishedSpans extends AbstractCollection<DDSpan> {
+
+  static final int MIN_CHUNK_SIZE = 8;
+  static final int MAX_CHUNK_SIZE = 1024;
+
+  // added to a chunk's tail when it is drained, so that no more slots can be claimed
+  private static final int CLOSED = 1 << 30;
+
+  private static final AtomicReferenceFieldUpdater<FinishedSpans, Chunk> CURRENT =
+      AtomicReferenceFieldUpdater.newUpdater(FinishedSpans.class, Chunk.class, "current");
+
+  private volatile Chunk current;
+
+  @Override
+  public boolean add(DDSpan span) {
+    while (true) {
+      Chunk chunk = current;
+      if (null == chunk) {
+        chunk = new Chunk(MIN_CHUNK_SIZE, null);
+        if (!CURRENT.compareAndSet(this, null, chunk)) {
+          continue;
+        }
+      }
+      int slot = chunk.claim();
+      if (slot < chunk.length()) {
+        chunk.lazySet(slot, span);
+        return true;
+      }
+      // the chunk is full, or has been drained in which case it is no longer current
+      if (current == chunk) {
+        CURRENT.compareAndSet(
+            this, chunk, new Chunk(Math.min(chunk.length() << 1, MAX_CHUNK_SIZE), chunk));
+      }
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    Chunk chunk = current;
+    return null == chunk || (null == chunk.previous && chunk.claimed() == 0);
+  }
+
+  /** @return the number of spans, which is linear in the number of chunks */
+  @Override
+  public int size() {
+    int size = 0;
+    for (Chunk chunk = current; null != chunk; chunk = chunk.previous) {
+      size += Math.min(chunk.claimed(), chunk.length());
+    }
+    return size;
+  }
+
+  /**
+   * Detaches all the spans appended so far, waiting for any appends which have claimed a slot to
+   * complete.
+   *
+   * @return the spans, most recently finished first
+   */
+  List<DDSpan> drain() {
+    Chunk head = CURRENT.getAndSet(this, null);
+    if (null == head) {
+      return Collections.emptyList();
+    }
+    int headCount = Math.min(head.close(), head.length());
+    int chunkCount = 0;
+    for (Chunk chunk = head; null != chunk; chunk = chunk.previous) {
+      ++chunkCount;
+    }
+    Chunk[] chunks = new Chunk[chunkCount];
+    int[] ends = new int[chunkCount];
+    int i = chunkCount;
+    for (Chunk chunk = head; null != chunk; chunk = chunk.previous) {
+      chunks[--i] = chunk;
+    }
+    int size = 0;
+    for (i = 0; i < chunkCount; ++i) {
+      // only the head can be partially claimed, the chunks before it were replaced when full
+      int count = i == chunkCount - 1 ? headCount : chunks[i].length();
+      chunks[i].awaitAppended(count);
+      size += count;
+      ends[i] = size;
+    }
+    return new DrainedSpans(chunks, ends);
+  }
+
+  @Override
+  public Iterator<DDSpan> iterator() {
+    return new Iterator<DDSpan>() {
+      private Chunk chunk = current;
+      private int slot = null == chunk ? -1 : Math.min(chunk.claimed(), chunk.length());
+      private DDSpan next = advance();
+
+      private DDSpan advance() {
+        while (null != chunk) {
+          while (--slot >= 0) {
+            DDSpan span = chunk.get(slot);
+            if (null != span) {
+              return span;
+            }
+          }
+          chunk = chunk.previous;
+          slot = null == chunk ? -1 : chunk.length();
+        }
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return null != next;
+      }
+
+      @Override
+      public DDSpan next() {
+        if (null == next) {
+          throw new NoSuchElementException();
+        }
+        DDSpan span = next;
+        next = advance();
+        return span;
+      }
+    };
+  }
+
+  private static final class Chunk {
+
+    private static final AtomicIntegerFieldUpdater<Chunk> TAIL =
+        AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "tail");
+
+    final Chunk previous;
+    private final AtomicReferenceArray<DDSpan> spans;
+    private volatile int tail;
+
+    Chunk(int size, Chunk previous) {
+      this.spans = new AtomicReferenceArray<>(size);
+      this.previous = previous;
+    }
+
+    int length() {
+      return spans.length();
+    }
+
+    DDSpan get(int slot) {
+      return spans.get(slot);
+    }
+
+    void lazySet(int slot, DDSpan span) {
+      spans.lazySet(slot, span);
+    }
+
+    int claim() {
+      return TAIL.getAndIncrement(this);
+    }
+
+    int claimed() {
+      return tail;
+    }
+
+    /** @return the number of slots claimed before closing */
+    int close() {
+      return TAIL.getAndAdd(this, CLOSED);
+    }
+
+    void awaitAppended(int count) {
+      for (int i = 0; i < count; ++i) {
+        while (null == get(i)) {
+          // the appending thread has claimed the slot, so is about to fill it
+          Thread.yield();
+        }
+      }
+    }
+  }
+
+  /** A list view of drained chunks, in reverse order of appending. */
+  private static final class DrainedSpans extends AbstractList<DDSpan> implements RandomAccess {
+    private final Chunk[] chunks;
+    private final int[] ends;
+    private final int size;
+
+    DrainedSpans(Chunk[] chunks, int[] ends) {
+      this.chunks = chunks;
+      this.ends = ends;
+      this.size = ends[ends.length - 1];
+    }
+
+    @Override
+    public DDSpan get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      int position = size - 1 - index;
+      if (chunks.length == 1) {
+        return chunks[0].get(position);
+      }
+      int chunk = Arrays.binarySearch(ends, position + 1);
+      if (chunk < 0) {
+        chunk = -chunk - 1;
+      }
+      int start = chunk == 0 ? 0 : ends[chunk - 1];
+      return chunks[chunk].get(position - start);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -3,8 +3,10 @@ package datadog.trace.core;
 import static datadog.trace.util.AgentThreadFactory.AgentThread.TRACE_MONITOR;
 import static datadog.trace.util.AgentThreadFactory.THREAD_JOIN_TIMOUT_MS;
 import static datadog.trace.util.AgentThreadFactory.newAgentThread;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import datadog.trace.api.time.TimeSource;
+import datadog.trace.core.monitor.HealthMetrics;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.jctools.queues.MessagePassingQueue;
@@ -13,8 +15,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public abstract class PendingTraceBuffer implements AutoCloseable {
-  private static final int BUFFER_SIZE = 1 << 12; // 4096
-
   public interface Element {
     long oldestFinishedTime();
 
@@ -37,11 +37,18 @@ public abstract class PendingTraceBuffer implements AutoCloseable {
   private static class DelayingPendingTraceBuffer extends PendingTraceBuffer {
     private static final long FORCE_SEND_DELAY_MS = TimeUnit.SECONDS.toMillis(5);
     private static final long SEND_DELAY_NS = TimeUnit.MILLISECONDS.toNanos(500);
-    private static final long SLEEP_TIME_MS = 100;
+    private static final long TICK_NS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int WHEEL_SLOTS = 128;
 
     private final MpscBlockingConsumerArrayQueue<Element> queue;
+    private final TimerWheel wheel;
+    private final int capacity;
+    // the traces in the queue and in the wheel, which share the capacity
+    private final AtomicInteger bufferedTraces = new AtomicInteger();
+    private final WriteDrain writeDrain = new WriteDrain();
     private final Thread worker;
     private final TimeSource timeSource;
+    private final HealthMetrics healthMetrics;
 
     private volatile boolean closed = false;
     private final AtomicInteger flushCounter = new AtomicInteger(0);
@@ -50,11 +57,13 @@ public abstract class PendingTraceBuffer implements AutoCloseable {
     @Override
     public void enqueue(Element pendingTrace) {
       if (pendingTrace.setEnqueued(true)) {
-        if (!queue.offer(pendingTrace)) {
+        if (bufferedTraces.incrementAndGet() > capacity || !queue.offer(pendingTrace)) {
           // Mark it as not in the queue
+          bufferedTraces.decrementAndGet();
           pendingTrace.setEnqueued(false);
           // Queue is full, so we can't buffer this trace, write it out directly instead.
           pendingTrace.write();
+          healthMetrics.onPendingTraceBufferFull();
         }
       }
     }
@@ -104,11 +113,19 @@ public abstract class PendingTraceBuffer implements AutoCloseable {
       }
     }
 
-    private static final class WriteDrain implements MessagePassingQueue.Consumer<Element> {
-      private static final WriteDrain WRITE_DRAIN = new WriteDrain();
+    /** Takes the trace out of the buffer before writing it. */
+    private void dequeue(Element pendingTrace) {
+      if (!(pendingTrace instanceof FlushElement)) {
+        bufferedTraces.decrementAndGet();
+      }
+      pendingTrace.setEnqueued(false);
+    }
 
+    private final class WriteDrain implements MessagePassingQueue.Consumer<Element> {
       @Override
       public void accept(Element pendingTrace) {
+        // The element is no longer in the queue
+        dequeue(pendingTrace);
         pendingTrace.write();
       }
     }
@@ -140,53 +157,74 @@ public abstract class PendingTraceBuffer implements AutoCloseable {
       }
     }
 
-    private final class Worker implements Runnable {
+    private final class Worker implements Runnable, TimerWheel.Expiry {
 
       @Override
       public void run() {
         try {
           while (!closed && !Thread.currentThread().isInterrupted()) {
-
-            Element pendingTrace = queue.take(); // block until available.
-
-            if (pendingTrace instanceof FlushElement) {
-              // Since this is an MPSC queue, the drain needs to be called on the consumer thread
-              queue.drain(WriteDrain.WRITE_DRAIN);
-              flushCounter.incrementAndGet();
-              continue;
-            }
-
-            // The element is no longer in the queue
-            pendingTrace.setEnqueued(false);
-
-            long oldestFinishedTime = pendingTrace.oldestFinishedTime();
-
-            long finishTimestampMillis = TimeUnit.NANOSECONDS.toMillis(oldestFinishedTime);
-            if (finishTimestampMillis <= timeSource.getCurrentTimeMillis() - FORCE_SEND_DELAY_MS) {
-              // Root span is getting old. Send the trace to avoid being discarded by agent.
-              pendingTrace.write();
-              continue;
-            }
-
-            if (pendingTrace.lastReferencedNanosAgo(SEND_DELAY_NS)) {
-              // Trace has been unmodified long enough, go ahead and write whatever is finished.
-              pendingTrace.write();
-            } else {
-              // Trace is too new.  Requeue it and sleep to avoid a hot loop.
-              enqueue(pendingTrace);
-              Thread.sleep(SLEEP_TIME_MS);
+            Element pendingTrace =
+                wheel.isEmpty()
+                    ? queue.take() // block until available.
+                    : queue.poll(wheel.nanosToNextTick(timeSource.getNanoTicks()), NANOSECONDS);
+            // Move the traces waiting in the queue to the wheel, but don't starve the wheel
+            for (int i = 0; null != pendingTrace && i < capacity; ++i) {
+              if (pendingTrace instanceof FlushElement) {
+                // Since this is an MPSC queue, the drain needs to be called on the consumer thread
+                queue.drain(writeDrain);
+                wheel.expireAll(writeDrain);
+                flushCounter.incrementAndGet();
+              } else {
+                long now = timeSource.getNanoTicks();
+                long deadline = onExpiry(pendingTrace, now);
+                if (deadline != TimerWheel.REMOVE) {
+                  wheel.schedule(pendingTrace, deadline);
+                }
+              }
+              pendingTrace = queue.relaxedPoll();
             }
+            wheel.advance(timeSource.getNanoTicks(), this);
           }
         } catch (InterruptedException e) {
           Thread.currentThread().interrupt();
         }
       }
+
+      @Override
+      public long onExpiry(Element pendingTrace, long now) {
+        long oldestFinishedTime = pendingTrace.oldestFinishedTime();
+
+        long finishTimestampMillis = TimeUnit.NANOSECONDS.toMillis(oldestFinishedTime);
+        long forceSendInMillis =
+            finishTimestampMillis - (timeSource.getCurrentTimeMillis() - FORCE_SEND_DELAY_MS);
+        if (forceSendInMillis <= 0) {
+          // Root span is getting old. Send the trace to avoid being discarded by agent.
+          dequeue(pendingTrace);
+          pendingTrace.write();
+          healthMetrics.onForceWritePendingTrace();
+          return TimerWheel.REMOVE;
+        }
+
+        if (pendingTrace.lastReferencedNanosAgo(SEND_DELAY_NS)) {
+          // Trace has been unmodified long enough, go ahead and write whatever is finished.
+          dequeue(pendingTrace);
+          pendingTrace.write();
+          healthMetrics.onExpirePendingTrace();
+          return TimerWheel.REMOVE;
+        }
+        // Trace is too new. Check it again once it could have been unmodified long enough.
+        return now + Math.min(SEND_DELAY_NS, TimeUnit.MILLISECONDS.toNanos(forceSendInMillis));
+      }
     }
 
-    public DelayingPendingTraceBuffer(int bufferSize, TimeSource timeSource) {
+    public DelayingPendingTraceBuffer(
+        int bufferSize, TimeSource timeSource, HealthMetrics healthMetrics) {
       this.queue = new MpscBlockingConsumerArrayQueue<>(bufferSize);
+      this.capacity = bufferSize;
+      this.wheel = new TimerWheel(TICK_NS, WHEEL_SLOTS, timeSource.getNanoTicks());
       this.worker = newAgentThread(TRACE_MONITOR, new Worker());
       this.timeSource = timeSource;
+      this.healthMetrics = healthMetrics;
     }
   }
 
@@ -209,8 +247,9 @@ public abstract class PendingTraceBuffer implements AutoCloseable {
     }
   }
 
-  public static PendingTraceBuffer delaying(TimeSource timeSource) {
-    return new DelayingPendingTraceBuffer(BUFFER_SIZE, timeSource);
+  public static PendingTraceBuffer delaying(
+      TimeSource timeSource, int bufferSize, HealthMetrics healthMetrics) {
+    return new DelayingPendingTraceBuffer(bufferSize, timeSource, healthMetrics);
   }
 
   public static PendingTraceBuffer discarding() {
@@ -0,0 +1,407 @@
+package datadog.trace.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A map of span tags which stores int, long, float and double values unboxed, and doesn't allocate
+ * an entry per tag. Keys are kept in an open addressing table with linear probing, and are compared
+ * by identity before equality, so the constant well-known tag names are found without comparing
+ * their contents.
+ *
+ * <p>Serializers should visit the tags with {@link #visitNumbers(Visitor)} and {@link
+ * #visitNonNumbers(Visitor)} rather than iterate over the entries, which boxes numeric values.
+ * Removal through iterators isn't supported.
+ *
+ * <p>Not thread-safe.
+ */
+public final class TagMap extends AbstractMap<String, Object> {
+
+  /** Receives the tags of a {@link TagMap}, with the numeric values stored unboxed. */
+  public interface Visitor {
+    /** Receives tags which aren't stored unboxed, including other types of {@link Number}. */
+    void visitObject(String key, Object value);
+
+    void visitInt(String key, int value);
+
+    void visitLong(String key, long value);
+
+    void visitFloat(String key, float value);
+
+    void visitDouble(String key, double value);
+  }
+
+  private static final byte OBJECT = 0;
+  private static final byte INT = 1;
+  private static final byte LONG = 2;
+  private static final byte FLOAT = 3;
+  private static final byte DOUBLE = 4;
+
+  private static final int MIN_CAPACITY = 8;
+
+  private String[] keys;
+  private Object[] objects;
+  private long[] numbers;
+  private byte[] types;
+  private int size;
+  private int numberCount;
+  private EntrySet entrySet;
+
+  public TagMap() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  public TagMap(int expectedSize) {
+    allocate(capacityFor(expectedSize));
+  }
+
+  private TagMap(TagMap other) {
+    this.keys = other.keys.clone();
+    this.objects = other.objects.clone();
+    this.numbers = other.numbers.clone();
+    this.types = other.types.clone();
+    this.size = other.size;
+    this.numberCount = other.numberCount;
+  }
+
+  public static TagMap copyOf(Map<String, ?> tags) {
+    TagMap copy = new TagMap(tags.size());
+    for (Map.Entry<String, ?> tag : tags.entrySet()) {
+      copy.set(tag.getKey(), tag.getValue());
+    }
+    return copy;
+  }
+
+  /** @return a copy of the map, which doesn't share any state with it */
+  public TagMap copy() {
+    return new TagMap(this);
+  }
+
+  /** @return the number of tags whose values are numbers, which are reported as metrics */
+  public int numberCount() {
+    return numberCount;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof String && slotOf((String) key) >= 0;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    int slot = slotOf((String) key);
+    return slot >= 0 ? valueAt(slot) : null;
+  }
+
+  /** Tags without a key are ignored. */
+  @Override
+  public Object put(String key, Object value) {
+    if (null == key) {
+      return null;
+    }
+    int slot = slotOf(key);
+    Object previous = slot >= 0 ? valueAt(slot) : null;
+    set(key, value);
+    return previous;
+  }
+
+  /** Like {@link #put(String, Object)}, but without returning the previous value. */
+  public void set(String key, Object value) {
+    if (null == key) {
+      return;
+    }
+    if (value instanceof Integer) {
+      set(key, ((Integer) value).intValue());
+    } else if (value instanceof Long) {
+      set(key, ((Long) value).longValue());
+    } else if (value instanceof Double) {
+      set(key, ((Double) value).doubleValue());
+    } else if (value instanceof Float) {
+      set(key, ((Float) value).floatValue());
+    } else {
+      int slot = insert(key);
+      objects[slot] = value;
+      types[slot] = OBJECT;
+      if (value instanceof Number) {
+        ++numberCount;
+      }
+    }
+  }
+
+  public void set(String key, int value) {
+    if (null != key) {
+      setNumber(insert(key), INT, value);
+    }
+  }
+
+  public void set(String key, long value) {
+    if (null != key) {
+      setNumber(insert(key), LONG, value);
+    }
+  }
+
+  public void set(String key, float value) {
+    if (null != key) {
+      setNumber(insert(key), FLOAT, Double.doubleToRawLongBits(value));
+    }
+  }
+
+  public void set(String key, double value) {
+    if (null != key) {
+      setNumber(insert(key), DOUBLE, Double.doubleToRawLongBits(value));
+    }
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    int slot = slotOf((String) key);
+    if (slot < 0) {
+      return null;
+    }
+    Object previous = valueAt(slot);
+    if (isNumber(slot)) {
+      --numberCount;
+    }
+    delete(slot);
+    --size;
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    if (size > 0) {
+      Arrays.fill(keys, null);
+      Arrays.fill(objects, null);
+      size = 0;
+      numberCount = 0;
+    }
+  }
+
+  /** Visits the tags whose values are numbers. */
+  public void visitNumbers(Visitor visitor) {
+    for (int i = 0; i < keys.length && numberCount > 0; ++i) {
+      if (null != keys[i] && isNumber(i)) {
+        visit(i, visitor);
+      }
+    }
+  }
+
+  /** Visits the tags whose values aren't numbers. */
+  public void visitNonNumbers(Visitor visitor) {
+    for (int i = 0; i < keys.length; ++i) {
+      if (null != keys[i] && !isNumber(i)) {
+        visitor.visitObject(keys[i], objects[i]);
+      }
+    }
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super Object> action) {
+    for (int i = 0; i < keys.length; ++i) {
+      if (null != keys[i]) {
+        action.accept(keys[i], valueAt(i));
+      }
+    }
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    if (null == entrySet) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private void visit(int slot, Visitor visitor) {
+    long bits = numbers[slot];
+    switch (types[slot]) {
+      case INT:
+        visitor.visitInt(keys[slot], (int) bits);
+        break;
+      case LONG:
+        visitor.visitLong(keys[slot], bits);
+        break;
+      case FLOAT:
+        visitor.visitFloat(keys[slot], (float) Double.longBitsToDouble(bits));
+        break;
+      case DOUBLE:
+        visitor.visitDouble(keys[slot], Double.longBitsToDouble(bits));
+        break;
+      default:
+        visitor.visitObject(keys[slot], objects[slot]);
+    }
+  }
+
+  private Object valueAt(int slot) {
+    long bits = numbers[slot];
+    switch (types[slot]) {
+      case INT:
+        return (int) bits;
+      case LONG:
+        return bits;
+      case FLOAT:
+        return (float) Double.longBitsToDouble(bits);
+      case DOUBLE:
+        return Double.longBitsToDouble(bits);
+      default:
+        return objects[slot];
+    }
+  }
+
+  private boolean isNumber(int slot) {
+    return types[slot] != OBJECT || objects[slot] instanceof Number;
+  }
+
+  private void setNumber(int slot, byte type, long bits) {
+    objects[slot] = null;
+    numbers[slot] = bits;
+    types[slot] = type;
+    ++numberCount;
+  }
+
+  /** @return the slot for the key, after uncounting any number already stored there */
+  private int insert(String key) {
+    int slot = slotOf(key);
+    if (slot >= 0) {
+      if (isNumber(slot)) {
+        --numberCount;
+      }
+      return slot;
+    }
+    if (size + 1 > (keys.length >>> 2) * 3) {
+      resize(keys.length << 1);
+      slot = slotOf(key);
+    }
+    slot = -slot - 1;
+    keys[slot] = key;
+    ++size;
+    return slot;
+  }
+
+  /** @return the slot of the key, or {@code -(empty slot) - 1} if it isn't present */
+  private int slotOf(String key) {
+    int mask = keys.length - 1;
+    int hash = key.hashCode();
+    for (int i = home(hash, mask); ; i = (i + 1) & mask) {
+      String existing = keys[i];
+      if (null == existing) {
+        return -i - 1;
+      }
+      if (existing == key || (existing.hashCode() == hash && existing.equals(key))) {
+        return i;
+      }
+    }
+  }
+
+  /** Empties the slot, moving any colliding keys after it back so they can still be found. */
+  private void delete(int slot) {
+    int mask = keys.length - 1;
+    int empty = slot;
+    for (int i = (slot + 1) & mask; null != keys[i]; i = (i + 1) & mask) {
+      int home = home(keys[i].hashCode(), mask);
+      // the key can move to the empty slot if its home isn't cyclically in (empty, i]
+      if (((i - home) & mask) >= ((i - empty) & mask)) {
+        keys[empty] = keys[i];
+        objects[empty] = objects[i];
+        numbers[empty] = numbers[i];
+        types[empty] = types[i];
+        empty = i;
+      }
+    }
+    keys[empty] = null;
+    objects[empty] = null;
+  }
+
+  private void resize(int capacity) {
+    String[] oldKeys = keys;
+    Object[] oldObjects = objects;
+    long[] oldNumbers = numbers;
+    byte[] oldTypes = types;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; ++i) {
+      if (null != oldKeys[i]) {
+        int slot = -slotOf(oldKeys[i]) - 1;
+        keys[slot] = oldKeys[i];
+        objects[slot] = oldObjects[i];
+        numbers[slot] = oldNumbers[i];
+        types[slot] = oldTypes[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new String[capacity];
+    objects = new Object[capacity];
+    numbers = new long[capacity];
+    types = new byte[capacity];
+  }
+
+  private static int home(int hash, int mask) {
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int required = Math.max(expectedSize, 1) * 4 / 3 + 1;
+    return Math.max(MIN_CAPACITY, Integer.highestOneBit(required - 1) << 1);
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Iterator<Entry<String, Object>> iterator() {
+      return new Iterator<Entry<String, Object>>() {
+        private int next = advance(0);
+
+        private int advance(int from) {
+          for (int i = from; i < keys.length; ++i) {
+            if (null != keys[i]) {
+              return i;
+            }
+          }
+          return keys.length;
+        }
+
+        @Override
+        public boolean hasNext() {
+          return next < keys.length;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          int slot = next;
+          next = advance(slot + 1);
+          return new SimpleImmutableEntry<>(keys[slot], valueAt(slot));
+        }
+      };
+    }
+  }
+}
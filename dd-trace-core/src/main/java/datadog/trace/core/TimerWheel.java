@@ -0,0 +1,148 @@
+package datadog.trace.core;
+
+import datadog.trace.core.PendingTraceBuffer.Element;
+import java.util.Arrays;
+import org.jctools.queues.MessagePassingQueue;
+
+/**
+ * A hashed timer wheel of {@link Element elements} waiting for a deadline, which takes constant
+ * time to schedule an element, and only visits the elements which are due when advanced.
+ *
+ * <p>Time is divided into ticks, and each tick maps to one of a fixed number of slots, so deadlines
+ * further away than a turn of the wheel share a slot with nearer deadlines and are left in place
+ * until they are due. Each slot holds its elements in arrays which only grow, so scheduling doesn't
+ * allocate once the wheel has warmed up.
+ *
+ * <p>Not thread-safe, the wheel is owned by the thread which advances it.
+ */
+final class TimerWheel {
+
+  /** Called for the elements which are due. */
+  interface Expiry {
+    /** @return the element's next deadline, or {@link #REMOVE} to remove it from the wheel */
+    long onExpiry(Element element, long now);
+  }
+
+  static final long REMOVE = Long.MIN_VALUE;
+
+  private static final int INITIAL_SLOT_SIZE = 8;
+
+  private final long tickNanos;
+  private final long origin;
+  private final int mask;
+  private final Element[][] elements;
+  private final long[][] deadlines;
+  private final int[] sizes;
+  private long currentTick;
+  private int size;
+
+  TimerWheel(long tickNanos, int slots, long now) {
+    if (Integer.bitCount(slots) != 1) {
+      throw new IllegalArgumentException("slots must be a power of two: " + slots);
+    }
+    this.tickNanos = tickNanos;
+    this.origin = now;
+    this.mask = slots - 1;
+    this.elements = new Element[slots][];
+    this.deadlines = new long[slots][];
+    this.sizes = new int[slots];
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Schedules the element to expire at the first tick which isn't before the deadline. */
+  void schedule(Element element, long deadline) {
+    // the current tick's slot has already been visited, so the earliest slot is the next one
+    int slot = (int) (Math.max(tickAfter(deadline), currentTick + 1) & mask);
+    int index = sizes[slot];
+    if (null == elements[slot]) {
+      elements[slot] = new Element[INITIAL_SLOT_SIZE];
+      deadlines[slot] = new long[INITIAL_SLOT_SIZE];
+    } else if (index == elements[slot].length) {
+      elements[slot] = Arrays.copyOf(elements[slot], index << 1);
+      deadlines[slot] = Arrays.copyOf(deadlines[slot], index << 1);
+    }
+    elements[slot][index] = element;
+    deadlines[slot][index] = deadline;
+    sizes[slot] = index + 1;
+    ++size;
+  }
+
+  /** @return the number of nanoseconds until the wheel's next tick */
+  long nanosToNextTick(long now) {
+    return tickNanos - (now - origin) % tickNanos;
+  }
+
+  /** Visits the slots of the ticks which have passed since the last advance. */
+  void advance(long now, Expiry expiry) {
+    long tick = tickOf(now);
+    // after a whole turn of the wheel, every slot has been visited
+    for (long t = Math.max(currentTick + 1, tick - mask); t <= tick && size > 0; ++t) {
+      currentTick = t;
+      expire((int) (t & mask), now, expiry);
+    }
+    currentTick = Math.max(currentTick, tick);
+  }
+
+  /** Removes every element from the wheel, whether it is due or not. */
+  void expireAll(MessagePassingQueue.Consumer<Element> consumer) {
+    for (int slot = 0; slot <= mask; ++slot) {
+      Element[] slotElements = elements[slot];
+      int slotSize = sizes[slot];
+      sizes[slot] = 0;
+      size -= slotSize;
+      for (int i = 0; i < slotSize; ++i) {
+        Element element = slotElements[i];
+        slotElements[i] = null;
+        consumer.accept(element);
+      }
+    }
+  }
+
+  private void expire(int slot, long now, Expiry expiry) {
+    int slotSize = sizes[slot];
+    if (slotSize == 0) {
+      return;
+    }
+    Element[] slotElements = elements[slot];
+    long[] slotDeadlines = deadlines[slot];
+    int kept = 0;
+    for (int i = 0; i < slotSize; ++i) {
+      Element element = slotElements[i];
+      long deadline = slotDeadlines[i];
+      if (tickAfter(deadline) <= currentTick) {
+        deadline = expiry.onExpiry(element, now);
+        if (deadline == REMOVE) {
+          --size;
+          continue;
+        }
+        if ((Math.max(tickAfter(deadline), currentTick + 1) & mask) != slot) {
+          --size;
+          schedule(element, deadline);
+          continue;
+        }
+      }
+      // not due until a later turn of the wheel
+      slotElements[kept] = element;
+      slotDeadlines[kept++] = deadline;
+    }
+    Arrays.fill(slotElements, kept, slotSize, null);
+    sizes[slot] = kept;
+  }
+
+  /** @return the tick the time falls in */
+  private long tickOf(long nanos) {
+    return Math.max(0, nanos - origin) / tickNanos;
+  }
+
+  /** @return the first tick which isn't before the deadline, so elements never expire early */
+  private long tickAfter(long deadline) {
+    return (Math.max(0, deadline - origin) + tickNanos - 1) / tickNanos;
+  }
+}
@@ -0,0 +1,152 @@
+package datadog.trace.core;
+
+import static datadog.trace.util.AgentThreadFactory.AgentThread.TRACE_COMPLETION;
+import static datadog.trace.util.AgentThreadFactory.THREAD_JOIN_TIMOUT_MS;
+import static datadog.trace.util.AgentThreadFactory.newAgentThread;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import datadog.trace.core.monitor.HealthMetrics;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.jctools.queues.MessagePassingQueue;
+import org.jctools.queues.MpscBlockingConsumerArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the traces completed by the tracer on a tracer thread: stores the profiling context of the
+ * spans and hands the trace over to the writer, so the application thread finishing a trace only
+ * queues it once it is intercepted, sampled and reported to the profiler.
+ *
+ * <p>Queueing never blocks: when the queue is full, or once the worker is closed, {@link
+ * #offer(List)} returns false and the caller writes the trace itself, as it would without this
+ * worker.
+ */
+final class TraceCompletionWorker implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(TraceCompletionWorker.class);
+
+  static final int DEFAULT_CAPACITY = 1024;
+
+  private final MpscBlockingConsumerArrayQueue<Object> queue;
+  private final Consumer<List<DDSpan>> completion;
+  private final HealthMetrics healthMetrics;
+  private final CompletingTask task = new CompletingTask();
+  private final Thread worker;
+  private volatile boolean closed;
+
+  /**
+   * @param capacity the number of traces which can be waiting to be written
+   * @param completion writes a trace
+   * @param healthMetrics counts the traces written by the caller because the queue was full
+   */
+  TraceCompletionWorker(
+      int capacity, Consumer<List<DDSpan>> completion, HealthMetrics healthMetrics) {
+    this.queue = new MpscBlockingConsumerArrayQueue<>(capacity);
+    this.completion = completion;
+    this.healthMetrics = healthMetrics;
+    this.worker = newAgentThread(TRACE_COMPLETION, task);
+  }
+
+  void start() {
+    worker.start();
+  }
+
+  /** @return false if the trace wasn't queued and the caller must write it */
+  boolean offer(List<DDSpan> trace) {
+    if (closed) {
+      return false;
+    }
+    if (!queue.offer(trace)) {
+      healthMetrics.onTraceCompletionQueueFull();
+      return false;
+    }
+    if (closed) {
+      // closed while queueing, the worker may have drained the queue for the last time already
+      drainIfStopped();
+    }
+    return true;
+  }
+
+  /**
+   * Waits until the traces queued before the call are written.
+   *
+   * @return false if the timeout elapsed first
+   */
+  boolean flush(long timeout, TimeUnit timeUnit) {
+    if (!worker.isAlive()) {
+      return false;
+    }
+    long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+    CountDownLatch latch = new CountDownLatch(1);
+    try {
+      // the queue can't block producers, so back off until there is room or the time is up
+      for (int loop = 1; !queue.offer(latch); ++loop) {
+        if (!worker.isAlive() || System.nanoTime() - deadline >= 0) {
+          return false;
+        }
+        if (loop <= 3) {
+          Thread.yield();
+        } else {
+          Thread.sleep(1);
+        }
+      }
+      return latch.await(deadline - System.nanoTime(), NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /** Writes the traces still queued, then stops the worker. */
+  @Override
+  public void close() {
+    closed = true;
+    worker.interrupt();
+    try {
+      worker.join(THREAD_JOIN_TIMOUT_MS);
+    } catch (InterruptedException ignored) {
+    }
+    // traces queued while closing, after the worker drained the queue
+    drainIfStopped();
+  }
+
+  /**
+   * Writes the queued traces on the calling thread once the worker is stopped. The queue has a
+   * single consumer, so the threads draining it take turns.
+   */
+  private synchronized void drainIfStopped() {
+    if (!worker.isAlive()) {
+      queue.drain(task);
+    }
+  }
+
+  private final class CompletingTask implements Runnable, MessagePassingQueue.Consumer<Object> {
+    @Override
+    public void run() {
+      while (!closed) {
+        try {
+          accept(queue.take());
+        } catch (InterruptedException e) {
+          // closed
+        }
+      }
+      queue.drain(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void accept(Object event) {
+      if (event instanceof CountDownLatch) {
+        ((CountDownLatch) event).countDown();
+        return;
+      }
+      try {
+        completion.accept((List<DDSpan>) event);
+      } catch (Throwable e) {
+        log.debug("Failed to write trace", e);
+      }
+    }
+  }
+}
@@ -8,6 +8,7 @@ import static datadog.trace.util.AgentThreadFactory.newAgentThread;
 import datadog.communication.ddagent.DDAgentFeaturesDiscovery;
 import datadog.communication.ddagent.SharedCommunicationObjects;
 import datadog.trace.api.Config;
+import datadog.trace.api.StatsDClient;
 import datadog.trace.api.WellKnownTags;
 import datadog.trace.api.time.TimeSource;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
@@ -17,6 +18,7 @@ import datadog.trace.common.metrics.EventListener;
 import datadog.trace.common.metrics.OkHttpSink;
 import datadog.trace.common.metrics.Sink;
 import datadog.trace.core.DDTraceCoreInfo;
+import datadog.trace.core.monitor.HealthMetrics;
 import datadog.trace.util.AgentTaskScheduler;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -26,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import org.jctools.queues.MpscBlockingConsumerArrayQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,7 +47,11 @@ public class DefaultDataStreamsCheckpointer
 
   private final Map<Long, StatsBucket> timeToBucket = new HashMap<>();
   private final BlockingQueue<StatsPoint> inbox = new MpscBlockingConsumerArrayQueue<>(1024);
+  private final StripedStatsAggregator aggregator;
+  private final LongAdder inboxDroppedPoints = new LongAdder();
+  private long reportedDroppedPoints;
   private final DatastreamsPayloadWriter payloadWriter;
+  private final HealthMetrics healthMetrics;
   private final DDAgentFeaturesDiscovery features;
   private final TimeSource timeSource;
   private final WellKnownTags wellKnownTags;
@@ -55,7 +62,10 @@ public class DefaultDataStreamsCheckpointer
   private volatile boolean supportsDataStreams = false;
 
   public DefaultDataStreamsCheckpointer(
-      Config config, SharedCommunicationObjects sharedCommunicationObjects, TimeSource timeSource) {
+      Config config,
+      SharedCommunicationObjects sharedCommunicationObjects,
+      TimeSource timeSource,
+      HealthMetrics healthMetrics) {
     this(
         new OkHttpSink(
             sharedCommunicationObjects.okHttpClient,
@@ -66,11 +76,16 @@ public class DefaultDataStreamsCheckpointer
             Collections.<String, String>emptyMap()),
         sharedCommunicationObjects.featuresDiscovery(config),
         timeSource,
-        config);
+        config,
+        healthMetrics);
   }
 
   public DefaultDataStreamsCheckpointer(
-      Sink sink, DDAgentFeaturesDiscovery features, TimeSource timeSource, Config config) {
+      Sink sink,
+      DDAgentFeaturesDiscovery features,
+      TimeSource timeSource,
+      Config config,
+      HealthMetrics healthMetrics) {
     this(
         sink,
         features,
@@ -78,7 +93,9 @@ public class DefaultDataStreamsCheckpointer
         config.getWellKnownTags(),
         new MsgPackDatastreamsPayloadWriter(
             sink, config.getWellKnownTags(), DDTraceCoreInfo.VERSION, config.getPrimaryTag()),
-        DEFAULT_BUCKET_DURATION_NANOS);
+        DEFAULT_BUCKET_DURATION_NANOS,
+        config.isDataStreamsShardedAggregationEnabled(),
+        healthMetrics);
   }
 
   public DefaultDataStreamsCheckpointer(
@@ -88,11 +105,49 @@ public class DefaultDataStreamsCheckpointer
       WellKnownTags wellKnownTags,
       DatastreamsPayloadWriter payloadWriter,
       long bucketDurationNanos) {
+    this(sink, features, timeSource, wellKnownTags, payloadWriter, bucketDurationNanos, false);
+  }
+
+  /**
+   * @param shardedAggregation whether to aggregate points on the threads checkpointing them, rather
+   *     than on the data streams thread
+   */
+  public DefaultDataStreamsCheckpointer(
+      Sink sink,
+      DDAgentFeaturesDiscovery features,
+      TimeSource timeSource,
+      WellKnownTags wellKnownTags,
+      DatastreamsPayloadWriter payloadWriter,
+      long bucketDurationNanos,
+      boolean shardedAggregation) {
+    this(
+        sink,
+        features,
+        timeSource,
+        wellKnownTags,
+        payloadWriter,
+        bucketDurationNanos,
+        shardedAggregation,
+        new HealthMetrics(StatsDClient.NO_OP));
+  }
+
+  /** @param healthMetrics counts the points dropped because the inbox or the aggregator was full */
+  public DefaultDataStreamsCheckpointer(
+      Sink sink,
+      DDAgentFeaturesDiscovery features,
+      TimeSource timeSource,
+      WellKnownTags wellKnownTags,
+      DatastreamsPayloadWriter payloadWriter,
+      long bucketDurationNanos,
+      boolean shardedAggregation,
+      HealthMetrics healthMetrics) {
     this.features = features;
     this.timeSource = timeSource;
     this.wellKnownTags = wellKnownTags;
     this.payloadWriter = payloadWriter;
+    this.healthMetrics = healthMetrics;
     this.bucketDurationNanos = bucketDurationNanos;
+    this.aggregator = shardedAggregation ? new StripedStatsAggregator(bucketDurationNanos) : null;
 
     thread = newAgentThread(DATA_STREAMS_MONITORING, new InboxProcessor());
     sink.register(this);
@@ -123,10 +178,22 @@ public class DefaultDataStreamsCheckpointer
   @Override
   public void accept(StatsPoint statsPoint) {
     if (thread.isAlive()) {
-      inbox.offer(statsPoint);
+      if (null != aggregator) {
+        // the aggregator counts the points it drops
+        if (supportsDataStreams) {
+          aggregator.add(statsPoint);
+        }
+      } else if (!inbox.offer(statsPoint)) {
+        inboxDroppedPoints.increment();
+      }
     }
   }
 
+  /** @return the number of points dropped because the inbox or the aggregator was full */
+  long getDroppedPoints() {
+    return inboxDroppedPoints.sum() + (null == aggregator ? 0 : aggregator.getDroppedPoints());
+  }
+
   @Override
   public PathwayContext newPathwayContext() {
     return new DefaultPathwayContext(timeSource, wellKnownTags);
@@ -198,6 +265,9 @@ public class DefaultDataStreamsCheckpointer
 
   private void flush(long timestampNanos) {
     long currentBucket = currentBucket(timestampNanos);
+    if (null != aggregator) {
+      aggregator.drain(currentBucket, timeToBucket);
+    }
 
     List<StatsBucket> includedBuckets = new ArrayList<>();
     Iterator<Map.Entry<Long, StatsBucket>> mapIterator = timeToBucket.entrySet().iterator();
@@ -215,11 +285,22 @@ public class DefaultDataStreamsCheckpointer
       log.debug("Flushing {} buckets", includedBuckets.size());
       payloadWriter.writePayload(includedBuckets);
     }
+
+    long droppedPoints = getDroppedPoints();
+    if (droppedPoints > reportedDroppedPoints) {
+      long newlyDroppedPoints = droppedPoints - reportedDroppedPoints;
+      log.debug("Dropped {} data streams points since the last flush", newlyDroppedPoints);
+      healthMetrics.onDropDataStreamsPoints(newlyDroppedPoints);
+      reportedDroppedPoints = droppedPoints;
+    }
   }
 
   @Override
   public void clear() {
     timeToBucket.clear();
+    if (null != aggregator) {
+      aggregator.clear();
+    }
   }
 
   void report() {
@@ -29,6 +29,16 @@ public class StatsBucket {
     statsGroup.add(statsPoint.getPathwayLatencyNano(), statsPoint.getEdgeLatencyNano());
   }
 
+  /** Adds a group aggregated elsewhere, merging it with the group of the same pathway. */
+  void addGroup(StatsGroup group) {
+    StatsGroup statsGroup = hashToGroup.get(group.getHash());
+    if (statsGroup == null) {
+      hashToGroup.put(group.getHash(), group);
+    } else {
+      statsGroup.merge(group);
+    }
+  }
+
   public long getStartTimeNanos() {
     return startTimeNanos;
   }
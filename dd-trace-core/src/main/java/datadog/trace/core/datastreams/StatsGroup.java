@@ -26,6 +26,12 @@ public class StatsGroup {
     edgeLatency.accept(((double) edgeLatencyNano) / NANOSECONDS_TO_SECOND);
   }
 
+  /** Merges the latencies recorded by another group of the same pathway into this group. */
+  void merge(StatsGroup other) {
+    pathwayLatency.mergeWith(other.pathwayLatency);
+    edgeLatency.mergeWith(other.edgeLatency);
+  }
+
   public List<String> getEdgeTags() {
     return edgeTags;
   }
@@ -0,0 +1,268 @@
+package datadog.trace.core.datastreams;
+
+import datadog.trace.bootstrap.instrumentation.api.StatsPoint;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates {@link StatsPoint stats points} on the threads checkpointing them, instead of handing
+ * every point over to a single thread.
+ *
+ * <p>Points are aggregated into stripes, each holding the groups of the pathways it has seen, keyed
+ * by the primitive pathway hash, for each time bucket. A thread aggregates into the stripe its id
+ * maps to, or the next stripe which isn't busy, so threads don't wait for each other unless every
+ * stripe is busy. The stripes are drained when the buckets are flushed, and the groups of the same
+ * pathway in different stripes are merged then.
+ *
+ * <p>The number of groups in a stripe is bounded, so memory stays bounded however many pathways
+ * there are, and points of new pathways are dropped once a stripe is full.
+ */
+final class StripedStatsAggregator {
+
+  /** The maximum number of groups per bucket, shared between the stripes. */
+  static final int MAX_GROUPS = 4096;
+
+  private static final int MIN_GROUPS_PER_STRIPE = 64;
+  private static final int MAX_STRIPES = 64;
+
+  private final Stripe[] stripes;
+  private final int mask;
+  private final long bucketDurationNanos;
+  private final LongAdder droppedPoints = new LongAdder();
+
+  StripedStatsAggregator(long bucketDurationNanos) {
+    this(Runtime.getRuntime().availableProcessors(), bucketDurationNanos);
+  }
+
+  StripedStatsAggregator(int parallelism, long bucketDurationNanos) {
+    int stripeCount =
+        parallelism <= 1 ? 1 : Math.min(MAX_STRIPES, Integer.highestOneBit(parallelism - 1) << 1);
+    int maxGroupsPerStripe = Math.max(MIN_GROUPS_PER_STRIPE, MAX_GROUPS / stripeCount);
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; ++i) {
+      stripes[i] = new Stripe(maxGroupsPerStripe);
+    }
+    this.mask = stripeCount - 1;
+    this.bucketDurationNanos = bucketDurationNanos;
+  }
+
+  /** @return false if the point was dropped because the stripe already holds too many groups */
+  boolean add(StatsPoint statsPoint) {
+    long timestampNanos = statsPoint.getTimestampNanos();
+    long bucket = timestampNanos - (timestampNanos % bucketDurationNanos);
+    int home = stripeIndex(Thread.currentThread().getId());
+    for (int i = 0; i <= mask; ++i) {
+      Stripe stripe = stripes[(home + i) & mask];
+      if (stripe.tryLock()) {
+        return add(stripe, bucket, statsPoint);
+      }
+    }
+    // every stripe is busy, so wait for the thread's own stripe
+    Stripe stripe = stripes[home];
+    stripe.lock();
+    return add(stripe, bucket, statsPoint);
+  }
+
+  private boolean add(Stripe stripe, long bucket, StatsPoint statsPoint) {
+    boolean added;
+    try {
+      added = stripe.add(bucket, statsPoint);
+    } finally {
+      stripe.unlock();
+    }
+    if (!added) {
+      droppedPoints.increment();
+    }
+    return added;
+  }
+
+  /**
+   * Removes the groups of the buckets which started before the current bucket from the stripes, and
+   * merges them into the buckets of the map.
+   */
+  void drain(long currentBucket, Map<Long, StatsBucket> timeToBucket) {
+    for (Stripe stripe : stripes) {
+      StripeBucket[] drained;
+      stripe.lock();
+      try {
+        drained = stripe.drain(currentBucket);
+      } finally {
+        stripe.unlock();
+      }
+      if (null == drained) {
+        continue;
+      }
+      for (StripeBucket stripeBucket : drained) {
+        if (null == stripeBucket) {
+          break;
+        }
+        StatsBucket statsBucket = timeToBucket.get(stripeBucket.startTimeNanos);
+        if (null == statsBucket) {
+          statsBucket = new StatsBucket(stripeBucket.startTimeNanos, bucketDurationNanos);
+          timeToBucket.put(stripeBucket.startTimeNanos, statsBucket);
+        }
+        for (StatsGroup group : stripeBucket.groups) {
+          if (null != group) {
+            statsBucket.addGroup(group);
+          }
+        }
+      }
+    }
+  }
+
+  void clear() {
+    for (Stripe stripe : stripes) {
+      stripe.lock();
+      try {
+        stripe.drain(Long.MAX_VALUE);
+      } finally {
+        stripe.unlock();
+      }
+    }
+  }
+
+  /** @return the number of points dropped because a stripe already held too many groups */
+  long getDroppedPoints() {
+    return droppedPoints.sum();
+  }
+
+  int stripeCount() {
+    return stripes.length;
+  }
+
+  private int stripeIndex(long threadId) {
+    long h = threadId * 0x9E3779B97F4A7C15L;
+    return (int) (h >>> 32) & mask;
+  }
+
+  /** The buckets aggregated into by the threads which hold the stripe's lock. */
+  private static final class Stripe {
+    private final AtomicInteger locked = new AtomicInteger();
+    private final int maxGroups;
+    private StripeBucket[] buckets = new StripeBucket[2];
+    private int size;
+
+    Stripe(int maxGroups) {
+      this.maxGroups = maxGroups;
+    }
+
+    boolean tryLock() {
+      return locked.get() == 0 && locked.compareAndSet(0, 1);
+    }
+
+    void lock() {
+      while (!tryLock()) {
+        Thread.yield();
+      }
+    }
+
+    void unlock() {
+      locked.lazySet(0);
+    }
+
+    boolean add(long bucket, StatsPoint statsPoint) {
+      StripeBucket stripeBucket = null;
+      for (int i = 0; i < size; ++i) {
+        if (buckets[i].startTimeNanos == bucket) {
+          stripeBucket = buckets[i];
+          break;
+        }
+      }
+      if (null == stripeBucket) {
+        if (size == buckets.length) {
+          buckets = Arrays.copyOf(buckets, size << 1);
+        }
+        stripeBucket = new StripeBucket(bucket, maxGroups);
+        buckets[size++] = stripeBucket;
+      }
+      return stripeBucket.add(statsPoint);
+    }
+
+    /** @return the buckets which started before the current bucket, or null if there are none */
+    StripeBucket[] drain(long currentBucket) {
+      StripeBucket[] drained = null;
+      int drainedCount = 0;
+      int kept = 0;
+      for (int i = 0; i < size; ++i) {
+        StripeBucket stripeBucket = buckets[i];
+        if (stripeBucket.startTimeNanos < currentBucket) {
+          if (null == drained) {
+            drained = new StripeBucket[size];
+          }
+          drained[drainedCount++] = stripeBucket;
+        } else {
+          buckets[kept++] = stripeBucket;
+        }
+      }
+      Arrays.fill(buckets, kept, size, null);
+      size = kept;
+      return drained;
+    }
+  }
+
+  /** The groups of a bucket in an open addressing table keyed by the pathway hash. */
+  private static final class StripeBucket {
+    private static final int INITIAL_CAPACITY = 16;
+
+    final long startTimeNanos;
+    private final int maxGroups;
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    StatsGroup[] groups = new StatsGroup[INITIAL_CAPACITY];
+    private int size;
+
+    StripeBucket(long startTimeNanos, int maxGroups) {
+      this.startTimeNanos = startTimeNanos;
+      this.maxGroups = maxGroups;
+    }
+
+    boolean add(StatsPoint statsPoint) {
+      long hash = statsPoint.getHash();
+      int mask = groups.length - 1;
+      int index = index(hash, mask);
+      StatsGroup group;
+      while (null != (group = groups[index])) {
+        if (hashes[index] == hash) {
+          group.add(statsPoint.getPathwayLatencyNano(), statsPoint.getEdgeLatencyNano());
+          return true;
+        }
+        index = (index + 1) & mask;
+      }
+      if (size == maxGroups) {
+        return false;
+      }
+      group = new StatsGroup(statsPoint.getEdgeTags(), hash, statsPoint.getParentHash());
+      group.add(statsPoint.getPathwayLatencyNano(), statsPoint.getEdgeLatencyNano());
+      hashes[index] = hash;
+      groups[index] = group;
+      if (++size > groups.length >>> 1) {
+        resize();
+      }
+      return true;
+    }
+
+    private void resize() {
+      long[] oldHashes = hashes;
+      StatsGroup[] oldGroups = groups;
+      hashes = new long[oldHashes.length << 1];
+      groups = new StatsGroup[oldGroups.length << 1];
+      int mask = groups.length - 1;
+      for (int i = 0; i < oldGroups.length; ++i) {
+        if (null != oldGroups[i]) {
+          int index = index(oldHashes[i], mask);
+          while (null != groups[index]) {
+            index = (index + 1) & mask;
+          }
+          hashes[index] = oldHashes[i];
+          groups[index] = oldGroups[i];
+        }
+      }
+    }
+
+    private static int index(long hash, int mask) {
+      long h = hash * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32)) & mask;
+    }
+  }
+}
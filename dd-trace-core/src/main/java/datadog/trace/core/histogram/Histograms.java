@@ -12,4 +12,20 @@ public final class Histograms {
   public static DDSketch newHistogram() {
     return new DDSketch(INDEX_MAPPING, () -> new CollapsingLowestDenseStore(1024));
   }
+
+  /** The bin reported for values which histograms count as zero. */
+  public static final int ZERO_BIN = Integer.MIN_VALUE;
+
+  /**
+   * The bin a histogram created by {@link #newHistogram()} puts this non-negative value in, so that
+   * values can be binned ahead of time and added later with {@link #binValue(int)}.
+   */
+  public static int bin(double value) {
+    return value < INDEX_MAPPING.minIndexableValue() ? ZERO_BIN : INDEX_MAPPING.index(value);
+  }
+
+  /** A value which a histogram created by {@link #newHistogram()} puts in this bin. */
+  public static double binValue(int bin) {
+    return bin == ZERO_BIN ? 0 : INDEX_MAPPING.value(bin);
+  }
 }
@@ -4,8 +4,10 @@ import static datadog.trace.api.sampling.PrioritySampling.SAMPLER_DROP;
 import static datadog.trace.api.sampling.PrioritySampling.SAMPLER_KEEP;
 import static datadog.trace.api.sampling.PrioritySampling.USER_DROP;
 import static datadog.trace.api.sampling.PrioritySampling.USER_KEEP;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import datadog.communication.serialization.DirectBufferPool;
 import datadog.trace.api.StatsDClient;
 import datadog.trace.api.cache.RadixTreeCache;
 import datadog.trace.common.writer.RemoteApi;
@@ -84,6 +86,26 @@ public class HealthMetrics implements AutoCloseable {
       CountersFactory.createFixedSizeStripedCounter(8);
   private final FixedSizeStripedLongCounter droppedSpans =
       CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter sendBackpressure =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter sendBackpressureNanos =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter droppedPayloads =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter droppedPayloadTraces =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter expiredPendingTraces =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter forcedPendingTraces =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter overflowedPendingTraces =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter droppedDataStreamsPoints =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter overflowedCompletionTraces =
+      CountersFactory.createFixedSizeStripedCounter(8);
+
+  private volatile DirectBufferPool directBufferPool;
 
   private final StatsDClient statsd;
   private final long interval;
@@ -198,6 +220,54 @@ public class HealthMetrics implements AutoCloseable {
     finishedContinuations.inc();
   }
 
+  /**
+   * Serialization had to wait for a payload to be sent because the maximum number of payloads were
+   * already in flight
+   */
+  public void onSendBackpressure(final long blockedNanos) {
+    sendBackpressure.inc();
+    sendBackpressureNanos.inc(blockedNanos);
+  }
+
+  /**
+   * A serialized payload was dropped without being sent, because no payload in flight was sent in
+   * time or because the writer was closed
+   */
+  public void onDropPayload(final int traceCount) {
+    droppedPayloads.inc();
+    droppedPayloadTraces.inc(traceCount);
+  }
+
+  /** An incomplete trace was written after no spans were added to it for a while */
+  public void onExpirePendingTrace() {
+    expiredPendingTraces.inc();
+  }
+
+  /** An incomplete trace was written because its oldest finished span was getting too old */
+  public void onForceWritePendingTrace() {
+    forcedPendingTraces.inc();
+  }
+
+  /** An incomplete trace was written immediately because the pending trace buffer was full */
+  public void onPendingTraceBufferFull() {
+    overflowedPendingTraces.inc();
+  }
+
+  /** Data streams points were dropped because the inbox or the aggregator was full */
+  public void onDropDataStreamsPoints(final long count) {
+    droppedDataStreamsPoints.inc(count);
+  }
+
+  /** The bytes pooled and used by this pool of direct buffers are reported with every flush */
+  public void onCreateDirectBufferPool(final DirectBufferPool pool) {
+    directBufferPool = pool;
+  }
+
+  /** A trace was completed on the thread writing it because the completion queue was full */
+  public void onTraceCompletionQueueFull() {
+    overflowedCompletionTraces.inc();
+  }
+
   public void onSend(
       final int traceCount, final int sizeInBytes, final RemoteApi.Response response) {
     onSendAttempt(traceCount, sizeInBytes, response);
@@ -278,6 +348,28 @@ public class HealthMetrics implements AutoCloseable {
           target.statsd, "span.continuations.finished", target.finishedContinuations, NO_TAGS);
       reportIfChanged(target.statsd, "queue.partial.traces", target.partialTraces, NO_TAGS);
       reportIfChanged(target.statsd, "queue.dropped.spans", target.droppedSpans, NO_TAGS);
+      reportIfChanged(target.statsd, "queue.send.blocked", target.sendBackpressure, NO_TAGS);
+      long blockedMillis = NANOSECONDS.toMillis(target.sendBackpressureNanos.getAndReset());
+      if (blockedMillis > 0) {
+        target.statsd.count("queue.send.blocked.time", blockedMillis, NO_TAGS);
+      }
+      reportIfChanged(target.statsd, "queue.send.dropped", target.droppedPayloads, NO_TAGS);
+      reportIfChanged(
+          target.statsd, "queue.send.dropped.traces", target.droppedPayloadTraces, NO_TAGS);
+      reportIfChanged(target.statsd, "trace.pending.expired", target.expiredPendingTraces, NO_TAGS);
+      reportIfChanged(target.statsd, "trace.pending.forced", target.forcedPendingTraces, NO_TAGS);
+      reportIfChanged(
+          target.statsd, "trace.pending.overflowed", target.overflowedPendingTraces, NO_TAGS);
+      reportIfChanged(
+          target.statsd, "datastreams.points.dropped", target.droppedDataStreamsPoints, NO_TAGS);
+      reportIfChanged(
+          target.statsd, "trace.completion.overflowed", target.overflowedCompletionTraces, NO_TAGS);
+      DirectBufferPool directBufferPool = target.directBufferPool;
+      if (null != directBufferPool) {
+        target.statsd.gauge(
+            "tracer.buffer.pool.pooled.bytes", directBufferPool.pooledBytes(), NO_TAGS);
+        target.statsd.gauge("tracer.buffer.pool.used.bytes", directBufferPool.usedBytes(), NO_TAGS);
+      }
     }
 
     private void reportIfChanged(
@@ -1,8 +1,10 @@
 package datadog.trace.core.monitor;
 
 import datadog.communication.monitor.Counter;
+import datadog.communication.monitor.Gauge;
 import datadog.communication.monitor.Monitoring;
 import datadog.communication.monitor.NoOpCounter;
+import datadog.communication.monitor.NoOpGauge;
 import datadog.communication.monitor.NoOpRecording;
 import datadog.communication.monitor.Recording;
 import datadog.trace.api.StatsDClient;
@@ -63,4 +65,12 @@ public final class MonitoringImpl implements Monitoring {
     }
     return new StatsDCounter(name, statsd);
   }
+
+  @Override
+  public Gauge newGauge(final String name) {
+    if (!enabled) {
+      return NoOpGauge.NO_OP;
+    }
+    return new StatsDGauge(name, statsd);
+  }
 }
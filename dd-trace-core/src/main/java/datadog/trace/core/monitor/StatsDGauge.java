@@ -0,0 +1,21 @@
+package datadog.trace.core.monitor;
+
+import datadog.communication.monitor.Gauge;
+import datadog.trace.api.StatsDClient;
+
+public final class StatsDGauge implements Gauge {
+
+  private final String name;
+  private final String[] tags;
+  private final StatsDClient statsd;
+
+  StatsDGauge(String name, StatsDClient statsd) {
+    this.name = name;
+    this.tags = new String[0];
+    this.statsd = statsd;
+  }
+
+  public void set(long value) {
+    statsd.gauge(name, value, tags);
+  }
+}
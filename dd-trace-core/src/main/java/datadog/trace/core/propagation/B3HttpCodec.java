@@ -113,7 +113,7 @@ class B3HttpCodec {
       if (LOG_EXTRACT_HEADER_NAMES) {
         log.debug("Header: {}", key);
       }
-      String lowerCaseKey = null;
+      String mappedKey = null;
       int classification = IGNORE;
       // Prioritize b3 header. If b3 has already propagated traceId, spanId, and Sampling, we won't
       // overwrite those
@@ -154,8 +154,8 @@ class B3HttpCodec {
       }
 
       if (!taggedHeaders.isEmpty() && classification == IGNORE) {
-        lowerCaseKey = toLowerCase(key);
-        if (taggedHeaders.containsKey(lowerCaseKey)) {
+        mappedKey = taggedHeaders.get(key);
+        if (null != mappedKey) {
           classification = TAGS;
         }
       }
@@ -184,13 +184,10 @@ class B3HttpCodec {
                 break;
               case TAGS:
                 {
-                  final String mappedKey = taggedHeaders.get(lowerCaseKey);
-                  if (null != mappedKey) {
-                    if (tags.isEmpty()) {
-                      tags = new TreeMap<>();
-                    }
-                    tags.put(mappedKey, HttpCodec.decode(firstValue));
+                  if (tags.isEmpty()) {
+                    tags = new TreeMap<>();
                   }
+                  tags.put(mappedKey, HttpCodec.decode(firstValue));
                   break;
                 }
             }
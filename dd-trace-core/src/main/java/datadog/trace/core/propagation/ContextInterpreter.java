@@ -13,6 +13,7 @@ import static datadog.trace.core.propagation.HttpCodec.X_FORWARDED_KEY;
 import static datadog.trace.core.propagation.HttpCodec.X_FORWARDED_PORT_KEY;
 import static datadog.trace.core.propagation.HttpCodec.X_FORWARDED_PROTO_KEY;
 import static datadog.trace.core.propagation.HttpCodec.X_REAL_IP_KEY;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import datadog.trace.api.Config;
 import datadog.trace.api.DDSpanId;
@@ -28,10 +29,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
-public abstract class ContextInterpreter implements AgentPropagation.KeyClassifier {
+public abstract class ContextInterpreter
+    implements AgentPropagation.KeyClassifier, AgentPropagation.BinaryKeyClassifier {
 
-  protected final Map<String, String> taggedHeaders;
-  protected final Map<String, String> baggageMapping;
+  protected final HeaderMapping taggedHeaders;
+  protected final HeaderMapping baggageMapping;
 
   protected DDTraceId traceId;
   protected long spanId;
@@ -58,8 +60,8 @@ public abstract class ContextInterpreter implements AgentPropagation.KeyClassifi
 
   protected ContextInterpreter(
       Map<String, String> taggedHeaders, Map<String, String> baggageMapping, Config config) {
-    this.taggedHeaders = taggedHeaders;
-    this.baggageMapping = baggageMapping;
+    this.taggedHeaders = HeaderMapping.of(taggedHeaders);
+    this.baggageMapping = HeaderMapping.of(baggageMapping);
     this.customIpHeaderName = config.getTraceClientIpHeader();
     this.clientIpResolutionEnabled = config.isTraceClientIpResolverEnabled();
     this.clientIpWithoutAppSec = config.isClientIpEnabled();
@@ -86,6 +88,15 @@ public abstract class ContextInterpreter implements AgentPropagation.KeyClassifi
     }
   }
 
+  /**
+   * Accepts a header whose value is in UTF-8 bytes, which is decoded unless the interpreter can
+   * parse what it needs from the bytes directly.
+   */
+  @Override
+  public boolean accept(String key, byte[] value) {
+    return accept(key, null != value ? new String(value, UTF_8) : null);
+  }
+
   protected final boolean handledForwarding(String key, String value) {
     if (value == null || !collectIpHeaders) {
       return false;
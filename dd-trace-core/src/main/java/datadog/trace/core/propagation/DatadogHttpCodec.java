@@ -112,6 +112,11 @@ class DatadogHttpCodec {
     private static final int MAPPED_OT_BAGGAGE = 8;
     private static final int IGNORE = -1;
 
+    // ids of up to 19 digits never overflow an unsigned 64 bit value, longer ones are left to
+    // DDId.parseUnsignedLong, as are sampling priorities of more than 9 digits
+    private static final int MAX_ID_DIGITS = 19;
+    private static final int MAX_INT_DIGITS = 9;
+
     private final boolean isAwsPropagationEnabled;
     private final DatadogTags.Factory datadogTagsFactory;
 
@@ -130,7 +135,7 @@ class DatadogHttpCodec {
       if (LOG_EXTRACT_HEADER_NAMES) {
         log.debug("Header: {}", key);
       }
-      String lowerCaseKey = null;
+      String mappedKey = null;
       int classification = IGNORE;
       char first = Character.toLowerCase(key.charAt(0));
       switch (first) {
@@ -163,10 +168,9 @@ class DatadogHttpCodec {
           }
           break;
         case 'o':
-          lowerCaseKey = toLowerCase(key);
-          if (E2E_START_KEY.equals(lowerCaseKey)) {
+          if (E2E_START_KEY.equalsIgnoreCase(key)) {
             classification = E2E_START;
-          } else if (lowerCaseKey.startsWith(OT_BAGGAGE_PREFIX)) {
+          } else if (key.regionMatches(true, 0, OT_BAGGAGE_PREFIX, 0, OT_BAGGAGE_PREFIX.length())) {
             classification = OT_BAGGAGE;
           }
           break;
@@ -178,15 +182,15 @@ class DatadogHttpCodec {
       }
 
       if (!taggedHeaders.isEmpty() && classification == IGNORE) {
-        lowerCaseKey = toLowerCase(key);
-        if (taggedHeaders.containsKey(lowerCaseKey)) {
+        mappedKey = taggedHeaders.get(key);
+        if (null != mappedKey) {
           classification = TAGS;
         }
       }
 
       if (!baggageMapping.isEmpty() && classification == IGNORE) {
-        lowerCaseKey = toLowerCase(key);
-        if (baggageMapping.containsKey(lowerCaseKey)) {
+        mappedKey = baggageMapping.get(key);
+        if (null != mappedKey) {
           classification = MAPPED_OT_BAGGAGE;
         }
       }
@@ -215,13 +219,10 @@ class DatadogHttpCodec {
                 break;
               case TAGS:
                 {
-                  String mappedKey = taggedHeaders.get(lowerCaseKey);
-                  if (null != mappedKey) {
-                    if (tags.isEmpty()) {
-                      tags = new TreeMap<>();
-                    }
-                    tags.put(mappedKey, HttpCodec.decode(value));
+                  if (tags.isEmpty()) {
+                    tags = new TreeMap<>();
                   }
+                  tags.put(mappedKey, HttpCodec.decode(value));
                   break;
                 }
               case OT_BAGGAGE:
@@ -230,18 +231,16 @@ class DatadogHttpCodec {
                     baggage = new TreeMap<>();
                   }
                   baggage.put(
-                      lowerCaseKey.substring(OT_BAGGAGE_PREFIX.length()), HttpCodec.decode(value));
+                      toLowerCase(key).substring(OT_BAGGAGE_PREFIX.length()),
+                      HttpCodec.decode(value));
                   break;
                 }
               case MAPPED_OT_BAGGAGE:
                 {
-                  String mappedKey = baggageMapping.get(lowerCaseKey);
-                  if (null != mappedKey) {
-                    if (baggage.isEmpty()) {
-                      baggage = new TreeMap<>();
-                    }
-                    baggage.put(mappedKey, HttpCodec.decode(value));
+                  if (baggage.isEmpty()) {
+                    baggage = new TreeMap<>();
                   }
+                  baggage.put(mappedKey, HttpCodec.decode(value));
                   break;
                 }
               default:
@@ -256,6 +255,71 @@ class DatadogHttpCodec {
       return true;
     }
 
+    /**
+     * Parses the trace id, span id and sampling priority from the bytes of their headers, without
+     * decoding them. The other headers, and values which are not plain decimal numbers, are decoded
+     * and accepted as strings.
+     */
+    @Override
+    public boolean accept(String key, byte[] value) {
+      if (null != key && null != value && parsedFromBytes(key, value)) {
+        if (LOG_EXTRACT_HEADER_NAMES) {
+          log.debug("Header: {}", key);
+        }
+        return true;
+      }
+      return super.accept(key, value);
+    }
+
+    private boolean parsedFromBytes(String key, byte[] value) {
+      if (key.isEmpty() || Character.toLowerCase(key.charAt(0)) != 'x') {
+        return false;
+      }
+      if (TRACE_ID_KEY.equalsIgnoreCase(key)) {
+        int digits = firstValueDigits(value, 0);
+        if (digits > 0 && digits <= MAX_ID_DIGITS) {
+          traceId = DDTraceId.from(parseDigits(value, 0, digits));
+          return true;
+        }
+      } else if (SPAN_ID_KEY.equalsIgnoreCase(key)) {
+        int digits = firstValueDigits(value, 0);
+        if (digits > 0 && digits <= MAX_ID_DIGITS) {
+          spanId = parseDigits(value, 0, digits);
+          return true;
+        }
+      } else if (SAMPLING_PRIORITY_KEY.equalsIgnoreCase(key)) {
+        int start = value.length > 0 && value[0] == '-' ? 1 : 0;
+        int digits = firstValueDigits(value, start);
+        if (digits > 0 && digits <= MAX_INT_DIGITS) {
+          int priority = (int) parseDigits(value, start, digits);
+          samplingPriority = start == 0 ? priority : -priority;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * @return the number of decimal digits from {@code start} to the end of the first value of the
+     *     header, or 0 if it contains anything else
+     */
+    private static int firstValueDigits(byte[] value, int start) {
+      int end = start;
+      while (end < value.length && value[end] >= '0' && value[end] <= '9') {
+        end++;
+      }
+      return end == value.length || value[end] == ',' ? end - start : 0;
+    }
+
+    /** Parses up to 19 digits, as the bits of an unsigned 64 bit value. */
+    private static long parseDigits(byte[] value, int start, int digits) {
+      long result = 0;
+      for (int i = start; i < start + digits; i++) {
+        result = result * 10 + (value[i] - '0');
+      }
+      return result;
+    }
+
     private long extractEndToEndStartTime(String value) {
       try {
         return MILLISECONDS.toNanos(Long.parseLong(value));
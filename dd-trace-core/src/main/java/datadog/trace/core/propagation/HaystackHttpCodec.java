@@ -156,7 +156,7 @@ class HaystackHttpCodec {
         log.debug("Header: {}", key);
       }
       char first = Character.toLowerCase(key.charAt(0));
-      String lowerCaseKey = null;
+      String mappedKey = null;
       int classification = IGNORE;
       switch (first) {
         case 't':
@@ -185,8 +185,7 @@ class HaystackHttpCodec {
           }
           break;
         case 'b':
-          lowerCaseKey = toLowerCase(key);
-          if (lowerCaseKey.startsWith(BAGGAGE_PREFIX_LC)) {
+          if (key.regionMatches(true, 0, BAGGAGE_PREFIX_LC, 0, BAGGAGE_PREFIX_LC.length())) {
             classification = BAGGAGE;
           }
           break;
@@ -203,15 +202,15 @@ class HaystackHttpCodec {
       }
 
       if (!taggedHeaders.isEmpty() && classification == IGNORE) {
-        lowerCaseKey = toLowerCase(key);
-        if (taggedHeaders.containsKey(lowerCaseKey)) {
+        mappedKey = taggedHeaders.get(key);
+        if (null != mappedKey) {
           classification = TAGS;
         }
       }
 
       if (!baggageMapping.isEmpty() && classification == IGNORE) {
-        lowerCaseKey = toLowerCase(key);
-        if (baggageMapping.containsKey(lowerCaseKey)) {
+        mappedKey = baggageMapping.get(key);
+        if (null != mappedKey) {
           classification = MAPPED_OT_BAGGAGE;
         }
       }
@@ -234,23 +233,20 @@ class HaystackHttpCodec {
                 break;
               case TAGS:
                 {
-                  String mappedKey = taggedHeaders.get(lowerCaseKey);
-                  if (null != mappedKey) {
-                    if (tags.isEmpty()) {
-                      tags = new TreeMap<>();
-                    }
-                    tags.put(mappedKey, HttpCodec.decode(value));
+                  if (tags.isEmpty()) {
+                    tags = new TreeMap<>();
                   }
+                  tags.put(mappedKey, HttpCodec.decode(value));
                   break;
                 }
               case BAGGAGE:
                 {
-                  addBaggageItem(lowerCaseKey.substring(BAGGAGE_PREFIX_LC.length()), value);
+                  addBaggageItem(toLowerCase(key).substring(BAGGAGE_PREFIX_LC.length()), value);
                   break;
                 }
               case MAPPED_OT_BAGGAGE:
                 {
-                  addBaggageItem(baggageMapping.get(lowerCaseKey), value);
+                  addBaggageItem(mappedKey, value);
                   break;
                 }
               default:
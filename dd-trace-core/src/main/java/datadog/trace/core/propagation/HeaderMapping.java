@@ -0,0 +1,86 @@
+package datadog.trace.core.propagation;
+
+import java.util.Map;
+
+/**
+ * An immutable mapping from header names to the names of the tags or baggage items they are
+ * extracted to, which looks up header names ignoring case without lower-casing them first, so
+ * classifying a header doesn't allocate.
+ *
+ * <p>The header names are kept in an open addressing table indexed by a case-insensitive hash of
+ * the name, which is never more than half full, and the names are only compared when their lengths
+ * match.
+ */
+final class HeaderMapping {
+
+  static final HeaderMapping EMPTY = new HeaderMapping(new String[1], new String[1], 0);
+
+  private final String[] headerNames;
+  private final String[] mappedNames;
+  private final int size;
+
+  private HeaderMapping(String[] headerNames, String[] mappedNames, int size) {
+    this.headerNames = headerNames;
+    this.mappedNames = mappedNames;
+    this.size = size;
+  }
+
+  /** @param mapping from lower case header names to the names they are mapped to */
+  static HeaderMapping of(Map<String, String> mapping) {
+    if (mapping.isEmpty()) {
+      return EMPTY;
+    }
+    int capacity = Integer.highestOneBit(mapping.size()) << 2;
+    String[] headerNames = new String[capacity];
+    String[] mappedNames = new String[capacity];
+    int mask = capacity - 1;
+    for (Map.Entry<String, String> entry : mapping.entrySet()) {
+      String headerName = entry.getKey();
+      int index = hash(headerName) & mask;
+      while (null != headerNames[index]) {
+        index = (index + 1) & mask;
+      }
+      headerNames[index] = headerName;
+      mappedNames[index] = entry.getValue();
+    }
+    return new HeaderMapping(headerNames, mappedNames, mapping.size());
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** @return the name the header is mapped to, ignoring the case of the header name, or null */
+  String get(String headerName) {
+    if (size == 0) {
+      return null;
+    }
+    int length = headerName.length();
+    int mask = headerNames.length - 1;
+    int index = hash(headerName) & mask;
+    String candidate;
+    while (null != (candidate = headerNames[index])) {
+      if (candidate.length() == length && candidate.regionMatches(true, 0, headerName, 0, length)) {
+        return mappedNames[index];
+      }
+      index = (index + 1) & mask;
+    }
+    return null;
+  }
+
+  private static int hash(String name) {
+    int hash = 0;
+    for (int i = 0; i < name.length(); ++i) {
+      hash = 31 * hash + foldCase(name.charAt(i));
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  /** Folds the case of the character the same way {@link String#regionMatches} ignores it. */
+  private static char foldCase(char c) {
+    if (c < 0x80) {
+      return c >= 'A' && c <= 'Z' ? (char) (c | 0x20) : c;
+    }
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+}
@@ -180,7 +180,7 @@ class XRayHttpCodec {
         }
 
         if (!taggedHeaders.isEmpty()) {
-          String mappedKey = taggedHeaders.get(toLowerCase(key));
+          String mappedKey = taggedHeaders.get(key);
           if (null != mappedKey) {
             if (tags.isEmpty()) {
               tags = new TreeMap<>();
@@ -190,7 +190,7 @@ class XRayHttpCodec {
         }
 
         if (!baggageMapping.isEmpty()) {
-          String mappedKey = baggageMapping.get(toLowerCase(key));
+          String mappedKey = baggageMapping.get(key);
           if (null != mappedKey) {
             addBaggageItem(this, mappedKey, HttpCodec.decode(value));
           }
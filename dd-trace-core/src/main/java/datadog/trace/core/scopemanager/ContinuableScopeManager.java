@@ -19,7 +19,7 @@ import datadog.trace.bootstrap.instrumentation.api.ProfilingContextIntegration;
 import datadog.trace.bootstrap.instrumentation.api.ScopeSource;
 import datadog.trace.core.monitor.HealthMetrics;
 import datadog.trace.util.AgentTaskScheduler;
-import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +57,7 @@ public final class ContinuableScopeManager implements AgentScopeManager {
   private final int depthLimit;
   private final boolean strictMode;
   private final boolean inheritAsyncPropagation;
+  private final boolean recycleScopes;
 
   public ContinuableScopeManager(
       final int depthLimit,
@@ -80,15 +81,39 @@ public final class ContinuableScopeManager implements AgentScopeManager {
       final boolean inheritAsyncPropagation,
       final ProfilingContextIntegration profilingContextIntegration,
       final HealthMetrics healthMetrics) {
+    this(
+        depthLimit,
+        statsDClient,
+        strictMode,
+        inheritAsyncPropagation,
+        false,
+        profilingContextIntegration,
+        healthMetrics);
+  }
+
+  /**
+   * @param recycleScopes whether scopes activated with {@link #activate} are reused by later
+   *     activations on the same thread once closed, in which case a reference to a closed scope
+   *     must not be used once another scope has been activated
+   */
+  public ContinuableScopeManager(
+      final int depthLimit,
+      final StatsDClient statsDClient,
+      final boolean strictMode,
+      final boolean inheritAsyncPropagation,
+      final boolean recycleScopes,
+      final ProfilingContextIntegration profilingContextIntegration,
+      final HealthMetrics healthMetrics) {
 
     this.depthLimit = depthLimit == 0 ? Integer.MAX_VALUE : depthLimit;
     this.statsDClient = statsDClient;
     this.strictMode = strictMode;
     this.inheritAsyncPropagation = inheritAsyncPropagation;
+    this.recycleScopes = recycleScopes;
     this.scopeListeners = new CopyOnWriteArrayList<>();
     this.extendedScopeListeners = new CopyOnWriteArrayList<>();
     this.healthMetrics = healthMetrics;
-    this.tlsScopeStack = new ScopeStackThreadLocal(profilingContextIntegration);
+    this.tlsScopeStack = new ScopeStackThreadLocal(profilingContextIntegration, recycleScopes);
   }
 
   @Override
@@ -139,7 +164,16 @@ public final class ContinuableScopeManager implements AgentScopeManager {
                 ? top.isAsyncPropagating()
                 : DEFAULT_ASYNC_PROPAGATING;
 
-    final ContinuableScope scope = new ContinuableScope(this, span, source, asyncPropagation);
+    // iteration scopes are tracked by the RootIterationCleaner, so are never recycled
+    final boolean recyclable = recycleScopes && source != ScopeSource.ITERATION.id();
+    ContinuableScope scope = recyclable ? scopeStack.reuse() : null;
+    if (scope != null) {
+      scope.reuse(span, source, asyncPropagation);
+    } else {
+      scope =
+          new ContinuableScope(
+              this, span, recyclable ? (byte) (source | RECYCLABLE) : source, asyncPropagation);
+    }
 
     scopeStack.push(scope);
 
@@ -260,15 +294,18 @@ public final class ContinuableScopeManager implements AgentScopeManager {
     return this.tlsScopeStack.get();
   }
 
+  /** Flags a scope which can be reused once closed, the other bits hold its source. */
+  static final byte RECYCLABLE = (byte) 0x80;
+
   private static class ContinuableScope implements AgentScope, AttachableWrapper {
     private final ContinuableScopeManager scopeManager;
 
-    final AgentSpan span; // package-private so scopeManager can access it directly
+    AgentSpan span; // package-private so scopeManager can access it directly
 
     /** Flag to propagate this scope across async boundaries. */
     private boolean isAsyncPropagating;
 
-    private final byte flags;
+    private byte flags;
 
     private short referenceCount = 1;
 
@@ -288,6 +325,19 @@ public final class ContinuableScopeManager implements AgentScopeManager {
       this.isAsyncPropagating = isAsyncPropagating;
     }
 
+    /** Activates a closed scope again, as if it were a new scope. */
+    final void reuse(final AgentSpan span, final byte source, final boolean isAsyncPropagating) {
+      this.span = span;
+      this.flags = (byte) (source | RECYCLABLE);
+      this.isAsyncPropagating = isAsyncPropagating;
+      this.referenceCount = 1;
+    }
+
+    /** Scopes which have been wrapped are never reused, since the wrapper refers to them. */
+    final boolean recyclable() {
+      return (flags & RECYCLABLE) != 0 && null == wrapper;
+    }
+
     @Override
     public final void close() {
       final ScopeStack scopeStack = scopeManager.scopeStack();
@@ -469,14 +519,17 @@ public final class ContinuableScopeManager implements AgentScopeManager {
   static final class ScopeStackThreadLocal extends ThreadLocal<ScopeStack> {
 
     private final ProfilingContextIntegration profilingContextIntegration;
+    private final boolean recycleScopes;
 
-    ScopeStackThreadLocal(ProfilingContextIntegration profilingContextIntegration) {
+    ScopeStackThreadLocal(
+        ProfilingContextIntegration profilingContextIntegration, boolean recycleScopes) {
       this.profilingContextIntegration = profilingContextIntegration;
+      this.recycleScopes = recycleScopes;
     }
 
     @Override
     protected ScopeStack initialValue() {
-      return new ScopeStack(profilingContextIntegration);
+      return new ScopeStack(profilingContextIntegration, recycleScopes);
     }
   }
 
@@ -486,19 +539,35 @@ public final class ContinuableScopeManager implements AgentScopeManager {
    */
   static final class ScopeStack {
 
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Recycled scopes keep their span until they are reused, so that it can still be read from a
+     * scope which has just been closed, which bounds the number kept.
+     */
+    private static final int MAX_RECYCLED = 8;
+
     private final int nativeThreadId;
 
     private final ProfilingContextIntegration profilingContextIntegration;
-    private final ArrayDeque<ContinuableScope> stack = new ArrayDeque<>(); // previous scopes
+
+    // previous scopes, most recent last
+    private ContinuableScope[] stack = new ContinuableScope[INITIAL_CAPACITY];
+    private int size;
+
+    // closed scopes to reuse, most recently closed last
+    private final ContinuableScope[] recycled;
+    private int recycledCount;
 
     ContinuableScope top; // current scope
 
     // set by background task when a root iteration scope remains unclosed for too long
     volatile ContinuableScope overdueRootScope;
 
-    ScopeStack(ProfilingContextIntegration profilingContextIntegration) {
+    ScopeStack(ProfilingContextIntegration profilingContextIntegration, boolean recycleScopes) {
       this.profilingContextIntegration = profilingContextIntegration;
       this.nativeThreadId = profilingContextIntegration.getNativeThreadId();
+      this.recycled = recycleScopes ? new ContinuableScope[MAX_RECYCLED] : null;
     }
 
     ContinuableScope active() {
@@ -514,7 +583,8 @@ public final class ContinuableScopeManager implements AgentScopeManager {
         // no longer alive -- trigger listener & null out
         curScope.onProperClose();
         changedTop = true;
-        curScope = stack.poll();
+        recycle(curScope);
+        curScope = pop();
       }
       if (curScope != null && curScope == overdueRootScope) {
         // we know this scope is the last on the stack and is overdue
@@ -538,7 +608,10 @@ public final class ContinuableScopeManager implements AgentScopeManager {
     void push(final ContinuableScope scope) {
       onTopChanged(scope);
       if (top != null) {
-        stack.push(top);
+        if (size == stack.length) {
+          stack = Arrays.copyOf(stack, size << 1);
+        }
+        stack[size++] = top;
       } else {
         onBecomeNonEmpty();
       }
@@ -566,7 +639,8 @@ public final class ContinuableScopeManager implements AgentScopeManager {
       top.clearReferences();
       top.span.finishWithEndToEnd();
       // now do the same for any previous iteration scopes ahead of the expected scope
-      for (ContinuableScope scope : stack) {
+      for (int i = size - 1; i >= 0; --i) {
+        ContinuableScope scope = stack[i];
         if (scope.source() != ScopeSource.ITERATION.id()) {
           return expectedScope.equals(scope);
         } else {
@@ -579,15 +653,41 @@ public final class ContinuableScopeManager implements AgentScopeManager {
 
     /** Returns the current depth, including the top scope */
     int depth() {
-      return top != null ? 1 + stack.size() : 0;
+      return top != null ? 1 + size : 0;
     }
 
     // DQH - regrettably needed for pre-existing tests
     void clear() {
-      stack.clear();
+      Arrays.fill(stack, 0, size, null);
+      size = 0;
       top = null;
     }
 
+    /** @return a closed scope to activate again, or null if there isn't one */
+    ContinuableScope reuse() {
+      if (recycledCount == 0) {
+        return null;
+      }
+      ContinuableScope scope = recycled[--recycledCount];
+      recycled[recycledCount] = null;
+      return scope;
+    }
+
+    private void recycle(final ContinuableScope scope) {
+      if (null != recycled && recycledCount < MAX_RECYCLED && scope.recyclable()) {
+        recycled[recycledCount++] = scope;
+      }
+    }
+
+    private ContinuableScope pop() {
+      if (size == 0) {
+        return null;
+      }
+      ContinuableScope scope = stack[--size];
+      stack[size] = null;
+      return scope;
+    }
+
     private void onTopChanged(ContinuableScope top) {
       long spanId = top.span.getSpanId();
       AgentSpan rootSpan = top.span.getLocalRootSpan();
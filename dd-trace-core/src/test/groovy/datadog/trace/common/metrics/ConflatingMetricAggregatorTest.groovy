@@ -196,6 +196,48 @@ class ConflatingMetricAggregatorTest extends DDSpecification {
     count << [10, 100]
   }
 
+  def "aggregate repetitive spans on the publishing thread when pre-aggregation is enabled"() {
+    setup:
+    MetricWriter writer = Mock(MetricWriter)
+    Sink sink = Stub(Sink)
+    DDAgentFeaturesDiscovery features = Mock(DDAgentFeaturesDiscovery)
+    features.supportsMetrics() >> true
+    ConflatingMetricsAggregator aggregator = new ConflatingMetricsAggregator(empty,
+      features, sink, writer, 10, queueSize, reportingInterval, SECONDS, true)
+    long duration = 100
+    List<CoreSpan> trace = [
+      new SimpleSpan("service", "operation", "resource", "type", true, false, false, 0, duration, HTTP_OK),
+      new SimpleSpan("service1", "operation1", "resource1", "type", false, false, false, 0, 0, HTTP_OK),
+      new SimpleSpan("service2", "operation2", "resource2", "type", true, false, true, 0, duration * 2, HTTP_OK)
+    ]
+    aggregator.start()
+
+    when:
+    CountDownLatch latch = new CountDownLatch(1)
+    for (int i = 0; i < count; ++i) {
+      aggregator.publish(trace)
+    }
+    aggregator.report()
+    latch.await(2, SECONDS)
+
+    then: "metrics should be conflated"
+    1 * writer.finishBucket() >> { latch.countDown() }
+    1 * writer.startBucket(2, _, SECONDS.toNanos(reportingInterval))
+    1 * writer.add(new MetricKey("resource", "service", "operation", "type", HTTP_OK, false), { AggregateMetric value ->
+      value.getHitCount() == count && value.getDuration() == count * duration && value.getOkLatencies().getCount() == count
+    })
+    1 * writer.add(new MetricKey("resource2", "service2", "operation2", "type", HTTP_OK, false), { AggregateMetric value ->
+      value.getHitCount() == count && value.getErrorCount() == count && value.getDuration() == count * duration * 2 &&
+        value.getErrorLatencies().getCount() == count
+    })
+
+    cleanup:
+    aggregator.close()
+
+    where:
+    count << [10, 100]
+  }
+
   def "test least recently written to aggregate flushed when size limit exceeded"() {
     setup:
     int maxAggregates = 10
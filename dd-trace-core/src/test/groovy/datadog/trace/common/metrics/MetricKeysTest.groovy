@@ -0,0 +1,92 @@
+package datadog.trace.common.metrics
+
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString
+import datadog.trace.test.util.DDSpecification
+
+class MetricKeysTest extends DDSpecification {
+
+  def "lookup finds the canonical key whatever the type of the span's fields"() {
+    setup:
+    MetricKeys keys = new MetricKeys()
+    MetricKey key = new MetricKey("resource", "service", "operation", "type", 200, false)
+
+    when:
+    MetricKey existing = keys.putIfAbsent(key)
+
+    then:
+    existing == null
+    keys.size() == 1
+    keys.get(resource, "service", operation, "type", 200, false).is(key)
+    keys.get(new StringBuilder("resource"), "service", "operation", "type", 200, false).is(key)
+    keys.get("resource", "service", "operation", "type", 404, false) == null
+    keys.get("resource", "service", "operation", "type", 200, true) == null
+    keys.get("resource", "other", "operation", "type", 200, false) == null
+
+    where:
+    resource                              | operation
+    "resource"                            | "operation"
+    UTF8BytesString.create("resource")    | UTF8BytesString.create("operation")
+  }
+
+  def "null fields match empty keys"() {
+    setup:
+    MetricKeys keys = new MetricKeys()
+    MetricKey key = new MetricKey(null, "service", "operation", null, 0, false)
+    keys.putIfAbsent(key)
+
+    expect:
+    keys.get(null, "service", "operation", null, 0, false).is(key)
+    keys.get("", "service", "operation", "", 0, false).is(key)
+  }
+
+  def "putIfAbsent returns the existing canonical key"() {
+    setup:
+    MetricKeys keys = new MetricKeys()
+    MetricKey first = new MetricKey("resource", "service", "operation", "type", 200, false)
+    MetricKey second = new MetricKey("resource", "service", "operation", "type", 200, false)
+
+    when:
+    keys.putIfAbsent(first)
+
+    then:
+    keys.putIfAbsent(second).is(first)
+    keys.size() == 1
+  }
+
+  def "removed keys can be added again"() {
+    setup:
+    MetricKeys keys = new MetricKeys()
+    List<MetricKey> added = (0..<1000).collect {
+      MetricKey key = new MetricKey("resource-" + it, "service", "operation", "type", 200, false)
+      keys.putIfAbsent(key)
+      return key
+    }
+
+    when: "every other key is removed"
+    added.eachWithIndex { key, i ->
+      if (i % 2 == 0) {
+        keys.remove(key)
+      }
+    }
+
+    then: "only the remaining keys can be found"
+    keys.size() == 500
+    added.eachWithIndex { key, i ->
+      MetricKey found = keys.get(key.getResource(), "service", "operation", "type", 200, false)
+      assert i % 2 == 0 ? found == null : found.is(key)
+    }
+
+    when: "the removed keys are added again"
+    added.eachWithIndex { key, i ->
+      if (i % 2 == 0) {
+        assert keys.putIfAbsent(key) == null
+      }
+    }
+
+    then:
+    keys.size() == 1000
+    added.every {
+      keys.get(it.getResource(), "service", "operation", "type", 200, false).is(it)
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package datadog.trace.common.metrics
+
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.atomic.AtomicLongArray
+
+import static datadog.trace.common.metrics.AggregateMetric.ERROR_TAG
+import static datadog.trace.common.metrics.AggregateMetric.TOP_LEVEL_TAG
+
+class ThreadLocalAggregatesTest extends DDSpecification {
+
+  def "merged aggregates match aggregating each duration"() {
+    setup:
+    ThreadLocalAggregates localAggregates = new ThreadLocalAggregates()
+    MetricKey key = new MetricKey("resource", "service", "operation", "type", 200, false)
+    long[] tagged = (0..<50).collect {
+      (it % 5 == 0 ? ERROR_TAG : 0L) | (it % 2 == 0 ? TOP_LEVEL_TAG : 0L) | (1000L + it % 7)
+    } as long[]
+    AggregateMetric expected = new AggregateMetric().recordDurations(tagged.length, new AtomicLongArray(tagged))
+    AggregateMetric merged = new AggregateMetric()
+
+    when:
+    boolean recorded = tagged.every {
+      localAggregates.record(key, it & (ERROR_TAG | TOP_LEVEL_TAG), it & ~(ERROR_TAG | TOP_LEVEL_TAG))
+    }
+
+    then:
+    recorded
+    localAggregates.mergeInto({ merged })
+    merged.getHitCount() == expected.getHitCount()
+    merged.getErrorCount() == expected.getErrorCount()
+    merged.getTopLevelCount() == expected.getTopLevelCount()
+    merged.getDuration() == expected.getDuration()
+    merged.getOkLatencies().serialize() == expected.getOkLatencies().serialize()
+    merged.getErrorLatencies().serialize() == expected.getErrorLatencies().serialize()
+
+    and: "nothing is left to merge"
+    !localAggregates.mergeInto({ merged })
+  }
+
+  def "spans are rejected once the thread's aggregates are full"() {
+    setup:
+    ThreadLocalAggregates localAggregates = new ThreadLocalAggregates()
+    List<MetricKey> keys = (0..ThreadLocalAggregates.Layer.MAX_KEYS).collect {
+      new MetricKey("resource-" + it, "service", "operation", "type", 200, false)
+    }
+
+    expect: "keys beyond the limit are rejected"
+    keys.subList(0, ThreadLocalAggregates.Layer.MAX_KEYS).every {
+      localAggregates.record(it, 0, 100)
+    }
+    !localAggregates.record(keys.last(), 0, 100)
+
+    and: "durations beyond the number of bins are rejected"
+    (1..ThreadLocalAggregates.CompactHistogram.MAX_BINS).every {
+      // the bins are about 1% wide, so doubling the duration always lands in a new bin
+      localAggregates.record(keys.first(), 0, 1L << it)
+    } == false
+
+    and: "there is room again once merged"
+    localAggregates.mergeInto({ new AggregateMetric() })
+    localAggregates.record(keys.last(), 0, 100)
+  }
+}
@@ -0,0 +1,126 @@
+package datadog.trace.common.sampling
+
+import datadog.trace.common.writer.ListWriter
+import datadog.trace.core.CoreSpan
+import datadog.trace.core.DDSpan
+import datadog.trace.core.test.DDCoreSpecification
+
+import static datadog.trace.common.sampling.SamplingRule.AlwaysMatchesSamplingRule
+import static datadog.trace.common.sampling.SamplingRule.OperationSamplingRule
+import static datadog.trace.common.sampling.SamplingRule.ServiceSamplingRule
+import static datadog.trace.common.sampling.SamplingRule.TraceSamplingRule
+
+class SamplingRuleMatcherTest extends DDCoreSpecification {
+
+  static final RateSampler SAMPLER = new DeterministicSampler.TraceSampler(1)
+
+  def tracer = tracerBuilder().writer(new ListWriter()).build()
+
+  def cleanup() {
+    tracer.close()
+  }
+
+  def "matches the first matching rule"() {
+    setup:
+    List<SamplingRule> rules = [
+      new TraceSamplingRule("a", "x", SAMPLER),
+      new ServiceSamplingRule("b.*", SAMPLER),
+      new TraceSamplingRule("b", null, SAMPLER),
+      new TraceSamplingRule(null, "y", SAMPLER),
+      new OperationSamplingRule("z", SAMPLER),
+      new TraceSamplingRule("a", "x", SAMPLER),
+      new TraceSamplingRule("c", "z", SAMPLER),
+      new TraceSamplingRule(null, null, SAMPLER),
+      new AlwaysMatchesSamplingRule(SAMPLER)
+    ]
+    def matcher = new SamplingRuleMatcher(rules, cacheSize)
+
+    expect:
+    [
+      ["a", "x"],
+      ["a", "y"],
+      ["b", "x"],
+      ["bb", "y"],
+      ["c", "y"],
+      ["c", "z"],
+      ["d", "x"],
+      ["d", "z"]
+    ].each { service, operation ->
+      // twice, to match from the cache when there is one
+      2.times {
+        DDSpan span = span(service, operation)
+        assert matcher.match(span).is(firstMatch(rules, span))
+      }
+    }
+
+    where:
+    cacheSize << [0, 1, SamplingRuleMatcher.DEFAULT_CACHE_SIZE]
+  }
+
+  def "matches nothing when no rule matches"() {
+    setup:
+    def matcher = new SamplingRuleMatcher([
+      new TraceSamplingRule("a", "x", SAMPLER),
+      new ServiceSamplingRule("b", SAMPLER)
+    ])
+
+    expect:
+    matcher.match(span("a", "y")) == null
+    matcher.match(span("c", "x")) == null
+    matcher.match(span("c", "x")) == null
+  }
+
+  def "rules looking at more than the service and operation names are not cached"() {
+    setup:
+    def rule = new SamplingRule(SAMPLER) {
+        @Override
+        <T extends CoreSpan<T>> boolean matches(T span) {
+          return span.getTag("match") != null
+        }
+      }
+    def fallback = new AlwaysMatchesSamplingRule(SAMPLER)
+    def matcher = new SamplingRuleMatcher([rule, fallback])
+
+    expect:
+    matcher.match(span("a", "x")).is(fallback)
+    matcher.match(span("a", "x", [match: true])).is(rule)
+    matcher.match(span("a", "x")).is(fallback)
+  }
+
+  def "matches like the rules tested in order"() {
+    setup:
+    def random = new Random(seed)
+    List<SamplingRule> rules = (0..<50).collect {
+      String service = random.nextInt(3) == 0 ? null : "s" + random.nextInt(10)
+      String operation = random.nextInt(3) == 0 ? null : "o" + random.nextInt(10)
+      switch (random.nextInt(10)) {
+        case 0:
+          return new ServiceSamplingRule("s" + random.nextInt(10) + ".*", SAMPLER)
+        case 1:
+          return new OperationSamplingRule("o[0-" + random.nextInt(10) + "]", SAMPLER)
+        default:
+          return new TraceSamplingRule(service, operation, SAMPLER)
+      }
+    }
+    def matcher = new SamplingRuleMatcher(rules, 16)
+
+    expect:
+    1000.times {
+      DDSpan span = span("s" + random.nextInt(12), "o" + random.nextInt(12))
+      assert matcher.match(span).is(firstMatch(rules, span))
+    }
+
+    where:
+    seed << [1, 2, 3, 4, 5]
+  }
+
+  static SamplingRule firstMatch(List<SamplingRule> rules, DDSpan span) {
+    return rules.find { it.matches(span) }
+  }
+
+  DDSpan span(String service, String operation, Map<String, Object> tags = [:]) {
+    def builder = tracer.buildSpan(operation).withServiceName(service).ignoreActiveSpan()
+    tags.each { key, value -> builder.withTag(key, value) }
+    return builder.start() as DDSpan
+  }
+}
@@ -20,6 +20,7 @@ import spock.lang.Shared
 import spock.lang.Timeout
 
 import java.nio.ByteBuffer
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
 
@@ -81,6 +82,95 @@ class PayloadDispatcherTest extends DDSpecification {
     "v0.5/traces" | 100
   }
 
+  def "should send payloads from the sender thread when in flight payloads are enabled"() {
+    setup:
+    HealthMetrics healthMetrics = Mock(HealthMetrics)
+    DDAgentFeaturesDiscovery discovery = Mock(DDAgentFeaturesDiscovery)
+    DDAgentApi api = Mock(DDAgentApi)
+    PayloadDispatcher dispatcher = new PayloadDispatcher(new DDAgentMapperDiscovery(discovery), api, healthMetrics, monitoring, 2)
+    dispatcher.start()
+    List<DDSpan> trace = [realSpan()]
+    String sendingThread = null
+    when:
+    for (int i = 0; i < traceCount; ++i) {
+      dispatcher.addTrace(trace)
+    }
+    dispatcher.flush()
+    dispatcher.awaitInFlightPayloads()
+    then:
+    2 * discovery.getTraceEndpoint() >> traceEndpoint
+    1 * healthMetrics.onSerialize({ it > 0 })
+    1 * api.sendSerializedTraces({ it.traceCount() == traceCount }) >> {
+      sendingThread = Thread.currentThread().getName()
+      RemoteApi.Response.success(200)
+    }
+    1 * healthMetrics.onSend(traceCount, _, _)
+    sendingThread == "dd-trace-payload-sender"
+
+    cleanup:
+    dispatcher.close()
+
+    where:
+    traceEndpoint | traceCount
+    "v0.4/traces" | 1
+    "v0.4/traces" | 100
+    "v0.5/traces" | 1
+    "v0.5/traces" | 100
+  }
+
+  @Timeout(5)
+  def "should drop payloads when no buffer is freed in time and when closed"() {
+    setup:
+    HealthMetrics healthMetrics = Mock(HealthMetrics)
+    DDAgentFeaturesDiscovery discovery = Mock(DDAgentFeaturesDiscovery)
+    discovery.getTraceEndpoint() >> traceEndpoint
+    CountDownLatch sending = new CountDownLatch(1)
+    CountDownLatch agent = new CountDownLatch(1)
+    DDAgentApi api = Mock(DDAgentApi)
+    // 3 payloads in flight and 1 serializer, so 4 pooled buffers
+    PayloadDispatcher dispatcher = new PayloadDispatcher(
+      new DDAgentMapperDiscovery(discovery), api, healthMetrics, monitoring, 3, 1, false, 100)
+    dispatcher.start()
+    List<DDSpan> trace = [realSpan()]
+
+    when: "the first payload is stuck being sent and the next two wait for it"
+    for (int i = 0; i < 3; ++i) {
+      dispatcher.addTrace(trace)
+      dispatcher.flush()
+      sending.await()
+    }
+
+    then:
+    1 * api.sendSerializedTraces(_) >> {
+      sending.countDown()
+      agent.await()
+      RemoteApi.Response.success(200)
+    }
+    0 * healthMetrics.onDropPayload(_)
+
+    when: "all the buffers are in use"
+    dispatcher.addTrace(trace)
+    dispatcher.flush()
+
+    then: "the payload is dropped"
+    1 * healthMetrics.onSendBackpressure(_)
+    1 * healthMetrics.onDropPayload(1)
+    0 * api.sendSerializedTraces(_)
+
+    when: "closed while the payloads are waiting to be sent"
+    dispatcher.close()
+
+    then: "they are dropped rather than sent"
+    2 * healthMetrics.onDropPayload(1)
+    0 * api.sendSerializedTraces(_)
+
+    cleanup:
+    agent.countDown()
+
+    where:
+    traceEndpoint << ["v0.5/traces", "v0.4/traces"]
+  }
+
   def "should report failed request to monitor"() {
     setup:
     HealthMetrics healthMetrics = Mock(HealthMetrics)
@@ -1,5 +1,6 @@
 package datadog.trace.common.writer
 
+import datadog.trace.api.DDTraceId
 import datadog.trace.common.sampling.SingleSpanSampler
 import datadog.trace.common.writer.ddagent.PrioritizationStrategy.PublishResult
 import datadog.trace.core.CoreSpan
@@ -225,6 +226,52 @@ class TraceProcessingWorkerTest extends DDSpecification {
     !flushed
   }
 
+  def "traces should be routed to serializer shards by trace id"() {
+    setup:
+    List<List<DDTraceId>> dispatched = (0..<shards).collect {
+      Collections.synchronizedList([])
+    }
+    List<AtomicInteger> flushCounts = (0..<shards).collect {
+      new AtomicInteger()
+    }
+    List<PayloadDispatcher> dispatchers = (0..<shards).collect { shard ->
+      PayloadDispatcher dispatcher = flushCountingPayloadDispatcher(flushCounts[shard])
+      dispatcher.addTrace(_) >> { List<List<DDSpan>> args ->
+        dispatched[shard].add(args[0][0].getTraceId())
+      }
+      return dispatcher
+    }
+    TraceProcessingWorker worker = new TraceProcessingWorker(10 * shards, Stub(HealthMetrics),
+      dispatchers, {
+        false
+      }, FAST_LANE, 100, TimeUnit.SECONDS, null) // prevent heartbeats from helping the flush happen
+    worker.start()
+
+    when: "traces are submitted and flushed"
+    for (int i = 0; i < 8; ++i) {
+      DDSpan span = Stub(DDSpan) {
+        getTraceId() >> DDTraceId.from(i)
+      }
+      worker.publish(span, SAMPLER_KEEP, [span])
+    }
+    boolean flushed = worker.flush(10, TimeUnit.SECONDS)
+
+    then: "every shard serialized the traces routed to it and was flushed"
+    flushed
+    (0..<shards).every { shard ->
+      flushCounts[shard].get() == 1 &&
+        dispatched[shard] as Set == (0..<8).findAll { it % shards == shard }.collect {
+          DDTraceId.from(it)
+        } as Set
+    }
+
+    cleanup:
+    worker.close()
+
+    where:
+    shards << [1, 2, 4]
+  }
+
   def "send unsampled traces to the SpanProcessingWorker and expect only sampled spans dispatched when dropping policy is active"() {
     setup:
     HealthMetrics healthMetrics = Mock(HealthMetrics)
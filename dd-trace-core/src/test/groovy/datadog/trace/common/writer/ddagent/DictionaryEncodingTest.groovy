@@ -0,0 +1,147 @@
+package datadog.trace.common.writer.ddagent
+
+import datadog.communication.serialization.GrowableBuffer
+import datadog.communication.serialization.Mapper
+import datadog.communication.serialization.Writable
+import datadog.communication.serialization.msgpack.MsgPackWriter
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString
+import datadog.trace.test.util.DDSpecification
+import org.msgpack.core.MessagePack
+import org.msgpack.core.MessageUnpacker
+
+import java.nio.ByteBuffer
+
+class DictionaryEncodingTest extends DDSpecification {
+
+  GrowableBuffer dictionary = new GrowableBuffer(1024)
+  Mapper<Object> mapper = new Mapper<Object>() {
+    @Override
+    void map(Object data, Writable packer) {
+      packer.writeString(String.valueOf(data), null)
+    }
+  }
+
+  def "strings recurring across payloads are cached"() {
+    setup:
+    DictionaryEncoding encoding = new DictionaryEncoding(dictionary, new MsgPackWriter(dictionary), mapper, 16, 1024)
+
+    when: "a string is seen for the first time"
+    int first = encoding.encode("service")
+
+    then: "it is encoded but not cached"
+    first == 0
+    encoding.encode("service") == 0
+    encoding.cachedEntries() == 0
+
+    when: "the string recurs in a later payload"
+    nextPayload(encoding)
+    int second = encoding.encode("operation")
+    int third = encoding.encode("service")
+
+    then: "it is cached, and gets a code in the new payload"
+    second == 0
+    third == 1
+    encoding.cachedEntries() == 1
+
+    when:
+    List<String> strings = nextPayload(encoding)
+    int cached = encoding.encode("service")
+
+    then: "previous payloads' dictionaries hold their strings"
+    strings == ["operation", "service"]
+    cached == 0
+    encoding.cachedEntries() == 1
+    encoding.encode("service") == 0
+    nextPayload(encoding) == ["service"]
+  }
+
+  def "strings and UTF8BytesStrings with the same contents get their own codes"() {
+    setup:
+    DictionaryEncoding encoding = new DictionaryEncoding(dictionary, new MsgPackWriter(dictionary), mapper, 16, 1024)
+
+    when:
+    int string = encoding.encode("service")
+    int utf8 = encoding.encode(UTF8BytesString.create("service"))
+
+    then:
+    string == 0
+    utf8 == 1
+    encoding.encode("service") == 0
+    encoding.encode(UTF8BytesString.create("service")) == 1
+    nextPayload(encoding) == ["service", "service"]
+
+    when: "both recur in a later payload and are cached"
+    int cachedUtf8 = encoding.encode(UTF8BytesString.create("service"))
+    int cachedString = encoding.encode("service")
+
+    then:
+    cachedUtf8 == 0
+    cachedString == 1
+    encoding.cachedEntries() == 2
+    nextPayload(encoding) == ["service", "service"]
+
+    when:
+    cachedString = encoding.encode("service")
+    cachedUtf8 = encoding.encode(UTF8BytesString.create("service"))
+
+    then:
+    cachedString == 0
+    cachedUtf8 == 1
+    encoding.cachedEntries() == 2
+    nextPayload(encoding) == ["service", "service"]
+  }
+
+  def "unused strings are evicted once the cache is full"() {
+    setup:
+    DictionaryEncoding encoding = new DictionaryEncoding(dictionary, new MsgPackWriter(dictionary), mapper, 4, 1024)
+    (0..<8).each {
+      encoding.encode("string-" + it)
+    }
+    nextPayload(encoding)
+
+    when:
+    (0..<8).each {
+      encoding.encode("string-" + it)
+    }
+    List<String> strings = nextPayload(encoding)
+
+    then: "only the strings which fit are cached"
+    strings == (0..<8).collect { "string-" + it }
+    encoding.cachedEntries() == 4
+
+    when: "only some cached strings are used"
+    encoding.encode("string-0")
+    encoding.encode("string-1")
+    nextPayload(encoding)
+
+    then: "the others are evicted"
+    encoding.cachedEntries() == 2
+  }
+
+  def "long strings are not cached"() {
+    setup:
+    DictionaryEncoding encoding = new DictionaryEncoding(dictionary, new MsgPackWriter(dictionary), mapper, 16, 1024)
+    String longString = "x" * (DictionaryEncoding.MAX_CACHED_LENGTH + 1)
+
+    when:
+    encoding.encode(longString)
+    nextPayload(encoding)
+    encoding.encode(longString)
+
+    then:
+    encoding.cachedEntries() == 0
+    nextPayload(encoding) == [longString]
+  }
+
+  private List<String> nextPayload(DictionaryEncoding encoding) {
+    ByteBuffer slice = dictionary.slice()
+    MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(slice)
+    List<String> strings = []
+    for (int i = 0; i < dictionary.messageCount(); ++i) {
+      strings.add(unpacker.unpackString())
+    }
+    dictionary.reset()
+    encoding.reset()
+    return strings
+  }
+}
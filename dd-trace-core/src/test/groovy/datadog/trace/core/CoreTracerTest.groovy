@@ -3,6 +3,8 @@ package datadog.trace.core
 
 import datadog.trace.api.Config
 import datadog.trace.api.StatsDClient
+import datadog.trace.api.interceptor.MutableSpan
+import datadog.trace.api.interceptor.TraceInterceptor
 import datadog.trace.api.sampling.PrioritySampling
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation
 import datadog.trace.common.sampling.AllSampler
@@ -28,6 +30,7 @@ import static datadog.trace.api.config.TracerConfig.HEADER_TAGS
 import static datadog.trace.api.config.TracerConfig.PRIORITY_SAMPLING
 import static datadog.trace.api.config.TracerConfig.SERVICE_MAPPING
 import static datadog.trace.api.config.TracerConfig.SPAN_TAGS
+import static datadog.trace.api.config.TracerConfig.TRACE_ASYNC_COMPLETION_ENABLED
 import static datadog.trace.api.config.TracerConfig.WRITER_TYPE
 
 @Timeout(10)
@@ -320,6 +323,78 @@ class CoreTracerTest extends DDCoreSpecification {
     tracer.close()
   }
 
+  def "async completion writes traces on a tracer thread"() {
+    given:
+    injectSysConfig(TRACE_ASYNC_COMPLETION_ENABLED, "true")
+    def writingThread = null
+    def writer = new ListWriter() {
+        @Override
+        void write(List<DDSpan> trace) {
+          writingThread = Thread.currentThread().name
+          super.write(trace)
+        }
+      }
+    def tracer = tracerBuilder().writer(writer).build()
+    def interceptingThread = null
+    tracer.addTraceInterceptor(new TraceInterceptor() {
+        @Override
+        Collection<? extends MutableSpan> onTraceComplete(Collection<? extends MutableSpan> trace) {
+          interceptingThread = Thread.currentThread().name
+          return trace
+        }
+
+        @Override
+        int priority() {
+          return 42
+        }
+      })
+
+    when:
+    def span = tracer.buildSpan("operation").start()
+    span.finish()
+
+    then: "the trace is intercepted and sampled by the finishing thread"
+    interceptingThread == Thread.currentThread().name
+    span.getSamplingPriority() == PrioritySampling.SAMPLER_KEEP
+
+    when:
+    writer.waitForTraces(1)
+
+    then:
+    writingThread == "dd-trace-completion"
+
+    cleanup:
+    tracer.close()
+  }
+
+  def "async completion decides the priority of partially flushed traces when they are flushed"() {
+    given:
+    injectSysConfig(TRACE_ASYNC_COMPLETION_ENABLED, "true")
+    def writer = new ListWriter()
+    def tracer = tracerBuilder().writer(writer).partialFlushMinSpans(1).build()
+
+    when:
+    def root = tracer.buildSpan("operation").start()
+    def child = tracer.buildSpan('my_child').asChildOf(root).start()
+    def otherChild = tracer.buildSpan('my_child').asChildOf(root).start()
+    child.finish()
+    otherChild.finish()
+
+    then:
+    root.getSamplingPriority() == PrioritySampling.SAMPLER_KEEP
+
+    when:
+    root.finish()
+    tracer.flush()
+
+    then:
+    writer.flatten().size() == 3
+    writer.flatten().every { it.getSamplingPriority() == PrioritySampling.SAMPLER_KEEP }
+
+    cleanup:
+    tracer.close()
+  }
+
   def "span priority set when injecting"() {
     given:
     injectSysConfig("writer.type", "LoggingWriter")
@@ -0,0 +1,99 @@
+package datadog.trace.core
+
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class FinishedSpansTest extends DDSpecification {
+
+  def "drains spans most recently finished first"() {
+    setup:
+    FinishedSpans finishedSpans = new FinishedSpans()
+    List<DDSpan> spans = (0..<count).collect { Mock(DDSpan) }
+
+    when:
+    spans.each { finishedSpans.add(it) }
+
+    then:
+    finishedSpans.isEmpty() == (count == 0)
+    finishedSpans.size() == count
+    finishedSpans.asList() == spans.reverse()
+
+    when:
+    List<DDSpan> drained = finishedSpans.drain()
+
+    then:
+    drained == spans.reverse()
+    drained.size() == count
+    finishedSpans.isEmpty()
+    finishedSpans.drain().isEmpty()
+
+    where:
+    count << [0, 1, FinishedSpans.MIN_CHUNK_SIZE, FinishedSpans.MIN_CHUNK_SIZE + 1, 5000]
+  }
+
+  def "spans appended after draining are kept"() {
+    setup:
+    FinishedSpans finishedSpans = new FinishedSpans()
+    DDSpan first = Mock(DDSpan)
+    DDSpan second = Mock(DDSpan)
+    finishedSpans.add(first)
+
+    when:
+    List<DDSpan> drained = finishedSpans.drain()
+    finishedSpans.add(second)
+
+    then:
+    drained == [first]
+    finishedSpans.asList() == [second]
+    finishedSpans.drain() == [second]
+  }
+
+  def "concurrently appended spans are drained exactly once"() {
+    setup:
+    int threads = 4
+    int spansPerThread = 10000
+    FinishedSpans finishedSpans = new FinishedSpans()
+    DDSpan[][] spans = new DDSpan[threads][spansPerThread]
+    for (int t = 0; t < threads; ++t) {
+      for (int i = 0; i < spansPerThread; ++i) {
+        spans[t][i] = Stub(DDSpan)
+      }
+    }
+    def executor = Executors.newFixedThreadPool(threads)
+    CountDownLatch start = new CountDownLatch(1)
+    CountDownLatch done = new CountDownLatch(threads)
+    Set<DDSpan> drained = Collections.newSetFromMap(new IdentityHashMap<DDSpan, Boolean>())
+    int drainedCount = 0
+
+    when:
+    for (int t = 0; t < threads; ++t) {
+      DDSpan[] appended = spans[t]
+      executor.submit {
+        start.await()
+        appended.each { finishedSpans.add(it) }
+        done.countDown()
+      }
+    }
+    start.countDown()
+    while (done.count > 0) {
+      List<DDSpan> batch = finishedSpans.drain()
+      drainedCount += batch.size()
+      drained.addAll(batch)
+    }
+    List<DDSpan> batch = finishedSpans.drain()
+    drainedCount += batch.size()
+    drained.addAll(batch)
+
+    then:
+    done.await(10, TimeUnit.SECONDS)
+    drainedCount == threads * spansPerThread
+    drained.size() == threads * spansPerThread
+    finishedSpans.isEmpty()
+
+    cleanup:
+    executor.shutdownNow()
+  }
+}
@@ -19,14 +19,15 @@ import spock.lang.Timeout
 import spock.util.concurrent.PollingConditions
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicInteger
 
-import static datadog.trace.core.PendingTraceBuffer.BUFFER_SIZE
-
 @Timeout(5)
 class PendingTraceBufferTest extends DDSpecification {
+  static final int BUFFER_SIZE = 4096
+
   @Subject
-  def buffer = PendingTraceBuffer.delaying(SystemTimeSource.INSTANCE)
+  def buffer = PendingTraceBuffer.delaying(SystemTimeSource.INSTANCE, BUFFER_SIZE, new HealthMetrics(StatsDClient.NO_OP))
   def bufferSpy = Spy(buffer)
 
   def tracer = Mock(CoreTracer)
@@ -369,6 +370,111 @@ class PendingTraceBufferTest extends DDSpecification {
     }
   }
 
+  def "buffer capacity can exceed the default"() {
+    setup:
+    def healthMetrics = Mock(HealthMetrics)
+    def largeBuffer = PendingTraceBuffer.delaying(SystemTimeSource.INSTANCE, 4 * BUFFER_SIZE, healthMetrics)
+    largeBuffer.start()
+    def elements = (1..2 * BUFFER_SIZE).collect { new FakeElement(false, System.currentTimeMillis()) }
+
+    when:
+    elements.each { largeBuffer.enqueue(it) }
+
+    then:
+    new PollingConditions(timeout: 3).eventually {
+      assert largeBuffer.wheel.size() == elements.size()
+    }
+    elements.every { it.writes.get() == 0 && it.enqueued.get() }
+    0 * healthMetrics._
+
+    when:
+    largeBuffer.flush()
+
+    then:
+    elements.every { it.writes.get() == 1 && !it.enqueued.get() }
+    0 * healthMetrics._
+
+    cleanup:
+    largeBuffer.close()
+  }
+
+  def "full buffer writes immediately"() {
+    setup:
+    def healthMetrics = Mock(HealthMetrics)
+    def smallBuffer = PendingTraceBuffer.delaying(SystemTimeSource.INSTANCE, 2, healthMetrics)
+    def elements = (1..3).collect { new FakeElement(false, System.currentTimeMillis()) }
+
+    when:
+    elements.each { smallBuffer.enqueue(it) }
+
+    then:
+    elements*.writes*.get() == [0, 0, 1]
+    elements*.enqueued*.get() == [true, true, false]
+    1 * healthMetrics.onPendingTraceBufferFull()
+    0 * healthMetrics._
+
+    cleanup:
+    smallBuffer.close()
+  }
+
+  def "the queue and the wheel share the capacity"() {
+    setup:
+    def healthMetrics = Mock(HealthMetrics)
+    def smallBuffer = PendingTraceBuffer.delaying(SystemTimeSource.INSTANCE, 2, healthMetrics)
+    smallBuffer.start()
+    def elements = (1..2).collect { new FakeElement(false, System.currentTimeMillis()) }
+    def overflow = new FakeElement(false, System.currentTimeMillis())
+
+    when: "the traces have moved from the queue to the wheel"
+    elements.each { smallBuffer.enqueue(it) }
+
+    then:
+    new PollingConditions(timeout: 3).eventually {
+      assert smallBuffer.wheel.size() == elements.size()
+    }
+    smallBuffer.queue.isEmpty()
+
+    when: "the queue is empty but the buffer is full"
+    smallBuffer.enqueue(overflow)
+
+    then: "the trace is written immediately"
+    overflow.writes.get() == 1
+    !overflow.enqueued.get()
+    1 * healthMetrics.onPendingTraceBufferFull()
+    0 * healthMetrics._
+
+    cleanup:
+    smallBuffer.close()
+  }
+
+  def "unmodified traces expire"() {
+    setup:
+    def healthMetrics = Mock(HealthMetrics)
+    def latch = new CountDownLatch(1)
+    def delayingBuffer = PendingTraceBuffer.delaying(SystemTimeSource.INSTANCE, BUFFER_SIZE, healthMetrics)
+    delayingBuffer.start()
+    def element = new FakeElement(idle, finishedMillis, latch)
+
+    when:
+    delayingBuffer.enqueue(element)
+    latch.await()
+
+    then:
+    element.writes.get() == 1
+    !element.enqueued.get()
+    expired * healthMetrics.onExpirePendingTrace()
+    forced * healthMetrics.onForceWritePendingTrace()
+    0 * healthMetrics._
+
+    cleanup:
+    delayingBuffer.close()
+
+    where:
+    idle  | finishedMillis                      | expired | forced
+    true  | System.currentTimeMillis()          | 1       | 0
+    false | System.currentTimeMillis() - 10_000 | 0       | 1
+  }
+
   def addContinuation(DDSpan span) {
     def scope = scopeManager.activate(span, ScopeSource.INSTRUMENTATION, true)
     continuations << scope.capture()
@@ -428,4 +534,44 @@ class PendingTraceBufferTest extends DDSpecification {
       DatadogTags.factory().empty())
     return DDSpan.create(0, context)
   }
+
+  static class FakeElement implements PendingTraceBuffer.Element {
+    final boolean idle
+    final long finishedMillis
+    final CountDownLatch written
+    final AtomicInteger writes = new AtomicInteger()
+    final AtomicBoolean enqueued = new AtomicBoolean()
+
+    FakeElement(boolean idle, long finishedMillis, CountDownLatch written = new CountDownLatch(1)) {
+      this.idle = idle
+      this.finishedMillis = finishedMillis
+      this.written = written
+    }
+
+    @Override
+    long oldestFinishedTime() {
+      return TimeUnit.MILLISECONDS.toNanos(finishedMillis)
+    }
+
+    @Override
+    boolean lastReferencedNanosAgo(long nanos) {
+      return idle
+    }
+
+    @Override
+    void write() {
+      writes.incrementAndGet()
+      written.countDown()
+    }
+
+    @Override
+    DDSpan getRootSpan() {
+      return null
+    }
+
+    @Override
+    boolean setEnqueued(boolean enqueued) {
+      return this.enqueued.compareAndSet(!enqueued, enqueued)
+    }
+  }
 }
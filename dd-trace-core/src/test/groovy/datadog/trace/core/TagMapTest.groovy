@@ -0,0 +1,145 @@
+package datadog.trace.core
+
+import datadog.trace.test.util.DDSpecification
+
+class TagMapTest extends DDSpecification {
+
+  def "numeric values keep their type"() {
+    setup:
+    TagMap tags = new TagMap()
+
+    when:
+    tags.put("key", value)
+
+    then:
+    tags.get("key") == value
+    tags.get("key").getClass() == value.getClass()
+    tags.numberCount() == (value instanceof Number ? 1 : 0)
+
+    where:
+    value << [1, 2L, 3.0f, 4.0d, (short) 5, new BigDecimal("6.5"), "seven", true]
+  }
+
+  def "tags are visited as numbers or not"() {
+    setup:
+    TagMap tags = new TagMap()
+    tags.set("string", "value")
+    tags.set("int", 1)
+    tags.set("long", 2L)
+    tags.set("float", 3.0f)
+    tags.set("double", 4.0d)
+    tags.set("short", (short) 5)
+    tags.set("boolean", true)
+    Map<String, Object> numbers = [:]
+    Map<String, Object> nonNumbers = [:]
+
+    when:
+    tags.visitNumbers(new CollectingVisitor(numbers))
+    tags.visitNonNumbers(new CollectingVisitor(nonNumbers))
+
+    then:
+    numbers == ["int": 1, "long": 2L, "float": 3.0f, "double": 4.0d, "short": (short) 5]
+    nonNumbers == ["string": "value", "boolean": true]
+    tags.numberCount() == 5
+  }
+
+  def "null keys are ignored"() {
+    setup:
+    TagMap tags = new TagMap()
+    tags.set("key", "value")
+
+    when:
+    tags.set(null, value)
+    def previous = tags.put(null, value)
+
+    then:
+    previous == null
+    tags.size() == 1
+    tags.numberCount() == 0
+    !tags.containsKey(null)
+    tags.get(null) == null
+    tags.remove(null) == null
+    tags == ["key": "value"]
+
+    where:
+    value << [1, 2L, 3.0f, 4.0d, "five"]
+  }
+
+  def "behaves like a hash map"() {
+    setup:
+    Random random = new Random(seed)
+    TagMap tags = new TagMap(initialSize)
+    Map<String, Object> expected = new HashMap<>()
+
+    when:
+    for (int i = 0; i < 500; ++i) {
+      String key = "key-" + random.nextInt(50)
+      if (random.nextInt(4) == 0) {
+        assert tags.remove(key) == expected.remove(key)
+      } else {
+        Object value = random.nextBoolean() ? random.nextLong() : "value-" + i
+        assert tags.put(key, value) == expected.put(key, value)
+      }
+    }
+
+    then:
+    tags == expected
+    tags.copy() == expected
+    tags.size() == expected.size()
+    tags.numberCount() == expected.values().count { it instanceof Number }
+
+    where:
+    seed | initialSize
+    0    | 0
+    1    | 4
+    2    | 64
+  }
+
+  def "copies are independent"() {
+    setup:
+    TagMap tags = new TagMap()
+    tags.set("key", 1)
+
+    when:
+    TagMap copy = tags.copy()
+    copy.set("key", "value")
+    copy.set("other", 2)
+
+    then:
+    tags == [key: 1]
+    copy == [key: "value", other: 2]
+  }
+
+  static class CollectingVisitor implements TagMap.Visitor {
+    final Map<String, Object> visited
+
+    CollectingVisitor(Map<String, Object> visited) {
+      this.visited = visited
+    }
+
+    @Override
+    void visitObject(String key, Object value) {
+      visited.put(key, value)
+    }
+
+    @Override
+    void visitInt(String key, int value) {
+      visited.put(key, value)
+    }
+
+    @Override
+    void visitLong(String key, long value) {
+      visited.put(key, value)
+    }
+
+    @Override
+    void visitFloat(String key, float value) {
+      visited.put(key, value)
+    }
+
+    @Override
+    void visitDouble(String key, double value) {
+      visited.put(key, value)
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package datadog.trace.core
+
+import datadog.trace.test.util.DDSpecification
+
+class TimerWheelTest extends DDSpecification {
+
+  static final long TICK = 10
+
+  def "elements expire at the first tick after their deadline"() {
+    setup:
+    TimerWheel wheel = new TimerWheel(TICK, 8, 0)
+    def element = Mock(PendingTraceBuffer.Element)
+    Map<PendingTraceBuffer.Element, Long> expired = [:]
+    def expiry = expiring(expired)
+
+    when:
+    wheel.schedule(element, 25)
+    wheel.advance(19, expiry)
+
+    then:
+    expired.isEmpty()
+    wheel.size() == 1
+
+    when:
+    wheel.advance(20, expiry)
+
+    then:
+    expired.isEmpty()
+
+    when:
+    wheel.advance(30, expiry)
+
+    then:
+    expired == [(element): 30L]
+    wheel.isEmpty()
+  }
+
+  def "deadlines beyond a turn of the wheel are kept until due"() {
+    setup:
+    TimerWheel wheel = new TimerWheel(TICK, 4, 0)
+    def near = Mock(PendingTraceBuffer.Element)
+    def far = Mock(PendingTraceBuffer.Element)
+    Map<PendingTraceBuffer.Element, Long> expired = [:]
+    def expiry = expiring(expired)
+
+    when: "both elements map to the same slot"
+    wheel.schedule(near, 10)
+    wheel.schedule(far, 50)
+    wheel.advance(10, expiry)
+
+    then:
+    expired == [(near): 10L]
+    wheel.size() == 1
+
+    when:
+    wheel.advance(49, expiry)
+
+    then:
+    expired.size() == 1
+
+    when:
+    wheel.advance(50, expiry)
+
+    then:
+    expired == [(near): 10L, (far): 50L]
+    wheel.isEmpty()
+  }
+
+  def "skipped ticks are caught up"() {
+    setup:
+    TimerWheel wheel = new TimerWheel(TICK, 8, 0)
+    def elements = (1..20).collect { Mock(PendingTraceBuffer.Element) }
+    Map<PendingTraceBuffer.Element, Long> expired = [:]
+
+    when:
+    elements.eachWithIndex { element, i -> wheel.schedule(element, i * 7) }
+    wheel.advance(1000, expiring(expired))
+
+    then:
+    expired.keySet() == elements.toSet()
+    wheel.isEmpty()
+  }
+
+  def "elements can be rescheduled when they expire"() {
+    setup:
+    TimerWheel wheel = new TimerWheel(TICK, 8, 0)
+    def element = Mock(PendingTraceBuffer.Element)
+    List<Long> expiries = []
+    def expiry = new TimerWheel.Expiry() {
+        @Override
+        long onExpiry(PendingTraceBuffer.Element e, long now) {
+          expiries.add(now)
+          return expiries.size() < 3 ? now + delay : TimerWheel.REMOVE
+        }
+      }
+
+    when:
+    wheel.schedule(element, 10)
+    for (long now = 0; now <= 500; now += TICK) {
+      wheel.advance(now, expiry)
+    }
+
+    then:
+    expiries == [10L, 10L + rescheduledAfter, 10L + 2 * rescheduledAfter]
+    wheel.isEmpty()
+
+    where:
+    delay | rescheduledAfter
+    1     | TICK // the current tick has already been visited
+    20    | 20
+    80    | 80 // a whole turn of the wheel
+    100   | 100
+  }
+
+  def "all elements can be removed at once"() {
+    setup:
+    TimerWheel wheel = new TimerWheel(TICK, 8, 0)
+    def elements = (1..20).collect { Mock(PendingTraceBuffer.Element) }
+    List<PendingTraceBuffer.Element> removed = []
+
+    when:
+    elements.eachWithIndex { element, i -> wheel.schedule(element, i * 13) }
+    wheel.expireAll { removed.add(it) }
+
+    then:
+    removed.toSet() == elements.toSet()
+    removed.size() == elements.size()
+    wheel.isEmpty()
+  }
+
+  def "slots must be a power of two"() {
+    when:
+    new TimerWheel(TICK, 6, 0)
+
+    then:
+    thrown IllegalArgumentException
+  }
+
+  static TimerWheel.Expiry expiring(Map<PendingTraceBuffer.Element, Long> expired) {
+    return new TimerWheel.Expiry() {
+        @Override
+        long onExpiry(PendingTraceBuffer.Element element, long now) {
+          expired.put(element, now)
+          return TimerWheel.REMOVE
+        }
+      }
+  }
+}
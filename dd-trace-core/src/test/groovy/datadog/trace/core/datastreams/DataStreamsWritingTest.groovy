@@ -4,10 +4,12 @@ import datadog.communication.ddagent.DDAgentFeaturesDiscovery
 import datadog.communication.ddagent.SharedCommunicationObjects
 import datadog.communication.http.OkHttpUtils
 import datadog.trace.api.Config
+import datadog.trace.api.StatsDClient
 import datadog.trace.api.WellKnownTags
 import datadog.trace.api.time.ControllableTimeSource
 import datadog.trace.bootstrap.instrumentation.api.StatsPoint
 import datadog.trace.core.DDTraceCoreInfo
+import datadog.trace.core.monitor.HealthMetrics
 import datadog.trace.core.test.DDCoreSpecification
 import okhttp3.HttpUrl
 import okio.BufferedSource
@@ -72,7 +74,7 @@ class DataStreamsWritingTest extends DDCoreSpecification {
     def timeSource = new ControllableTimeSource()
 
     when:
-    def checkpointer = new DefaultDataStreamsCheckpointer(fakeConfig, sharedCommObjects, timeSource)
+    def checkpointer = new DefaultDataStreamsCheckpointer(fakeConfig, sharedCommObjects, timeSource, new HealthMetrics(StatsDClient.NO_OP))
     checkpointer.start()
     checkpointer.accept(new StatsPoint([], 9, 0, timeSource.currentTimeNanos, 0, 0))
     checkpointer.accept(new StatsPoint(["type:testType", "group:testGroup", "topic:testTopic"], 1, 2, timeSource.currentTimeNanos, 0, 0))
@@ -6,10 +6,12 @@ import datadog.trace.api.time.ControllableTimeSource
 import datadog.trace.bootstrap.instrumentation.api.StatsPoint
 import datadog.trace.common.metrics.EventListener
 import datadog.trace.common.metrics.Sink
+import datadog.trace.core.monitor.HealthMetrics
 import datadog.trace.core.test.DDCoreSpecification
 import spock.util.concurrent.PollingConditions
 
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
 
 import static datadog.trace.core.datastreams.DefaultDataStreamsCheckpointer.DEFAULT_BUCKET_DURATION_NANOS
 import static datadog.trace.core.datastreams.DefaultDataStreamsCheckpointer.FEATURE_CHECK_INTERVAL_NANOS
@@ -473,6 +475,109 @@ class DefaultDataStreamsCheckpointerTest extends DDCoreSpecification {
     payloadWriter.close()
     checkpointer.close()
   }
+
+  def "Sharded aggregation merges the points of several threads"() {
+    given:
+    def conditions = new PollingConditions(timeout: 1)
+    def features = Stub(DDAgentFeaturesDiscovery) {
+      supportsDataStreams() >> true
+    }
+    def timeSource = new ControllableTimeSource()
+    def sink = Mock(Sink)
+    def payloadWriter = new CapturingPayloadWriter()
+    int threads = 4
+    int pointsPerThread = 1000
+
+    when:
+    def checkpointer = new DefaultDataStreamsCheckpointer(sink, features, timeSource, wellKnownTags, payloadWriter, DEFAULT_BUCKET_DURATION_NANOS, true)
+    checkpointer.start()
+    long now = timeSource.currentTimeNanos
+    (1..threads).collect { thread ->
+      Thread.start {
+        for (int i = 0; i < pointsPerThread; ++i) {
+          checkpointer.accept(new StatsPoint(["type:testType", "group:testGroup", "topic:testTopic" + (i % 2)], 1 + (i % 2), 2, now, 1, 1))
+        }
+      }
+    }*.join()
+    timeSource.advance(DEFAULT_BUCKET_DURATION_NANOS)
+    checkpointer.report()
+
+    then:
+    conditions.eventually {
+      assert payloadWriter.buckets.size() == 1
+    }
+    checkpointer.inbox.isEmpty()
+    checkpointer.droppedPoints == 0
+
+    with(payloadWriter.buckets.get(0)) {
+      groups.size() == 2
+      groups*.hash.toSet() == [1L, 2L].toSet()
+      groups.every {
+        it.pathwayLatency.count == threads * pointsPerThread / 2 && it.edgeLatency.count == threads * pointsPerThread / 2
+      }
+    }
+
+    cleanup:
+    payloadWriter.close()
+    checkpointer.close()
+  }
+
+  def "Dropped points are reported to health metrics"() {
+    given:
+    def conditions = new PollingConditions(timeout: 1)
+    def features = Stub(DDAgentFeaturesDiscovery) {
+      supportsDataStreams() >> true
+    }
+    def timeSource = new ControllableTimeSource()
+    def sink = Mock(Sink)
+    def payloadWriter = new CapturingPayloadWriter()
+    def reportedDroppedPoints = new AtomicLong()
+    def healthMetrics = Mock(HealthMetrics) {
+      onDropDataStreamsPoints(_) >> { long count -> reportedDroppedPoints.addAndGet(count) }
+    }
+
+    when: "more pathways are checkpointed than the aggregator can hold"
+    def checkpointer = new DefaultDataStreamsCheckpointer(sink, features, timeSource, wellKnownTags, payloadWriter, DEFAULT_BUCKET_DURATION_NANOS, true, healthMetrics)
+    checkpointer.start()
+    long now = timeSource.currentTimeNanos
+    for (int i = 0; i <= StripedStatsAggregator.MAX_GROUPS; ++i) {
+      checkpointer.accept(new StatsPoint(["type:testType", "group:testGroup", "topic:testTopic"], i + 1, 0, now, 1, 1))
+    }
+    timeSource.advance(DEFAULT_BUCKET_DURATION_NANOS)
+    checkpointer.report()
+
+    then:
+    conditions.eventually {
+      assert payloadWriter.buckets.size() == 1
+      assert reportedDroppedPoints.get() > 0
+    }
+    reportedDroppedPoints.get() == checkpointer.droppedPoints
+
+    cleanup:
+    payloadWriter.close()
+    checkpointer.close()
+  }
+
+  def "Sharded aggregation ignores points if data streams not supported"() {
+    given:
+    def features = Stub(DDAgentFeaturesDiscovery) {
+      supportsDataStreams() >> false
+    }
+    def timeSource = new ControllableTimeSource()
+    def payloadWriter = Mock(DatastreamsPayloadWriter)
+    def sink = Mock(Sink)
+
+    when:
+    def checkpointer = new DefaultDataStreamsCheckpointer(sink, features, timeSource, wellKnownTags, payloadWriter, DEFAULT_BUCKET_DURATION_NANOS, true)
+    checkpointer.start()
+    checkpointer.accept(new StatsPoint(["type:testType", "group:testGroup", "topic:testTopic"], 1, 2, timeSource.currentTimeNanos, 0, 0))
+    timeSource.advance(DEFAULT_BUCKET_DURATION_NANOS)
+    checkpointer.close()
+
+    then:
+    0 * payloadWriter.writePayload(_)
+    checkpointer.droppedPoints == 0
+  }
 }
 
 class CapturingPayloadWriter implements DatastreamsPayloadWriter {
@@ -0,0 +1,117 @@
+package datadog.trace.core.datastreams
+
+import datadog.trace.bootstrap.instrumentation.api.StatsPoint
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.CountDownLatch
+
+class StripedStatsAggregatorTest extends DDSpecification {
+
+  static final long BUCKET_DURATION = 1000
+
+  def "stripe count is a power of two"() {
+    expect:
+    new StripedStatsAggregator(parallelism, BUCKET_DURATION).stripeCount() == stripes
+
+    where:
+    parallelism | stripes
+    1           | 1
+    2           | 2
+    3           | 4
+    8           | 8
+    9           | 16
+    1000        | 64
+  }
+
+  def "only buckets before the current bucket are drained"() {
+    setup:
+    def aggregator = new StripedStatsAggregator(4, BUCKET_DURATION)
+    Map<Long, StatsBucket> timeToBucket = [:]
+
+    when:
+    aggregator.add(point(1, 10))
+    aggregator.add(point(1, 999))
+    aggregator.add(point(2, 1000))
+    aggregator.drain(1000, timeToBucket)
+
+    then:
+    timeToBucket.keySet() == [0L] as Set
+    timeToBucket[0L].groups.size() == 1
+    timeToBucket[0L].groups.iterator().next().pathwayLatency.count == 2
+
+    when:
+    aggregator.drain(2000, timeToBucket)
+
+    then:
+    timeToBucket.keySet() == [0L, 1000L] as Set
+    timeToBucket[1000L].groups*.hash == [2L]
+  }
+
+  def "groups of the same pathway in different stripes are merged"() {
+    setup:
+    def aggregator = new StripedStatsAggregator(8, BUCKET_DURATION)
+    int threads = 8
+    int pointsPerThread = 500
+    def start = new CountDownLatch(1)
+    Map<Long, StatsBucket> timeToBucket = [:]
+
+    when:
+    def workers = (1..threads).collect {
+      Thread.start {
+        start.await()
+        for (int i = 0; i < pointsPerThread; ++i) {
+          aggregator.add(point(i % 5, i))
+        }
+      }
+    }
+    start.countDown()
+    workers*.join()
+    aggregator.drain(Long.MAX_VALUE, timeToBucket)
+
+    then:
+    timeToBucket.size() == 1
+    timeToBucket[0L].groups.size() == 5
+    timeToBucket[0L].groups.sum { it.pathwayLatency.count } == threads * pointsPerThread
+    aggregator.droppedPoints == 0
+  }
+
+  def "points of new pathways are dropped once a stripe is full"() {
+    setup:
+    def aggregator = new StripedStatsAggregator(1, BUCKET_DURATION)
+    Map<Long, StatsBucket> timeToBucket = [:]
+
+    when:
+    for (int hash = 0; hash < StripedStatsAggregator.MAX_GROUPS + 10; ++hash) {
+      aggregator.add(point(hash, 0))
+    }
+
+    then:
+    aggregator.droppedPoints == 10
+
+    when: "points of known pathways are still aggregated"
+    boolean added = aggregator.add(point(0, 0))
+    aggregator.drain(Long.MAX_VALUE, timeToBucket)
+
+    then:
+    added
+    timeToBucket[0L].groups.size() == StripedStatsAggregator.MAX_GROUPS
+  }
+
+  def "clearing drops everything"() {
+    setup:
+    def aggregator = new StripedStatsAggregator(2, BUCKET_DURATION)
+    Map<Long, StatsBucket> timeToBucket = [:]
+
+    when:
+    aggregator.add(point(1, 0))
+    aggregator.clear()
+    aggregator.drain(Long.MAX_VALUE, timeToBucket)
+
+    then:
+    timeToBucket.isEmpty()
+  }
+
+  static StatsPoint point(long hash, long timestamp) {
+    return new StatsPoint(["type:testType", "topic:topic-" + hash], hash, 0, timestamp, 1, 1)
+  }
+}
@@ -0,0 +1,32 @@
+package datadog.trace.core.monitor
+
+import datadog.communication.monitor.Gauge
+import datadog.communication.monitor.Monitoring
+import datadog.communication.monitor.NoOpGauge
+import datadog.trace.api.StatsDClient
+import datadog.trace.test.util.DDSpecification
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS
+
+class GaugeTest extends DDSpecification {
+
+  def "gauge reports the value it is set to"() {
+    StatsDClient statsd = Mock(StatsDClient)
+    Monitoring monitoring = new MonitoringImpl(statsd, 100, MILLISECONDS)
+    def gauge = monitoring.newGauge("my_gauge")
+    when:
+    gauge.set(42)
+    then:
+    1 * statsd.gauge("my_gauge", 42L, [])
+    0 * _
+  }
+
+  def "disabled monitoring produces no op gauges"() {
+    setup:
+    Monitoring monitoring = Monitoring.DISABLED
+    when:
+    Gauge gauge = monitoring.newGauge("foo")
+    then:
+    gauge instanceof NoOpGauge
+  }
+}
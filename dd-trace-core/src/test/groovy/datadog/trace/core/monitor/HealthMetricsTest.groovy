@@ -1,5 +1,6 @@
 package datadog.trace.core.monitor
 
+import datadog.communication.serialization.DirectBufferPool
 import datadog.trace.api.StatsDClient
 import datadog.trace.api.sampling.PrioritySampling
 import datadog.trace.common.writer.RemoteApi
@@ -123,6 +124,129 @@ class HealthMetricsTest extends DDSpecification {
     3            | 5
   }
 
+  def "test onSendBackpressure"() {
+    setup:
+    def latch = new CountDownLatch(2)
+    def healthMetrics = new HealthMetrics(new Latched(statsD, latch), 100, TimeUnit.MILLISECONDS)
+    healthMetrics.start()
+
+    when:
+    healthMetrics.onSendBackpressure(TimeUnit.MILLISECONDS.toNanos(3))
+    healthMetrics.onSendBackpressure(TimeUnit.MILLISECONDS.toNanos(4))
+    latch.await(10, TimeUnit.SECONDS)
+
+    then:
+    1 * statsD.count('queue.send.blocked', 2)
+    1 * statsD.count('queue.send.blocked.time', 7)
+    0 * _
+
+    cleanup:
+    healthMetrics.close()
+  }
+
+  def "test onDropPayload"() {
+    setup:
+    def latch = new CountDownLatch(2)
+    def healthMetrics = new HealthMetrics(new Latched(statsD, latch), 100, TimeUnit.MILLISECONDS)
+    healthMetrics.start()
+
+    when:
+    healthMetrics.onDropPayload(3)
+    healthMetrics.onDropPayload(4)
+    latch.await(10, TimeUnit.SECONDS)
+
+    then:
+    1 * statsD.count('queue.send.dropped', 2)
+    1 * statsD.count('queue.send.dropped.traces', 7)
+    0 * _
+
+    cleanup:
+    healthMetrics.close()
+  }
+
+  def "test pending trace writes"() {
+    setup:
+    def latch = new CountDownLatch(3)
+    def healthMetrics = new HealthMetrics(new Latched(statsD, latch), 100, TimeUnit.MILLISECONDS)
+    healthMetrics.start()
+
+    when:
+    healthMetrics.onExpirePendingTrace()
+    healthMetrics.onExpirePendingTrace()
+    healthMetrics.onForceWritePendingTrace()
+    healthMetrics.onPendingTraceBufferFull()
+    latch.await(10, TimeUnit.SECONDS)
+
+    then:
+    1 * statsD.count('trace.pending.expired', 2)
+    1 * statsD.count('trace.pending.forced', 1)
+    1 * statsD.count('trace.pending.overflowed', 1)
+    0 * _
+
+    cleanup:
+    healthMetrics.close()
+  }
+
+  def "test onDropDataStreamsPoints"() {
+    setup:
+    def latch = new CountDownLatch(1)
+    def healthMetrics = new HealthMetrics(new Latched(statsD, latch), 100, TimeUnit.MILLISECONDS)
+    healthMetrics.start()
+
+    when:
+    healthMetrics.onDropDataStreamsPoints(3)
+    healthMetrics.onDropDataStreamsPoints(4)
+    latch.await(10, TimeUnit.SECONDS)
+
+    then:
+    1 * statsD.count('datastreams.points.dropped', 7)
+    0 * _
+
+    cleanup:
+    healthMetrics.close()
+  }
+
+  def "test onCreateDirectBufferPool"() {
+    setup:
+    def latch = new CountDownLatch(2)
+    def healthMetrics = new HealthMetrics(new Latched(statsD, latch), 100, TimeUnit.MILLISECONDS)
+    def pool = new DirectBufferPool(1 << 16, 2)
+    pool.acquire(8192)
+    pool.release(pool.acquire(4096))
+    healthMetrics.onCreateDirectBufferPool(pool)
+    healthMetrics.start()
+
+    when:
+    latch.await(10, TimeUnit.SECONDS)
+
+    then:
+    (1.._) * statsD.gauge('tracer.buffer.pool.pooled.bytes', 4096)
+    (1.._) * statsD.gauge('tracer.buffer.pool.used.bytes', 8192)
+    0 * _
+
+    cleanup:
+    healthMetrics.close()
+  }
+
+  def "test onTraceCompletionQueueFull"() {
+    setup:
+    def latch = new CountDownLatch(1)
+    def healthMetrics = new HealthMetrics(new Latched(statsD, latch), 100, TimeUnit.MILLISECONDS)
+    healthMetrics.start()
+
+    when:
+    healthMetrics.onTraceCompletionQueueFull()
+    healthMetrics.onTraceCompletionQueueFull()
+    latch.await(10, TimeUnit.SECONDS)
+
+    then:
+    1 * statsD.count('trace.completion.overflowed', 2)
+    0 * _
+
+    cleanup:
+    healthMetrics.close()
+  }
+
   def "test onScheduleFlush"() {
     when:
     healthMetrics.onScheduleFlush(true)
@@ -4,6 +4,7 @@ import datadog.trace.api.DDSpanId
 import datadog.trace.api.DDTraceId
 import datadog.trace.api.config.TracerConfig
 import datadog.trace.bootstrap.ActiveSubsystems
+import datadog.trace.bootstrap.instrumentation.api.AgentPropagation
 import datadog.trace.bootstrap.instrumentation.api.TagContext
 import datadog.trace.api.sampling.PrioritySampling
 import datadog.trace.bootstrap.instrumentation.api.ContextVisitors
@@ -16,6 +17,7 @@ import static datadog.trace.core.propagation.DatadogHttpCodec.OT_BAGGAGE_PREFIX
 import static datadog.trace.core.propagation.DatadogHttpCodec.SAMPLING_PRIORITY_KEY
 import static datadog.trace.core.propagation.DatadogHttpCodec.SPAN_ID_KEY
 import static datadog.trace.core.propagation.DatadogHttpCodec.TRACE_ID_KEY
+import static java.nio.charset.StandardCharsets.UTF_8
 
 class DatadogHttpExtractorTest extends DDSpecification {
 
@@ -304,6 +306,45 @@ class DatadogHttpExtractorTest extends DDSpecification {
     "1"                   | "${TRACE_ID_MAX + 1}" | null            | null
   }
 
+  def "extract the same context from binary header values"() {
+    setup:
+    def headers = [
+      (TRACE_ID_KEY.toUpperCase()): traceId,
+      (SPAN_ID_KEY)               : spanId,
+      (SAMPLING_PRIORITY_KEY)     : samplingPriority,
+      (ORIGIN_KEY)                : "some-origin",
+    ]
+    def binaryVisitor = { Map<String, String> carrier, AgentPropagation.KeyClassifier classifier ->
+      for (def header : carrier) {
+        if (!((AgentPropagation.BinaryKeyClassifier) classifier).accept(header.key, header.value.getBytes(UTF_8))) {
+          return
+        }
+      }
+    } as AgentPropagation.ContextVisitor<Map<String, String>>
+
+    when:
+    final ExtractedContext expected = extractor.extract(headers, ContextVisitors.stringValuesMap())
+    final ExtractedContext context = extractor.extract(headers, binaryVisitor)
+
+    then:
+    context?.traceId == expected?.traceId
+    context?.spanId == expected?.spanId
+    context?.samplingPriority == expected?.samplingPriority
+    context?.origin == expected?.origin
+
+    where:
+    traceId                 | spanId                | samplingPriority
+    "1"                     | "2"                   | "1"
+    "$TRACE_ID_MAX"         | "0"                   | "-1"
+    "9223372036854775808"   | "$TRACE_ID_MAX"       | "2"
+    "${TRACE_ID_MAX + 1}"   | "1"                   | "1"
+    "1"                     | "${TRACE_ID_MAX + 1}" | "1"
+    "123,456"               | "2,3"                 | "1,2"
+    "+1"                    | " 2"                  | "+1"
+    "1"                     | "2"                   | "x"
+    "1"                     | "2"                   | "1234567890"
+  }
+
   def "extract http headers with end to end"() {
     setup:
     def headers = [
@@ -0,0 +1,50 @@
+package datadog.trace.core.propagation
+
+import datadog.trace.test.util.DDSpecification
+
+class HeaderMappingTest extends DDSpecification {
+
+  def "header names are looked up ignoring case"() {
+    setup:
+    def mapping = HeaderMapping.of(["x-tenant": "tenant", "some-header": "some-tag", "é-header": "accent"])
+
+    expect:
+    !mapping.isEmpty()
+    mapping.get(header) == expected
+
+    where:
+    header         | expected
+    "x-tenant"     | "tenant"
+    "X-Tenant"     | "tenant"
+    "X-TENANT"     | "tenant"
+    "some-header"  | "some-tag"
+    "Some-Header"  | "some-tag"
+    "É-HEADER"     | "accent"
+    "x-tenant2"    | null
+    "x-tenan"      | null
+    "other-header" | null
+    ""             | null
+  }
+
+  def "many header names are mapped"() {
+    setup:
+    Map<String, String> headers = (0..<count).collectEntries { ["header-$it".toString(), "tag-$it".toString()] }
+    def mapping = HeaderMapping.of(headers)
+
+    expect:
+    headers.every { header, tag -> mapping.get(header.toUpperCase()) == tag }
+    mapping.get("header-$count".toString()) == null
+
+    where:
+    count << [1, 2, 3, 17, 100]
+  }
+
+  def "empty mapping maps nothing"() {
+    setup:
+    def mapping = HeaderMapping.of([:])
+
+    expect:
+    mapping.isEmpty()
+    mapping.get("x-tenant") == null
+  }
+}
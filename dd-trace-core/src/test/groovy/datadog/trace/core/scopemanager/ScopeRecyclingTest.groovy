@@ -0,0 +1,155 @@
+package datadog.trace.core.scopemanager
+
+import datadog.trace.api.config.TracerConfig
+import datadog.trace.bootstrap.instrumentation.api.AgentScope
+import datadog.trace.bootstrap.instrumentation.api.AttachableWrapper
+import datadog.trace.bootstrap.instrumentation.api.ScopeSource
+import datadog.trace.common.writer.ListWriter
+import datadog.trace.core.CoreTracer
+import datadog.trace.core.test.DDCoreSpecification
+
+class ScopeRecyclingTest extends DDCoreSpecification {
+
+  CoreTracer tracer
+  ContinuableScopeManager scopeManager
+
+  def setup() {
+    injectSysConfig(TracerConfig.SCOPE_RECYCLING_ENABLED, "true")
+    tracer = tracerBuilder().writer(new ListWriter()).build()
+    scopeManager = tracer.scopeManager
+  }
+
+  def cleanup() {
+    tracer.close()
+  }
+
+  def "closed scopes are reused by later activations"() {
+    setup:
+    def parentSpan = tracer.buildSpan("parent").start()
+    def firstSpan = tracer.buildSpan("first").start()
+    def secondSpan = tracer.buildSpan("second").start()
+    def parentScope = tracer.activateSpan(parentSpan)
+
+    when:
+    def firstScope = tracer.activateSpan(firstSpan)
+    firstScope.close()
+
+    then: "the closed scope still refers to its span"
+    firstScope.span() == firstSpan
+    scopeManager.activeSpan() == parentSpan
+
+    when:
+    def secondScope = tracer.activateSpan(secondSpan)
+
+    then:
+    secondScope.is(firstScope)
+    secondScope.span() == secondSpan
+    scopeManager.active() == secondScope
+    scopeManager.scopeStack().depth() == 2
+
+    when:
+    secondScope.close()
+    parentScope.close()
+
+    then:
+    scopeManager.active() == null
+    scopeManager.scopeStack().depth() == 0
+  }
+
+  def "scopes closed out of order are reused once removed from the stack"() {
+    setup:
+    def firstSpan = tracer.buildSpan("first").start()
+    def secondSpan = tracer.buildSpan("second").start()
+    def thirdSpan = tracer.buildSpan("third").start()
+    def firstScope = tracer.activateSpan(firstSpan)
+    def secondScope = tracer.activateSpan(secondSpan)
+
+    when:
+    firstScope.close()
+    def thirdScope = tracer.activateSpan(thirdSpan)
+
+    then: "the first scope is still on the stack"
+    !thirdScope.is(firstScope)
+    scopeManager.scopeStack().depth() == 3
+
+    when:
+    thirdScope.close()
+    secondScope.close()
+
+    then:
+    scopeManager.active() == null
+
+    when:
+    def scope = tracer.activateSpan(thirdSpan)
+
+    then:
+    scope.is(firstScope) || scope.is(secondScope) || scope.is(thirdScope)
+    scope.span() == thirdSpan
+
+    cleanup:
+    scope.close()
+  }
+
+  def "wrapped scopes are not reused"() {
+    setup:
+    def firstSpan = tracer.buildSpan("first").start()
+    def secondSpan = tracer.buildSpan("second").start()
+
+    when:
+    def firstScope = tracer.activateSpan(firstSpan)
+    ((AttachableWrapper) firstScope).attachWrapper(new Object())
+    firstScope.close()
+    def secondScope = tracer.activateSpan(secondSpan)
+
+    then:
+    !secondScope.is(firstScope)
+
+    cleanup:
+    secondScope.close()
+  }
+
+  def "iteration and continued scopes are not reused"() {
+    setup:
+    def parentSpan = tracer.buildSpan("parent").start()
+    def iterationSpan = tracer.buildSpan("iteration").start()
+    def childSpan = tracer.buildSpan("child").start()
+
+    when:
+    AgentScope parentScope = scopeManager.activate(parentSpan, ScopeSource.INSTRUMENTATION, true)
+    def continuation = parentScope.capture()
+    parentScope.close()
+    def continuedScope = continuation.activate()
+    continuedScope.close()
+    def iterationScope = scopeManager.activateNext(iterationSpan)
+    scopeManager.closePrevious(false)
+    def childScope = tracer.activateSpan(childSpan)
+
+    then: "only the scope of the first activation is reused"
+    childScope.is(parentScope)
+    !childScope.is(continuedScope)
+    !childScope.is(iterationScope)
+
+    cleanup:
+    childScope.close()
+  }
+
+  def "scopes are not reused unless enabled"() {
+    setup:
+    injectSysConfig(TracerConfig.SCOPE_RECYCLING_ENABLED, "false")
+    def defaultTracer = tracerBuilder().writer(new ListWriter()).build()
+    def firstSpan = defaultTracer.buildSpan("first").start()
+    def secondSpan = defaultTracer.buildSpan("second").start()
+
+    when:
+    def firstScope = defaultTracer.activateSpan(firstSpan)
+    firstScope.close()
+    def secondScope = defaultTracer.activateSpan(secondSpan)
+
+    then:
+    !secondScope.is(firstScope)
+
+    cleanup:
+    secondScope.close()
+    defaultTracer.close()
+  }
+}
@@ -0,0 +1,180 @@
+package datadog.trace.api.cache;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Random;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up SQL queries drawn from a Zipfian distribution, where a few queries are used most of the
+ * time among many queries used rarely, in each kind of bounded cache, with one thread and with
+ * contending threads. The score is the throughput of the lookups, the hits and misses are reported
+ * as secondary results.
+ *
+ * <p>The caches hold 512 queries, or the characters of 512 queries of average length for the
+ * weighted cache, out of {@code keys} distinct queries. Compare the caches with other distributions
+ * with {@code -p skew=0.6,1.2}, where a lower skew spreads the lookups over more distinct queries.
+ * The unbounded cache gives the throughput of a cache which never misses.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(value = 1)
+public class DDCacheBenchmark {
+
+  private static final int CAPACITY = 512;
+  private static final int LOOKUPS = 1 << 20;
+
+  @Param({"fixed", "tinylfu", "weighted", "unbounded"})
+  String cache;
+
+  @Param({"0.99"})
+  double skew;
+
+  @Param({"100000"})
+  int keys;
+
+  private String[] lookups;
+  private DDCache<String, Integer> ddCache;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    String[] queries = new String[keys];
+    long totalLength = 0;
+    for (int i = 0; i < keys; i++) {
+      StringBuilder query =
+          new StringBuilder("SELECT id, name, created FROM table_")
+              .append(i)
+              .append(" WHERE id IN (?");
+      for (int params = random.nextInt(64); params > 0; params--) {
+        query.append(", ?");
+      }
+      queries[i] = query.append(')').toString();
+      totalLength += queries[i].length();
+    }
+    lookups = new String[LOOKUPS];
+    ZipfianGenerator zipf = new ZipfianGenerator(keys, skew, random);
+    for (int i = 0; i < LOOKUPS; i++) {
+      lookups[i] = queries[zipf.next()];
+    }
+    switch (cache) {
+      case "fixed":
+        ddCache = DDCaches.newFixedSizeCache(CAPACITY);
+        break;
+      case "tinylfu":
+        ddCache = DDCaches.newTinyLFUCache(CAPACITY);
+        break;
+      case "weighted":
+        ddCache = DDCaches.newWeightedTinyLFUCache(CAPACITY * totalLength / keys, String::length);
+        break;
+      case "unbounded":
+        ddCache = DDCaches.newUnboundedCache(keys);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown cache " + cache);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Integer singleThreaded(Cursor cursor, Lookups counters) {
+    return lookup(cursor, counters);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Integer contended(Cursor cursor, Lookups counters) {
+    return lookup(cursor, counters);
+  }
+
+  private Integer lookup(Cursor cursor, Lookups counters) {
+    counters.lookups++;
+    return ddCache.computeIfAbsent(lookups[cursor.next()], counters.creator);
+  }
+
+  /** Counts the lookups of a thread, and the misses which created a value. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Lookups {
+    long lookups;
+    long misses;
+    final Function<String, Integer> creator =
+        key -> {
+          misses++;
+          return key.length();
+        };
+
+    public long hits() {
+      return lookups - misses;
+    }
+
+    public long misses() {
+      return misses;
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      lookups = 0;
+      misses = 0;
+    }
+  }
+
+  /** Walks through the lookups, from a different offset in each thread. */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int index = new Random().nextInt(LOOKUPS);
+
+    int next() {
+      return index = (index + 1) & (LOOKUPS - 1);
+    }
+  }
+
+  /** Draws ranks in [0, n) with a probability proportional to {@code 1 / (rank + 1)^skew}. */
+  static final class ZipfianGenerator {
+    private final double[] cumulative;
+    private final Random random;
+
+    ZipfianGenerator(int n, double skew, Random random) {
+      this.cumulative = new double[n];
+      this.random = random;
+      double sum = 0;
+      for (int i = 0; i < n; i++) {
+        sum += 1 / Math.pow(i + 1, skew);
+        cumulative[i] = sum;
+      }
+    }
+
+    int next() {
+      double target = random.nextDouble() * cumulative[cumulative.length - 1];
+      int low = 0;
+      int high = cumulative.length - 1;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (cumulative[mid] < target) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
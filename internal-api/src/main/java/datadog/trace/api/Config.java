@@ -4,9 +4,11 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_AGENT_HOST;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_AGENT_TIMEOUT;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_AGENT_WRITER_TYPE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_ANALYTICS_SAMPLE_RATE;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_APPSEC_ASYNC_EVENT_SERIALIZATION_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_APPSEC_REPORTING_INBAND;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_APPSEC_TRACE_RATE_LIMIT;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_APPSEC_WAF_METRICS;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_APPSEC_WAF_RESULT_CACHE_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_CIVISIBILITY_AGENTLESS_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_CLIENT_IP_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_CLOCK_SYNC_PERIOD;
@@ -15,6 +17,7 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_CWS_TLS_REFRESH;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DATA_STREAMS_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE_TYPE_SUFFIX;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_DEBUGGER_CAPTURE_BUFFER_SIZE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DEBUGGER_CLASSFILE_DUMP_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DEBUGGER_DIAGNOSTICS_INTERVAL;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DEBUGGER_ENABLED;
@@ -39,6 +42,7 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_HTTP_SERVER_TAG_QUERY_STR
 import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_DEDUPLICATION_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_MAX_CONCURRENT_REQUESTS;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_REQUEST_SAMPLING;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_STRIPED_TAINTED_MAP_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_TAINT_TRACKING_DEBUG_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_VULNERABILITIES_PER_REQUEST;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_WEAK_CIPHER_ALGORITHMS;
@@ -61,6 +65,7 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_REMOTE_CONFIG_TARGETS_KEY
 import static datadog.trace.api.ConfigDefaults.DEFAULT_REMOTE_CONFIG_TARGETS_KEY_ID;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_SCOPE_DEPTH_LIMIT;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_SCOPE_ITERATION_KEEP_ALIVE;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_SCOPE_RECYCLING_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_SECURE_RANDOM;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_SERVICE_NAME;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_SERVLET_ROOT_CONTEXT_SERVICE_NAME;
@@ -69,9 +74,14 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_TELEMETRY_HEARTBEAT_INTER
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_AGENT_PORT;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_AGENT_V05_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_ANALYTICS_ENABLED;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_ASYNC_COMPLETION_ENABLED;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_PENDING_BUFFER_SIZE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_RATE_LIMIT;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_REPORT_HOSTNAME;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_RESOLVER_ENABLED;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_WRITER_DIRECT_BUFFERS_ENABLED;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_WRITER_MAX_IN_FLIGHT_PAYLOADS;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_WRITER_SERIALIZER_SHARDS;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_X_DATADOG_TAGS_MAX_LENGTH;
 import static datadog.trace.api.DDTags.HOST_TAG;
 import static datadog.trace.api.DDTags.INTERNAL_HOST_NAME;
@@ -82,6 +92,7 @@ import static datadog.trace.api.DDTags.RUNTIME_ID_TAG;
 import static datadog.trace.api.DDTags.RUNTIME_VERSION_TAG;
 import static datadog.trace.api.DDTags.SERVICE;
 import static datadog.trace.api.DDTags.SERVICE_TAG;
+import static datadog.trace.api.config.AppSecConfig.APPSEC_ASYNC_EVENT_SERIALIZATION_ENABLED;
 import static datadog.trace.api.config.AppSecConfig.APPSEC_HTTP_BLOCKED_TEMPLATE_HTML;
 import static datadog.trace.api.config.AppSecConfig.APPSEC_HTTP_BLOCKED_TEMPLATE_JSON;
 import static datadog.trace.api.config.AppSecConfig.APPSEC_IP_ADDR_HEADER;
@@ -92,6 +103,7 @@ import static datadog.trace.api.config.AppSecConfig.APPSEC_REPORT_TIMEOUT_SEC;
 import static datadog.trace.api.config.AppSecConfig.APPSEC_RULES_FILE;
 import static datadog.trace.api.config.AppSecConfig.APPSEC_TRACE_RATE_LIMIT;
 import static datadog.trace.api.config.AppSecConfig.APPSEC_WAF_METRICS;
+import static datadog.trace.api.config.AppSecConfig.APPSEC_WAF_RESULT_CACHE_ENABLED;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_AGENTLESS_ENABLED;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_AGENTLESS_URL;
 import static datadog.trace.api.config.CrashTrackingConfig.CRASH_TRACKING_AGENTLESS;
@@ -99,6 +111,7 @@ import static datadog.trace.api.config.CrashTrackingConfig.CRASH_TRACKING_AGENTL
 import static datadog.trace.api.config.CrashTrackingConfig.CRASH_TRACKING_TAGS;
 import static datadog.trace.api.config.CwsConfig.CWS_ENABLED;
 import static datadog.trace.api.config.CwsConfig.CWS_TLS_REFRESH;
+import static datadog.trace.api.config.DebuggerConfig.DEBUGGER_CAPTURE_BUFFER_SIZE;
 import static datadog.trace.api.config.DebuggerConfig.DEBUGGER_CLASSFILE_DUMP_ENABLED;
 import static datadog.trace.api.config.DebuggerConfig.DEBUGGER_DIAGNOSTICS_INTERVAL;
 import static datadog.trace.api.config.DebuggerConfig.DEBUGGER_ENABLED;
@@ -116,6 +129,7 @@ import static datadog.trace.api.config.GeneralConfig.API_KEY;
 import static datadog.trace.api.config.GeneralConfig.API_KEY_FILE;
 import static datadog.trace.api.config.GeneralConfig.AZURE_APP_SERVICES;
 import static datadog.trace.api.config.GeneralConfig.DATA_STREAMS_ENABLED;
+import static datadog.trace.api.config.GeneralConfig.DATA_STREAMS_SHARDED_AGGREGATION_ENABLED;
 import static datadog.trace.api.config.GeneralConfig.DOGSTATSD_ARGS;
 import static datadog.trace.api.config.GeneralConfig.DOGSTATSD_HOST;
 import static datadog.trace.api.config.GeneralConfig.DOGSTATSD_NAMED_PIPE;
@@ -140,10 +154,12 @@ import static datadog.trace.api.config.GeneralConfig.TRACER_METRICS_ENABLED;
 import static datadog.trace.api.config.GeneralConfig.TRACER_METRICS_IGNORED_RESOURCES;
 import static datadog.trace.api.config.GeneralConfig.TRACER_METRICS_MAX_AGGREGATES;
 import static datadog.trace.api.config.GeneralConfig.TRACER_METRICS_MAX_PENDING;
+import static datadog.trace.api.config.GeneralConfig.TRACER_METRICS_PRE_AGGREGATION_ENABLED;
 import static datadog.trace.api.config.GeneralConfig.VERSION;
 import static datadog.trace.api.config.IastConfig.IAST_DEDUPLICATION_ENABLED;
 import static datadog.trace.api.config.IastConfig.IAST_MAX_CONCURRENT_REQUESTS;
 import static datadog.trace.api.config.IastConfig.IAST_REQUEST_SAMPLING;
+import static datadog.trace.api.config.IastConfig.IAST_STRIPED_TAINTED_MAP_ENABLED;
 import static datadog.trace.api.config.IastConfig.IAST_TAINT_TRAKING_DEBUG_ENABLED;
 import static datadog.trace.api.config.IastConfig.IAST_VULNERABILITIES_PER_REQUEST;
 import static datadog.trace.api.config.IastConfig.IAST_WEAK_CIPHER_ALGORITHMS;
@@ -190,6 +206,8 @@ import static datadog.trace.api.config.ProfilingConfig.PROFILING_TAGS;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_TEMPLATE_OVERRIDE_FILE;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION_DEFAULT;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION_LEVEL;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION_LEVEL_DEFAULT;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_PERIOD;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_PERIOD_DEFAULT;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_SUMMARY_ON_413;
@@ -259,6 +277,7 @@ import static datadog.trace.api.config.TracerConfig.RESPONSE_HEADER_TAGS;
 import static datadog.trace.api.config.TracerConfig.SCOPE_DEPTH_LIMIT;
 import static datadog.trace.api.config.TracerConfig.SCOPE_INHERIT_ASYNC_PROPAGATION;
 import static datadog.trace.api.config.TracerConfig.SCOPE_ITERATION_KEEP_ALIVE;
+import static datadog.trace.api.config.TracerConfig.SCOPE_RECYCLING_ENABLED;
 import static datadog.trace.api.config.TracerConfig.SCOPE_STRICT_MODE;
 import static datadog.trace.api.config.TracerConfig.SECURE_RANDOM;
 import static datadog.trace.api.config.TracerConfig.SERVICE_MAPPING;
@@ -271,9 +290,11 @@ import static datadog.trace.api.config.TracerConfig.TRACE_AGENT_PATH;
 import static datadog.trace.api.config.TracerConfig.TRACE_AGENT_PORT;
 import static datadog.trace.api.config.TracerConfig.TRACE_AGENT_URL;
 import static datadog.trace.api.config.TracerConfig.TRACE_ANALYTICS_ENABLED;
+import static datadog.trace.api.config.TracerConfig.TRACE_ASYNC_COMPLETION_ENABLED;
 import static datadog.trace.api.config.TracerConfig.TRACE_CLIENT_IP_HEADER;
 import static datadog.trace.api.config.TracerConfig.TRACE_CLIENT_IP_RESOLVER_ENABLED;
 import static datadog.trace.api.config.TracerConfig.TRACE_HTTP_SERVER_PATH_RESOURCE_NAME_MAPPING;
+import static datadog.trace.api.config.TracerConfig.TRACE_PENDING_BUFFER_SIZE;
 import static datadog.trace.api.config.TracerConfig.TRACE_RATE_LIMIT;
 import static datadog.trace.api.config.TracerConfig.TRACE_REPORT_HOSTNAME;
 import static datadog.trace.api.config.TracerConfig.TRACE_RESOLVER_ENABLED;
@@ -282,6 +303,9 @@ import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLING_OPERATION_RUL
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLING_RULES;
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLING_SERVICE_RULES;
 import static datadog.trace.api.config.TracerConfig.TRACE_STRICT_WRITES_ENABLED;
+import static datadog.trace.api.config.TracerConfig.TRACE_WRITER_DIRECT_BUFFERS_ENABLED;
+import static datadog.trace.api.config.TracerConfig.TRACE_WRITER_MAX_IN_FLIGHT_PAYLOADS;
+import static datadog.trace.api.config.TracerConfig.TRACE_WRITER_SERIALIZER_SHARDS;
 import static datadog.trace.api.config.TracerConfig.TRACE_X_DATADOG_TAGS_MAX_LENGTH;
 import static datadog.trace.api.config.TracerConfig.WRITER_TYPE;
 import static datadog.trace.util.CollectionUtils.tryMakeImmutableList;
@@ -415,8 +439,10 @@ public class Config {
   private final boolean scopeStrictMode;
   private final boolean scopeInheritAsyncPropagation;
   private final int scopeIterationKeepAlive;
+  private final boolean scopeRecyclingEnabled;
   private final int partialFlushMinSpans;
   private final boolean traceStrictWritesEnabled;
+  private final int pendingTraceBufferSize;
   private final boolean logExtractHeaderNames;
   private final Set<PropagationStyle> propagationStylesToExtract;
   private final Set<PropagationStyle> propagationStylesToInject;
@@ -445,6 +471,7 @@ public class Config {
 
   private final boolean tracerMetricsEnabled;
   private final boolean tracerMetricsBufferingEnabled;
+  private final boolean tracerMetricsPreAggregationEnabled;
   private final int tracerMetricsMaxAggregates;
   private final int tracerMetricsMaxPending;
 
@@ -472,6 +499,7 @@ public class Config {
   private final String profilingTemplateOverrideFile;
   private final int profilingUploadTimeout;
   private final String profilingUploadCompression;
+  private final int profilingUploadCompressionLevel;
   private final String profilingProxyHost;
   private final int profilingProxyPort;
   private final String profilingProxyUsername;
@@ -494,6 +522,8 @@ public class Config {
   private final int appSecReportMaxTimeout;
   private final int appSecTraceRateLimit;
   private final boolean appSecWafMetrics;
+  private final boolean appSecWafResultCacheEnabled;
+  private final boolean appSecAsyncEventSerializationEnabled;
   private final String appSecObfuscationParameterKeyRegexp;
   private final String appSecObfuscationParameterValueRegexp;
   private final String appSecHttpBlockedTemplateHtml;
@@ -528,6 +558,7 @@ public class Config {
   private final boolean debuggerVerifyByteCode;
   private final boolean debuggerInstrumentTheWorld;
   private final String debuggerExcludeFile;
+  private final int debuggerCaptureBufferSize;
 
   private final boolean awsPropagationEnabled;
   private final boolean sqsPropagationEnabled;
@@ -564,6 +595,10 @@ public class Config {
   private final int xDatadogTagsMaxLength;
 
   private final boolean traceAgentV05Enabled;
+  private final int writerMaxInFlightPayloads;
+  private final int writerSerializerShards;
+  private final boolean traceAsyncCompletionEnabled;
+  private final boolean writerDirectBuffersEnabled;
 
   private final boolean debugEnabled;
   private final String configFileStatus;
@@ -582,6 +617,7 @@ public class Config {
   private final int cwsTlsRefresh;
 
   private final boolean dataStreamsEnabled;
+  private final boolean dataStreamsShardedAggregationEnabled;
 
   private final Set<String> iastWeakHashAlgorithms;
 
@@ -589,6 +625,8 @@ public class Config {
 
   private final boolean iastDeduplicationEnabled;
 
+  private final boolean iastStripedTaintedMapEnabled;
+
   private final int telemetryHeartbeatInterval;
 
   private final boolean azureAppServices;
@@ -845,11 +883,15 @@ public class Config {
 
     scopeIterationKeepAlive =
         configProvider.getInteger(SCOPE_ITERATION_KEEP_ALIVE, DEFAULT_SCOPE_ITERATION_KEEP_ALIVE);
+    scopeRecyclingEnabled =
+        configProvider.getBoolean(SCOPE_RECYCLING_ENABLED, DEFAULT_SCOPE_RECYCLING_ENABLED);
 
     partialFlushMinSpans =
         configProvider.getInteger(PARTIAL_FLUSH_MIN_SPANS, DEFAULT_PARTIAL_FLUSH_MIN_SPANS);
 
     traceStrictWritesEnabled = configProvider.getBoolean(TRACE_STRICT_WRITES_ENABLED, false);
+    pendingTraceBufferSize =
+        configProvider.getInteger(TRACE_PENDING_BUFFER_SIZE, DEFAULT_TRACE_PENDING_BUFFER_SIZE);
 
     logExtractHeaderNames =
         configProvider.getBoolean(
@@ -915,6 +957,8 @@ public class Config {
     tracerMetricsEnabled = configProvider.getBoolean(TRACER_METRICS_ENABLED, false);
     tracerMetricsBufferingEnabled =
         configProvider.getBoolean(TRACER_METRICS_BUFFERING_ENABLED, false);
+    tracerMetricsPreAggregationEnabled =
+        configProvider.getBoolean(TRACER_METRICS_PRE_AGGREGATION_ENABLED, false);
     tracerMetricsMaxAggregates = configProvider.getInteger(TRACER_METRICS_MAX_AGGREGATES, 2048);
     tracerMetricsMaxPending = configProvider.getInteger(TRACER_METRICS_MAX_PENDING, 2048);
 
@@ -924,6 +968,21 @@ public class Config {
     traceAgentV05Enabled =
         configProvider.getBoolean(ENABLE_TRACE_AGENT_V05, DEFAULT_TRACE_AGENT_V05_ENABLED);
 
+    writerMaxInFlightPayloads =
+        configProvider.getInteger(
+            TRACE_WRITER_MAX_IN_FLIGHT_PAYLOADS, DEFAULT_TRACE_WRITER_MAX_IN_FLIGHT_PAYLOADS);
+
+    writerSerializerShards =
+        configProvider.getInteger(
+            TRACE_WRITER_SERIALIZER_SHARDS, DEFAULT_TRACE_WRITER_SERIALIZER_SHARDS);
+
+    traceAsyncCompletionEnabled =
+        configProvider.getBoolean(
+            TRACE_ASYNC_COMPLETION_ENABLED, DEFAULT_TRACE_ASYNC_COMPLETION_ENABLED);
+    writerDirectBuffersEnabled =
+        configProvider.getBoolean(
+            TRACE_WRITER_DIRECT_BUFFERS_ENABLED, DEFAULT_TRACE_WRITER_DIRECT_BUFFERS_ENABLED);
+
     traceAnalyticsEnabled =
         configProvider.getBoolean(TRACE_ANALYTICS_ENABLED, DEFAULT_TRACE_ANALYTICS_ENABLED);
 
@@ -998,6 +1057,9 @@ public class Config {
     profilingUploadCompression =
         configProvider.getString(
             PROFILING_UPLOAD_COMPRESSION, PROFILING_UPLOAD_COMPRESSION_DEFAULT);
+    profilingUploadCompressionLevel =
+        configProvider.getInteger(
+            PROFILING_UPLOAD_COMPRESSION_LEVEL, PROFILING_UPLOAD_COMPRESSION_LEVEL_DEFAULT);
     profilingProxyHost = configProvider.getString(PROFILING_PROXY_HOST);
     profilingProxyPort =
         configProvider.getInteger(PROFILING_PROXY_PORT, PROFILING_PROXY_PORT_DEFAULT);
@@ -1055,6 +1117,13 @@ public class Config {
         configProvider.getInteger(APPSEC_TRACE_RATE_LIMIT, DEFAULT_APPSEC_TRACE_RATE_LIMIT);
 
     appSecWafMetrics = configProvider.getBoolean(APPSEC_WAF_METRICS, DEFAULT_APPSEC_WAF_METRICS);
+    appSecWafResultCacheEnabled =
+        configProvider.getBoolean(
+            APPSEC_WAF_RESULT_CACHE_ENABLED, DEFAULT_APPSEC_WAF_RESULT_CACHE_ENABLED);
+    appSecAsyncEventSerializationEnabled =
+        configProvider.getBoolean(
+            APPSEC_ASYNC_EVENT_SERIALIZATION_ENABLED,
+            DEFAULT_APPSEC_ASYNC_EVENT_SERIALIZATION_ENABLED);
 
     appSecObfuscationParameterKeyRegexp =
         configProvider.getString(APPSEC_OBFUSCATION_PARAMETER_KEY_REGEXP, null);
@@ -1087,6 +1156,9 @@ public class Config {
             configProvider.getString(IAST_WEAK_CIPHER_ALGORITHMS));
     iastDeduplicationEnabled =
         configProvider.getBoolean(IAST_DEDUPLICATION_ENABLED, DEFAULT_IAST_DEDUPLICATION_ENABLED);
+    iastStripedTaintedMapEnabled =
+        configProvider.getBoolean(
+            IAST_STRIPED_TAINTED_MAP_ENABLED, DEFAULT_IAST_STRIPED_TAINTED_MAP_ENABLED);
 
     ciVisibilityAgentlessEnabled =
         configProvider.getBoolean(
@@ -1157,6 +1229,9 @@ public class Config {
         configProvider.getBoolean(
             DEBUGGER_INSTRUMENT_THE_WORLD, DEFAULT_DEBUGGER_INSTRUMENT_THE_WORLD);
     debuggerExcludeFile = configProvider.getString(DEBUGGER_EXCLUDE_FILE);
+    debuggerCaptureBufferSize =
+        configProvider.getInteger(
+            DEBUGGER_CAPTURE_BUFFER_SIZE, DEFAULT_DEBUGGER_CAPTURE_BUFFER_SIZE);
 
     awsPropagationEnabled = isPropagationEnabled(true, "aws");
     sqsPropagationEnabled = awsPropagationEnabled && isPropagationEnabled(true, "sqs");
@@ -1221,6 +1296,8 @@ public class Config {
 
     dataStreamsEnabled =
         configProvider.getBoolean(DATA_STREAMS_ENABLED, DEFAULT_DATA_STREAMS_ENABLED);
+    dataStreamsShardedAggregationEnabled =
+        configProvider.getBoolean(DATA_STREAMS_SHARDED_AGGREGATION_ENABLED, false);
 
     azureAppServices = configProvider.getBoolean(AZURE_APP_SERVICES, false);
     traceAgentPath = configProvider.getString(TRACE_AGENT_PATH);
@@ -1378,6 +1455,10 @@ public class Config {
     return iastDeduplicationEnabled;
   }
 
+  public boolean isIastStripedTaintedMapEnabled() {
+    return iastStripedTaintedMapEnabled;
+  }
+
   public Map<String, String> getServiceMapping() {
     return serviceMapping;
   }
@@ -1458,6 +1539,10 @@ public class Config {
     return scopeIterationKeepAlive;
   }
 
+  public boolean isScopeRecyclingEnabled() {
+    return scopeRecyclingEnabled;
+  }
+
   public int getPartialFlushMinSpans() {
     return partialFlushMinSpans;
   }
@@ -1466,6 +1551,10 @@ public class Config {
     return traceStrictWritesEnabled;
   }
 
+  public int getPendingTraceBufferSize() {
+    return pendingTraceBufferSize;
+  }
+
   public boolean isLogExtractHeaderNames() {
     return logExtractHeaderNames;
   }
@@ -1558,6 +1647,10 @@ public class Config {
     return tracerMetricsBufferingEnabled;
   }
 
+  public boolean isTracerMetricsPreAggregationEnabled() {
+    return tracerMetricsPreAggregationEnabled;
+  }
+
   public int getTracerMetricsMaxAggregates() {
     return tracerMetricsMaxAggregates;
   }
@@ -1648,6 +1741,10 @@ public class Config {
     return profilingUploadCompression;
   }
 
+  public int getProfilingUploadCompressionLevel() {
+    return profilingUploadCompressionLevel;
+  }
+
   public String getProfilingProxyHost() {
     return profilingProxyHost;
   }
@@ -1762,6 +1859,14 @@ public class Config {
     return appSecWafMetrics;
   }
 
+  public boolean isAppSecWafResultCacheEnabled() {
+    return appSecWafResultCacheEnabled;
+  }
+
+  public boolean isAppSecAsyncEventSerializationEnabled() {
+    return appSecAsyncEventSerializationEnabled;
+  }
+
   public String getAppSecObfuscationParameterKeyRegexp() {
     return appSecObfuscationParameterKeyRegexp;
   }
@@ -1890,6 +1995,10 @@ public class Config {
     return debuggerExcludeFile;
   }
 
+  public int getDebuggerCaptureBufferSize() {
+    return debuggerCaptureBufferSize;
+  }
+
   public String getFinalDebuggerProbeUrl() {
     // by default poll from datadog agent
     return "http://" + agentHost + ":" + agentPort;
@@ -1988,6 +2097,22 @@ public class Config {
     return traceAgentV05Enabled;
   }
 
+  public int getWriterMaxInFlightPayloads() {
+    return writerMaxInFlightPayloads;
+  }
+
+  public int getWriterSerializerShards() {
+    return writerSerializerShards;
+  }
+
+  public boolean isTraceAsyncCompletionEnabled() {
+    return traceAsyncCompletionEnabled;
+  }
+
+  public boolean isWriterDirectBuffersEnabled() {
+    return writerDirectBuffersEnabled;
+  }
+
   public boolean isDebugEnabled() {
     return debugEnabled;
   }
@@ -2008,6 +2133,10 @@ public class Config {
     return dataStreamsEnabled;
   }
 
+  public boolean isDataStreamsShardedAggregationEnabled() {
+    return dataStreamsShardedAggregationEnabled;
+  }
+
   public String getTraceAgentPath() {
     return traceAgentPath;
   }
@@ -2763,10 +2892,14 @@ public class Config {
         + scopeInheritAsyncPropagation
         + ", scopeIterationKeepAlive="
         + scopeIterationKeepAlive
+        + ", scopeRecyclingEnabled="
+        + scopeRecyclingEnabled
         + ", partialFlushMinSpans="
         + partialFlushMinSpans
         + ", traceStrictWritesEnabled="
         + traceStrictWritesEnabled
+        + ", pendingTraceBufferSize="
+        + pendingTraceBufferSize
         + ", propagationStylesToExtract="
         + propagationStylesToExtract
         + ", propagationStylesToInject="
@@ -2812,6 +2945,8 @@ public class Config {
         + tracerMetricsEnabled
         + ", tracerMetricsBufferingEnabled="
         + tracerMetricsBufferingEnabled
+        + ", tracerMetricsPreAggregationEnabled="
+        + tracerMetricsPreAggregationEnabled
         + ", tracerMetricsMaxAggregates="
         + tracerMetricsMaxAggregates
         + ", tracerMetricsMaxPending="
@@ -2855,6 +2990,8 @@ public class Config {
         + ", profilingUploadCompression='"
         + profilingUploadCompression
         + '\''
+        + ", profilingUploadCompressionLevel="
+        + profilingUploadCompressionLevel
         + ", profilingProxyHost='"
         + profilingProxyHost
         + '\''
@@ -2913,6 +3050,8 @@ public class Config {
         + debuggerInstrumentTheWorld
         + ", debuggerExcludeFile="
         + debuggerExcludeFile
+        + ", debuggerCaptureBufferSize="
+        + debuggerCaptureBufferSize
         + ", awsPropagationEnabled="
         + awsPropagationEnabled
         + ", sqsPropagationEnabled="
@@ -2951,6 +3090,14 @@ public class Config {
         + xDatadogTagsMaxLength
         + ", traceAgentV05Enabled="
         + traceAgentV05Enabled
+        + ", writerMaxInFlightPayloads="
+        + writerMaxInFlightPayloads
+        + ", writerSerializerShards="
+        + writerSerializerShards
+        + ", traceAsyncCompletionEnabled="
+        + traceAsyncCompletionEnabled
+        + ", writerDirectBuffersEnabled="
+        + writerDirectBuffersEnabled
         + ", debugEnabled="
         + debugEnabled
         + ", configFile='"
@@ -1,5 +1,7 @@
 package datadog.trace.api.cache;
 
+import java.util.function.ToIntFunction;
+
 public final class DDCaches {
 
   private DDCaches() {}
@@ -39,6 +41,38 @@ public final class DDCaches {
     return new FixedSizeCache.ArrayHash<>(capacity);
   }
 
+  /**
+   * Creates a bounded cache which keeps the most frequently used keys when there are more keys than
+   * it can hold, instead of the most recently used ones. Prefer it to {@link
+   * #newFixedSizeCache(int)} when a few keys are used most of the time among many keys used rarely,
+   * which would evict the frequently used keys from a fixed-size cache.
+   *
+   * @param capacity the maximum number of entries
+   * @param <K> the key type
+   * @param <V> the value type
+   * @return the value associated with the key
+   */
+  public static <K, V> DDCache<K, V> newTinyLFUCache(final int capacity) {
+    return new TinyLFUCache<>(capacity, key -> 1, capacity);
+  }
+
+  /**
+   * Creates a bounded cache, like {@link #newTinyLFUCache(int)}, whose capacity is a total weight
+   * rather than a number of entries. Useful when the cost of keeping an entry depends on its key,
+   * for instance to cache entries keyed by SQL queries within a number of characters.
+   *
+   * @param capacity the maximum total weight of the entries
+   * @param weigher the weight of the entry of a key, entries weighing more than 99% of the capacity
+   *     are not cached
+   * @param <K> the key type
+   * @param <V> the value type
+   * @return the value associated with the key
+   */
+  public static <K, V> DDCache<K, V> newWeightedTinyLFUCache(
+      final long capacity, final ToIntFunction<K> weigher) {
+    return new TinyLFUCache<>(capacity, weigher);
+  }
+
   /**
    * Creates a memoization of an association. Useful for creating an association between an
    * implicitly bounded set of keys and values, where the nature of the keys prevents unbounded
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 Ben Manes. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package datadog.trace.api.cache;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often keys were used. The counters are halved
+ * once the number of increments reaches ten times the number of counters per row, so the estimates
+ * favor recent use.
+ *
+ * <p>The sketch can start small and grow with the number of entries, for caches whose capacity is a
+ * weight and whose number of entries is only known as they are added. Growing the sketch forgets
+ * the estimates, so it is done a few times at most.
+ *
+ * <p>The layout of the counters, the seeds and the reset follow the FrequencySketch class of the
+ * Caffeine library.
+ * https://github.com/ben-manes/caffeine/blob/master/caffeine/src/main/java/com/github/benmanes/caffeine/cache/FrequencySketch.java
+ */
+final class FrequencySketch {
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+
+  private static final int MIN_LENGTH = 8;
+  private static final int MAX_LENGTH = 1 << 24;
+
+  // replaced when the sketch grows, read once per operation so its length and contents match
+  private long[] table;
+  private int sampleSize;
+  private int increments;
+
+  FrequencySketch(int expectedEntries) {
+    this.table = new long[lengthFor(expectedEntries)];
+    this.sampleSize = 10 * table.length;
+  }
+
+  /**
+   * Grows the sketch, if it is too small for the number of entries. Must not be called concurrently
+   * with itself.
+   */
+  void ensureCapacity(int entries) {
+    int length = lengthFor(entries);
+    if (length > table.length) {
+      sampleSize = 10 * length;
+      increments = 0;
+      table = new long[length];
+    }
+  }
+
+  /** Testing only. */
+  int length() {
+    return table.length;
+  }
+
+  /** @return the estimated number of uses of the hash, up to 15 */
+  int frequency(int hash) {
+    long[] table = this.table;
+    int frequency = Integer.MAX_VALUE;
+    int start = (hash & 3) << 2;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i, table.length - 1);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  void increment(int hash) {
+    long[] table = this.table;
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(table, indexOf(hash, i, table.length - 1), start + i);
+    }
+    if (added && ++increments >= sampleSize) {
+      reset(table);
+    }
+  }
+
+  private static boolean incrementAt(long[] table, int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    long word = table[index];
+    if ((word & mask) != mask) {
+      table[index] = word + (1L << offset);
+      return true;
+    }
+    return false;
+  }
+
+  /** Halves all the counters. */
+  private void reset(long[] table) {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    increments = increments >>> 1;
+  }
+
+  private static int indexOf(int hash, int i, int tableMask) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+
+  private static int lengthFor(int entries) {
+    int length = Integer.highestOneBit(Math.max(1, entries) - 1) << 1;
+    return Math.max(MIN_LENGTH, Math.min(length, MAX_LENGTH));
+  }
+}
@@ -0,0 +1,237 @@
+package datadog.trace.api.cache;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded cache which keeps the most frequently used keys, even when many other keys are seen
+ * once or rarely, like a fixed-size cache does when it thrashes on high-cardinality keys.
+ *
+ * <p>The eviction policy is W-TinyLFU: new entries enter a small FIFO <i>window</i>. When the
+ * window is full, its oldest entry is only admitted to the <i>main</i> region if a frequency sketch
+ * estimates it was used more often than the entry the main region would evict to make room for it.
+ * The main region evicts using the CLOCK algorithm: entries read since they were last considered
+ * get a second chance.
+ *
+ * <p>The capacity is a total weight, and each entry weighs what the weigher returns for its key, so
+ * long keys, like SQL queries, take more of the capacity than short ones. Entries which weigh more
+ * than the window skip it and are considered for admission to the main region right away, only
+ * entries which weigh more than the main region are never cached.
+ *
+ * <p>Reads don't lock: they look the key up in a {@link ConcurrentHashMap}, and record the read in
+ * the frequency sketch and in the entry without synchronization, so concurrent reads may lose some
+ * of these updates, which only makes the estimates a little less accurate. Inserts and evictions
+ * are serialized by a lock, which is only taken after the value was created.
+ *
+ * <p>Like the other caches, it assumes the function creating the values is idempotent.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class TinyLFUCache<K, V> implements DDCache<K, V> {
+
+  /** Percentage of the capacity given to the window. */
+  static final int WINDOW_PERCENT = 1;
+
+  /** Maximum number of entries of the main region which get a second chance per eviction. */
+  private static final int MAX_SECOND_CHANCES = 8;
+
+  /** Number of entries the map and the sketch of a weighted cache are first sized for. */
+  private static final int INITIAL_WEIGHTED_ENTRIES = 16;
+
+  private final ConcurrentHashMap<K, Node<K, V>> data;
+  private final ToIntFunction<K> weigher;
+  private final FrequencySketch sketch;
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  // guarded by evictionLock
+  private final ArrayDeque<Node<K, V>> window = new ArrayDeque<>();
+  private final ArrayDeque<Node<K, V>> main = new ArrayDeque<>();
+  private final long maxWindowWeight;
+  private final long maxMainWeight;
+  private long windowWeight;
+  private long mainWeight;
+
+  /**
+   * Creates a cache whose capacity is a total weight: the number of entries it will hold isn't
+   * known, so the map and the frequency sketch start small and grow with the entries.
+   *
+   * @param capacity the maximum total weight of the entries
+   * @param weigher the weight of the entry of a key, at least 1
+   */
+  TinyLFUCache(long capacity, ToIntFunction<K> weigher) {
+    this(capacity, weigher, INITIAL_WEIGHTED_ENTRIES);
+  }
+
+  /**
+   * @param capacity the maximum total weight of the entries
+   * @param weigher the weight of the entry of a key, at least 1
+   * @param expectedEntries the number of entries the map and the frequency sketch are sized for
+   */
+  TinyLFUCache(long capacity, ToIntFunction<K> weigher, int expectedEntries) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Cache capacity must be > 0");
+    }
+    this.weigher = weigher;
+    this.maxWindowWeight = Math.max(1, capacity * WINDOW_PERCENT / 100);
+    this.maxMainWeight = capacity - maxWindowWeight;
+    int entries =
+        (int) Math.min(Math.min(capacity, expectedEntries), FixedSizeCache.MAXIMUM_CAPACITY);
+    this.data = new ConcurrentHashMap<>(Math.min(entries, 1 << 16));
+    this.sketch = new FrequencySketch(entries);
+  }
+
+  @Override
+  public V computeIfAbsent(K key, Function<K, ? extends V> creator) {
+    if (key == null) {
+      return null;
+    }
+    int hash = spread(key.hashCode());
+    sketch.increment(hash);
+    Node<K, V> node = data.get(key);
+    if (node != null) {
+      node.accessed = true;
+      return node.value;
+    }
+    V value = creator.apply(key);
+    if (value == null) {
+      return null;
+    }
+    int weight = Math.max(1, weigher.applyAsInt(key));
+    evictionLock.lock();
+    try {
+      node = new Node<>(key, value, hash, weight);
+      Node<K, V> existing = data.putIfAbsent(key, node);
+      if (existing != null) {
+        // another thread inserted the key since it was looked up
+        return existing.value;
+      }
+      if (weight > maxWindowWeight) {
+        promote(node);
+      } else {
+        window.addLast(node);
+        windowWeight += weight;
+        evictFromWindow();
+      }
+      sketch.ensureCapacity(data.size());
+    } finally {
+      evictionLock.unlock();
+    }
+    return value;
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      data.clear();
+      window.clear();
+      main.clear();
+      windowWeight = 0;
+      mainWeight = 0;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Testing only. */
+  int size() {
+    return data.size();
+  }
+
+  /** Testing only. */
+  int sketchLength() {
+    return sketch.length();
+  }
+
+  /** Testing only. */
+  long weightedSize() {
+    evictionLock.lock();
+    try {
+      return windowWeight + mainWeight;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Moves the oldest entries of the window to the main region, or evicts them. */
+  private void evictFromWindow() {
+    while (windowWeight > maxWindowWeight) {
+      Node<K, V> candidate = window.pollFirst();
+      windowWeight -= candidate.weight;
+      promote(candidate);
+    }
+  }
+
+  /** Moves the candidate to the main region if it is admitted, or evicts it. */
+  private void promote(Node<K, V> candidate) {
+    if (admit(candidate)) {
+      main.addLast(candidate);
+      mainWeight += candidate.weight;
+    } else {
+      data.remove(candidate.key, candidate);
+    }
+  }
+
+  /**
+   * Evicts entries of the main region to make room for the candidate, as long as the candidate is
+   * estimated to be used more often than them.
+   *
+   * @return whether the candidate is admitted
+   */
+  private boolean admit(Node<K, V> candidate) {
+    int candidateFrequency = -1;
+    int secondChances = 0;
+    while (mainWeight + candidate.weight > maxMainWeight) {
+      Node<K, V> victim = main.peekFirst();
+      if (victim == null) {
+        // the candidate weighs more than the main region
+        return false;
+      }
+      if (victim.accessed && secondChances < MAX_SECOND_CHANCES) {
+        victim.accessed = false;
+        main.addLast(main.pollFirst());
+        secondChances++;
+        continue;
+      }
+      if (candidateFrequency < 0) {
+        candidateFrequency = sketch.frequency(candidate.hash);
+      }
+      if (candidateFrequency <= sketch.frequency(victim.hash)) {
+        return false;
+      }
+      main.pollFirst();
+      mainWeight -= victim.weight;
+      data.remove(victim.key, victim);
+    }
+    return true;
+  }
+
+  static int spread(int h) {
+    h ^= h >>> 17;
+    h *= 0xed5ad4bb;
+    h ^= h >>> 11;
+    h *= 0xac4c1b51;
+    h ^= h >>> 15;
+    return h;
+  }
+
+  private static final class Node<K, V> {
+    final K key;
+    final V value;
+    final int hash;
+    final int weight;
+    // set by reads, cleared when the entry gets a second chance
+    boolean accessed;
+
+    Node(K key, V value, int hash, int weight) {
+      this.key = key;
+      this.value = value;
+      this.hash = hash;
+      this.weight = weight;
+    }
+  }
+}
@@ -16,6 +16,8 @@ public final class AgentThreadFactory implements ThreadFactory {
     TRACE_STARTUP("dd-agent-startup-datadog-tracer"),
     TRACE_MONITOR("dd-trace-monitor"),
     TRACE_PROCESSOR("dd-trace-processor"),
+    TRACE_COMPLETION("dd-trace-completion"),
+    TRACE_PAYLOAD_SENDER("dd-trace-payload-sender"),
     SPAN_SAMPLING_PROCESSOR("dd-span-sampling-processor"),
     TRACE_CASSANDRA_ASYNC_SESSION("dd-cassandra-session-executor"),
 
@@ -30,6 +32,7 @@ public final class AgentThreadFactory implements ThreadFactory {
     PROFILER_HTTP_DISPATCHER("dd-profiler-http-dispatcher"),
 
     APPSEC_HTTP_DISPATCHER("dd-appsec-http-dispatcher"),
+    APPSEC_EVENT_SERIALIZER("dd-appsec-event-serializer"),
 
     TELEMETRY("dd-telemetry"),
 
@@ -67,6 +67,7 @@ import static datadog.trace.api.config.ProfilingConfig.PROFILING_START_FORCE_FIR
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_TAGS
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_TEMPLATE_OVERRIDE_FILE
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION_LEVEL
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_PERIOD
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_TIMEOUT
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_URL
@@ -197,6 +198,7 @@ class ConfigTest extends DDSpecification {
     prop.setProperty(PROFILING_TEMPLATE_OVERRIDE_FILE, "/path")
     prop.setProperty(PROFILING_UPLOAD_TIMEOUT, "1116")
     prop.setProperty(PROFILING_UPLOAD_COMPRESSION, "off")
+    prop.setProperty(PROFILING_UPLOAD_COMPRESSION_LEVEL, "7")
     prop.setProperty(PROFILING_PROXY_HOST, "proxy-host")
     prop.setProperty(PROFILING_PROXY_PORT, "1118")
     prop.setProperty(PROFILING_PROXY_USERNAME, "proxy-username")
@@ -279,6 +281,7 @@ class ConfigTest extends DDSpecification {
     config.profilingStartForceFirst == true
     config.profilingUploadPeriod == 1112
     config.profilingUploadCompression == "off"
+    config.profilingUploadCompressionLevel == 7
     config.profilingTemplateOverrideFile == "/path"
     config.profilingUploadTimeout == 1116
     config.profilingProxyHost == "proxy-host"
@@ -0,0 +1,191 @@
+package datadog.trace.api.cache
+
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.ToIntFunction
+
+class TinyLFUCacheTest extends DDSpecification {
+  def "invalid capacities are rejected"() {
+    when:
+    DDCaches.newTinyLFUCache(capacity)
+
+    then:
+    thrown(IllegalArgumentException)
+
+    where:
+    capacity << [Integer.MIN_VALUE, -1, 0]
+  }
+
+  def "cache can be explicitly cleared"() {
+    setup:
+    def cache = DDCaches.newTinyLFUCache(15)
+
+    when:
+    cache.computeIfAbsent("test-key", { "first-value" })
+
+    then:
+    cache.computeIfAbsent("test-key", { "second-value" }) == "first-value"
+
+    when:
+    cache.clear()
+
+    then:
+    cache.computeIfAbsent("test-key", { "second-value" }) == "second-value"
+    ((TinyLFUCache) cache).size() == 1
+  }
+
+  def "should store and retrieve values"() {
+    setup:
+    def cache = DDCaches.newTinyLFUCache(15)
+    def creationCount = new AtomicInteger(0)
+    def creator = { key -> creationCount.incrementAndGet(); key + "_value" }
+    cache.computeIfAbsent("one", creator)
+    cache.computeIfAbsent("six", creator)
+
+    expect:
+    cache.computeIfAbsent(key, creator) == value
+    creationCount.get() == count
+
+    where:
+    key    | value        | count
+    "one"  | "one_value"  | 2
+    "six"  | "six_value"  | 2
+    "four" | "four_value" | 3
+    null   | null         | 2
+  }
+
+  def "null values are not cached"() {
+    setup:
+    def cache = DDCaches.newTinyLFUCache(15)
+
+    when:
+    def value = cache.computeIfAbsent("key", { null })
+
+    then:
+    value == null
+    ((TinyLFUCache) cache).size() == 0
+    cache.computeIfAbsent("key", { "value" }) == "value"
+  }
+
+  def "should not grow beyond its capacity"() {
+    setup:
+    def cache = new TinyLFUCache<Integer, String>(capacity, { 1 } as ToIntFunction)
+
+    when:
+    for (int i = 0; i < 10 * capacity; i++) {
+      cache.computeIfAbsent(i, { String.valueOf(it) })
+    }
+
+    then:
+    cache.size() <= capacity
+    cache.weightedSize() <= capacity
+
+    where:
+    capacity << [1, 2, 15, 100, 1000]
+  }
+
+  def "frequently used keys survive a scan of keys used once"() {
+    setup:
+    def cache = DDCaches.newTinyLFUCache(100)
+    def creationCount = new AtomicInteger(0)
+    def creator = { key -> creationCount.incrementAndGet(); key }
+    for (int i = 0; i < 4; i++) {
+      for (int key = 0; key < 50; key++) {
+        cache.computeIfAbsent(key, creator)
+      }
+    }
+
+    when:
+    for (int key = 1000; key < 2000; key++) {
+      cache.computeIfAbsent(key, creator)
+    }
+    creationCount.set(0)
+    for (int key = 0; key < 50; key++) {
+      cache.computeIfAbsent(key, creator)
+    }
+
+    then:
+    creationCount.get() <= 1
+  }
+
+  def "weighted cache should not hold more than its capacity"() {
+    setup:
+    def cache = new TinyLFUCache<String, String>(10_000, { it.length() } as ToIntFunction)
+
+    when:
+    for (int i = 0; i < 1000; i++) {
+      cache.computeIfAbsent("SELECT * FROM table_" + i + " WHERE id = ?" + ("?" * (i % 50)), { it })
+    }
+
+    then:
+    cache.weightedSize() <= 10_000
+    cache.size() < 1000
+  }
+
+  def "entries heavier than the window are cached"() {
+    setup:
+    def cache = DDCaches.newWeightedTinyLFUCache(1000, { it.length() } as ToIntFunction)
+    def creationCount = new AtomicInteger(0)
+    def creator = { key -> creationCount.incrementAndGet(); key }
+    def light = "x" * 10
+    def heavy = "x" * 500
+
+    when:
+    cache.computeIfAbsent(light, creator)
+    cache.computeIfAbsent(light, creator)
+    cache.computeIfAbsent(heavy, creator)
+    cache.computeIfAbsent(heavy, creator)
+
+    then:
+    creationCount.get() == 2
+    ((TinyLFUCache) cache).size() == 2
+    ((TinyLFUCache) cache).weightedSize() == 510
+  }
+
+  def "entries heavier than the main region are not cached"() {
+    setup:
+    def cache = DDCaches.newWeightedTinyLFUCache(1000, { it.length() } as ToIntFunction)
+    def creationCount = new AtomicInteger(0)
+    def creator = { key -> creationCount.incrementAndGet(); key }
+    def heavy = "x" * 991
+
+    when:
+    cache.computeIfAbsent(heavy, creator)
+    cache.computeIfAbsent(heavy, creator)
+
+    then:
+    creationCount.get() == 2
+    ((TinyLFUCache) cache).size() == 0
+  }
+
+  def "sketch of a weighted cache is sized for its entries rather than its capacity"() {
+    setup:
+    def cache = DDCaches.newWeightedTinyLFUCache(512 * 1024, { it.length() } as ToIntFunction)
+
+    when:
+    for (int i = 0; i < 10; i++) {
+      cache.computeIfAbsent("SELECT * FROM table_" + i, { it })
+    }
+
+    then:
+    ((TinyLFUCache) cache).sketchLength() == 16
+
+    when:
+    for (int i = 0; i < 1000; i++) {
+      cache.computeIfAbsent("SELECT * FROM table_" + i + " WHERE id = ?" + ("?" * 100), { it })
+    }
+
+    then:
+    ((TinyLFUCache) cache).size() > 900
+    ((TinyLFUCache) cache).sketchLength() == 1024
+  }
+
+  def "sketch of an unweighted cache is sized for its capacity"() {
+    setup:
+    def cache = DDCaches.newTinyLFUCache(1000)
+
+    expect:
+    ((TinyLFUCache) cache).sketchLength() == 1024
+  }
+}